@@ -0,0 +1,77 @@
+package com.example.todolist.benchmark;
+
+import com.example.todolist.model.Todo;
+import com.example.todolist.service.TodoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Insert throughput of {@code TodoService.saveAll} (one transaction, JDBC batches of 50) compared with
+ * {@code batchSize} single {@code save} calls, as issued by importers hitting {@code POST /todos/create}.
+ * Scores are batches per second; multiply by {@code batchSize} for todos per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class BatchBenchmark {
+    @Param({"memory", "jpa"})
+    String repositoryType;
+    @Param({"100", "1000"})
+    int batchSize;
+
+    ConfigurableApplicationContext context;
+    TodoService todoService;
+
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(repositoryType);
+        todoService = context.getBean(TodoService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void saveAll(Blackhole blackhole) {
+        blackhole.consume(todoService.saveAll(newTodos()));
+    }
+
+    @Benchmark
+    public void saveOneByOne(Blackhole blackhole) {
+        for (Todo todo : newTodos()) {
+            blackhole.consume(todoService.save(todo));
+        }
+    }
+
+    private List<Todo> newTodos() {
+        List<Todo> todos = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            todos.add(BenchmarkApplication.newTodo(i));
+        }
+        return todos;
+    }
+}
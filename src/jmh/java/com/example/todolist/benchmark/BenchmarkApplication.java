@@ -0,0 +1,116 @@
+package com.example.todolist.benchmark;
+
+import com.example.todolist.TodolistApplication;
+import com.example.todolist.model.Todo;
+import com.example.todolist.repository.BaseRepository;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+
+/**
+ * Boots the application without a web server against an embedded H2 database (PostgreSQL mode),
+ * so benchmarks exercise the same beans as production for either repository type.
+ */
+final class BenchmarkApplication {
+    static final int TITLES = 1_000;
+    private static final int INSERT_BATCH = 10_000;
+    private static final int SEQUENCE_BLOCK = 50;
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String repositoryType) {
+        return start(repositoryType, WebApplicationType.NONE);
+    }
+
+    /**
+     * {@code extraArgs} are {@code --key=value} pairs; a key given there replaces the embedded-database default,
+     * e.g. to point the run at a local PostgreSQL.
+     */
+    static ConfigurableApplicationContext start(String repositoryType, WebApplicationType webApplicationType,
+                                                String... extraArgs) {
+        Map<String, String> args = new LinkedHashMap<>();
+        Stream.concat(Stream.of(
+                "--spring.datasource.url=jdbc:h2:mem:benchmark-" + System.nanoTime() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=warn",
+                "--todolist.journal.directory=" + journalDirectory(),
+                "--todolist.repository.type=" + repositoryType), Arrays.stream(extraArgs))
+            .forEach(arg -> args.put(arg.substring(0, arg.indexOf('=')), arg));
+
+        return new SpringApplicationBuilder(TodolistApplication.class)
+            .web(webApplicationType)
+            .run(args.values().toArray(String[]::new));
+    }
+
+    /**
+     * Fresh directory per run, so the {@code journal} repository never replays an earlier run.
+     */
+    private static String journalDirectory() {
+        try {
+            return Files.createTempDirectory("todolist-journal-").toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Loads {@code size} todos with ids 1..size. The JPA store is filled with plain JDBC batches, which is
+     * much faster than going through the persistence context for a million rows.
+     */
+    static void populate(ConfigurableApplicationContext context, String repositoryType, int size) {
+        if ("jpa".equals(repositoryType)) {
+            populateJdbc(context.getBean(JdbcTemplate.class), size);
+            return;
+        }
+
+        BaseRepository repository = context.getBean(BaseRepository.class);
+        for (int i = 1; i <= size; i++) {
+            repository.save(newTodo(i));
+        }
+    }
+
+    static Todo newTodo(int i) {
+        return new Todo(null, title(i), "Description " + i, i % 2 == 0, null);
+    }
+
+    static String title(int i) {
+        return "Title " + i % TITLES;
+    }
+
+    /**
+     * Rows get explicit ids, then the sequence is moved past them. Hibernate's pooled optimizer treats a
+     * sequence value as the upper end of a block of 50, hence the extra {@code SEQUENCE_BLOCK}.
+     */
+    private static void populateJdbc(JdbcTemplate jdbcTemplate, int size) {
+        String sql = "insert into todos (id, title, description, completed, created_at) values (?, ?, ?, ?, ?)";
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+        for (int i = 1; i <= size; i++) {
+            batch.add(new Object[]{i, title(i), "Description " + i, i % 2 == 0, now});
+            if (batch.size() == INSERT_BATCH || i == size) {
+                jdbcTemplate.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+        jdbcTemplate.execute("alter sequence todos_seq restart with " + (size + SEQUENCE_BLOCK));
+    }
+}
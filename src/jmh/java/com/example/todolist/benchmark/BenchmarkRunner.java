@@ -0,0 +1,58 @@
+package com.example.todolist.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+
+/**
+ * Runs every selected benchmark once per configured thread count and writes one JSON result file per run,
+ * so results can be diffed between releases.
+ *
+ * <p>System properties: {@code benchmark.include} (regex), {@code benchmark.threads} (comma separated),
+ * {@code benchmark.sizes} (optional override of the {@code size} parameter), {@code benchmark.profilers} (optional,
+ * comma separated JMH profiler names such as {@code gc}) and {@code benchmark.resultDir}.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        String include = System.getProperty("benchmark.include", ".*Benchmark.*");
+        String sizes = System.getProperty("benchmark.sizes", "");
+        String profilers = System.getProperty("benchmark.profilers", "");
+        Path resultDir = Path.of(System.getProperty("benchmark.resultDir", "target/jmh"));
+        Files.createDirectories(resultDir);
+
+        int[] threadCounts = Arrays.stream(System.getProperty("benchmark.threads", "1").split(","))
+            .map(String::trim)
+            .mapToInt(Integer::parseInt)
+            .toArray();
+
+        for (int threads : threadCounts) {
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(include)
+                .threads(threads)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultDir.resolve("results-" + threads + "-threads.json").toString());
+
+            if (!sizes.isBlank()) {
+                options.param("size", sizes.split(","));
+            }
+            Arrays.stream(profilers.split(","))
+                .map(String::trim)
+                .filter(profiler -> !profiler.isEmpty())
+                .forEach(options::addProfiler);
+
+            new Runner(options.build()).run();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.todolist.benchmark;
+
+import com.example.todolist.service.TodoService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManagerFactory;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+
+/**
+ * Closed-loop load on {@link TodoService} during a spike of identical reads, with request coalescing off, with
+ * single-flight lookups only, and with lookups by id also batched. Each concurrency level runs for
+ * {@code loadtest.durationSeconds}: 90% {@code getById} over {@value #HOT_IDS} hot ids and 10%
+ * {@code getByStatusCompleted(false)}. The JPA store counts the statements Hibernate prepares, so the report shows
+ * how many lookups each database query served next to throughput and latency.
+ *
+ * <p>System properties: {@code loadtest.concurrency} (comma separated), {@code loadtest.durationSeconds},
+ * {@code loadtest.size}, {@code loadtest.args} (space separated {@code --key=value}) and {@code loadtest.resultDir}.
+ */
+public final class CoalescingLoadTest {
+    private static final int HOT_IDS = 100;
+    private static final long MAX_TRACKED_NANOS = TimeUnit.SECONDS.toNanos(60);
+    private static final List<Mode> MODES = List.of(
+        new Mode("off", false, Duration.ZERO),
+        new Mode("single-flight", true, Duration.ZERO),
+        new Mode("batched", true, Duration.ofMillis(1)));
+
+
+    private CoalescingLoadTest() {
+    }
+
+    record Mode(String name, boolean enabled, Duration batchWindow) {
+    }
+
+    record StepResult(String mode, int concurrency, long lookups, long statements, double lookupsPerStatement,
+                      double throughputPerSecond, double p50Millis, double p99Millis) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int size = Integer.getInteger("loadtest.size", 10_000);
+        Duration stepDuration = Duration.ofSeconds(Integer.getInteger("loadtest.durationSeconds", 20));
+        int[] concurrencyLevels = Arrays.stream(System.getProperty("loadtest.concurrency", "50,100,200,400,800").split(","))
+            .map(String::trim)
+            .mapToInt(Integer::parseInt)
+            .toArray();
+        String[] extraArgs = Arrays.stream(System.getProperty("loadtest.args", "").split("\\s+"))
+            .filter(arg -> !arg.isBlank())
+            .toArray(String[]::new);
+
+        List<StepResult> steps = new ArrayList<>();
+        for (Mode mode : MODES) {
+            String[] springArgs = Stream.concat(
+                    Stream.of(
+                        "--spring.jpa.properties.hibernate.generate_statistics=true",
+                        "--todolist.coalescing.enabled=" + mode.enabled(),
+                        "--todolist.coalescing.batch-window=" + mode.batchWindow().toMillis() + "ms"),
+                    Arrays.stream(extraArgs))
+                .toArray(String[]::new);
+            try (ConfigurableApplicationContext context =
+                     BenchmarkApplication.start("jpa", WebApplicationType.NONE, springArgs)) {
+                BenchmarkApplication.populate(context, "jpa", size);
+                TodoService todoService = context.getBean(TodoService.class);
+                Statistics statistics = context.getBean(EntityManagerFactory.class)
+                    .unwrap(SessionFactory.class)
+                    .getStatistics();
+                for (int concurrency : concurrencyLevels) {
+                    StepResult step = runStep(mode, concurrency, todoService, statistics, stepDuration);
+                    System.out.println(step);
+                    steps.add(step);
+                }
+            }
+        }
+        writeReport(steps);
+    }
+
+    private static StepResult runStep(Mode mode, int concurrency, TodoService todoService, Statistics statistics,
+                                      Duration duration) throws InterruptedException {
+        Histogram latencies = new ConcurrentHistogram(MAX_TRACKED_NANOS, 3);
+        statistics.clear();
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            workers.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    if (random.nextInt(10) < 9) {
+                        todoService.getById(1L + random.nextInt(HOT_IDS));
+                    } else {
+                        todoService.getByStatusCompleted(false);
+                    }
+                    latencies.recordValue(Math.min(System.nanoTime() - start, MAX_TRACKED_NANOS));
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS);
+
+        long lookups = latencies.getTotalCount();
+        long statements = statistics.getPrepareStatementCount();
+        return new StepResult(
+            mode.name(),
+            concurrency,
+            lookups,
+            statements,
+            statements == 0 ? 0 : lookups / (double) statements,
+            lookups / (double) duration.toSeconds(),
+            latencies.getValueAtPercentile(50) / 1_000_000.0,
+            latencies.getValueAtPercentile(99) / 1_000_000.0);
+    }
+
+    private static void writeReport(List<StepResult> steps) throws IOException {
+        Path resultDir = Path.of(System.getProperty("loadtest.resultDir", "target/loadtest"));
+        Files.createDirectories(resultDir);
+        Path file = resultDir.resolve("coalescing.json");
+        new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT)
+            .writeValue(file.toFile(), steps);
+        System.out.println("Coalescing report -> " + file);
+    }
+}
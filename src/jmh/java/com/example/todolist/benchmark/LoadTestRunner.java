@@ -0,0 +1,215 @@
+package com.example.todolist.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+
+/**
+ * Closed-loop HTTP load test comparing Tomcat on platform threads with the {@code virtual-threads} profile.
+ * Boots the application on a random port (embedded H2 unless {@code loadtest.args} points it elsewhere, e.g. at a
+ * local PostgreSQL), seeds it, then runs one step per concurrency level: 80% {@code GET /todos/{id}} and 20%
+ * {@code GET /todos?limit=50}. Each step reports throughput and latency percentiles; the highest step whose p99
+ * stays under {@code loadtest.sloMillis} without errors is reported as the maximum sustainable concurrency.
+ *
+ * <p>System properties: {@code loadtest.mode} ({@code platform} or {@code virtual}), {@code loadtest.repository},
+ * {@code loadtest.concurrency} (comma separated), {@code loadtest.durationSeconds}, {@code loadtest.size},
+ * {@code loadtest.sloMillis}, {@code loadtest.args} (space separated {@code --key=value}),
+ * {@code loadtest.url} and {@code loadtest.resultDir}.
+ *
+ * <p>With {@code loadtest.url} set nothing is booted: the already running server at that URL (for instance the
+ * reactive variant, {@code mvn -Preactive spring-boot:run}) is seeded through {@code POST /todos/create} and
+ * measured with the same mix, so both stacks are compared by one harness; {@code loadtest.mode} then only names
+ * the report.
+ */
+public final class LoadTestRunner {
+    private static final long MAX_TRACKED_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+
+    private LoadTestRunner() {
+    }
+
+    record StepResult(int concurrency, long requests, long errors, double throughputPerSecond,
+                      double p50Millis, double p99Millis, double p999Millis, double maxMillis, int peakInFlight) {
+    }
+
+    record Report(String mode, String repository, int size, int maxConcurrencyWithinSlo, List<StepResult> steps) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String mode = System.getProperty("loadtest.mode", "platform");
+        String repository = System.getProperty("loadtest.repository", "jpa");
+        int size = Integer.getInteger("loadtest.size", 10_000);
+        Duration stepDuration = Duration.ofSeconds(Integer.getInteger("loadtest.durationSeconds", 20));
+        double sloMillis = Double.parseDouble(System.getProperty("loadtest.sloMillis", "250"));
+        int[] concurrencyLevels = Arrays.stream(System.getProperty("loadtest.concurrency", "50,100,200,400,800").split(","))
+            .map(String::trim)
+            .mapToInt(Integer::parseInt)
+            .toArray();
+
+        if ("virtual".equals(mode) && Runtime.version().feature() < 21) {
+            System.err.println("Virtual threads need Java 21+; this run on Java " + Runtime.version().feature()
+                + " falls back to platform threads.");
+        }
+
+        String url = System.getProperty("loadtest.url", "");
+        if (!url.isBlank()) {
+            long[] ids = seedOverHttp(url, size);
+            writeReport(runSteps(url, ids, concurrencyLevels, stepDuration, mode, repository, sloMillis));
+            return;
+        }
+
+        String[] springArgs = Stream.concat(
+                Stream.of("--server.port=0", "--todolist.pagination.max-limit=50"),
+                Stream.concat(
+                    "virtual".equals(mode) ? Stream.of("--spring.profiles.active=virtual-threads") : Stream.empty(),
+                    Arrays.stream(System.getProperty("loadtest.args", "").split("\\s+")).filter(arg -> !arg.isBlank())))
+            .toArray(String[]::new);
+
+        try (ConfigurableApplicationContext context =
+                 BenchmarkApplication.start(repository, WebApplicationType.SERVLET, springArgs)) {
+            BenchmarkApplication.populate(context, repository, size);
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            long[] ids = LongStream.rangeClosed(1, size).toArray();
+            writeReport(runSteps(baseUrl, ids, concurrencyLevels, stepDuration, mode, repository, sloMillis));
+        }
+    }
+
+    private static Report runSteps(String baseUrl, long[] ids, int[] concurrencyLevels, Duration stepDuration,
+                                   String mode, String repository, double sloMillis) throws InterruptedException {
+        List<StepResult> steps = new ArrayList<>();
+        for (int concurrency : concurrencyLevels) {
+            StepResult step = runStep(baseUrl, concurrency, ids, stepDuration);
+            System.out.println(step);
+            steps.add(step);
+        }
+
+        int maxConcurrency = steps.stream()
+            .filter(step -> step.errors() == 0 && step.p99Millis() <= sloMillis)
+            .mapToInt(StepResult::concurrency)
+            .max()
+            .orElse(0);
+        return new Report(mode, repository, ids.length, maxConcurrency, steps);
+    }
+
+    private static long[] seedOverHttp(String baseUrl, int size) throws IOException, InterruptedException {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        HttpClient client = HttpClient.newHttpClient();
+        long[] ids = new long[size];
+        for (int i = 0; i < size; i++) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/todos/create"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(
+                    objectMapper.writeValueAsBytes(BenchmarkApplication.newTodo(i))))
+                .build();
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Seeding " + baseUrl + " failed with HTTP " + response.statusCode());
+            }
+            ids[i] = objectMapper.readTree(response.body()).get("id").asLong();
+        }
+        return ids;
+    }
+
+    private static StepResult runStep(String baseUrl, int concurrency, long[] ids, Duration duration)
+        throws InterruptedException {
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(Math.max(4, concurrency / 8));
+        HttpClient client = HttpClient.newBuilder()
+            .executor(clientExecutor)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        Histogram latencies = new ConcurrentHistogram(MAX_TRACKED_NANOS, 3);
+        LongAdder errors = new LongAdder();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peakInFlight = new AtomicInteger();
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            workers.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + nextPath(ids)))
+                        .timeout(Duration.ofSeconds(30))
+                        .build();
+                    peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() >= 500) {
+                            errors.increment();
+                        }
+                    } catch (IOException e) {
+                        errors.increment();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    } finally {
+                        inFlight.decrementAndGet();
+                        latencies.recordValue(Math.min(System.nanoTime() - start, MAX_TRACKED_NANOS));
+                    }
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS);
+        clientExecutor.shutdownNow();
+
+        long requests = latencies.getTotalCount();
+        return new StepResult(
+            concurrency,
+            requests,
+            errors.sum(),
+            requests / (double) duration.toSeconds(),
+            millis(latencies.getValueAtPercentile(50)),
+            millis(latencies.getValueAtPercentile(99)),
+            millis(latencies.getValueAtPercentile(99.9)),
+            millis(latencies.getMaxValue()),
+            peakInFlight.get());
+    }
+
+    private static String nextPath(long[] ids) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long id = ids[random.nextInt(ids.length)];
+        if (random.nextInt(10) < 8) {
+            return "/todos/" + id;
+        }
+        return "/todos?limit=50&after=" + (id - 1);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static void writeReport(Report report) throws IOException {
+        Path resultDir = Path.of(System.getProperty("loadtest.resultDir", "target/loadtest"));
+        Files.createDirectories(resultDir);
+        Path file = resultDir.resolve("loadtest-" + report.mode() + ".json");
+        new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT)
+            .writeValue(file.toFile(), report);
+        System.out.println("Max concurrency within SLO: " + report.maxConcurrencyWithinSlo() + " -> " + file);
+    }
+}
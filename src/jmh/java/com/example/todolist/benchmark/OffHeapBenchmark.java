@@ -0,0 +1,70 @@
+package com.example.todolist.benchmark;
+
+import com.example.todolist.model.Todo;
+import com.example.todolist.repository.BaseRepository;
+import com.example.todolist.repository.OffHeapTodoRepository;
+import com.example.todolist.repository.TodoRepositoryInMemory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Throughput of reads and writes against the on-heap {@code memory} store and the {@code offheap} store holding
+ * the same todos. Run it with {@code -Dbenchmark.profilers=gc} to compare how much GC time each store causes: the
+ * {@code memory} store keeps every todo and its index entries in the old generation, the {@code offheap} store only
+ * a few primitive arrays.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-XX:MaxDirectMemorySize=8g"})
+public class OffHeapBenchmark {
+    @Param({"memory", "offheap"})
+    String store;
+    @Param({"1000000", "5000000"})
+    int size;
+
+    BaseRepository repository;
+
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repository = "offheap".equals(store)
+            ? new OffHeapTodoRepository(64 << 20, 8L << 30)
+            : new TodoRepositoryInMemory();
+        for (int i = 1; i <= size; i++) {
+            repository.save(BenchmarkApplication.newTodo(i));
+        }
+    }
+
+    @Benchmark
+    public Optional<Todo> getById() {
+        return repository.findById(randomId());
+    }
+
+    @Benchmark
+    public Optional<Todo> patch() {
+        Todo changes = new Todo(null, null, "Patched " + randomId(), ThreadLocalRandom.current().nextBoolean(), null);
+        return repository.patch(randomId(), changes);
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, size + 1L);
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.todolist.benchmark;
+
+import com.example.todolist.model.Todo;
+import com.example.todolist.service.TodoService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * The {@code GET /todos} and {@code GET /todos/status?completed=false} bodies on the JPA store, read and written to
+ * JSON the way they are now (detached projections, {@code TodoJsonSerializer}) and the way they were (managed
+ * entities, the reflective bean serializer). Run with {@code -Dbenchmark.profilers=gc} to compare allocation per
+ * operation next to latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class SerializationBenchmark {
+    private static final String ALL_ENTITIES = "select t from Todo t order by t.id";
+    private static final String OPEN_ENTITIES = "select t from Todo t where t.completed = false order by t.id";
+    private static final TypeReference<List<Todo>> TODO_LIST = new TypeReference<>() {
+    };
+
+    @Param({"1000", "100000"})
+    int size;
+
+    ConfigurableApplicationContext context;
+    TodoService todoService;
+    EntityManager entityManager;
+    TransactionTemplate readOnly;
+    ObjectWriter todoWriter;
+    ObjectWriter beanWriter;
+
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("jpa");
+        BenchmarkApplication.populate(context, "jpa", size);
+        todoService = context.getBean(TodoService.class);
+        entityManager = context.getBean(EntityManager.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        todoWriter = context.getBean(ObjectMapper.class).writerFor(TODO_LIST);
+        beanWriter = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build()
+            .writerFor(TODO_LIST);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long getAll() throws IOException {
+        return write(todoWriter, todoService.getAll());
+    }
+
+    @Benchmark
+    public long getAllEntities() throws IOException {
+        return write(beanWriter, entities(ALL_ENTITIES));
+    }
+
+    @Benchmark
+    public long status() throws IOException {
+        return write(todoWriter, todoService.getByStatusCompleted(false));
+    }
+
+    @Benchmark
+    public long statusEntities() throws IOException {
+        return write(beanWriter, entities(OPEN_ENTITIES));
+    }
+
+    private List<Todo> entities(String jpql) {
+        return readOnly.execute(status -> entityManager.createQuery(jpql, Todo.class).getResultList());
+    }
+
+    private static long write(ObjectWriter writer, List<Todo> todos) throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        writer.writeValue(out, todos);
+        return out.count;
+    }
+
+    /**
+     * Discards the body, so only encoding is measured; the byte count keeps the work from being eliminated.
+     */
+    private static final class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
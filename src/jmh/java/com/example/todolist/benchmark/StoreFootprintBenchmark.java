@@ -0,0 +1,72 @@
+package com.example.todolist.benchmark;
+
+import com.example.todolist.repository.BaseRepository;
+import com.example.todolist.repository.ColumnarTodoRepository;
+import com.example.todolist.repository.TodoRepositoryInMemory;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Heap retained per todo by the object-per-todo {@code memory} store and the {@code columnar} store, filled with
+ * the same todos as the service benchmarks (1,000 distinct titles, unique descriptions). The score is the time to
+ * fill the store; the {@code retainedBytesPerTodo} counter next to it is the result of interest, measured as used
+ * heap after a full GC before and after filling. Counters add up over iterations, hence a single measured one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx20g"})
+public class StoreFootprintBenchmark {
+    @Param({"memory", "columnar"})
+    String store;
+    @Param({"1000000", "10000000"})
+    int size;
+
+    BaseRepository repository;
+
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long retainedBytesPerTodo;
+    }
+
+    @Setup(Level.Iteration)
+    public void dropPreviousStore() {
+        repository = null;
+    }
+
+    @Benchmark
+    public BaseRepository fill(Footprint footprint) {
+        long before = usedHeapAfterGc();
+        repository = "columnar".equals(store) ? new ColumnarTodoRepository() : new TodoRepositoryInMemory();
+        for (int i = 1; i <= size; i++) {
+            repository.save(BenchmarkApplication.newTodo(i));
+        }
+        footprint.retainedBytesPerTodo = (usedHeapAfterGc() - before) / size;
+        return repository;
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.todolist.benchmark;
+
+import com.example.todolist.model.Todo;
+import com.example.todolist.service.TodoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Service hot paths against every repository type. Ids 1..size exist after setup;
+ * {@code delete} re-saves a todo on every call so the data size stays constant.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class TodoServiceBenchmark {
+    @Param({"memory", "columnar", "journal", "jpa"})
+    String repositoryType;
+    @Param({"1000", "100000", "1000000"})
+    int size;
+
+    ConfigurableApplicationContext context;
+    TodoService todoService;
+
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(repositoryType);
+        BenchmarkApplication.populate(context, repositoryType, size);
+        todoService = context.getBean(TodoService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Todo> getAll() {
+        return todoService.getAll();
+    }
+
+    @Benchmark
+    public Optional<Todo> getById() {
+        return todoService.getById(randomId());
+    }
+
+    @Benchmark
+    public List<Todo> getByTitle() {
+        return todoService.getByTitle(BenchmarkApplication.title(ThreadLocalRandom.current().nextInt(size)));
+    }
+
+    @Benchmark
+    public List<Todo> getByStatusCompleted() {
+        return todoService.getByStatusCompleted(ThreadLocalRandom.current().nextBoolean());
+    }
+
+    @Benchmark
+    public Todo update() {
+        Todo changes = new Todo(null, "Updated", null, ThreadLocalRandom.current().nextBoolean(), null);
+        return todoService.update(changes, randomId());
+    }
+
+    @Benchmark
+    public boolean delete() {
+        Todo todo = todoService.save(BenchmarkApplication.newTodo(ThreadLocalRandom.current().nextInt(size)));
+        return todoService.delete(todo.getId());
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, size + 1L);
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.todolist.benchmark;
+
+import com.example.todolist.model.ImportResult;
+import com.example.todolist.model.TransferFormat;
+import com.example.todolist.service.TodoTransfer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+
+/**
+ * Time to export {@code size} todos to a discarding stream, and to import as many rows from a file into an empty
+ * store, through {@link TodoTransfer} without HTTP in between. Divide {@code size} by the score for rows per second.
+ * Both directions hold one batch at a time, so the heap only has to fit the store itself: the object-per-todo
+ * {@code memory} store would not fit 10M todos and is left out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class TransferBenchmark {
+    @Param({"jpa", "columnar"})
+    String repositoryType;
+    @Param({"csv", "ndjson"})
+    String format;
+    @Param({"1000000", "10000000"})
+    int size;
+
+    TransferFormat transferFormat;
+    boolean importing;
+    Path input;
+    ConfigurableApplicationContext context;
+    TodoTransfer transfer;
+
+
+    /**
+     * Exports read from a store filled once per trial; imports get a file of {@code size} rows instead.
+     */
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkParams params) throws IOException {
+        transferFormat = TransferFormat.valueOf(format.toUpperCase());
+        importing = params.getBenchmark().endsWith("importRows");
+        if (importing) {
+            input = writeInput();
+            return;
+        }
+
+        context = BenchmarkApplication.start(repositoryType);
+        BenchmarkApplication.populate(context, repositoryType, size);
+        transfer = context.getBean(TodoTransfer.class);
+    }
+
+    /**
+     * Every import starts from an empty store.
+     */
+    @Setup(Level.Iteration)
+    public void startEmptyStore() {
+        if (importing) {
+            context = BenchmarkApplication.start(repositoryType);
+            transfer = context.getBean(TodoTransfer.class);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeStore() {
+        if (importing) {
+            context.close();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (importing) {
+            Files.delete(input);
+        } else {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public void exportRows() throws IOException {
+        transfer.export(transferFormat, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public ImportResult importRows() throws IOException {
+        try (InputStream in = Files.newInputStream(input)) {
+            return transfer.importFrom(transferFormat, in);
+        }
+    }
+
+    private Path writeInput() throws IOException {
+        Path file = Files.createTempFile("todolist-import-", "." + format);
+        try (Writer writer = Files.newBufferedWriter(file, UTF_8)) {
+            if (transferFormat == TransferFormat.CSV) {
+                writer.write("title,description,completed\n");
+            }
+            for (int i = 1; i <= size; i++) {
+                String title = BenchmarkApplication.title(i);
+                boolean completed = i % 2 == 0;
+                writer.write(transferFormat == TransferFormat.CSV
+                    ? title + ",Description " + i + "," + completed + "\n"
+                    : "{\"title\":\"" + title + "\",\"description\":\"Description " + i + "\",\"completed\":"
+                        + completed + "}\n");
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.todolist.benchmark;
+
+import com.example.todolist.model.Todo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Encoding and decoding of a {@code List<Todo>} response body through the message converter {@code TodoController}
+ * negotiates for each format. Setup prints the payload size of one body; time per operation is the CPU one request
+ * spends on it at either end.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class WireFormatBenchmark {
+    private static final Type TODO_LIST = new ParameterizedTypeReference<List<Todo>>() {
+    }.getType();
+
+    @Param({"application/json", "application/cbor", "application/x-jackson-smile", "application/x-protobuf"})
+    String format;
+    @Param({"10", "1000"})
+    int size;
+
+    ConfigurableApplicationContext context;
+    GenericHttpMessageConverter<Object> converter;
+    MediaType mediaType;
+    List<Todo> todos;
+    byte[] payload;
+
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() throws IOException {
+        context = BenchmarkApplication.start("memory", WebApplicationType.SERVLET, "--server.port=0");
+        mediaType = MediaType.parseMediaType(format);
+        converter = context.getBean(RequestMappingHandlerAdapter.class).getMessageConverters().stream()
+            .filter(candidate -> candidate instanceof GenericHttpMessageConverter<?> generic
+                && generic.canWrite(TODO_LIST, ArrayList.class, mediaType))
+            .map(candidate -> (GenericHttpMessageConverter<Object>) candidate)
+            .findFirst()
+            .orElseThrow();
+
+        todos = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Todo todo = BenchmarkApplication.newTodo(i);
+            todo.setId(i + 1L);
+            todo.setCreatedAt(LocalDateTime.now());
+            todo.setUpdatedAt(LocalDateTime.now());
+            todo.setVersion(i % 5);
+            todos.add(todo);
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        converter.write(todos, TODO_LIST, mediaType, outputMessage(body));
+        payload = body.toByteArray();
+        System.out.printf("%d todos as %s: %d bytes%n", size, format, payload.length);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int encode() throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(payload.length);
+        converter.write(todos, TODO_LIST, mediaType, outputMessage(body));
+        return body.size();
+    }
+
+    @Benchmark
+    public Object decode() throws IOException {
+        return converter.read(TODO_LIST, null, inputMessage(new ByteArrayInputStream(payload)));
+    }
+
+    private HttpOutputMessage outputMessage(OutputStream body) {
+        HttpHeaders headers = new HttpHeaders();
+        return new HttpOutputMessage() {
+            @Override
+            public OutputStream getBody() {
+                return body;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+    }
+
+    private HttpInputMessage inputMessage(InputStream body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(mediaType);
+        return new HttpInputMessage() {
+            @Override
+            public InputStream getBody() {
+                return body;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+    }
+}
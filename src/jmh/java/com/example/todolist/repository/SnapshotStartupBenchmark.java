@@ -0,0 +1,115 @@
+package com.example.todolist.repository;
+
+import com.example.todolist.model.Todo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+
+/**
+ * Cold start of the in-memory store at 1M and 10M todos: {@code mapped} loads a {@link TodoSnapshot} (parallel row
+ * decoding, one thread per index), {@code save} re-populates the store through {@code save} one todo at a time, the
+ * way it had to be filled before snapshots existed. Every invocation starts from an empty store. {@code start}
+ * measures until the store serves reads, {@code startFullyIndexed} until the background full-text index is built
+ * as well. Lives in the repository package because the snapshot format is package-private.
+ *
+ * <p>The 10M case needs a heap of about 20GB for the todos and their indexes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx20g"})
+public class SnapshotStartupBenchmark {
+    @Param({"mapped", "save"})
+    String loader;
+    @Param({"1000000", "10000000"})
+    int size;
+
+    Path directory;
+    Path snapshot;
+    TodoRepositoryInMemory loaded;
+
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("todolist-snapshot-");
+        snapshot = directory.resolve("snapshot.bin");
+        if ("mapped".equals(loader)) {
+            TodoSnapshot.write(snapshot, size + 1L, consumer -> LongStream.rangeClosed(1, size)
+                .forEach(id -> consumer.accept(todo(id))));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void collectPreviousStore() {
+        loaded = null;
+        System.gc();
+    }
+
+    /**
+     * Lets the background indexing of {@code start} finish outside the measured time.
+     */
+    @TearDown(Level.Iteration)
+    public void awaitIndexing() {
+        if (loaded != null) {
+            loaded.searchIndexBuilt().join();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(snapshot);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public TodoRepositoryInMemory start() throws IOException {
+        return load();
+    }
+
+    @Benchmark
+    public TodoRepositoryInMemory startFullyIndexed() throws IOException {
+        TodoRepositoryInMemory memory = load();
+        memory.searchIndexBuilt().join();
+        return memory;
+    }
+
+    private TodoRepositoryInMemory load() throws IOException {
+        TodoRepositoryInMemory memory = new TodoRepositoryInMemory();
+        loaded = memory;
+        if ("mapped".equals(loader)) {
+            TodoSnapshot.load(snapshot, memory);
+        } else {
+            for (long id = 1; id <= size; id++) {
+                Todo todo = todo(id);
+                todo.setId(null);
+                memory.save(todo);
+            }
+        }
+        return memory;
+    }
+
+    private static Todo todo(long id) {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 0, 0).plusSeconds(id);
+        return new Todo(id, "Title " + id, "Description of todo " + id, id % 2 == 0, createdAt, createdAt, 0L);
+    }
+}
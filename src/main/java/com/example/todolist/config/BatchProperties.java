@@ -0,0 +1,9 @@
+package com.example.todolist.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+
+@ConfigurationProperties(prefix = "todolist.batch")
+public record BatchProperties(@DefaultValue("1000") int maxSize) {
+}
@@ -0,0 +1,20 @@
+package com.example.todolist.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+
+/**
+ * @param enabled      whether concurrent identical lookups of {@code TodoService} share one repository call
+ * @param batchWindow  how long a lookup by id that arrives while another is read waits for others to join its query;
+ *                     zero looks every id up on its own
+ * @param maxBatchSize ids after which a batch is queried without waiting for the rest of the window
+ */
+@ConfigurationProperties(prefix = "todolist.coalescing")
+public record CoalescingProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("1ms") Duration batchWindow,
+    @DefaultValue("100") int maxBatchSize) {
+}
@@ -0,0 +1,23 @@
+package com.example.todolist.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+
+/**
+ * @param replaySize     recent events kept for subscribers resuming with {@code Last-Event-ID}
+ * @param bufferSize     events queued per subscriber before it is dropped as too slow
+ * @param timeout        how long one event stream stays open before the client has to reconnect
+ * @param maxSubscribers event streams open at once; further subscribers are turned away until one closes
+ * @param senderThreads  threads writing events to the subscribers, shared by all of them
+ */
+@ConfigurationProperties(prefix = "todolist.feed")
+public record FeedProperties(
+    @DefaultValue("4096") int replaySize,
+    @DefaultValue("256") int bufferSize,
+    @DefaultValue("30m") Duration timeout,
+    @DefaultValue("1000") int maxSubscribers,
+    @DefaultValue("8") int senderThreads) {
+}
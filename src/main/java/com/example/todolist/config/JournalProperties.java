@@ -0,0 +1,22 @@
+package com.example.todolist.config;
+
+import com.example.todolist.repository.FsyncPolicy;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+
+/**
+ * Settings of the {@code journal} repository type.
+ */
+@ConfigurationProperties(prefix = "todolist.journal")
+public record JournalProperties(
+    @DefaultValue("data/journal") Path directory,
+    @DefaultValue("interval") FsyncPolicy fsync,
+    @DefaultValue("50ms") Duration fsyncInterval,
+    @DefaultValue("64MB") DataSize segmentSize,
+    @DefaultValue("10m") Duration snapshotInterval) {
+}
@@ -0,0 +1,16 @@
+package com.example.todolist.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+
+/**
+ * Settings of the {@code offheap} repository type. The JVM also caps direct memory through
+ * {@code -XX:MaxDirectMemorySize}, which defaults to the maximum heap size.
+ */
+@ConfigurationProperties(prefix = "todolist.offheap")
+public record OffHeapProperties(
+    @DefaultValue("1GB") DataSize maxMemory,
+    @DefaultValue("64MB") DataSize slabSize) {
+}
@@ -0,0 +1,19 @@
+package com.example.todolist.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+
+@ConfigurationProperties(prefix = "todolist.pagination")
+public record PaginationProperties(
+    @DefaultValue("100") int defaultLimit,
+    @DefaultValue("1000") int maxLimit) {
+
+    public int resolveLimit(Integer limit) {
+        if (limit == null || limit < 1) {
+            return defaultLimit;
+        }
+
+        return Math.min(limit, maxLimit);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.todolist.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.security.Principal;
+import java.util.regex.Pattern;
+
+
+/**
+ * Tells clients apart for the read-your-writes routing of {@link ReplicaRoutingDataSource}: by the authenticated
+ * principal, else by the {@code X-Client-Id} header, else by the client's address.
+ * <p>
+ * The header is taken as it comes, so it must be set or checked by a trusted proxy: a client that sends another's id
+ * shares its routing. Ids that are longer than 64 characters or contain anything but letters, digits and
+ * {@code . _ : -} are ignored. The address is the one the request came from, or with
+ * {@code server.forward-headers-strategy} the client's address forwarded by a trusted proxy; without it every client
+ * behind the same load balancer counts as one.
+ */
+public class ReplicaClientFilter extends OncePerRequestFilter {
+    static final String CLIENT_ID_HEADER = "X-Client-Id";
+    private static final Pattern CLIENT_ID = Pattern.compile("[A-Za-z0-9._:-]{1,64}");
+
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+        throws ServletException, IOException {
+        ReplicaRoutingDataSource.bindClient(clientOf(request));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.unbindClient();
+        }
+    }
+
+    /**
+     * Each source has its own prefix, so a client id cannot pose as a principal or an address.
+     */
+    static String clientOf(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return "principal:" + principal.getName();
+        }
+        String clientId = request.getHeader(CLIENT_ID_HEADER);
+        if (clientId != null && CLIENT_ID.matcher(clientId).matches()) {
+            return "id:" + clientId;
+        }
+        return "address:" + request.getRemoteAddr();
+    }
+}
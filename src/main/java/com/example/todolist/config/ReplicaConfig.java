@@ -0,0 +1,77 @@
+package com.example.todolist.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+
+/**
+ * Replaces the single {@code spring.datasource} pool with one that routes read-only transactions to the
+ * {@code todolist.replicas} when {@code todolist.replicas.enabled} is set. JPA and Flyway both use the routing pool;
+ * Flyway runs outside of transactions and so always migrates the primary.
+ */
+@Configuration
+@ConditionalOnProperty(name = "todolist.replicas.enabled", havingValue = "true")
+public class ReplicaConfig {
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties primary,
+                                                             ReplicaProperties properties,
+                                                             MeterRegistry meterRegistry) {
+        List<DataSource> replicas = properties.databases().stream()
+            .map(replica -> (DataSource) DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(replica.url())
+                .username(replica.username())
+                .password(replica.password())
+                .build())
+            .toList();
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(
+            primary.initializeDataSourceBuilder().type(HikariDataSource.class).build(),
+            replicas,
+            properties.maxLag(),
+            properties.readYourWrites(),
+            properties.maxWriters(),
+            properties.lagQuery());
+        Gauge.builder("todolist.replicas.healthy", routing, ReplicaRoutingDataSource::healthyReplicas)
+            .register(meterRegistry);
+        return routing;
+    }
+
+    /**
+     * The data source everything else receives. Connections are only fetched from the routing pool at the first
+     * statement, once the transaction has declared whether it is read-only.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routing) {
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    /**
+     * Checks the replicas right after startup and every {@code todolist.replicas.check-interval} from then on.
+     */
+    @Bean
+    public SchedulingConfigurer replicaChecks(ReplicaRoutingDataSource routing, ReplicaProperties properties) {
+        return registrar -> registrar.addFixedDelayTask(
+            new FixedDelayTask(routing::checkReplicas, properties.checkInterval(), Duration.ZERO));
+    }
+
+    @Bean
+    public ReplicaClientFilter replicaClientFilter() {
+        return new ReplicaClientFilter();
+    }
+}
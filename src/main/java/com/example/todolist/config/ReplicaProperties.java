@@ -0,0 +1,42 @@
+package com.example.todolist.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+
+/**
+ * Read replicas of the {@code spring.datasource} database.
+ *
+ * @param enabled        whether read-only transactions go to the replicas
+ * @param databases      the replicas; read-only transactions take turns among the healthy ones
+ * @param maxLag         a replica further behind the primary than this is skipped until it catches up
+ * @param readYourWrites how long the reads of a client go to the primary after it wrote
+ * @param maxWriters     how many recent writers are remembered; beyond that the oldest may read a replica early
+ * @param checkInterval  how often the health and lag of every replica are checked
+ * @param lagQuery       statement returning the lag of a replica in seconds; when blank, replicas are only checked
+ *                       for accepting connections. The default is for PostgreSQL streaming replication
+ */
+@ConfigurationProperties(prefix = "todolist.replicas")
+public record ReplicaProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue List<Replica> databases,
+    @DefaultValue("5s") Duration maxLag,
+    @DefaultValue("5s") Duration readYourWrites,
+    @DefaultValue("100000") long maxWriters,
+    @DefaultValue("10s") Duration checkInterval,
+    @DefaultValue(POSTGRES_LAG_QUERY) String lagQuery) {
+
+    /**
+     * Zero while the replica has replayed all the WAL it received, since an idle primary would otherwise make it
+     * look further behind with every second.
+     */
+    public static final String POSTGRES_LAG_QUERY = "select case "
+        + "when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0 "
+        + "else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()), 0) end";
+
+    public record Replica(String url, String username, String password) {
+    }
+}
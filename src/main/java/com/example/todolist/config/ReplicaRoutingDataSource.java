@@ -0,0 +1,172 @@
+package com.example.todolist.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Hands out connections of the primary, or of a replica inside read-only transactions. Replicas take turns, skipping
+ * those that failed the last {@link #checkReplicas() check}: a replica must accept connections and, when there is a
+ * lag query, lag the primary by no more than {@code maxLag}. Every connection of a read-write transaction marks the
+ * current client as a writer, and the reads of a writer go to the primary for {@code readYourWrites}, so that a
+ * client always sees its own writes even before the replicas do. At most {@code maxWriters} clients are remembered, so
+ * that a flood of client ids cannot grow the set without bound.
+ * <p>
+ * Must sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: transaction managers
+ * open the connection before they publish the read-only flag, and the proxy defers that to the first statement.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+    static final String PRIMARY = "primary";
+    private static final ThreadLocal<String> CLIENT = new ThreadLocal<>();
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final double maxLagSeconds;
+    private final String lagQuery;
+    private final Cache<String, Boolean> recentWriters;
+    private final AtomicInteger turn = new AtomicInteger();
+
+
+    /**
+     * Replicas count as unhealthy until the first {@link #checkReplicas()}.
+     */
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, Duration maxLag,
+                                    Duration readYourWrites, long maxWriters, String lagQuery) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        this.lagQuery = lagQuery == null || lagQuery.isBlank() ? null : lagQuery;
+        this.recentWriters = Caffeine.newBuilder()
+            .expireAfterWrite(readYourWrites)
+            .maximumSize(maxWriters)
+            .build();
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < this.replicas.size(); i++) {
+            targets.put(i, this.replicas.get(i).dataSource);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    /**
+     * Attributes the connections of the current thread to {@code client}, until {@link #unbindClient()}.
+     */
+    static void bindClient(String client) {
+        CLIENT.set(client);
+    }
+
+    static void unbindClient() {
+        CLIENT.remove();
+    }
+
+    /**
+     * Whether the client of the current thread wrote within {@code readYourWrites}, so its reads go to the primary.
+     */
+    public boolean isRecentWriter() {
+        String client = CLIENT.get();
+        return client != null && recentWriters.getIfPresent(client) != null;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String client = CLIENT.get();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (client != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+                recentWriters.put(client, Boolean.TRUE);
+            }
+            return PRIMARY;
+        }
+        if (isRecentWriter()) {
+            return PRIMARY;
+        }
+
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            int index = Math.floorMod(turn.getAndIncrement(), replicas.size());
+            if (replicas.get(index).healthy) {
+                return index;
+            }
+        }
+        return PRIMARY;
+    }
+
+    /**
+     * Takes a replica out of turn when it refuses connections or lags too far behind, and back in once it recovers.
+     */
+    public void checkReplicas() {
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(i);
+            String problem = problemOf(replica);
+            if (problem != null && replica.healthy) {
+                log.warn("Replica {} is out of rotation: {}", i, problem);
+            } else if (problem == null && !replica.healthy) {
+                log.info("Replica {} is in rotation", i);
+            }
+            replica.healthy = problem == null;
+        }
+    }
+
+    public long healthyReplicas() {
+        return replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    /**
+     * Closes the connection pools of the primary and the replicas.
+     */
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+        if (primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    /**
+     * @return why {@code replica} should not serve reads, or {@code null} when it may
+     */
+    private String problemOf(Replica replica) {
+        try (Connection connection = replica.dataSource.getConnection()) {
+            if (lagQuery == null) {
+                return connection.isValid(VALIDATION_TIMEOUT_SECONDS) ? null : "connection is not valid";
+            }
+
+            try (Statement statement = connection.createStatement();
+                 ResultSet lag = statement.executeQuery(lagQuery)) {
+                double lagSeconds = lag.next() ? lag.getDouble(1) : Double.MAX_VALUE;
+                return lagSeconds > maxLagSeconds ? "lags " + lagSeconds + "s behind the primary" : null;
+            }
+        } catch (SQLException | RuntimeException e) {
+            return e.getMessage();
+        }
+    }
+
+    private static final class Replica {
+        final DataSource dataSource;
+        volatile boolean healthy;
+
+        Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.todolist.config;
+
+import com.example.todolist.model.Todo;
+import com.example.todolist.repository.BaseRepository;
+import com.example.todolist.repository.CachingTodoRepository;
+import com.example.todolist.repository.ColumnarTodoRepository;
+import com.example.todolist.repository.JdbcTodoRepository;
+import com.example.todolist.repository.JournaledTodoRepository;
+import com.example.todolist.repository.OffHeapTodoRepository;
+import com.example.todolist.repository.ShardedTodoRepository;
+import com.example.todolist.repository.SnowflakeIdGenerator;
+import com.example.todolist.repository.TodoJournal;
+import com.example.todolist.repository.TodoRepositoryInMemory;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.List;
+
+
+/**
+ * Selects the {@code BaseRepository} implementation through {@code todolist.repository.type}.
+ * The JPA-backed {@code TodoRepository} is the default.
+ */
+@Configuration
+public class RepositoryConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "todolist.repository.type", havingValue = "memory")
+    public TodoRepositoryInMemory todoRepositoryInMemory() {
+        return new TodoRepositoryInMemory();
+    }
+
+    /**
+     * In-memory store in primitive columns, for large data sets that should fit a smaller heap.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "todolist.repository.type", havingValue = "columnar")
+    public ColumnarTodoRepository columnarTodoRepository() {
+        return new ColumnarTodoRepository();
+    }
+
+    /**
+     * Stores todos in direct memory, up to {@code todolist.offheap.max-memory}, and reports its usage as
+     * {@code todolist.offheap.used} and {@code todolist.offheap.reserved}.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "todolist.repository.type", havingValue = "offheap")
+    public OffHeapTodoRepository offHeapTodoRepository(OffHeapProperties properties, MeterRegistry meterRegistry) {
+        OffHeapTodoRepository repository = new OffHeapTodoRepository(
+            Math.toIntExact(properties.slabSize().toBytes()),
+            properties.maxMemory().toBytes());
+        Gauge.builder("todolist.offheap.used", repository, OffHeapTodoRepository::usedBytes)
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        Gauge.builder("todolist.offheap.reserved", repository, OffHeapTodoRepository::reservedBytes)
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        return repository;
+    }
+
+    /**
+     * The in-memory store, restored from and logged to {@code todolist.journal.directory} on every write.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "todolist.repository.type", havingValue = "journal")
+    public JournaledTodoRepository journaledTodoRepository(JournalProperties properties) throws IOException {
+        TodoJournal journal = new TodoJournal(
+            properties.directory(),
+            properties.fsync(),
+            properties.fsyncInterval(),
+            properties.segmentSize().toBytes(),
+            properties.snapshotInterval());
+        TodoRepositoryInMemory memory = new TodoRepositoryInMemory(journal);
+        journal.open(memory);
+        return new JournaledTodoRepository(memory, journal);
+    }
+
+    /**
+     * Spreads todos over the databases of {@code todolist.sharding.shards}, each brought up to date by Flyway first.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "todolist.repository.type", havingValue = "sharded")
+    public ShardedTodoRepository shardedTodoRepository(ShardingProperties properties) {
+        if (properties.shards().isEmpty()) {
+            throw new IllegalStateException("todolist.sharding.shards must list at least one database");
+        }
+
+        List<JdbcTodoRepository> shards = properties.shards().stream().map(RepositoryConfig::shard).toList();
+        return new ShardedTodoRepository(shards, new SnowflakeIdGenerator(properties.workerId()),
+            properties.virtualNodes());
+    }
+
+    private static JdbcTodoRepository shard(ShardingProperties.Shard shard) {
+        DatabaseDriver driver = DatabaseDriver.fromJdbcUrl(shard.url());
+        DataSource dataSource = DataSourceBuilder.create()
+            .url(shard.url())
+            .username(shard.username())
+            .password(shard.password())
+            .build();
+        Flyway.configure()
+            .dataSource(dataSource)
+            .locations("classpath:db/migration/" + driver.getId())
+            .baselineOnMigrate(true)
+            .load()
+            .migrate();
+        return new JdbcTodoRepository(dataSource, driver == DatabaseDriver.POSTGRESQL);
+    }
+
+    /**
+     * Wraps the selected repository when {@code todolist.cache.enabled} is set. Being {@code @Primary},
+     * it is what {@code TodoService} receives; the delegate parameter resolves to the underlying store.
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "todolist.cache.enabled", havingValue = "true")
+    public CachingTodoRepository cachingTodoRepository(BaseRepository delegate,
+                                                       TodoCacheProperties properties,
+                                                       MeterRegistry meterRegistry) {
+        Cache<Long, Todo> cache = Caffeine.newBuilder()
+            .maximumSize(properties.maximumSize())
+            .expireAfterWrite(properties.ttl())
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "todos");
+
+        return new CachingTodoRepository(delegate, cache);
+    }
+}
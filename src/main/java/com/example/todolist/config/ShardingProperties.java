@@ -0,0 +1,25 @@
+package com.example.todolist.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+
+/**
+ * Settings of the {@code sharded} repository type.
+ *
+ * @param workerId     Snowflake worker id of this instance, from 0 to 1023 and distinct among the instances that
+ *                     write to the same shards
+ * @param virtualNodes points of every shard on the hash ring; more points spread the ids more evenly
+ * @param shards       the shard databases, in a fixed order: new shards go at the end
+ */
+@ConfigurationProperties(prefix = "todolist.sharding")
+public record ShardingProperties(
+    @DefaultValue("0") long workerId,
+    @DefaultValue("128") int virtualNodes,
+    @DefaultValue List<Shard> shards) {
+
+    public record Shard(String url, String username, String password) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.todolist.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+
+/**
+ * @param hours             hourly creation buckets returned by {@code GET /todos/stats}
+ * @param days              daily creation buckets returned by {@code GET /todos/stats}
+ * @param reconcileInterval how often the counters are recomputed from the repository
+ */
+@ConfigurationProperties(prefix = "todolist.stats")
+public record StatsProperties(
+    @DefaultValue("48") int hours,
+    @DefaultValue("30") int days,
+    @DefaultValue("5m") Duration reconcileInterval) {
+}
@@ -0,0 +1,19 @@
+package com.example.todolist.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+
+/**
+ * Settings of {@code GET /todos/export} and {@code POST /todos/import}.
+ *
+ * @param batchSize         valid rows saved per transaction
+ * @param progressInterval  rows between two progress log lines
+ * @param maxRejections     rejected rows reported in the response; later ones are only counted
+ */
+@ConfigurationProperties(prefix = "todolist.transfer")
+public record TransferProperties(
+    @DefaultValue("1000") int batchSize,
+    @DefaultValue("100000") int progressInterval,
+    @DefaultValue("100") int maxRejections) {
+}
@@ -0,0 +1,78 @@
+package com.example.todolist.config;
+
+import com.example.todolist.controller.TodoProtobufHttpMessageConverter;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+import static org.springframework.http.HttpHeaders.ACCEPT;
+import static org.springframework.http.HttpHeaders.VARY;
+
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilders;
+
+
+    public WebConfig(ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilders) {
+        this.objectMapperBuilders = objectMapperBuilders;
+    }
+
+    /**
+     * Binds request parameters the way configuration properties are bound, so enums such as
+     * {@code mode=prefix} are matched ignoring case.
+     */
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        ApplicationConversionService.addApplicationConverters(registry);
+    }
+
+    /**
+     * Appends the binary formats after JSON, so they are only used when a client asks for them. Spring's own CBOR and
+     * Smile converters are replaced by ones configured like the JSON mapper, which write dates as ISO strings and use
+     * {@code TodoJsonSerializer}.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+            || converter instanceof MappingJackson2SmileHttpMessageConverter);
+        converters.add(new MappingJackson2CborHttpMessageConverter(objectMapper(new CBORFactory())));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(objectMapper(new SmileFactory())));
+        converters.add(new TodoProtobufHttpMessageConverter());
+    }
+
+    /**
+     * {@code /todos} responses depend on {@code Accept}, and so do their entity tags; {@code Vary} keeps caches from
+     * answering one format with another. It is set before the handler runs, so {@code 304} responses carry it too.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                response.addHeader(VARY, ACCEPT);
+                return true;
+            }
+        }).addPathPatterns("/todos", "/todos/**");
+    }
+
+    private ObjectMapper objectMapper(JsonFactory factory) {
+        return objectMapperBuilders.getObject().factory(factory).build();
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.todolist.controller;
+
+import com.example.todolist.config.BatchProperties;
+import com.example.todolist.model.BatchItemResult;
+import com.example.todolist.model.Todo;
+import com.example.todolist.service.TodoService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.springframework.http.HttpStatus.PAYLOAD_TOO_LARGE;
+import static org.springframework.http.ResponseEntity.ok;
+import static org.springframework.http.ResponseEntity.status;
+
+
+/**
+ * Bulk variants of create, update and delete. Each request runs in one transaction and answers with one
+ * {@link BatchItemResult} per element, in request order, so a bad element never fails the whole batch.
+ */
+@RestController
+@RequestMapping("/todos/batch")
+public class TodoBatchController {
+    TodoService todoService;
+    BatchProperties batch;
+    Validator validator;
+
+
+    public TodoBatchController(TodoService todoService, BatchProperties batch, Validator validator) {
+        this.todoService = todoService;
+        this.batch = batch;
+        this.validator = validator;
+    }
+
+    @PostMapping
+    public ResponseEntity<List<BatchItemResult>> createTodos(@RequestBody List<Todo> todos) {
+        if (todos.size() > batch.maxSize()) {
+            return status(PAYLOAD_TOO_LARGE).build();
+        }
+
+        BatchItemResult[] results = new BatchItemResult[todos.size()];
+        List<Integer> validIndexes = new ArrayList<>();
+        List<Todo> validTodos = new ArrayList<>();
+        for (int i = 0; i < todos.size(); i++) {
+            Todo todo = todos.get(i);
+            List<String> errors = validate(todo);
+            if (errors.isEmpty()) {
+                todo.setId(null);
+                validIndexes.add(i);
+                validTodos.add(todo);
+            } else {
+                results[i] = BatchItemResult.invalid(i, null, errors);
+            }
+        }
+
+        List<Todo> saved = this.todoService.saveAll(validTodos);
+        for (int i = 0; i < saved.size(); i++) {
+            int index = validIndexes.get(i);
+            results[index] = BatchItemResult.success(index, 201, saved.get(i));
+        }
+
+        return ok(Arrays.asList(results));
+    }
+
+    @PatchMapping
+    public ResponseEntity<List<BatchItemResult>> updateTodos(@RequestBody List<Todo> todos) {
+        if (todos.size() > batch.maxSize()) {
+            return status(PAYLOAD_TOO_LARGE).build();
+        }
+
+        BatchItemResult[] results = new BatchItemResult[todos.size()];
+        Map<Long, Todo> changesById = new LinkedHashMap<>();
+        for (int i = 0; i < todos.size(); i++) {
+            Todo todo = todos.get(i);
+            if (todo == null || todo.getId() == null) {
+                results[i] = BatchItemResult.invalid(i, null, List.of("Field id is required"));
+            } else if (changesById.putIfAbsent(todo.getId(), todo) != null) {
+                results[i] = BatchItemResult.invalid(i, todo.getId(), List.of("Duplicate id in batch"));
+            }
+        }
+
+        Map<Long, Todo> patched = this.todoService.updateAll(changesById);
+        for (int i = 0; i < todos.size(); i++) {
+            if (results[i] == null) {
+                Long id = todos.get(i).getId();
+                Todo todo = patched.get(id);
+                results[i] = todo == null ? BatchItemResult.status(i, 404, id) : BatchItemResult.success(i, 200, todo);
+            }
+        }
+
+        return ok(Arrays.asList(results));
+    }
+
+    @DeleteMapping
+    public ResponseEntity<List<BatchItemResult>> deleteTodos(@RequestBody List<Long> ids) {
+        if (ids.size() > batch.maxSize()) {
+            return status(PAYLOAD_TOO_LARGE).build();
+        }
+
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        requested.remove(null);
+        Set<Long> deleted = this.todoService.deleteAll(requested);
+
+        List<BatchItemResult> results = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            if (id == null) {
+                results.add(BatchItemResult.invalid(i, null, List.of("Id is required")));
+            } else {
+                results.add(BatchItemResult.status(i, deleted.contains(id) ? 204 : 404, id));
+            }
+        }
+
+        return ok(results);
+    }
+
+    private List<String> validate(Todo todo) {
+        if (todo == null) {
+            return List.of("Todo is required");
+        }
+
+        return validator.validate(todo).stream()
+            .map(ConstraintViolation::getMessage)
+            .sorted()
+            .toList();
+    }
+}
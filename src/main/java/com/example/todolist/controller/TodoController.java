@@ -1,83 +1,234 @@
 package com.example.todolist.controller;
 
+import com.example.todolist.config.PaginationProperties;
+import com.example.todolist.model.SearchMode;
 import com.example.todolist.model.Todo;
+import com.example.todolist.model.TodoPage;
+import com.example.todolist.model.TodoQuery;
 import com.example.todolist.service.TodoService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
 
+import static org.springframework.format.annotation.DateTimeFormat.ISO.DATE_TIME;
+import static org.springframework.http.HttpHeaders.ACCEPT;
+import static org.springframework.http.HttpHeaders.IF_MATCH;
 import static org.springframework.http.HttpStatus.CREATED;
+import static org.springframework.http.HttpStatus.PRECONDITION_FAILED;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
+import static org.springframework.http.ResponseEntity.badRequest;
 import static org.springframework.http.ResponseEntity.internalServerError;
 import static org.springframework.http.ResponseEntity.noContent;
 import static org.springframework.http.ResponseEntity.notFound;
 import static org.springframework.http.ResponseEntity.ok;
 import static org.springframework.http.ResponseEntity.status;
+import static org.springframework.util.StringUtils.hasText;
 
 
 @RestController
 @RequestMapping("/todos")
 public class TodoController {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    /**
+     * Substring search is served by trigram indexes, which cannot narrow down anything shorter.
+     */
+    static final int MIN_SUBSTRING_LENGTH = 3;
+
     TodoService todoService;
+    PaginationProperties pagination;
+    ObjectWriter ndjsonWriter;
 
 
-    public TodoController(TodoService todoService) {
+    public TodoController(TodoService todoService, PaginationProperties pagination, ObjectMapper objectMapper) {
         this.todoService = todoService;
+        this.pagination = pagination;
+        this.ndjsonWriter = objectMapper.writerFor(Todo.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
+    /**
+     * Without filters or sort keys this is the id-ordered listing, which answers {@code If-None-Match} from the
+     * page's ids and versions alone, before any todo is loaded; a page that is sent is tagged from the todos loaded
+     * for it. With any of them it runs a {@link TodoQuery} instead, which cannot be combined with an {@code after}
+     * cursor.
+     */
     @GetMapping
-    public ResponseEntity<List<Todo>> getAllTodos() {
-        return ResponseEntity.ok(this.todoService.getAll());
+    public ResponseEntity<List<Todo>> getAllTodos(
+        @RequestParam(required = false) Long after,
+        @RequestParam(required = false) Integer limit,
+        @RequestParam(required = false) Boolean completed,
+        @RequestParam(required = false) String titleContains,
+        @RequestParam(required = false) String titlePrefix,
+        @RequestParam(required = false) @DateTimeFormat(iso = DATE_TIME) LocalDateTime createdFrom,
+        @RequestParam(required = false) @DateTimeFormat(iso = DATE_TIME) LocalDateTime createdTo,
+        @RequestParam(required = false) List<String> sort,
+        WebRequest request,
+        HttpServletResponse response) {
+        int pageSize = pagination.resolveLimit(limit);
+        if (completed != null || hasText(titleContains) || hasText(titlePrefix)
+            || createdFrom != null || createdTo != null || sort != null) {
+            if (after != null) {
+                return badRequest().build();
+            }
+
+            List<TodoQuery.Sort> sortKeys;
+            try {
+                sortKeys = sort == null ? List.of() : TodoQuery.Sort.parseAll(sort);
+            } catch (IllegalArgumentException e) {
+                return badRequest().build();
+            }
+            return ok(this.todoService.query(new TodoQuery(completed, blankToNull(titleContains),
+                blankToNull(titlePrefix), createdFrom, createdTo, sortKeys, pageSize)));
+        }
+
+        String variant = TodoETags.variant(request.getHeader(ACCEPT));
+        if (request.checkNotModified(
+            TodoETags.of(this.todoService.getPageVersions(after, pageSize), pageSize, variant))) {
+            return null;
+        }
+
+        // A write may have landed since the versions were read: tag the body with the todos it really holds.
+        TodoPage page = this.todoService.getPage(after, pageSize);
+        response.setHeader(HttpHeaders.ETAG, TodoETags.of(page, variant));
+        return pageResponse(page);
+    }
+
+    @GetMapping(produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllTodos() {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = ndjsonWriter.createGenerator(outputStream)) {
+                this.todoService.streamAll(todo -> writeLine(generator, todo));
+            }
+        };
+
+        return ok().contentType(APPLICATION_NDJSON).body(body);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Todo> getTodoById(@PathVariable Long id) {
-        return this.todoService.getById(id)
-            .map(ResponseEntity::ok)
-            .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<Todo> getTodoById(@PathVariable Long id, WebRequest request) {
+        Optional<Todo> todo = this.todoService.getById(id);
+        if (todo.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(TodoETags.of(todo.get(), TodoETags.variant(request.getHeader(ACCEPT))))) {
+            return null;
+        }
+
+        return ok(todo.get());
     }
 
-    @GetMapping("/search")
+    @GetMapping(value = "/search", params = "title")
     public ResponseEntity<List<Todo>> getTodoByTitle(@RequestParam String title) {
         return ResponseEntity.ok(this.todoService.getByTitle(title));
     }
 
+    @GetMapping(value = "/search", params = "q")
+    public ResponseEntity<List<Todo>> searchTodos(@RequestParam String q,
+                                                  @RequestParam(defaultValue = "words") SearchMode mode,
+                                                  @RequestParam(defaultValue = "0") int offset,
+                                                  @RequestParam(required = false) Integer limit) {
+        if (offset < 0 || (mode == SearchMode.SUBSTRING && q.strip().length() < MIN_SUBSTRING_LENGTH)) {
+            return badRequest().build();
+        }
+
+        return pageResponse(this.todoService.search(q.strip(), mode, offset, pagination.resolveLimit(limit)));
+    }
+
     @GetMapping("/status")
     public ResponseEntity<List<Todo>> getTodoByStatus(@RequestParam boolean completed) {
         return ResponseEntity.ok(this.todoService.getByStatusCompleted(completed));
     }
 
     @PostMapping("/create")
-    public ResponseEntity<Todo> createTodo(@Valid @RequestBody Todo todo) {
+    public ResponseEntity<Todo> createTodo(@Valid @RequestBody Todo todo,
+                                           @RequestHeader(name = ACCEPT, required = false) String accept) {
         Todo newTodo = this.todoService.save(todo);
         if (newTodo == null) {
             return internalServerError().build();
         }
 
-        return status(CREATED).body(newTodo);
+        return status(CREATED).eTag(TodoETags.of(newTodo, TodoETags.variant(accept))).body(newTodo);
     }
 
+    /**
+     * With an {@code If-Match} tag the update only applies if the todo is still at that version; otherwise
+     * {@code 412} tells the client to re-read it.
+     */
     @PutMapping("/{id}")
-    public ResponseEntity<Todo> updateTodo(@RequestBody Todo todo, @PathVariable Long id) {
-        Todo updatedTodo = this.todoService.update(todo, id);
-        if (updatedTodo == null) {
-            return ResponseEntity.notFound().build();
+    public ResponseEntity<Todo> updateTodo(@RequestBody Todo todo, @PathVariable Long id,
+                                           @RequestHeader(name = IF_MATCH, required = false) String ifMatch,
+                                           @RequestHeader(name = ACCEPT, required = false) String accept) {
+        if (ifMatch == null || TodoETags.isWildcard(ifMatch)) {
+            Todo updatedTodo = this.todoService.update(todo, id);
+            if (updatedTodo == null) {
+                return ResponseEntity.notFound().build();
+            }
+
+            return ok().eTag(TodoETags.of(updatedTodo, TodoETags.variant(accept))).body(updatedTodo);
         }
 
-        return ok(updatedTodo);
+        OptionalLong expectedVersion = TodoETags.versionOf(ifMatch, id);
+        Optional<Todo> updatedTodo = expectedVersion.isPresent()
+            ? this.todoService.update(todo, id, expectedVersion.getAsLong())
+            : Optional.empty();
+        if (updatedTodo.isEmpty()) {
+            return this.todoService.getById(id).isPresent() ? status(PRECONDITION_FAILED).build() : notFound().build();
+        }
+
+        return ok().eTag(TodoETags.of(updatedTodo.get(), TodoETags.variant(accept))).body(updatedTodo.get());
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteTodo(@PathVariable Long id) {
         return todoService.delete(id) ? noContent().build() : notFound().build();
     }
+
+    private ResponseEntity<List<Todo>> pageResponse(TodoPage page) {
+        if (page.nextCursor() == null) {
+            return ok(page.items());
+        }
+
+        return ok()
+            .header(NEXT_CURSOR_HEADER, page.nextCursor().toString())
+            .body(page.items());
+    }
+
+    private static String blankToNull(String value) {
+        return hasText(value) ? value : null;
+    }
+
+    private void writeLine(JsonGenerator generator, Todo todo) {
+        try {
+            ndjsonWriter.writeValue(generator, todo);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -0,0 +1,126 @@
+package com.example.todolist.controller;
+
+import com.example.todolist.model.Todo;
+import com.example.todolist.model.TodoPage;
+import com.example.todolist.model.TodoVersion;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+
+import static com.example.todolist.controller.TodoProtobufHttpMessageConverter.APPLICATION_PROTOBUF;
+import static org.springframework.http.MediaType.APPLICATION_CBOR;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+
+/**
+ * Strong entity tags. A todo's tag is its id and version; a page's tag is a 64-bit FNV-1a hash over the ids and
+ * versions it contains and whether a next page follows, so it changes whenever a row in the page is written, inserted
+ * or deleted. It can be computed from {@link TodoVersion}s alone to answer {@code If-None-Match}, and from the loaded
+ * {@link TodoPage} for the tag sent with the body.
+ *
+ * <p>A strong tag names one representation, so the binary formats get their own: the {@link #variant} negotiated
+ * from {@code Accept} is appended to the tag, as in {@code "7-2+x-protobuf"}. JSON tags carry none.
+ */
+final class TodoETags {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final List<MediaType> FORMATS = List.of(APPLICATION_JSON, APPLICATION_CBOR,
+        new MediaType("application", "x-jackson-smile"), APPLICATION_PROTOBUF);
+
+
+    private TodoETags() {
+    }
+
+    /**
+     * Suffix of the tags of the format that {@code accept} selects among the message converters of {@code /todos}:
+     * empty for JSON, the default, and otherwise {@code +} and its media subtype.
+     */
+    static String variant(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return "";
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return "";
+        }
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType type : accepted) {
+            for (MediaType format : FORMATS) {
+                if (type.getQualityValue() > 0 && type.isCompatibleWith(format)) {
+                    return format.equals(APPLICATION_JSON) ? "" : "+" + format.getSubtype();
+                }
+            }
+        }
+        return "";
+    }
+
+    static String of(Todo todo, String variant) {
+        return "\"" + todo.getId() + "-" + todo.getVersion() + variant + "\"";
+    }
+
+    /**
+     * Tag of a page of {@code limit} todos from its versions, read with one more row that tells whether a next page
+     * follows. It equals {@link #of(TodoPage, String)} for the same rows.
+     */
+    static String of(List<TodoVersion> versions, int limit, String variant) {
+        long hash = FNV_OFFSET_BASIS;
+        for (TodoVersion version : versions.subList(0, Math.min(limit, versions.size()))) {
+            hash = mix(mix(hash, version.id()), version.version());
+        }
+        return pageTag(hash, versions.size() > limit, variant);
+    }
+
+    /**
+     * Tag of the todos a page response actually carries.
+     */
+    static String of(TodoPage page, String variant) {
+        long hash = FNV_OFFSET_BASIS;
+        for (Todo todo : page.items()) {
+            hash = mix(mix(hash, todo.getId()), todo.getVersion());
+        }
+        return pageTag(hash, page.nextCursor() != null, variant);
+    }
+
+    static boolean isWildcard(String ifMatch) {
+        return ifMatch.trim().equals("*");
+    }
+
+    /**
+     * Version of todo {@code id} named by an {@code If-Match} header, in any format; empty when no listed tag belongs
+     * to it.
+     */
+    static OptionalLong versionOf(String ifMatch, Long id) {
+        String prefix = "\"" + id + "-";
+        for (String tag : ifMatch.split(",")) {
+            String trimmed = tag.trim();
+            if (trimmed.startsWith(prefix) && trimmed.endsWith("\"") && trimmed.length() > prefix.length() + 1) {
+                String version = trimmed.substring(prefix.length(), trimmed.length() - 1);
+                int variant = version.indexOf('+');
+                try {
+                    return OptionalLong.of(Long.parseLong(variant < 0 ? version : version.substring(0, variant)));
+                } catch (NumberFormatException ignored) {
+                    // not a tag issued by this API, keep looking
+                }
+            }
+        }
+        return OptionalLong.empty();
+    }
+
+    private static String pageTag(long hash, boolean hasNext, String variant) {
+        return "\"p-" + Long.toHexString(mix(hash, hasNext ? 1 : 0)) + variant + "\"";
+    }
+
+    private static long mix(long hash, long value) {
+        for (int i = 0; i < Long.BYTES; i++) {
+            hash ^= (value >>> (i * 8)) & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
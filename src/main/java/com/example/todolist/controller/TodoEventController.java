@@ -0,0 +1,77 @@
+package com.example.todolist.controller;
+
+import com.example.todolist.config.FeedProperties;
+import com.example.todolist.model.TodoEvent;
+import com.example.todolist.service.TodoEventFeed;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Optional;
+
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM_VALUE;
+import static org.springframework.http.ResponseEntity.status;
+
+
+/**
+ * Server-sent events for every create, update and delete, so clients can follow changes instead of polling.
+ * Browsers resume through the {@code Last-Event-ID} header on reconnect; other clients can pass the same id as the
+ * {@code lastEventId} parameter. When {@code todolist.feed.max-subscribers} streams are open, further ones are
+ * answered with {@code 503 Service Unavailable} and a {@code Retry-After}.
+ */
+@RestController
+@RequestMapping("/todos/events")
+public class TodoEventController {
+    static final String LAST_EVENT_ID = "Last-Event-ID";
+    static final String RETRY_AFTER_SECONDS = "5";
+
+    TodoEventFeed feed;
+    FeedProperties properties;
+
+
+    public TodoEventController(TodoEventFeed feed, FeedProperties properties) {
+        this.feed = feed;
+        this.properties = properties;
+    }
+
+    @GetMapping(produces = TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamEvents(
+        @RequestHeader(name = LAST_EVENT_ID, required = false) String lastEventIdHeader,
+        @RequestParam(required = false) String lastEventId) {
+        SseEmitter emitter = new SseEmitter(properties.timeout().toMillis());
+        Optional<TodoEventFeed.Subscription> subscribed = feed.subscribe(
+            lastEventIdHeader != null ? lastEventIdHeader : lastEventId,
+            new TodoEventFeed.Listener() {
+                @Override
+                public void onEvent(TodoEvent event) throws IOException {
+                    emitter.send(SseEmitter.event()
+                        .id(feed.eventId(event))
+                        .name(event.type().name().toLowerCase(Locale.ROOT))
+                        .data(event, APPLICATION_JSON));
+                }
+
+                @Override
+                public void onOverflow() {
+                    emitter.complete();
+                }
+            });
+        if (subscribed.isEmpty()) {
+            return status(SERVICE_UNAVAILABLE).header(RETRY_AFTER, RETRY_AFTER_SECONDS).build();
+        }
+
+        TodoEventFeed.Subscription subscription = subscribed.get();
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(error -> subscription.cancel());
+        return ResponseEntity.ok(emitter);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.todolist.controller;
+
+import com.example.todolist.model.Todo;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+
+/**
+ * Writes a {@link Todo} field by field with pre-encoded names, instead of the bean serializer looking up each
+ * property and calling its getter reflectively. It covers every JSON response, the NDJSON streams and the export, and
+ * its output is the same as the bean serializer's. Dates fall back to the configured serializer when they are written
+ * as timestamps.
+ */
+@JsonComponent
+public class TodoJsonSerializer extends StdSerializer<Todo> {
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString TITLE = new SerializedString("title");
+    private static final SerializableString DESCRIPTION = new SerializedString("description");
+    private static final SerializableString COMPLETED = new SerializedString("completed");
+    private static final SerializableString CREATED_AT = new SerializedString("createdAt");
+    private static final SerializableString UPDATED_AT = new SerializedString("updatedAt");
+    private static final SerializableString VERSION = new SerializedString("version");
+
+
+    public TodoJsonSerializer() {
+        super(Todo.class);
+    }
+
+    @Override
+    public void serialize(Todo todo, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(todo);
+        generator.writeFieldName(ID);
+        if (todo.getId() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(todo.getId());
+        }
+        generator.writeFieldName(TITLE);
+        generator.writeString(todo.getTitle());
+        generator.writeFieldName(DESCRIPTION);
+        generator.writeString(todo.getDescription());
+        generator.writeFieldName(COMPLETED);
+        generator.writeBoolean(todo.isCompleted());
+        writeDate(generator, provider, CREATED_AT, todo.getCreatedAt());
+        writeDate(generator, provider, UPDATED_AT, todo.getUpdatedAt());
+        generator.writeFieldName(VERSION);
+        generator.writeNumber(todo.getVersion());
+        generator.writeEndObject();
+    }
+
+    private static void writeDate(JsonGenerator generator, SerializerProvider provider, SerializableString name,
+                                  LocalDateTime date) throws IOException {
+        generator.writeFieldName(name);
+        if (date == null) {
+            generator.writeNull();
+        } else if (provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)) {
+            provider.defaultSerializeValue(date, generator);
+        } else {
+            generator.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(date));
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.todolist.controller;
+
+import com.example.todolist.model.Todo;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.protobuf.WireFormat.WIRETYPE_LENGTH_DELIMITED;
+import static com.google.protobuf.WireFormat.WIRETYPE_VARINT;
+
+
+/**
+ * Encodes and decodes the {@code Todo} and {@code TodoList} messages of {@code src/main/proto/todo.proto} by hand,
+ * field by field, so the entity needs no generated twin. Fields at their default value are omitted, as proto3 does,
+ * and unknown fields are skipped when reading.
+ */
+final class TodoProtobuf {
+    private static final int ID = 1;
+    private static final int TITLE = 2;
+    private static final int DESCRIPTION = 3;
+    private static final int COMPLETED = 4;
+    private static final int CREATED_AT = 5;
+    private static final int UPDATED_AT = 6;
+    private static final int VERSION = 7;
+    private static final int TODOS = 1;
+    private static final int SECONDS = 1;
+    private static final int NANOS = 2;
+    private static final int ID_TAG = ID << 3 | WIRETYPE_VARINT;
+    private static final int TITLE_TAG = TITLE << 3 | WIRETYPE_LENGTH_DELIMITED;
+    private static final int DESCRIPTION_TAG = DESCRIPTION << 3 | WIRETYPE_LENGTH_DELIMITED;
+    private static final int COMPLETED_TAG = COMPLETED << 3 | WIRETYPE_VARINT;
+    private static final int CREATED_AT_TAG = CREATED_AT << 3 | WIRETYPE_LENGTH_DELIMITED;
+    private static final int UPDATED_AT_TAG = UPDATED_AT << 3 | WIRETYPE_LENGTH_DELIMITED;
+    private static final int VERSION_TAG = VERSION << 3 | WIRETYPE_VARINT;
+    private static final int TODOS_TAG = TODOS << 3 | WIRETYPE_LENGTH_DELIMITED;
+    private static final int SECONDS_TAG = SECONDS << 3 | WIRETYPE_VARINT;
+    private static final int NANOS_TAG = NANOS << 3 | WIRETYPE_VARINT;
+
+    private TodoProtobuf() {
+    }
+
+    static void writeList(CodedOutputStream out, List<Todo> todos) throws IOException {
+        for (Todo todo : todos) {
+            out.writeTag(TODOS, WIRETYPE_LENGTH_DELIMITED);
+            out.writeUInt32NoTag(size(todo));
+            write(out, todo);
+        }
+    }
+
+    static void write(CodedOutputStream out, Todo todo) throws IOException {
+        if (todo.getId() != null) {
+            out.writeInt64(ID, todo.getId());
+        }
+        if (todo.getTitle() != null) {
+            out.writeString(TITLE, todo.getTitle());
+        }
+        if (todo.getDescription() != null) {
+            out.writeString(DESCRIPTION, todo.getDescription());
+        }
+        if (todo.isCompleted()) {
+            out.writeBool(COMPLETED, true);
+        }
+        writeTimestamp(out, CREATED_AT, todo.getCreatedAt());
+        writeTimestamp(out, UPDATED_AT, todo.getUpdatedAt());
+        if (todo.getVersion() != 0) {
+            out.writeInt64(VERSION, todo.getVersion());
+        }
+    }
+
+    static List<Todo> readList(CodedInputStream in) throws IOException {
+        List<Todo> todos = new ArrayList<>();
+        for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+            if (tag == TODOS_TAG) {
+                int limit = in.pushLimit(in.readRawVarint32());
+                todos.add(read(in));
+                in.popLimit(limit);
+            } else {
+                in.skipField(tag);
+            }
+        }
+        return todos;
+    }
+
+    /**
+     * Reads fields up to the end of the input or of the current limit.
+     */
+    static Todo read(CodedInputStream in) throws IOException {
+        Todo todo = new Todo();
+        for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+            switch (tag) {
+                case ID_TAG -> todo.setId(in.readInt64());
+                case TITLE_TAG -> todo.setTitle(in.readStringRequireUtf8());
+                case DESCRIPTION_TAG -> todo.setDescription(in.readStringRequireUtf8());
+                case COMPLETED_TAG -> todo.setCompleted(in.readBool());
+                case CREATED_AT_TAG -> todo.setCreatedAt(readTimestamp(in));
+                case UPDATED_AT_TAG -> todo.setUpdatedAt(readTimestamp(in));
+                case VERSION_TAG -> todo.setVersion(in.readInt64());
+                default -> in.skipField(tag);
+            }
+        }
+        return todo;
+    }
+
+    private static int size(Todo todo) {
+        int size = 0;
+        if (todo.getId() != null) {
+            size += CodedOutputStream.computeInt64Size(ID, todo.getId());
+        }
+        if (todo.getTitle() != null) {
+            size += CodedOutputStream.computeStringSize(TITLE, todo.getTitle());
+        }
+        if (todo.getDescription() != null) {
+            size += CodedOutputStream.computeStringSize(DESCRIPTION, todo.getDescription());
+        }
+        if (todo.isCompleted()) {
+            size += CodedOutputStream.computeBoolSize(COMPLETED, true);
+        }
+        size += timestampFieldSize(CREATED_AT, todo.getCreatedAt());
+        size += timestampFieldSize(UPDATED_AT, todo.getUpdatedAt());
+        if (todo.getVersion() != 0) {
+            size += CodedOutputStream.computeInt64Size(VERSION, todo.getVersion());
+        }
+        return size;
+    }
+
+    private static void writeTimestamp(CodedOutputStream out, int field, LocalDateTime value) throws IOException {
+        if (value == null) {
+            return;
+        }
+
+        out.writeTag(field, WIRETYPE_LENGTH_DELIMITED);
+        out.writeUInt32NoTag(timestampSize(value));
+        long seconds = value.toEpochSecond(ZoneOffset.UTC);
+        if (seconds != 0) {
+            out.writeInt64(SECONDS, seconds);
+        }
+        if (value.getNano() != 0) {
+            out.writeInt32(NANOS, value.getNano());
+        }
+    }
+
+    private static int timestampFieldSize(int field, LocalDateTime value) {
+        if (value == null) {
+            return 0;
+        }
+
+        int size = timestampSize(value);
+        return CodedOutputStream.computeTagSize(field) + CodedOutputStream.computeUInt32SizeNoTag(size) + size;
+    }
+
+    private static int timestampSize(LocalDateTime value) {
+        long seconds = value.toEpochSecond(ZoneOffset.UTC);
+        return (seconds == 0 ? 0 : CodedOutputStream.computeInt64Size(SECONDS, seconds))
+            + (value.getNano() == 0 ? 0 : CodedOutputStream.computeInt32Size(NANOS, value.getNano()));
+    }
+
+    private static LocalDateTime readTimestamp(CodedInputStream in) throws IOException {
+        int limit = in.pushLimit(in.readRawVarint32());
+        long seconds = 0;
+        int nanos = 0;
+        for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+            if (tag == SECONDS_TAG) {
+                seconds = in.readInt64();
+            } else if (tag == NANOS_TAG) {
+                nanos = in.readInt32();
+            } else {
+                in.skipField(tag);
+            }
+        }
+        in.popLimit(limit);
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.todolist.controller;
+
+import com.example.todolist.model.Todo;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+
+/**
+ * Reads and writes a {@link Todo} as the {@code Todo} message and a {@code List<Todo>} as the {@code TodoList}
+ * message of {@code src/main/proto/todo.proto}. Other types are left to the JSON, CBOR and Smile converters.
+ */
+public class TodoProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+    public static final MediaType APPLICATION_PROTOBUF = new MediaType("application", "x-protobuf");
+
+
+    public TodoProtobufHttpMessageConverter() {
+        super(APPLICATION_PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Todo.class == clazz;
+    }
+
+    /**
+     * Lists are only told apart by their element type, which {@link #canWrite(Type, Class, MediaType)} checks.
+     */
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return supports(clazz) || List.class.isAssignableFrom(clazz) ? getSupportedMediaTypes() : List.of();
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return (isTodo(type) || isTodoList(type)) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return (type == null ? supports(clazz) : isTodo(type) || isTodoList(type)) && canWrite(mediaType);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        CodedInputStream in = CodedInputStream.newInstance(inputMessage.getBody());
+        try {
+            return isTodoList(type) ? TodoProtobuf.readList(in) : TodoProtobuf.read(in);
+        } catch (IOException e) {
+            throw new HttpMessageNotReadableException("Invalid protobuf message: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read(clazz, null, inputMessage);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage) throws IOException {
+        CodedOutputStream out = CodedOutputStream.newInstance(outputMessage.getBody());
+        if (body instanceof Todo todo) {
+            TodoProtobuf.write(out, todo);
+        } else {
+            TodoProtobuf.writeList(out, (List<Todo>) body);
+        }
+        out.flush();
+    }
+
+    private static boolean isTodo(Type type) {
+        return type == Todo.class;
+    }
+
+    private static boolean isTodoList(Type type) {
+        ResolvableType resolved = ResolvableType.forType(type);
+        return resolved.resolve() == List.class && resolved.getGeneric(0).resolve() == Todo.class;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.todolist.controller;
+
+import com.example.todolist.model.TodoStats;
+import com.example.todolist.service.TodoStatistics;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+
+/**
+ * Totals and creation rates, served from counters instead of reading the todos.
+ */
+@RestController
+@RequestMapping("/todos/stats")
+public class TodoStatsController {
+    TodoStatistics statistics;
+
+
+    public TodoStatsController(TodoStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    @GetMapping
+    public TodoStats getStats() {
+        return statistics.snapshot();
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.todolist.controller;
+
+import com.example.todolist.model.ImportResult;
+import com.example.todolist.model.TransferFormat;
+import com.example.todolist.service.TodoTransfer;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
+import static org.springframework.http.ResponseEntity.ok;
+
+
+/**
+ * Bulk export and import of all todos, streamed in both directions so neither side is held in memory.
+ */
+@RestController
+@RequestMapping("/todos")
+public class TodoTransferController {
+    static final String CSV_VALUE = "text/csv";
+
+    TodoTransfer transfer;
+
+
+    public TodoTransferController(TodoTransfer transfer) {
+        this.transfer = transfer;
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTodos(
+        @RequestParam(defaultValue = "ndjson") TransferFormat format) {
+        StreamingResponseBody body = outputStream -> transfer.export(format, outputStream);
+
+        return ok()
+            .contentType(format.mediaType())
+            .headers(headers -> headers.setContentDisposition(
+                ContentDisposition.attachment().filename(format.fileName()).build()))
+            .body(body);
+    }
+
+    @PostMapping(value = "/import", consumes = CSV_VALUE)
+    public ResponseEntity<ImportResult> importCsv(InputStream body) throws IOException {
+        return ok(transfer.importFrom(TransferFormat.CSV, body));
+    }
+
+    @PostMapping(value = "/import", consumes = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ImportResult> importNdjson(InputStream body) throws IOException {
+        return ok(transfer.importFrom(TransferFormat.NDJSON, body));
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.todolist.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+
+/**
+ * Outcome of one element of a batch request, reported at the element's position in the request body.
+ * {@code status} uses the HTTP status the equivalent single-item call would have returned.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchItemResult(int index, int status, Long id, Todo todo, List<String> errors) {
+
+    public static BatchItemResult success(int index, int status, Todo todo) {
+        return new BatchItemResult(index, status, todo.getId(), todo, null);
+    }
+
+    public static BatchItemResult status(int index, int status, Long id) {
+        return new BatchItemResult(index, status, id, null, null);
+    }
+
+    public static BatchItemResult invalid(int index, Long id, List<String> errors) {
+        return new BatchItemResult(index, 400, id, null, errors);
+    }
+}
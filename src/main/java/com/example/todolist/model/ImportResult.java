@@ -0,0 +1,11 @@
+package com.example.todolist.model;
+
+import java.util.List;
+
+
+/**
+ * Outcome of {@code POST /todos/import}. {@code rejections} holds the first rejected rows, where {@code index} is
+ * the row's position among the data rows of the body, starting at 0.
+ */
+public record ImportResult(long imported, long rejected, List<BatchItemResult> rejections) {
+}
@@ -0,0 +1,20 @@
+package com.example.todolist.model;
+
+
+/**
+ * How {@code GET /todos/search?q=} matches the text against the title and description of each todo.
+ */
+public enum SearchMode {
+    /**
+     * Every word of the query appears as a whole word; ranked by how often, with title matches weighted higher.
+     */
+    WORDS,
+    /**
+     * Every word of the query starts a word; ranked like {@link #WORDS}.
+     */
+    PREFIX,
+    /**
+     * The query appears anywhere, ignoring case; title matches come first.
+     */
+    SUBSTRING
+}
@@ -1,18 +1,22 @@
 package com.example.todolist.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.time.LocalDateTime;
@@ -27,7 +31,8 @@ import java.time.LocalDateTime;
 @EntityListeners(AuditingEntityListener.class)
 public class Todo {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "todos_seq")
+    @SequenceGenerator(name = "todos_seq", sequenceName = "todos_seq", allocationSize = 50)
     private Long id;
     @NotBlank(message = "Field title is required")
     private String title;
@@ -37,4 +42,25 @@ public class Todo {
     @Column(name = "created_at")
     @CreatedDate
     private LocalDateTime createdAt;
+    @Column(name = "updated_at")
+    @LastModifiedDate
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private LocalDateTime updatedAt;
+    /**
+     * Incremented by every write; the basis of the {@code ETag} of a todo.
+     */
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private long version;
+
+    public Todo(Long id, String title, String description, boolean completed, LocalDateTime createdAt) {
+        this(id, title, description, completed, createdAt, null, 0L);
+    }
+
+    /**
+     * Detached copy, for stores and caches that must not share instances with callers.
+     */
+    public Todo copy() {
+        return new Todo(id, title, description, completed, createdAt, updatedAt, version);
+    }
 }
@@ -0,0 +1,11 @@
+package com.example.todolist.model;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+
+/**
+ * Number of todos, and of those created since a given time per hour, keyed by the start of the hour.
+ */
+public record TodoCounts(long total, Map<LocalDateTime, Long> createdPerHour) {
+}
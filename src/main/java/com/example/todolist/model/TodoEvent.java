@@ -0,0 +1,39 @@
+package com.example.todolist.model;
+
+/**
+ * A change published on the change feed. {@code todo} is the state after the change and {@code null} for
+ * deletions and resets. {@code sequence} is assigned by the feed when the change is published and is {@code 0}
+ * until then.
+ */
+public record TodoEvent(long sequence, Type type, Long id, Todo todo) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        /**
+         * The subscriber cannot be resumed from where it left off and has to reload the todos it shows.
+         */
+        RESET
+    }
+
+    public static TodoEvent created(Todo todo) {
+        return new TodoEvent(0, Type.CREATED, todo.getId(), todo);
+    }
+
+    public static TodoEvent updated(Todo todo) {
+        return new TodoEvent(0, Type.UPDATED, todo.getId(), todo);
+    }
+
+    public static TodoEvent deleted(Long id) {
+        return new TodoEvent(0, Type.DELETED, id, null);
+    }
+
+    public static TodoEvent reset(long sequence) {
+        return new TodoEvent(sequence, Type.RESET, null, null);
+    }
+
+    public TodoEvent withSequence(long sequence) {
+        return new TodoEvent(sequence, type, id, todo);
+    }
+}
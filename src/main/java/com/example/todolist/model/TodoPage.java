@@ -0,0 +1,7 @@
+package com.example.todolist.model;
+
+import java.util.List;
+
+
+public record TodoPage(List<Todo> items, Long nextCursor) {
+}
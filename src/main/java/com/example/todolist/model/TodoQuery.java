@@ -0,0 +1,127 @@
+package com.example.todolist.model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+
+/**
+ * Filters, order and size of a {@code GET /todos} query. {@code null} filters match every todo. Title filters
+ * ignore case, {@code createdFrom} is inclusive and {@code createdTo} exclusive. Todos are sorted by the keys of
+ * {@code sort} in turn and then by id, in the direction of the first key; without keys they are sorted by id.
+ * Missing values sort last in either direction.
+ */
+public record TodoQuery(Boolean completed, String titleContains, String titlePrefix,
+                        LocalDateTime createdFrom, LocalDateTime createdTo, List<Sort> sort, int limit) {
+
+    public TodoQuery {
+        titleContains = lowerCase(titleContains);
+        titlePrefix = lowerCase(titlePrefix);
+        sort = sort == null || sort.isEmpty() ? List.of(new Sort(Field.ID, false)) : List.copyOf(sort);
+    }
+
+    public enum Field {
+        ID("id", Todo::getId),
+        TITLE("title", todo -> todo.getTitle() == null ? null : todo.getTitle().toLowerCase(Locale.ROOT)),
+        CREATED_AT("createdAt", Todo::getCreatedAt),
+        UPDATED_AT("updatedAt", Todo::getUpdatedAt);
+
+        private final String property;
+        private final Function<Todo, Comparable<Object>> key;
+
+        @SuppressWarnings("unchecked")
+        Field(String property, Function<Todo, ? extends Comparable<?>> key) {
+            this.property = property;
+            this.key = (Function<Todo, Comparable<Object>>) key;
+        }
+
+        /**
+         * Name of the field in JSON and of the entity property.
+         */
+        public String property() {
+            return property;
+        }
+    }
+
+    public record Sort(Field field, boolean descending) {
+
+        /**
+         * Parses {@code field[,asc|desc]}, where {@code field} is named as in JSON.
+         *
+         * @throws IllegalArgumentException for an unknown field or direction
+         */
+        public static Sort parse(String value) {
+            String[] parts = value.split(",", -1);
+            if (parts.length > 2 || (parts.length == 2 && !parts[1].strip().matches("(?i)asc|desc"))) {
+                throw new IllegalArgumentException("Sort must be field[,asc|desc]: " + value);
+            }
+            for (Field field : Field.values()) {
+                if (field.property().equals(parts[0].strip())) {
+                    return new Sort(field, parts.length == 2 && parts[1].strip().equalsIgnoreCase("desc"));
+                }
+            }
+            throw new IllegalArgumentException("Unknown sort field: " + parts[0]);
+        }
+
+        /**
+         * Parses the values of repeated {@code sort} parameters. A single parameter reaches a {@code List} split at
+         * its commas, so a direction is joined back to the field before it.
+         *
+         * @throws IllegalArgumentException for an unknown field or direction
+         */
+        public static List<Sort> parseAll(List<String> values) {
+            List<String> tokens = values.stream()
+                .flatMap(value -> Arrays.stream(value.split(",", -1)))
+                .map(String::strip)
+                .toList();
+            List<Sort> keys = new ArrayList<>();
+            for (int i = 0; i < tokens.size(); i++) {
+                boolean directed = i + 1 < tokens.size() && tokens.get(i + 1).matches("(?i)asc|desc");
+                keys.add(parse(directed ? tokens.get(i) + "," + tokens.get(++i) : tokens.get(i)));
+            }
+            return keys;
+        }
+    }
+
+    public boolean matches(Todo todo) {
+        if (completed != null && todo.isCompleted() != completed) {
+            return false;
+        }
+        if (titleContains != null || titlePrefix != null) {
+            String title = lowerCase(todo.getTitle());
+            if (title == null
+                || (titleContains != null && !title.contains(titleContains))
+                || (titlePrefix != null && !title.startsWith(titlePrefix))) {
+                return false;
+            }
+        }
+        if (createdFrom != null || createdTo != null) {
+            LocalDateTime createdAt = todo.getCreatedAt();
+            return createdAt != null
+                && (createdFrom == null || !createdAt.isBefore(createdFrom))
+                && (createdTo == null || createdAt.isBefore(createdTo));
+        }
+        return true;
+    }
+
+    public Comparator<Todo> comparator() {
+        Comparator<Todo> comparator = null;
+        for (Sort key : sort) {
+            Comparator<Comparable<Object>> values = key.descending()
+                ? Comparator.<Comparable<Object>>reverseOrder()
+                : Comparator.<Comparable<Object>>naturalOrder();
+            Comparator<Todo> next = Comparator.comparing(key.field().key, Comparator.nullsLast(values));
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        Comparator<Todo> byId = Comparator.comparing(Todo::getId);
+        return comparator.thenComparing(sort.get(0).descending() ? byId.reversed() : byId);
+    }
+
+    private static String lowerCase(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.todolist.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+
+/**
+ * Body of {@code GET /todos/stats}. The buckets cover the most recent hours and days, oldest first, including
+ * those in which nothing was created.
+ */
+public record TodoStats(long total, long completed, long open, List<Bucket> createdPerHour, List<Bucket> createdPerDay) {
+
+    public record Bucket(LocalDateTime start, long created) {
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.todolist.model;
+
+
+/**
+ * Identity and version of a todo, enough to tell whether a cached representation is still current.
+ */
+public record TodoVersion(Long id, long version) {
+}
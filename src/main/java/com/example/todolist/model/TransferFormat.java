@@ -0,0 +1,34 @@
+package com.example.todolist.model;
+
+import org.springframework.http.MediaType;
+
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+
+
+/**
+ * Line formats of {@code GET /todos/export} and {@code POST /todos/import}.
+ */
+public enum TransferFormat {
+    /**
+     * RFC 4180 with a header row; {@code null} is an empty field and an empty string a quoted one.
+     */
+    CSV(new MediaType("text", "csv")),
+    /**
+     * One JSON object per line, as returned by {@code GET /todos} for {@code application/x-ndjson}.
+     */
+    NDJSON(APPLICATION_NDJSON);
+
+    private final MediaType mediaType;
+
+    TransferFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    public String fileName() {
+        return "todos." + name().toLowerCase();
+    }
+}
@@ -1,24 +1,154 @@
 package com.example.todolist.repository;
 
+import com.example.todolist.model.SearchMode;
 import com.example.todolist.model.Todo;
+import com.example.todolist.model.TodoCounts;
+import com.example.todolist.model.TodoQuery;
+import com.example.todolist.model.TodoVersion;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 
 
 public interface BaseRepository {
 
     List<Todo> findAll();
 
+    /**
+     * Keyset page ordered by id: at most {@code limit} todos whose id is greater than {@code afterId}.
+     * A {@code null} cursor starts from the first todo.
+     */
+    List<Todo> findAllAfter(Long afterId, int limit);
+
+    /**
+     * Ids and versions of the page {@link #findAllAfter(Long, int)} would return, without loading the todos.
+     */
+    List<TodoVersion> findVersionsAfter(Long afterId, int limit);
+
+    /**
+     * Hands every todo to {@code consumer} in id order without holding the whole table in memory.
+     */
+    void streamAll(Consumer<Todo> consumer);
+
+    /**
+     * Number of todos, and of those created since {@code createdSince} per hour. The default reads every todo;
+     * the JPA store aggregates in the database.
+     */
+    default TodoCounts countAll(LocalDateTime createdSince) {
+        long[] total = {0};
+        Map<LocalDateTime, Long> createdPerHour = new HashMap<>();
+        streamAll(todo -> {
+            total[0]++;
+            if (todo.getCreatedAt() != null && !todo.getCreatedAt().isBefore(createdSince)) {
+                createdPerHour.merge(todo.getCreatedAt().truncatedTo(ChronoUnit.HOURS), 1L, Long::sum);
+            }
+        });
+        return new TodoCounts(total[0], createdPerHour);
+    }
+
+    /**
+     * Hands the id of every completed todo to {@code consumer}. The default reads every todo.
+     */
+    default void streamCompletedIds(LongConsumer consumer) {
+        streamAll(todo -> {
+            if (todo.isCompleted()) {
+                consumer.accept(todo.getId());
+            }
+        });
+    }
+
     Optional<Todo> findById(Long id);
 
+    /**
+     * The todos among {@code ids} that exist, in no particular order. The default looks every id up on its own; the
+     * database stores read them with one {@code where id in (...)} query.
+     */
+    default List<Todo> findAllById(Collection<Long> ids) {
+        return ids.stream().map(this::findById).flatMap(Optional::stream).toList();
+    }
+
     List<Todo> findByTitle(String title);
 
     List<Todo> findByCompleted(boolean completed);
 
+    /**
+     * The first {@code query.limit()} todos matching {@code query}, in its order. The default reads every todo and
+     * keeps only the best {@code limit} of them at any time.
+     */
+    default List<Todo> query(TodoQuery query) {
+        Comparator<Todo> order = query.comparator();
+        PriorityQueue<Todo> best = new PriorityQueue<>(query.limit() + 1, order.reversed());
+        streamAll(todo -> {
+            if (query.matches(todo)) {
+                best.add(todo);
+                if (best.size() > query.limit()) {
+                    best.poll();
+                }
+            }
+        });
+
+        List<Todo> result = new ArrayList<>(best);
+        result.sort(order);
+        return result;
+    }
+
+    /**
+     * Full-text search over title and description, best match first and then by id.
+     *
+     * @return at most {@code limit} todos after skipping the first {@code offset} matches
+     */
+    List<Todo> search(String text, SearchMode mode, int offset, int limit);
+
     Todo save(Todo todo);
 
+    /**
+     * Inserts all todos together so the JPA store can send them as JDBC batches.
+     */
+    List<Todo> saveAll(List<Todo> todos);
+
     Todo update(Todo todo);
 
-    void deleteById(Long id);
+    /**
+     * Single-statement partial update: non-null {@code title} and {@code description} replace the stored values
+     * and {@code completed} is always applied. Empty when no todo has the given id.
+     */
+    default Optional<Todo> patch(Long id, Todo changes) {
+        return patch(id, changes, null);
+    }
+
+    /**
+     * {@link #patch(Long, Todo)} that only applies while the stored version still equals {@code expectedVersion};
+     * a {@code null} expected version matches any. Empty when the todo is missing or has moved on.
+     */
+    Optional<Todo> patch(Long id, Todo changes, Long expectedVersion);
+
+    /**
+     * Single-statement delete.
+     *
+     * @return whether a todo was removed
+     */
+    boolean deleteById(Long id);
+
+    /**
+     * Applies {@link #patch(Long, Todo)} semantics to every entry.
+     *
+     * @return the patched todos keyed by id; ids that do not exist are absent
+     */
+    Map<Long, Todo> patchAll(Map<Long, Todo> changesById);
+
+    /**
+     * @return the ids that were actually removed
+     */
+    Set<Long> deleteAllById(Collection<Long> ids);
 }
@@ -0,0 +1,204 @@
+package com.example.todolist.repository;
+
+import com.example.todolist.model.SearchMode;
+import com.example.todolist.model.Todo;
+import com.example.todolist.model.TodoCounts;
+import com.example.todolist.model.TodoQuery;
+import com.example.todolist.model.TodoVersion;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+
+
+/**
+ * Read-through cache for {@link #findById(Long)} in front of another {@link BaseRepository}.
+ * Writes go to the delegate first and then refresh or invalidate the entry; inside a transaction only once it has
+ * committed, so a rollback leaves the cache alone and no reader caches a row that was not committed yet. Entries are
+ * copies and every hit returns a fresh copy, so callers that mutate the returned {@code Todo} cannot corrupt the cache.
+ */
+@Timed(value = "todolist.repository", histogram = true)
+public class CachingTodoRepository implements BaseRepository {
+    private final BaseRepository delegate;
+    private final Cache<Long, Todo> cache;
+
+
+    public CachingTodoRepository(BaseRepository delegate, Cache<Long, Todo> cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public List<Todo> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<Todo> findAllAfter(Long afterId, int limit) {
+        return delegate.findAllAfter(afterId, limit);
+    }
+
+    @Override
+    public List<TodoVersion> findVersionsAfter(Long afterId, int limit) {
+        return delegate.findVersionsAfter(afterId, limit);
+    }
+
+    @Override
+    public void streamAll(Consumer<Todo> consumer) {
+        delegate.streamAll(consumer);
+    }
+
+    @Override
+    public TodoCounts countAll(LocalDateTime createdSince) {
+        return delegate.countAll(createdSince);
+    }
+
+    @Override
+    public void streamCompletedIds(LongConsumer consumer) {
+        delegate.streamCompletedIds(consumer);
+    }
+
+    @Override
+    public Optional<Todo> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+
+        Todo cached = cache.get(id, key -> delegate.findById(key).map(Todo::copy).orElse(null));
+        return Optional.ofNullable(cached).map(Todo::copy);
+    }
+
+    /**
+     * Reads the ids that are not cached with one call of the delegate.
+     */
+    @Override
+    public List<Todo> findAllById(Collection<Long> ids) {
+        Map<Long, Todo> cached = cache.getAll(ids, missing -> delegate.findAllById(List.copyOf(missing))
+            .stream()
+            .collect(Collectors.toMap(Todo::getId, Todo::copy)));
+        return cached.values().stream().map(Todo::copy).toList();
+    }
+
+    @Override
+    public List<Todo> findByTitle(String title) {
+        return delegate.findByTitle(title);
+    }
+
+    @Override
+    public List<Todo> findByCompleted(boolean completed) {
+        return delegate.findByCompleted(completed);
+    }
+
+    @Override
+    public List<Todo> query(TodoQuery query) {
+        return delegate.query(query);
+    }
+
+    @Override
+    public List<Todo> search(String text, SearchMode mode, int offset, int limit) {
+        return delegate.search(text, mode, offset, limit);
+    }
+
+    @Override
+    public Todo save(Todo todo) {
+        Todo saved = delegate.save(todo);
+        afterCommit(() -> refresh(saved));
+        return saved;
+    }
+
+    @Override
+    public List<Todo> saveAll(List<Todo> todos) {
+        List<Todo> saved = delegate.saveAll(todos);
+        afterCommit(() -> saved.forEach(this::refresh));
+        return saved;
+    }
+
+    @Override
+    public Todo update(Todo todo) {
+        Todo updated = delegate.update(todo);
+        afterCommit(() -> {
+            if (updated == null) {
+                cache.invalidate(todo.getId());
+            } else {
+                refresh(updated);
+            }
+        });
+
+        return updated;
+    }
+
+    @Override
+    public Optional<Todo> patch(Long id, Todo changes, Long expectedVersion) {
+        Optional<Todo> patched = delegate.patch(id, changes, expectedVersion);
+        afterCommit(() -> {
+            if (patched.isPresent()) {
+                refresh(patched.get());
+            } else if (id != null) {
+                cache.invalidate(id);
+            }
+        });
+
+        return patched;
+    }
+
+    @Override
+    public boolean deleteById(Long id) {
+        boolean deleted = delegate.deleteById(id);
+        if (id != null) {
+            afterCommit(() -> cache.invalidate(id));
+        }
+
+        return deleted;
+    }
+
+    /**
+     * Evicts the patched ids rather than caching the rows, which a store may return before their version is bumped.
+     */
+    @Override
+    public Map<Long, Todo> patchAll(Map<Long, Todo> changesById) {
+        Map<Long, Todo> patched = delegate.patchAll(changesById);
+        Set<Long> ids = Set.copyOf(changesById.keySet());
+        afterCommit(() -> cache.invalidateAll(ids));
+        return patched;
+    }
+
+    @Override
+    public Set<Long> deleteAllById(Collection<Long> ids) {
+        Set<Long> deleted = delegate.deleteAllById(ids);
+        afterCommit(() -> cache.invalidateAll(ids));
+        return deleted;
+    }
+
+    /**
+     * Runs a change of the cache once the current transaction has committed, or right away outside of one. Written
+     * rows are copied only then, after the flush has set their final version.
+     */
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    private void refresh(Todo todo) {
+        if (todo != null && todo.getId() != null) {
+            cache.put(todo.getId(), todo.copy());
+        }
+    }
+}
@@ -0,0 +1,482 @@
+package com.example.todolist.repository;
+
+import com.example.todolist.model.SearchMode;
+import com.example.todolist.model.Todo;
+import com.example.todolist.model.TodoVersion;
+import io.micrometer.core.annotation.Timed;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+
+/**
+ * In-memory store that keeps todos in primitive columns instead of one object per todo: ids, versions and epoch
+ * millis in {@code long[]}s, {@code completed} in a {@link BitSet}, and titles and descriptions as references into
+ * a {@link StringDictionary}, so repeated strings are stored once as UTF-8. A row costs about 40 bytes plus its
+ * distinct strings, against several hundred for a {@link Todo} with its boxed id, timestamps and index entries.
+ * {@code Todo} objects are only built for the rows a read returns.
+ *
+ * <p>Ids are handed out in increasing order and rows are only appended, so the id column stays sorted and lookups
+ * are a binary search. Deleted rows are cleared in a liveness bitset and squeezed out once they outnumber the live
+ * ones. {@code findByCompleted} is a bitset scan and {@code findByTitle} a scan of the case-folded title column;
+ * search scores every row. Timestamps are kept to the millisecond. Reads share a read-write lock and writes take it
+ * exclusively, which suits read-heavy use; batches take it once for the whole batch.
+ */
+@Timed(value = "todolist.repository", histogram = true)
+public class ColumnarTodoRepository implements BaseRepository {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int STREAM_CHUNK = 1024;
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final StringDictionary strings = new StringDictionary();
+    private final BitSet live = new BitSet();
+    private final BitSet completed = new BitSet();
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long[] versions = new long[INITIAL_CAPACITY];
+    private long[] createdAt = new long[INITIAL_CAPACITY];
+    private long[] updatedAt = new long[INITIAL_CAPACITY];
+    private int[] titles = new int[INITIAL_CAPACITY];
+    private int[] titleKeys = new int[INITIAL_CAPACITY];
+    private int[] descriptions = new int[INITIAL_CAPACITY];
+    private int rows;
+    private int liveRows;
+    private long nextId = 1L;
+
+
+    @Override
+    public List<Todo> findAll() {
+        return findAllAfter(null, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Todo> findAllAfter(Long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            List<Todo> page = new ArrayList<>(Math.min(limit, liveRows));
+            for (int row = live.nextSetBit(firstRowAfter(afterId)); row >= 0 && page.size() < limit;
+                 row = live.nextSetBit(row + 1)) {
+                page.add(todo(row));
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<TodoVersion> findVersionsAfter(Long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            List<TodoVersion> page = new ArrayList<>(Math.min(limit, liveRows));
+            for (int row = live.nextSetBit(firstRowAfter(afterId)); row >= 0 && page.size() < limit;
+                 row = live.nextSetBit(row + 1)) {
+                page.add(new TodoVersion(ids[row], versions[row]));
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Materializes {@value #STREAM_CHUNK} rows at a time and releases the lock while {@code consumer} runs, so a
+     * slow consumer never holds off writers; each chunk resumes after the last id handed out.
+     */
+    @Override
+    public void streamAll(Consumer<Todo> consumer) {
+        Long cursor = null;
+        List<Todo> chunk;
+        do {
+            chunk = findAllAfter(cursor, STREAM_CHUNK);
+            chunk.forEach(consumer);
+            if (!chunk.isEmpty()) {
+                cursor = chunk.get(chunk.size() - 1).getId();
+            }
+        } while (chunk.size() == STREAM_CHUNK);
+    }
+
+    @Override
+    public Optional<Todo> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            int row = rowOf(id);
+            return row < 0 ? Optional.empty() : Optional.of(todo(row));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Todo> findByTitle(String title) {
+        if (title == null) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            int key = strings.find(titleKey(title));
+            if (key == StringDictionary.NULL) {
+                return List.of();
+            }
+
+            List<Todo> found = new ArrayList<>();
+            for (int row = live.nextSetBit(0); row >= 0; row = live.nextSetBit(row + 1)) {
+                if (titleKeys[row] == key) {
+                    found.add(todo(row));
+                }
+            }
+            return found;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Todo> findByCompleted(boolean completed) {
+        lock.readLock().lock();
+        try {
+            BitSet matching = (BitSet) live.clone();
+            if (completed) {
+                matching.and(this.completed);
+            } else {
+                matching.andNot(this.completed);
+            }
+
+            List<Todo> found = new ArrayList<>(matching.cardinality());
+            for (int row = matching.nextSetBit(0); row >= 0; row = matching.nextSetBit(row + 1)) {
+                found.add(todo(row));
+            }
+            return found;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Scores every row; only the title and description are decoded until the page is known.
+     */
+    @Override
+    public List<Todo> search(String text, SearchMode mode, int offset, int limit) {
+        TodoSearchIndex.Query query = TodoSearchIndex.Query.of(text, mode);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            record Hit(int row, long id, double score) {
+            }
+            List<Hit> hits = new ArrayList<>();
+            for (int row = live.nextSetBit(0); row >= 0; row = live.nextSetBit(row + 1)) {
+                Todo candidate = new Todo(ids[row], strings.get(titles[row]), strings.get(descriptions[row]), false,
+                    null);
+                double score = TodoSearchIndex.score(candidate, query);
+                if (score > 0) {
+                    hits.add(new Hit(row, ids[row], score));
+                }
+            }
+            return hits.stream()
+                .sorted(Comparator.comparingDouble(Hit::score).reversed()
+                    .thenComparingLong(Hit::id))
+                .skip(offset)
+                .limit(limit)
+                .map(hit -> todo(hit.row()))
+                .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Todo save(Todo todo) {
+        lock.writeLock().lock();
+        try {
+            return todo(append(todo));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Todo> saveAll(List<Todo> todos) {
+        lock.writeLock().lock();
+        try {
+            List<Todo> saved = new ArrayList<>(todos.size());
+            for (Todo todo : todos) {
+                saved.add(todo(append(todo)));
+            }
+            return saved;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Todo update(Todo todo) {
+        if (todo.getId() == null) {
+            return null;
+        }
+
+        lock.writeLock().lock();
+        try {
+            int row = rowOf(todo.getId());
+            if (row < 0) {
+                return null;
+            }
+
+            write(row, todo.getTitle(), todo.getDescription(), todo.isCompleted());
+            return todo(row);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Todo> patch(Long id, Todo changes, Long expectedVersion) {
+        if (id == null) {
+            return Optional.empty();
+        }
+
+        lock.writeLock().lock();
+        try {
+            return Optional.ofNullable(patchRow(id, changes, expectedVersion));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean deleteById(Long id) {
+        if (id == null) {
+            return false;
+        }
+
+        lock.writeLock().lock();
+        try {
+            boolean deleted = deleteRow(id);
+            compactIfSparse();
+            return deleted;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Map<Long, Todo> patchAll(Map<Long, Todo> changesById) {
+        lock.writeLock().lock();
+        try {
+            Map<Long, Todo> patched = new LinkedHashMap<>();
+            changesById.forEach((id, changes) -> {
+                Todo todo = id == null ? null : patchRow(id, changes, null);
+                if (todo != null) {
+                    patched.put(id, todo);
+                }
+            });
+            return patched;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Set<Long> deleteAllById(Collection<Long> ids) {
+        lock.writeLock().lock();
+        try {
+            Set<Long> deleted = new HashSet<>();
+            for (Long id : ids) {
+                if (id != null && deleteRow(id)) {
+                    deleted.add(id);
+                }
+            }
+            compactIfSparse();
+            return deleted;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Number of distinct titles and descriptions held, shared between all rows that use them.
+     */
+    int distinctStrings() {
+        lock.readLock().lock();
+        try {
+            return strings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int append(Todo todo) {
+        if (rows == ids.length) {
+            grow();
+        }
+
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        int row = rows++;
+        ids[row] = nextId++;
+        versions[row] = -1L;
+        createdAt[row] = millis(now);
+        titles[row] = StringDictionary.NULL;
+        titleKeys[row] = StringDictionary.NULL;
+        descriptions[row] = StringDictionary.NULL;
+        live.set(row);
+        liveRows++;
+        write(row, todo.getTitle(), todo.getDescription(), todo.isCompleted(), now);
+
+        todo.setId(ids[row]);
+        todo.setCreatedAt(now);
+        todo.setUpdatedAt(now);
+        todo.setVersion(0L);
+        return row;
+    }
+
+    private Todo patchRow(long id, Todo changes, Long expectedVersion) {
+        int row = rowOf(id);
+        if (row < 0 || (expectedVersion != null && versions[row] != expectedVersion)) {
+            return null;
+        }
+
+        write(row,
+            changes.getTitle() != null ? changes.getTitle() : strings.get(titles[row]),
+            changes.getDescription() != null ? changes.getDescription() : strings.get(descriptions[row]),
+            changes.isCompleted());
+        return todo(row);
+    }
+
+    private void write(int row, String title, String description, boolean isCompleted) {
+        write(row, title, description, isCompleted, LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+    }
+
+    /**
+     * Interns the new strings before releasing the old ones, so a value that did not change keeps its entry.
+     */
+    private void write(int row, String title, String description, boolean isCompleted, LocalDateTime now) {
+        int titleRef = strings.intern(title);
+        int titleKeyRef = title == null ? StringDictionary.NULL : strings.intern(titleKey(title));
+        int descriptionRef = strings.intern(description);
+        strings.release(titles[row]);
+        strings.release(titleKeys[row]);
+        strings.release(descriptions[row]);
+
+        titles[row] = titleRef;
+        titleKeys[row] = titleKeyRef;
+        descriptions[row] = descriptionRef;
+        completed.set(row, isCompleted);
+        updatedAt[row] = millis(now);
+        versions[row]++;
+    }
+
+    private boolean deleteRow(long id) {
+        int row = rowOf(id);
+        if (row < 0) {
+            return false;
+        }
+
+        strings.release(titles[row]);
+        strings.release(titleKeys[row]);
+        strings.release(descriptions[row]);
+        live.clear(row);
+        completed.clear(row);
+        liveRows--;
+        return true;
+    }
+
+    /**
+     * Moves the live rows down over the deleted ones once those are the majority, keeping the id order.
+     */
+    private void compactIfSparse() {
+        if (rows < INITIAL_CAPACITY || rows - liveRows <= liveRows) {
+            return;
+        }
+
+        int to = 0;
+        for (int from = live.nextSetBit(0); from >= 0; from = live.nextSetBit(from + 1), to++) {
+            ids[to] = ids[from];
+            versions[to] = versions[from];
+            createdAt[to] = createdAt[from];
+            updatedAt[to] = updatedAt[from];
+            titles[to] = titles[from];
+            titleKeys[to] = titleKeys[from];
+            descriptions[to] = descriptions[from];
+            completed.set(to, completed.get(from));
+        }
+        live.clear(to, rows);
+        live.set(0, to);
+        completed.clear(to, rows);
+        rows = to;
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+        createdAt = Arrays.copyOf(createdAt, capacity);
+        updatedAt = Arrays.copyOf(updatedAt, capacity);
+        titles = Arrays.copyOf(titles, capacity);
+        titleKeys = Arrays.copyOf(titleKeys, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+    }
+
+    /**
+     * @return the live row holding {@code id}, or {@code -1}
+     */
+    private int rowOf(long id) {
+        int row = Arrays.binarySearch(ids, 0, rows, id);
+        return row >= 0 && live.get(row) ? row : -1;
+    }
+
+    private int firstRowAfter(Long afterId) {
+        if (afterId == null) {
+            return 0;
+        }
+
+        int row = Arrays.binarySearch(ids, 0, rows, afterId);
+        return row >= 0 ? row + 1 : -row - 1;
+    }
+
+    private Todo todo(int row) {
+        return new Todo(
+            ids[row],
+            strings.get(titles[row]),
+            strings.get(descriptions[row]),
+            completed.get(row),
+            time(createdAt[row]),
+            time(updatedAt[row]),
+            versions[row]);
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time == null ? NO_TIME : time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime time(long millis) {
+        return millis == NO_TIME ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+    }
+
+    private static String titleKey(String title) {
+        return title.toLowerCase(Locale.ROOT);
+    }
+}
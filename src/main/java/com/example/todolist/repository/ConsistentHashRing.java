@@ -0,0 +1,53 @@
+package com.example.todolist.repository;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+
+/**
+ * Places ids on shards by consistent hashing. Every shard owns {@code virtualNodes} points on a ring of 64-bit hashes,
+ * and an id belongs to the shard of the first point at or after the hash of the id. The points of a shard depend only
+ * on its position, so appending a shard moves only the ids that fall to its new points, about {@code 1/n} of them,
+ * and leaves every other id where it was.
+ */
+final class ConsistentHashRing {
+    private final long[] points;
+    private final int[] owners;
+
+
+    ConsistentHashRing(int shards, int virtualNodes) {
+        if (shards < 1 || virtualNodes < 1) {
+            throw new IllegalArgumentException("A ring needs at least one shard and one virtual node");
+        }
+
+        record Point(long hash, int shard) {
+        }
+        Point[] ring = new Point[shards * virtualNodes];
+        for (int shard = 0; shard < shards; shard++) {
+            for (int node = 0; node < virtualNodes; node++) {
+                ring[shard * virtualNodes + node] = new Point(hash((long) shard << 32 | node), shard);
+            }
+        }
+        Arrays.sort(ring, Comparator.comparingLong(Point::hash));
+
+        this.points = Arrays.stream(ring).mapToLong(Point::hash).toArray();
+        this.owners = Arrays.stream(ring).mapToInt(Point::shard).toArray();
+    }
+
+    int shardOf(long id) {
+        int index = Arrays.binarySearch(points, hash(id));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    /**
+     * The 64-bit finalizer of {@link java.util.SplittableRandom}, which spreads consecutive ids evenly.
+     */
+    static long hash(long value) {
+        long z = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
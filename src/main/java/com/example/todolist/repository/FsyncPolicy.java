@@ -0,0 +1,19 @@
+package com.example.todolist.repository;
+
+/**
+ * When {@link TodoJournal} forces appended records to disk.
+ */
+public enum FsyncPolicy {
+    /**
+     * After every batch; a write returns once its record is on disk. Concurrent writers share one fsync.
+     */
+    ALWAYS,
+    /**
+     * At most once per interval; a crash can lose the writes of the last interval.
+     */
+    INTERVAL,
+    /**
+     * Left to the operating system; survives a process crash but not a power loss.
+     */
+    NEVER
+}
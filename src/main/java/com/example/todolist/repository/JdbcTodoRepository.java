@@ -0,0 +1,282 @@
+package com.example.todolist.repository;
+
+import com.example.todolist.model.SearchMode;
+import com.example.todolist.model.Todo;
+import com.example.todolist.model.TodoCounts;
+import com.example.todolist.model.TodoQuery;
+import com.example.todolist.model.TodoVersion;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+
+/**
+ * {@link BaseRepository} over one database in plain JDBC, the shard store of {@link ShardedTodoRepository}. It uses
+ * the schema of the Flyway migrations and the statements of {@link TodoRepository}, but ids are assigned by the
+ * caller instead of drawn from {@code todos_seq}, and there is no persistence context: every method is one
+ * statement, apart from {@link #streamAll}, {@link #countAll} and {@link #patchAll}, which run in a transaction of
+ * their own.
+ */
+public class JdbcTodoRepository implements BaseRepository, AutoCloseable {
+    private static final String COLUMNS = "id, title, description, completed, created_at, updated_at, version";
+    private static final String SELECT = "select " + COLUMNS + " from todos";
+    private static final String INSERT = "insert into todos (" + COLUMNS + ") values (?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE = "update todos set "
+        + "title = :title, "
+        + "description = :description, "
+        + "completed = :completed, "
+        + "version = version + 1, "
+        + "updated_at = :updatedAt "
+        + "where id = :id";
+    private static final int FETCH_SIZE = 500;
+    private static final RowMapper<Todo> TODO = (rs, row) -> new Todo(
+        rs.getLong("id"),
+        rs.getString("title"),
+        rs.getString("description"),
+        rs.getBoolean("completed"),
+        rs.getObject("created_at", LocalDateTime.class),
+        rs.getObject("updated_at", LocalDateTime.class),
+        rs.getLong("version"));
+
+    private final DataSource dataSource;
+    private final JdbcTemplate template;
+    private final JdbcClient jdbc;
+    private final TransactionTemplate transaction;
+    private final TransactionTemplate readOnly;
+    private final boolean postgres;
+    private final String updateSql;
+    private final String patchSql;
+    private final String deleteAllSql;
+
+
+    /**
+     * @param postgres whether {@code dataSource} is PostgreSQL; otherwise it is taken for H2
+     */
+    public JdbcTodoRepository(DataSource dataSource, boolean postgres) {
+        this.dataSource = dataSource;
+        this.template = new JdbcTemplate(dataSource);
+        this.template.setFetchSize(FETCH_SIZE);
+        this.jdbc = JdbcClient.create(template);
+        this.transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.readOnly = new TransactionTemplate(transaction.getTransactionManager());
+        this.readOnly.setReadOnly(true);
+        this.postgres = postgres;
+        this.updateSql = TodoRepository.returning(!postgres, UPDATE, "final", COLUMNS);
+        this.patchSql = TodoRepository.returning(!postgres, TodoRepository.PATCH, "final", COLUMNS);
+        this.deleteAllSql = TodoRepository.returning(!postgres, TodoRepository.DELETE_ALL, "old", "id");
+    }
+
+    @Override
+    public List<Todo> findAll() {
+        return jdbc.sql(SELECT + " order by id").query(TODO).list();
+    }
+
+    @Override
+    public List<Todo> findAllAfter(Long afterId, int limit) {
+        return jdbc.sql(SELECT + " where id > :after order by id limit :limit")
+            .param("after", afterId == null ? Long.MIN_VALUE : afterId)
+            .param("limit", limit)
+            .query(TODO)
+            .list();
+    }
+
+    @Override
+    public List<TodoVersion> findVersionsAfter(Long afterId, int limit) {
+        return jdbc.sql("select id, version from todos where id > :after order by id limit :limit")
+            .param("after", afterId == null ? Long.MIN_VALUE : afterId)
+            .param("limit", limit)
+            .query((rs, row) -> new TodoVersion(rs.getLong("id"), rs.getLong("version")))
+            .list();
+    }
+
+    /**
+     * Inside a read-only transaction, so PostgreSQL serves the rows from a server-side cursor in fetch-size chunks.
+     */
+    @Override
+    public void streamAll(Consumer<Todo> consumer) {
+        readOnly.executeWithoutResult(status -> {
+            try (Stream<Todo> todos = jdbc.sql(SELECT + " order by id").query(TODO).stream()) {
+                todos.forEach(consumer);
+            }
+        });
+    }
+
+    @Override
+    public TodoCounts countAll(LocalDateTime createdSince) {
+        return readOnly.execute(status -> {
+            Map<LocalDateTime, Long> createdPerHour = new LinkedHashMap<>();
+            jdbc.sql("select date_trunc('hour', created_at), count(*) from todos where created_at >= :since "
+                    + "group by date_trunc('hour', created_at)")
+                .param("since", createdSince)
+                .query(rs -> {
+                    createdPerHour.put(rs.getObject(1, LocalDateTime.class), rs.getLong(2));
+                });
+            return new TodoCounts(jdbc.sql("select count(*) from todos").query(Long.class).single(), createdPerHour);
+        });
+    }
+
+    @Override
+    public void streamCompletedIds(LongConsumer consumer) {
+        readOnly.executeWithoutResult(status -> {
+            String sql = "select id from todos where completed = true";
+            try (Stream<Long> ids = jdbc.sql(sql).query(Long.class).stream()) {
+                ids.forEach(consumer::accept);
+            }
+        });
+    }
+
+    @Override
+    public Optional<Todo> findById(Long id) {
+        return jdbc.sql(SELECT + " where id = :id").param("id", id).query(TODO).optional();
+    }
+
+    @Override
+    public List<Todo> findAllById(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        return jdbc.sql(SELECT + " where id in (:ids)").param("ids", ids).query(TODO).list();
+    }
+
+    @Override
+    public List<Todo> findByTitle(String title) {
+        return jdbc.sql(SELECT + " where lower(title) = lower(:title) order by id")
+            .param("title", title)
+            .query(TODO)
+            .list();
+    }
+
+    /**
+     * The status is a literal, as in {@link TodoJPARepository}, so PostgreSQL can match the partial indexes.
+     */
+    @Override
+    public List<Todo> findByCompleted(boolean completed) {
+        return jdbc.sql(SELECT + " where completed = " + completed + " order by id").query(TODO).list();
+    }
+
+    @Override
+    public List<Todo> query(TodoQuery query) {
+        TodoQuerySql sql = TodoQuerySql.of(postgres, query);
+        return jdbc.sql(sql.sql()).params(sql.parameters()).query(TODO).list();
+    }
+
+    @Override
+    public List<Todo> search(String text, SearchMode mode, int offset, int limit) {
+        TodoSearchSql search = TodoSearchSql.of(postgres, text, mode, offset, limit);
+        if (search == null) {
+            return List.of();
+        }
+
+        return jdbc.sql(search.sql()).params(search.parameters()).query(TODO).list();
+    }
+
+    /**
+     * @throws IllegalArgumentException when {@code todo} has no id
+     */
+    @Override
+    public Todo save(Todo todo) {
+        template.update(INSERT, insertArguments(stamped(todo)));
+        return todo;
+    }
+
+    @Override
+    public List<Todo> saveAll(List<Todo> todos) {
+        template.batchUpdate(INSERT, todos.stream().map(todo -> insertArguments(stamped(todo))).toList());
+        return todos;
+    }
+
+    @Override
+    public Todo update(Todo todo) {
+        if (todo.getId() == null) {
+            return null;
+        }
+
+        return jdbc.sql(updateSql)
+            .param("title", todo.getTitle(), Types.VARCHAR)
+            .param("description", todo.getDescription(), Types.VARCHAR)
+            .param("completed", todo.isCompleted())
+            .param("updatedAt", LocalDateTime.now())
+            .param("id", todo.getId())
+            .query(TODO)
+            .optional()
+            .orElse(null);
+    }
+
+    @Override
+    public Optional<Todo> patch(Long id, Todo changes, Long expectedVersion) {
+        return jdbc.sql(patchSql)
+            .param("title", changes.getTitle(), Types.VARCHAR)
+            .param("description", changes.getDescription(), Types.VARCHAR)
+            .param("completed", changes.isCompleted())
+            .param("updatedAt", LocalDateTime.now())
+            .param("id", id, Types.BIGINT)
+            .param("version", expectedVersion, Types.BIGINT)
+            .query(TODO)
+            .optional();
+    }
+
+    @Override
+    public boolean deleteById(Long id) {
+        return jdbc.sql("delete from todos where id = :id").param("id", id, Types.BIGINT).update() > 0;
+    }
+
+    @Override
+    public Map<Long, Todo> patchAll(Map<Long, Todo> changesById) {
+        return transaction.execute(status -> {
+            Map<Long, Todo> patched = new LinkedHashMap<>();
+            changesById.forEach((id, changes) -> patch(id, changes, null).ifPresent(todo -> patched.put(id, todo)));
+            return patched;
+        });
+    }
+
+    @Override
+    public Set<Long> deleteAllById(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+
+        return new HashSet<>(jdbc.sql(deleteAllSql).param("ids", ids).query(Long.class).list());
+    }
+
+    /**
+     * Closes the connection pool, when the data source is one.
+     */
+    @Override
+    public void close() throws Exception {
+        if (dataSource instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private static Todo stamped(Todo todo) {
+        if (todo.getId() == null) {
+            throw new IllegalArgumentException("Todos must have an id before they are stored on a shard");
+        }
+        todo.setCreatedAt(LocalDateTime.now());
+        todo.setUpdatedAt(todo.getCreatedAt());
+        todo.setVersion(0L);
+        return todo;
+    }
+
+    private static Object[] insertArguments(Todo todo) {
+        return new Object[]{todo.getId(), todo.getTitle(), todo.getDescription(), todo.isCompleted(),
+            todo.getCreatedAt(), todo.getUpdatedAt(), todo.getVersion()};
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.todolist.repository;
+
+import com.example.todolist.model.Todo;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32C;
+
+
+/**
+ * Binary format of journal records: {@code int length, int crc32c, body}. The body is a type byte and
+ * an id, followed for a put by the full stored state of the todo, so replaying a record never depends on the
+ * ones before it.
+ */
+final class JournalRecords {
+    static final byte PUT = 1;
+    static final byte DELETE = 2;
+    static final int HEADER_BYTES = 8;
+    /**
+     * Upper bound on a body; anything larger can only be a torn or corrupt length field.
+     */
+    static final int MAX_BODY_BYTES = 16 * 1024 * 1024;
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+
+    private JournalRecords() {
+    }
+
+    /**
+     * A decoded record of {@code bytes} bytes including its header; {@code todo} is {@code null} for deletes.
+     */
+    record Entry(byte type, long id, Todo todo, int bytes) {
+    }
+
+    static ByteBuffer put(Todo todo) {
+        byte[] title = bytes(todo.getTitle());
+        byte[] description = bytes(todo.getDescription());
+        int bodyLength = 1 + 8 + 8 + 1 + 4 + length(title) + 4 + length(description) + 12 + 12;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + bodyLength);
+        buffer.position(HEADER_BYTES);
+        buffer.put(PUT)
+            .putLong(todo.getId())
+            .putLong(todo.getVersion())
+            .put((byte) (todo.isCompleted() ? 1 : 0));
+        putBytes(buffer, title);
+        putBytes(buffer, description);
+        putTime(buffer, todo.getCreatedAt());
+        putTime(buffer, todo.getUpdatedAt());
+        return seal(buffer);
+    }
+
+    static ByteBuffer delete(long id) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + 1 + 8);
+        buffer.position(HEADER_BYTES);
+        buffer.put(DELETE).putLong(id);
+        return seal(buffer);
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return {@code null} at a clean end of the input, or when the rest is a torn or corrupt record
+     */
+    static Entry read(DataInputStream in) throws IOException {
+        int length;
+        int checksum;
+        byte[] body;
+        try {
+            length = in.readInt();
+            checksum = in.readInt();
+            if (length <= 0 || length > MAX_BODY_BYTES) {
+                return null;
+            }
+            body = in.readNBytes(length);
+        } catch (EOFException e) {
+            return null;
+        }
+        if (body.length < length || checksum(body, 0, length) != checksum) {
+            return null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(body);
+        byte type = buffer.get();
+        long id = buffer.getLong();
+        if (type == DELETE) {
+            return new Entry(type, id, null, HEADER_BYTES + length);
+        }
+
+        long version = buffer.getLong();
+        boolean completed = buffer.get() != 0;
+        String title = getString(buffer);
+        String description = getString(buffer);
+        LocalDateTime createdAt = getTime(buffer);
+        LocalDateTime updatedAt = getTime(buffer);
+        Todo todo = new Todo(id, title, description, completed, createdAt, updatedAt, version);
+        return new Entry(PUT, id, todo, HEADER_BYTES + length);
+    }
+
+    private static ByteBuffer seal(ByteBuffer buffer) {
+        int bodyLength = buffer.position() - HEADER_BYTES;
+        buffer.putInt(0, bodyLength);
+        buffer.putInt(4, checksum(buffer.array(), HEADER_BYTES, bodyLength));
+        return buffer.flip();
+    }
+
+    private static int checksum(byte[] bytes, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(bytes.length).put(bytes);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static void putTime(ByteBuffer buffer, LocalDateTime time) {
+        if (time == null) {
+            buffer.putLong(NO_TIME).putInt(0);
+        } else {
+            buffer.putLong(time.toEpochSecond(ZoneOffset.UTC)).putInt(time.getNano());
+        }
+    }
+
+    private static LocalDateTime getTime(ByteBuffer buffer) {
+        long seconds = buffer.getLong();
+        int nanos = buffer.getInt();
+        return seconds == NO_TIME ? null : LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+}
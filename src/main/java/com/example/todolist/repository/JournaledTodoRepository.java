@@ -0,0 +1,139 @@
+package com.example.todolist.repository;
+
+import com.example.todolist.model.SearchMode;
+import com.example.todolist.model.Todo;
+import com.example.todolist.model.TodoCounts;
+import com.example.todolist.model.TodoQuery;
+import com.example.todolist.model.TodoVersion;
+import io.micrometer.core.annotation.Timed;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+
+/**
+ * In-memory store made durable by a {@link TodoJournal}. Reads and writes are served by the
+ * {@link TodoRepositoryInMemory}, which hands every write to the journal; writes then wait only as long as the
+ * journal's {@link FsyncPolicy} asks for.
+ */
+@Timed(value = "todolist.repository", histogram = true)
+public class JournaledTodoRepository implements BaseRepository, AutoCloseable {
+    private final TodoRepositoryInMemory memory;
+    private final TodoJournal journal;
+
+
+    public JournaledTodoRepository(TodoRepositoryInMemory memory, TodoJournal journal) {
+        this.memory = memory;
+        this.journal = journal;
+    }
+
+    @Override
+    public List<Todo> findAll() {
+        return memory.findAll();
+    }
+
+    @Override
+    public List<Todo> findAllAfter(Long afterId, int limit) {
+        return memory.findAllAfter(afterId, limit);
+    }
+
+    @Override
+    public List<TodoVersion> findVersionsAfter(Long afterId, int limit) {
+        return memory.findVersionsAfter(afterId, limit);
+    }
+
+    @Override
+    public void streamAll(Consumer<Todo> consumer) {
+        memory.streamAll(consumer);
+    }
+
+    @Override
+    public TodoCounts countAll(LocalDateTime createdSince) {
+        return memory.countAll(createdSince);
+    }
+
+    @Override
+    public void streamCompletedIds(LongConsumer consumer) {
+        memory.streamCompletedIds(consumer);
+    }
+
+    @Override
+    public Optional<Todo> findById(Long id) {
+        return memory.findById(id);
+    }
+
+    @Override
+    public List<Todo> findByTitle(String title) {
+        return memory.findByTitle(title);
+    }
+
+    @Override
+    public List<Todo> findByCompleted(boolean completed) {
+        return memory.findByCompleted(completed);
+    }
+
+    @Override
+    public List<Todo> query(TodoQuery query) {
+        return memory.query(query);
+    }
+
+    @Override
+    public List<Todo> search(String text, SearchMode mode, int offset, int limit) {
+        return memory.search(text, mode, offset, limit);
+    }
+
+    @Override
+    public Todo save(Todo todo) {
+        return durable(memory.save(todo));
+    }
+
+    @Override
+    public List<Todo> saveAll(List<Todo> todos) {
+        return durable(memory.saveAll(todos));
+    }
+
+    @Override
+    public Todo update(Todo todo) {
+        return durable(memory.update(todo));
+    }
+
+    @Override
+    public Optional<Todo> patch(Long id, Todo changes, Long expectedVersion) {
+        return durable(memory.patch(id, changes, expectedVersion));
+    }
+
+    @Override
+    public boolean deleteById(Long id) {
+        return durable(memory.deleteById(id));
+    }
+
+    @Override
+    public Map<Long, Todo> patchAll(Map<Long, Todo> changesById) {
+        return durable(memory.patchAll(changesById));
+    }
+
+    @Override
+    public Set<Long> deleteAllById(Collection<Long> ids) {
+        return durable(memory.deleteAllById(ids));
+    }
+
+    TodoJournal journal() {
+        return journal;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        journal.close();
+    }
+
+    private <T> T durable(T result) {
+        journal.awaitDurable();
+        return result;
+    }
+}
@@ -0,0 +1,493 @@
+package com.example.todolist.repository;
+
+import com.example.todolist.model.SearchMode;
+import com.example.todolist.model.Todo;
+import com.example.todolist.model.TodoVersion;
+import io.micrometer.core.annotation.Timed;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+
+/**
+ * In-memory store that keeps each todo as one record in direct memory, outside the Java heap, so a large data set
+ * adds next to nothing for the garbage collector to trace. Records are blocks of a {@link SlabAllocator}:
+ *
+ * <pre>
+ * 0   int    record length
+ * 4   byte   completed
+ * 8   long   version
+ * 16  long   created seconds     24  long  updated seconds
+ * 32  int    created nanos       36  int   updated nanos
+ * 40  int    title length        44  int   description length (-1 for null)
+ * 48         UTF-8 title, then UTF-8 description
+ * </pre>
+ *
+ * The heap only holds primitive arrays indexed by id: the record address, the hash of the case-folded title and
+ * bitsets of live and completed ids, about 12 bytes per id ever handed out. A deleted record's block is reused by
+ * the next record of its size class, and a write that would need memory past the cap fails with
+ * {@link IllegalStateException}. Like {@link ColumnarTodoRepository} it takes a read-write lock, decodes records only
+ * for the todos a read returns and scores every record on search.
+ */
+@Timed(value = "todolist.repository", histogram = true)
+public class OffHeapTodoRepository implements BaseRepository {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int STREAM_CHUNK = 1024;
+    private static final int HEADER_BYTES = 48;
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final SlabAllocator slabs;
+    private final BitSet live = new BitSet();
+    private final BitSet completed = new BitSet();
+    private long[] addresses = new long[INITIAL_CAPACITY];
+    private int[] titleHashes = new int[INITIAL_CAPACITY];
+    private int nextId = 1;
+
+
+    /**
+     * @param slabBytes size of each direct buffer allocated as the store grows
+     * @param maxBytes  cap on the direct memory held by the store
+     */
+    public OffHeapTodoRepository(int slabBytes, long maxBytes) {
+        this.slabs = new SlabAllocator(slabBytes, maxBytes);
+    }
+
+    @Override
+    public List<Todo> findAll() {
+        return findAllAfter(null, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Todo> findAllAfter(Long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            List<Todo> page = new ArrayList<>();
+            for (int id = live.nextSetBit(firstIdAfter(afterId)); id >= 0 && page.size() < limit;
+                 id = live.nextSetBit(id + 1)) {
+                page.add(read(id));
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<TodoVersion> findVersionsAfter(Long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            List<TodoVersion> page = new ArrayList<>();
+            for (int id = live.nextSetBit(firstIdAfter(afterId)); id >= 0 && page.size() < limit;
+                 id = live.nextSetBit(id + 1)) {
+                long address = addresses[id];
+                page.add(new TodoVersion((long) id, slabs.slab(address).getLong(SlabAllocator.offset(address) + 8)));
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Decodes {@value #STREAM_CHUNK} records at a time and releases the lock while {@code consumer} runs.
+     */
+    @Override
+    public void streamAll(Consumer<Todo> consumer) {
+        Long cursor = null;
+        List<Todo> chunk;
+        do {
+            chunk = findAllAfter(cursor, STREAM_CHUNK);
+            chunk.forEach(consumer);
+            if (!chunk.isEmpty()) {
+                cursor = chunk.get(chunk.size() - 1).getId();
+            }
+        } while (chunk.size() == STREAM_CHUNK);
+    }
+
+    @Override
+    public Optional<Todo> findById(Long id) {
+        lock.readLock().lock();
+        try {
+            return isLive(id) ? Optional.of(read(id.intValue())) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Scans the title hashes and decodes only the records whose hash matches.
+     */
+    @Override
+    public List<Todo> findByTitle(String title) {
+        if (title == null) {
+            return List.of();
+        }
+
+        int hash = titleKey(title).hashCode();
+        lock.readLock().lock();
+        try {
+            List<Todo> found = new ArrayList<>();
+            for (int id = live.nextSetBit(0); id >= 0; id = live.nextSetBit(id + 1)) {
+                if (titleHashes[id] == hash) {
+                    Todo todo = read(id);
+                    if (todo.getTitle() != null && todo.getTitle().equalsIgnoreCase(title)) {
+                        found.add(todo);
+                    }
+                }
+            }
+            return found;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Todo> findByCompleted(boolean completed) {
+        lock.readLock().lock();
+        try {
+            BitSet matching = (BitSet) live.clone();
+            if (completed) {
+                matching.and(this.completed);
+            } else {
+                matching.andNot(this.completed);
+            }
+
+            List<Todo> found = new ArrayList<>(matching.cardinality());
+            for (int id = matching.nextSetBit(0); id >= 0; id = matching.nextSetBit(id + 1)) {
+                found.add(read(id));
+            }
+            return found;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Todo> search(String text, SearchMode mode, int offset, int limit) {
+        TodoSearchIndex.Query query = TodoSearchIndex.Query.of(text, mode);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            record Hit(Todo todo, double score) {
+            }
+            List<Hit> hits = new ArrayList<>();
+            for (int id = live.nextSetBit(0); id >= 0; id = live.nextSetBit(id + 1)) {
+                Todo todo = read(id);
+                double score = TodoSearchIndex.score(todo, query);
+                if (score > 0) {
+                    hits.add(new Hit(todo, score));
+                }
+            }
+            return hits.stream()
+                .sorted(Comparator.comparingDouble(Hit::score).reversed()
+                    .thenComparing(hit -> hit.todo().getId()))
+                .skip(offset)
+                .limit(limit)
+                .map(Hit::todo)
+                .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Todo save(Todo todo) {
+        lock.writeLock().lock();
+        try {
+            return insert(todo);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Todo> saveAll(List<Todo> todos) {
+        lock.writeLock().lock();
+        try {
+            List<Todo> saved = new ArrayList<>(todos.size());
+            for (Todo todo : todos) {
+                saved.add(insert(todo));
+            }
+            return saved;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Todo update(Todo todo) {
+        lock.writeLock().lock();
+        try {
+            if (!isLive(todo.getId())) {
+                return null;
+            }
+
+            Todo current = read(todo.getId().intValue());
+            return write(new Todo(current.getId(), todo.getTitle(), todo.getDescription(), todo.isCompleted(),
+                current.getCreatedAt(), LocalDateTime.now(), current.getVersion() + 1));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Todo> patch(Long id, Todo changes, Long expectedVersion) {
+        lock.writeLock().lock();
+        try {
+            return Optional.ofNullable(patchRecord(id, changes, expectedVersion));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean deleteById(Long id) {
+        lock.writeLock().lock();
+        try {
+            return delete(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Map<Long, Todo> patchAll(Map<Long, Todo> changesById) {
+        lock.writeLock().lock();
+        try {
+            Map<Long, Todo> patched = new LinkedHashMap<>();
+            changesById.forEach((id, changes) -> {
+                Todo todo = patchRecord(id, changes, null);
+                if (todo != null) {
+                    patched.put(id, todo);
+                }
+            });
+            return patched;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Set<Long> deleteAllById(Collection<Long> ids) {
+        lock.writeLock().lock();
+        try {
+            Set<Long> deleted = new HashSet<>();
+            for (Long id : ids) {
+                if (delete(id)) {
+                    deleted.add(id);
+                }
+            }
+            return deleted;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Direct memory in records, including the rounding of each record to its block size.
+     */
+    public long usedBytes() {
+        lock.readLock().lock();
+        try {
+            return slabs.usedBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Direct memory held by the slabs allocated so far, used or free.
+     */
+    public long reservedBytes() {
+        lock.readLock().lock();
+        try {
+            return slabs.reservedBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Todo insert(Todo todo) {
+        if (nextId == Integer.MAX_VALUE) {
+            throw new IllegalStateException("Off-heap store has run out of ids");
+        }
+        if (nextId == addresses.length) {
+            int capacity = (int) Math.min(Integer.MAX_VALUE - 8L, addresses.length * 2L);
+            addresses = Arrays.copyOf(addresses, capacity);
+            titleHashes = Arrays.copyOf(titleHashes, capacity);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Todo stored = write(new Todo((long) nextId, todo.getTitle(), todo.getDescription(), todo.isCompleted(), now,
+            now, 0L));
+        nextId++;
+        todo.setId(stored.getId());
+        todo.setCreatedAt(now);
+        todo.setUpdatedAt(now);
+        todo.setVersion(0L);
+        return stored;
+    }
+
+    private Todo patchRecord(Long id, Todo changes, Long expectedVersion) {
+        if (!isLive(id)) {
+            return null;
+        }
+
+        Todo current = read(id.intValue());
+        if (expectedVersion != null && current.getVersion() != expectedVersion) {
+            return null;
+        }
+        return write(new Todo(
+            current.getId(),
+            changes.getTitle() != null ? changes.getTitle() : current.getTitle(),
+            changes.getDescription() != null ? changes.getDescription() : current.getDescription(),
+            changes.isCompleted(),
+            current.getCreatedAt(),
+            LocalDateTime.now(),
+            current.getVersion() + 1));
+    }
+
+    /**
+     * Encodes {@code todo} into its existing block when the new record needs a block of the same size, into a new
+     * block otherwise. The new block is allocated before the old one is freed, so a write that hits the cap leaves
+     * the stored record as it was.
+     */
+    private Todo write(Todo todo) {
+        int id = todo.getId().intValue();
+        byte[] title = bytes(todo.getTitle());
+        byte[] description = bytes(todo.getDescription());
+        int length = HEADER_BYTES + (title == null ? 0 : title.length)
+            + (description == null ? 0 : description.length);
+
+        long address;
+        if (live.get(id) && SlabAllocator.sameBlock(recordLength(addresses[id]), length)) {
+            address = addresses[id];
+        } else {
+            address = slabs.allocate(length);
+            if (live.get(id)) {
+                slabs.free(addresses[id], recordLength(addresses[id]));
+            }
+        }
+
+        ByteBuffer slab = slabs.slab(address);
+        int at = SlabAllocator.offset(address);
+        slab.putInt(at, length)
+            .put(at + 4, (byte) (todo.isCompleted() ? 1 : 0))
+            .putLong(at + 8, todo.getVersion())
+            .putLong(at + 16, seconds(todo.getCreatedAt()))
+            .putLong(at + 24, seconds(todo.getUpdatedAt()))
+            .putInt(at + 32, nanos(todo.getCreatedAt()))
+            .putInt(at + 36, nanos(todo.getUpdatedAt()))
+            .putInt(at + 40, title == null ? -1 : title.length)
+            .putInt(at + 44, description == null ? -1 : description.length);
+        int stringsAt = at + HEADER_BYTES;
+        if (title != null) {
+            slab.put(stringsAt, title);
+            stringsAt += title.length;
+        }
+        if (description != null) {
+            slab.put(stringsAt, description);
+        }
+
+        addresses[id] = address;
+        titleHashes[id] = todo.getTitle() == null ? 0 : titleKey(todo.getTitle()).hashCode();
+        live.set(id);
+        completed.set(id, todo.isCompleted());
+        return todo;
+    }
+
+    private boolean delete(Long id) {
+        if (!isLive(id)) {
+            return false;
+        }
+
+        int index = id.intValue();
+        slabs.free(addresses[index], recordLength(addresses[index]));
+        live.clear(index);
+        completed.clear(index);
+        return true;
+    }
+
+    private Todo read(int id) {
+        long address = addresses[id];
+        ByteBuffer slab = slabs.slab(address);
+        int at = SlabAllocator.offset(address);
+        int titleLength = slab.getInt(at + 40);
+        int descriptionLength = slab.getInt(at + 44);
+        int descriptionAt = at + HEADER_BYTES + Math.max(0, titleLength);
+        return new Todo(
+            (long) id,
+            string(slab, at + HEADER_BYTES, titleLength),
+            string(slab, descriptionAt, descriptionLength),
+            slab.get(at + 4) != 0,
+            time(slab.getLong(at + 16), slab.getInt(at + 32)),
+            time(slab.getLong(at + 24), slab.getInt(at + 36)),
+            slab.getLong(at + 8));
+    }
+
+    private int recordLength(long address) {
+        return slabs.slab(address).getInt(SlabAllocator.offset(address));
+    }
+
+    private boolean isLive(Long id) {
+        return id != null && id > 0 && id < nextId && live.get(id.intValue());
+    }
+
+    private static int firstIdAfter(Long afterId) {
+        if (afterId == null || afterId < 1) {
+            return 1;
+        }
+        return afterId >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) (afterId + 1);
+    }
+
+    private static String string(ByteBuffer slab, int at, int length) {
+        if (length < 0) {
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+        slab.get(at, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long seconds(LocalDateTime time) {
+        return time == null ? NO_TIME : time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static int nanos(LocalDateTime time) {
+        return time == null ? 0 : time.getNano();
+    }
+
+    private static LocalDateTime time(long seconds, int nanos) {
+        return seconds == NO_TIME ? null : LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+
+    private static String titleKey(String title) {
+        return title.toLowerCase(Locale.ROOT);
+    }
+}
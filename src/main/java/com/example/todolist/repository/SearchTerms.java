@@ -0,0 +1,34 @@
+package com.example.todolist.repository;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+
+/**
+ * Splits text into lower-cased words on anything that is not a letter or digit, close to what PostgreSQL's
+ * {@code simple} text search configuration does.
+ */
+final class SearchTerms {
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+
+    private SearchTerms() {
+    }
+
+    static List<String> of(String text) {
+        if (text == null) {
+            return List.of();
+        }
+
+        return SEPARATOR.splitAsStream(text.toLowerCase(Locale.ROOT))
+            .filter(term -> !term.isEmpty())
+            .toList();
+    }
+
+    static List<String> distinct(String text) {
+        return of(text).stream()
+            .distinct()
+            .toList();
+    }
+}
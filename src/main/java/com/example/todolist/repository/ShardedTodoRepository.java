@@ -0,0 +1,351 @@
+package com.example.todolist.repository;
+
+import com.example.todolist.model.SearchMode;
+import com.example.todolist.model.Todo;
+import com.example.todolist.model.TodoCounts;
+import com.example.todolist.model.TodoQuery;
+import com.example.todolist.model.TodoVersion;
+import io.micrometer.core.annotation.Timed;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+
+
+/**
+ * Spreads todos over several stores by id. New todos get an id from a {@link SnowflakeIdGenerator}, and a
+ * {@link ConsistentHashRing} over the ids decides which shard holds each todo, so reads and writes of one todo go to
+ * one shard. Everything else asks all shards at once, one thread per shard, and merges the answers: listings and
+ * lookups by title or status in id order, queries in their own order and searches by the score of the in-memory
+ * index. {@link #streamAll} merges keyset pages instead, so it holds no more than one page per shard.
+ */
+@Timed(value = "todolist.repository", histogram = true)
+public class ShardedTodoRepository implements BaseRepository, AutoCloseable {
+    private static final int STREAM_PAGE = 500;
+    private static final Comparator<Todo> BY_ID = Comparator.comparing(Todo::getId);
+
+    private final List<BaseRepository> shards;
+    private final ConsistentHashRing ring;
+    private final SnowflakeIdGenerator ids;
+    private final ExecutorService fanOut;
+
+
+    public ShardedTodoRepository(List<? extends BaseRepository> shards, SnowflakeIdGenerator ids, int virtualNodes) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+
+        this.shards = List.copyOf(shards);
+        this.ring = new ConsistentHashRing(shards.size(), virtualNodes);
+        this.ids = ids;
+        AtomicInteger threads = new AtomicInteger();
+        this.fanOut = Executors.newFixedThreadPool(shards.size(), runnable -> {
+            Thread thread = new Thread(runnable, "todo-shard-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Index of the shard that holds {@code id}.
+     */
+    int shardOf(long id) {
+        return ring.shardOf(id);
+    }
+
+    @Override
+    public List<Todo> findAll() {
+        return merge(everyShard(BaseRepository::findAll), BY_ID, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Todo> findAllAfter(Long afterId, int limit) {
+        return merge(everyShard(shard -> shard.findAllAfter(afterId, limit)), BY_ID, limit);
+    }
+
+    @Override
+    public List<TodoVersion> findVersionsAfter(Long afterId, int limit) {
+        return merge(everyShard(shard -> shard.findVersionsAfter(afterId, limit)),
+            Comparator.comparing(TodoVersion::id), limit);
+    }
+
+    /**
+     * Keeps the next page of every shard and hands over the smallest id among their heads, fetching a shard's
+     * following page once its current one is used up.
+     */
+    @Override
+    public void streamAll(Consumer<Todo> consumer) {
+        record Cursor(BaseRepository shard, Iterator<Todo> page, Todo head) {
+            static Cursor first(BaseRepository shard, Long afterId) {
+                Iterator<Todo> page = shard.findAllAfter(afterId, STREAM_PAGE).iterator();
+                return page.hasNext() ? new Cursor(shard, page, page.next()) : null;
+            }
+
+            Cursor next() {
+                return page.hasNext() ? new Cursor(shard, page, page.next()) : first(shard, head.getId());
+            }
+        }
+
+        PriorityQueue<Cursor> heads = new PriorityQueue<>(Comparator.comparing(Cursor::head, BY_ID));
+        for (Cursor cursor : everyShard(shard -> Cursor.first(shard, null))) {
+            if (cursor != null) {
+                heads.add(cursor);
+            }
+        }
+        while (!heads.isEmpty()) {
+            Cursor cursor = heads.poll();
+            consumer.accept(cursor.head());
+            Cursor next = cursor.next();
+            if (next != null) {
+                heads.add(next);
+            }
+        }
+    }
+
+    @Override
+    public TodoCounts countAll(LocalDateTime createdSince) {
+        long total = 0;
+        Map<LocalDateTime, Long> createdPerHour = new HashMap<>();
+        for (TodoCounts counts : everyShard(shard -> shard.countAll(createdSince))) {
+            total += counts.total();
+            counts.createdPerHour().forEach((hour, count) -> createdPerHour.merge(hour, count, Long::sum));
+        }
+        return new TodoCounts(total, createdPerHour);
+    }
+
+    /**
+     * One shard after the other, as {@code consumer} need not be thread-safe.
+     */
+    @Override
+    public void streamCompletedIds(LongConsumer consumer) {
+        shards.forEach(shard -> shard.streamCompletedIds(consumer));
+    }
+
+    @Override
+    public Optional<Todo> findById(Long id) {
+        return id == null ? Optional.empty() : shardFor(id).findById(id);
+    }
+
+    @Override
+    public List<Todo> findAllById(Collection<Long> ids) {
+        Map<Integer, List<Long>> byShard = new HashMap<>();
+        ids.forEach(id -> byShard.computeIfAbsent(shardOf(id), shard -> new ArrayList<>()).add(id));
+
+        List<Todo> found = new ArrayList<>();
+        inParallel(byShard.entrySet().stream()
+            .map(entry -> (Callable<List<Todo>>) () -> shards.get(entry.getKey()).findAllById(entry.getValue()))
+            .toList())
+            .forEach(found::addAll);
+        return found;
+    }
+
+    @Override
+    public List<Todo> findByTitle(String title) {
+        return merge(everyShard(shard -> shard.findByTitle(title)), BY_ID, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Todo> findByCompleted(boolean completed) {
+        return merge(everyShard(shard -> shard.findByCompleted(completed)), BY_ID, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Todo> query(TodoQuery query) {
+        return merge(everyShard(shard -> shard.query(query)), query.comparator(), query.limit());
+    }
+
+    /**
+     * Every shard returns its first {@code offset + limit} matches, and the union is ranked again with the scores
+     * of {@link TodoSearchIndex}, since the ranks of separate databases cannot be compared.
+     */
+    @Override
+    public List<Todo> search(String text, SearchMode mode, int offset, int limit) {
+        TodoSearchIndex.Query query = TodoSearchIndex.Query.of(text, mode);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+
+        int perShard = (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+        record Hit(Todo todo, double score) {
+        }
+        return everyShard(shard -> shard.search(text, mode, 0, perShard)).stream()
+            .flatMap(List::stream)
+            .map(todo -> new Hit(todo, TodoSearchIndex.score(todo, query)))
+            .sorted(Comparator.comparingDouble(Hit::score).reversed().thenComparing(hit -> hit.todo().getId()))
+            .skip(offset)
+            .limit(limit)
+            .map(Hit::todo)
+            .toList();
+    }
+
+    @Override
+    public Todo save(Todo todo) {
+        todo.setId(ids.nextId());
+        return shardFor(todo.getId()).save(todo);
+    }
+
+    /**
+     * One {@code saveAll} per shard, all at once.
+     */
+    @Override
+    public List<Todo> saveAll(List<Todo> todos) {
+        Map<Integer, List<Todo>> byShard = new HashMap<>();
+        for (Todo todo : todos) {
+            todo.setId(ids.nextId());
+            byShard.computeIfAbsent(shardOf(todo.getId()), shard -> new ArrayList<>()).add(todo);
+        }
+
+        Map<Long, Todo> saved = new HashMap<>();
+        inParallel(byShard.entrySet().stream()
+            .map(entry -> (Callable<List<Todo>>) () -> shards.get(entry.getKey()).saveAll(entry.getValue()))
+            .toList())
+            .forEach(shardSaved -> shardSaved.forEach(todo -> saved.put(todo.getId(), todo)));
+        return todos.stream().map(todo -> saved.get(todo.getId())).toList();
+    }
+
+    @Override
+    public Todo update(Todo todo) {
+        return todo.getId() == null ? null : shardFor(todo.getId()).update(todo);
+    }
+
+    @Override
+    public Optional<Todo> patch(Long id, Todo changes, Long expectedVersion) {
+        return id == null ? Optional.empty() : shardFor(id).patch(id, changes, expectedVersion);
+    }
+
+    @Override
+    public boolean deleteById(Long id) {
+        return id != null && shardFor(id).deleteById(id);
+    }
+
+    @Override
+    public Map<Long, Todo> patchAll(Map<Long, Todo> changesById) {
+        Map<Integer, Map<Long, Todo>> byShard = new HashMap<>();
+        changesById.forEach((id, changes) ->
+            byShard.computeIfAbsent(shardOf(id), shard -> new LinkedHashMap<>()).put(id, changes));
+
+        Map<Long, Todo> patched = new HashMap<>();
+        inParallel(byShard.entrySet().stream()
+            .map(entry -> (Callable<Map<Long, Todo>>) () -> shards.get(entry.getKey()).patchAll(entry.getValue()))
+            .toList())
+            .forEach(patched::putAll);
+
+        Map<Long, Todo> inRequestOrder = new LinkedHashMap<>();
+        changesById.keySet().stream()
+            .filter(patched::containsKey)
+            .forEach(id -> inRequestOrder.put(id, patched.get(id)));
+        return inRequestOrder;
+    }
+
+    @Override
+    public Set<Long> deleteAllById(Collection<Long> ids) {
+        Map<Integer, List<Long>> byShard = new HashMap<>();
+        ids.forEach(id -> byShard.computeIfAbsent(shardOf(id), shard -> new ArrayList<>()).add(id));
+
+        Set<Long> deleted = new HashSet<>();
+        inParallel(byShard.entrySet().stream()
+            .map(entry -> (Callable<Set<Long>>) () -> shards.get(entry.getKey()).deleteAllById(entry.getValue()))
+            .toList())
+            .forEach(deleted::addAll);
+        return deleted;
+    }
+
+    /**
+     * Stops the fan-out threads and closes the shards that hold resources, such as connection pools.
+     */
+    @Override
+    public void close() throws Exception {
+        fanOut.shutdown();
+        for (BaseRepository shard : shards) {
+            if (shard instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private BaseRepository shardFor(long id) {
+        return shards.get(shardOf(id));
+    }
+
+    private <T> List<T> everyShard(Function<BaseRepository, T> call) {
+        return inParallel(shards.stream().map(shard -> (Callable<T>) () -> call.apply(shard)).toList());
+    }
+
+    /**
+     * Runs every call on its own fan-out thread, apart from a lone call, which runs on the caller's, and rethrows
+     * the first failure.
+     */
+    private <T> List<T> inParallel(List<Callable<T>> calls) {
+        try {
+            List<T> results = new ArrayList<>(calls.size());
+            if (calls.size() == 1) {
+                results.add(calls.get(0).call());
+                return results;
+            }
+
+            for (Future<T> future : fanOut.invokeAll(calls)) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Shard call failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the shards", e);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Shard call failed", e);
+        }
+    }
+
+    /**
+     * Merges lists that are each sorted by {@code order} into the first {@code limit} elements of their union.
+     */
+    static <T> List<T> merge(List<List<T>> sorted, Comparator<? super T> order, int limit) {
+        record Head<T>(T value, Iterator<T> rest) {
+        }
+        PriorityQueue<Head<T>> heads = new PriorityQueue<>((a, b) -> order.compare(a.value(), b.value()));
+        for (List<T> list : sorted) {
+            Iterator<T> iterator = list.iterator();
+            if (iterator.hasNext()) {
+                heads.add(new Head<>(iterator.next(), iterator));
+            }
+        }
+
+        List<T> merged = new ArrayList<>();
+        while (!heads.isEmpty() && merged.size() < limit) {
+            Head<T> head = heads.poll();
+            merged.add(head.value());
+            if (head.rest().hasNext()) {
+                heads.add(new Head<>(head.rest().next(), head.rest()));
+            }
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.todolist.repository;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * Hands out blocks of direct memory from slabs of {@code slabBytes} each, allocated on demand up to a cap. A block
+ * is addressed by a {@code long} holding its slab index and offset. Requests are rounded up to a size class
+ * (multiples of {@value #GRANULE} bytes up to {@value #SMALL_LIMIT}, powers of two above) and freed blocks go to
+ * the free list of their class, so a later request of the same class reuses them before the slab grows. Blocks are
+ * never split or merged. Not thread-safe: the owner guards it with its lock.
+ */
+final class SlabAllocator {
+    static final int GRANULE = 16;
+    static final int SMALL_LIMIT = 4096;
+    private static final int SMALL_CLASSES = SMALL_LIMIT / GRANULE;
+
+    private final int slabBytes;
+    private final int maxSlabs;
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+    private final long[][] freeLists;
+    private final int[] freeCounts;
+    private int top;
+    private long usedBytes;
+
+
+    SlabAllocator(int slabBytes, long maxBytes) {
+        if (slabBytes < SMALL_LIMIT) {
+            throw new IllegalArgumentException("Slabs must hold at least " + SMALL_LIMIT + " bytes");
+        }
+        this.slabBytes = slabBytes;
+        this.maxSlabs = (int) Math.max(1, Math.min(Integer.MAX_VALUE, maxBytes / slabBytes));
+        int classes = sizeClass(slabBytes) + 1;
+        this.freeLists = new long[classes][];
+        this.freeCounts = new int[classes];
+        this.top = slabBytes;
+    }
+
+    /**
+     * @return the address of a block of at least {@code bytes}
+     * @throws IllegalStateException when every slab up to the cap is in use
+     */
+    long allocate(int bytes) {
+        int sizeClass = sizeClass(bytes);
+        int blockBytes = blockBytes(sizeClass);
+        if (blockBytes > slabBytes) {
+            throw new IllegalArgumentException(bytes + " bytes do not fit in a slab of " + slabBytes);
+        }
+
+        long address;
+        if (freeCounts[sizeClass] > 0) {
+            address = freeLists[sizeClass][--freeCounts[sizeClass]];
+        } else {
+            if (top + blockBytes > slabBytes) {
+                if (slabs.size() == maxSlabs) {
+                    throw new IllegalStateException("Off-heap store is full: " + maxSlabs + " slabs of "
+                        + slabBytes + " bytes are in use");
+                }
+                slabs.add(ByteBuffer.allocateDirect(slabBytes).order(ByteOrder.nativeOrder()));
+                top = 0;
+            }
+            address = ((long) (slabs.size() - 1) << 32) | top;
+            top += blockBytes;
+        }
+        usedBytes += blockBytes;
+        return address;
+    }
+
+    /**
+     * Returns the block at {@code address}, allocated for {@code bytes}, to the free list of its class.
+     */
+    void free(long address, int bytes) {
+        int sizeClass = sizeClass(bytes);
+        long[] freeList = freeLists[sizeClass];
+        if (freeList == null) {
+            freeList = freeLists[sizeClass] = new long[16];
+        } else if (freeCounts[sizeClass] == freeList.length) {
+            freeList = freeLists[sizeClass] = Arrays.copyOf(freeList, freeList.length * 2);
+        }
+        freeList[freeCounts[sizeClass]++] = address;
+        usedBytes -= blockBytes(sizeClass);
+    }
+
+    /**
+     * Whether blocks for {@code oldBytes} and {@code newBytes} are the same size, so the block can be rewritten in
+     * place.
+     */
+    static boolean sameBlock(int oldBytes, int newBytes) {
+        return sizeClass(oldBytes) == sizeClass(newBytes);
+    }
+
+    ByteBuffer slab(long address) {
+        return slabs.get((int) (address >>> 32));
+    }
+
+    static int offset(long address) {
+        return (int) address;
+    }
+
+    /**
+     * Bytes in blocks currently handed out, including the rounding to their size class.
+     */
+    long usedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * Direct memory held by the slabs allocated so far.
+     */
+    long reservedBytes() {
+        return (long) slabs.size() * slabBytes;
+    }
+
+    static int sizeClass(int bytes) {
+        if (bytes <= SMALL_LIMIT) {
+            return Math.max(0, (bytes + GRANULE - 1) / GRANULE - 1);
+        }
+        int log2 = 32 - Integer.numberOfLeadingZeros(bytes - 1);
+        return SMALL_CLASSES + log2 - Integer.numberOfTrailingZeros(SMALL_LIMIT) - 1;
+    }
+
+    private static int blockBytes(int sizeClass) {
+        if (sizeClass < SMALL_CLASSES) {
+            return (sizeClass + 1) * GRANULE;
+        }
+        return SMALL_LIMIT << (sizeClass - SMALL_CLASSES + 1);
+    }
+}
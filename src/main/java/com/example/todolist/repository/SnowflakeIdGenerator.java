@@ -0,0 +1,51 @@
+package com.example.todolist.repository;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+
+/**
+ * Snowflake-style ids: 41 bits of milliseconds since {@link #EPOCH}, 10 bits of worker id and 12 bits of sequence.
+ * Instances with distinct worker ids never hand out the same id, and ids grow with time, so they keep B-tree inserts
+ * at the right edge of the index like a sequence does. More than 4096 ids in one millisecond, or a clock that is set
+ * back, borrow from the following milliseconds instead of waiting for them.
+ */
+public final class SnowflakeIdGenerator {
+    static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    static final int WORKER_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_WORKER_ID = (1L << WORKER_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long workerId;
+    private final LongSupplier clock;
+    /**
+     * Milliseconds since the epoch and sequence of the last id, packed as in the id, so that one increment moves to
+     * the next sequence or, from the last one, to the next millisecond.
+     */
+    private final AtomicLong last = new AtomicLong();
+
+
+    public SnowflakeIdGenerator(long workerId) {
+        this(workerId, System::currentTimeMillis);
+    }
+
+    SnowflakeIdGenerator(long workerId, LongSupplier clock) {
+        if (workerId < 0 || workerId > MAX_WORKER_ID) {
+            throw new IllegalArgumentException("Worker id must be between 0 and " + MAX_WORKER_ID + ": " + workerId);
+        }
+        this.workerId = workerId;
+        this.clock = clock;
+    }
+
+    public long nextId() {
+        long next = last.updateAndGet(previous -> Math.max((clock.getAsLong() - EPOCH) << SEQUENCE_BITS, previous + 1));
+        long millis = next >>> SEQUENCE_BITS;
+        return millis << (WORKER_BITS + SEQUENCE_BITS) | workerId << SEQUENCE_BITS | next & SEQUENCE_MASK;
+    }
+
+    static long workerOf(long id) {
+        return id >>> SEQUENCE_BITS & MAX_WORKER_ID;
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.todolist.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+
+/**
+ * Reference-counted set of UTF-8 strings, each stored once and addressed by an {@code int} reference. Entries are
+ * chained per hash bucket through parallel arrays, so an entry costs its bytes plus a few array slots instead of a
+ * {@code String} and a map node. Freed references are reused. Not thread-safe: the owner guards it with its lock.
+ */
+final class StringDictionary {
+    static final int NULL = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private byte[][] values = new byte[INITIAL_CAPACITY][];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private int[] refCounts = new int[INITIAL_CAPACITY];
+    /**
+     * Next reference in the same bucket for entries in use, next free reference for freed ones.
+     */
+    private int[] next = new int[INITIAL_CAPACITY];
+    private int[] buckets = newBuckets(INITIAL_CAPACITY);
+    private int allocated;
+    private int size;
+    private int free = NULL;
+
+
+    /**
+     * @return the reference of {@code value}, whose count goes up by one; {@link #NULL} for {@code null}
+     */
+    int intern(String value) {
+        if (value == null) {
+            return NULL;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(bytes);
+        int ref = find(bytes, hash);
+        if (ref == NULL) {
+            ref = allocate(bytes, hash);
+        }
+        refCounts[ref]++;
+        return ref;
+    }
+
+    /**
+     * @return the reference of {@code value} without counting a use, {@link #NULL} when it is not stored
+     */
+    int find(String value) {
+        if (value == null) {
+            return NULL;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return find(bytes, hash(bytes));
+    }
+
+    /**
+     * Drops one use of {@code ref}, freeing the entry with its last use.
+     */
+    void release(int ref) {
+        if (ref == NULL || --refCounts[ref] > 0) {
+            return;
+        }
+
+        int bucket = hashes[ref] & (buckets.length - 1);
+        if (buckets[bucket] == ref) {
+            buckets[bucket] = next[ref];
+        } else {
+            int previous = buckets[bucket];
+            while (next[previous] != ref) {
+                previous = next[previous];
+            }
+            next[previous] = next[ref];
+        }
+        values[ref] = null;
+        next[ref] = free;
+        free = ref;
+        size--;
+    }
+
+    String get(int ref) {
+        return ref == NULL ? null : new String(values[ref], StandardCharsets.UTF_8);
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int find(byte[] bytes, int hash) {
+        for (int ref = buckets[hash & (buckets.length - 1)]; ref != NULL; ref = next[ref]) {
+            if (hashes[ref] == hash && Arrays.equals(values[ref], bytes)) {
+                return ref;
+            }
+        }
+        return NULL;
+    }
+
+    private int allocate(byte[] bytes, int hash) {
+        int ref;
+        if (free != NULL) {
+            ref = free;
+            free = next[ref];
+        } else {
+            if (allocated == values.length) {
+                grow();
+            }
+            ref = allocated++;
+        }
+
+        values[ref] = bytes;
+        hashes[ref] = hash;
+        refCounts[ref] = 0;
+        int bucket = hash & (buckets.length - 1);
+        next[ref] = buckets[bucket];
+        buckets[bucket] = ref;
+        size++;
+        return ref;
+    }
+
+    /**
+     * Doubles the entry arrays and the bucket table, so there are never more entries than buckets.
+     */
+    private void grow() {
+        int capacity = values.length * 2;
+        values = Arrays.copyOf(values, capacity);
+        hashes = Arrays.copyOf(hashes, capacity);
+        refCounts = Arrays.copyOf(refCounts, capacity);
+        next = Arrays.copyOf(next, capacity);
+
+        buckets = newBuckets(capacity);
+        for (int ref = 0; ref < allocated; ref++) {
+            if (values[ref] != null) {
+                int bucket = hashes[ref] & (capacity - 1);
+                next[ref] = buckets[bucket];
+                buckets[bucket] = ref;
+            }
+        }
+    }
+
+    private static int[] newBuckets(int capacity) {
+        int[] buckets = new int[capacity];
+        Arrays.fill(buckets, NULL);
+        return buckets;
+    }
+
+    private static int hash(byte[] bytes) {
+        int hash = Arrays.hashCode(bytes);
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -1,13 +1,85 @@
 package com.example.todolist.repository;
 
 import com.example.todolist.model.Todo;
+import com.example.todolist.model.TodoVersion;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
-public interface TodoJPARepository extends JpaRepository<Todo, Long> {
-    List<Todo> findByCompleted(boolean isCompleted);
 
-    List<Todo> findByTitleIgnoreCase(String title);
+public interface TodoJPARepository extends JpaRepository<Todo, Long>, JpaSpecificationExecutor<Todo> {
+    /**
+     * Selects todos through their constructor rather than as entities: the results never enter the persistence
+     * context, so the list reads below skip the entity snapshots and dirty checks that only writes need.
+     */
+    String VIEW = "select new com.example.todolist.model.Todo("
+        + "t.id, t.title, t.description, t.completed, t.createdAt, t.updatedAt, t.version) from Todo t";
+
+    /**
+     * The status lookups use literals rather than a bound parameter so PostgreSQL can match the partial
+     * {@code todos_open_idx} on every execution, including generic plans of prepared statements.
+     */
+    @Query(VIEW + " where t.completed = false order by t.id")
+    List<Todo> findOpen();
+
+    @Query(VIEW + " where t.completed = true order by t.id")
+    List<Todo> findCompleted();
+
+    /**
+     * Matches the expression of {@code todos_title_lower_idx}; the derived {@code IgnoreCase} query would
+     * compare {@code upper(title)} and never use it.
+     */
+    @Query(VIEW + " where lower(t.title) = lower(:title) order by t.id")
+    List<Todo> findByTitleLowerCase(@Param("title") String title);
+
+    @Query(VIEW + " order by t.id")
+    List<Todo> findAllViews();
+
+    @Query(VIEW + " where t.id > :id order by t.id")
+    List<Todo> findViewsAfter(@Param("id") Long id, Limit limit);
+
+    @Query(VIEW + " where t.id in :ids")
+    List<Todo> findViewsById(@Param("ids") Collection<Long> ids);
+
+    @Query("select new com.example.todolist.model.TodoVersion(t.id, t.version) from Todo t where t.id > :id order by t.id")
+    List<TodoVersion> findVersionsByIdGreaterThan(@Param("id") Long id, Limit limit);
+
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    Stream<Todo> streamAllByOrderByIdAsc();
+
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("select t.id from Todo t where t.completed = true")
+    Stream<Long> streamCompletedIds();
+
+    /**
+     * Rows of hour start and number of todos created in that hour.
+     */
+    @Query(value = "select date_trunc('hour', created_at), count(*) from todos where created_at >= :since "
+        + "group by date_trunc('hour', created_at)", nativeQuery = true)
+    List<Object[]> countCreatedPerHourSince(@Param("since") LocalDateTime since);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Todo t where t.id = :id")
+    int deleteByIdReturningCount(@Param("id") Long id);
 }
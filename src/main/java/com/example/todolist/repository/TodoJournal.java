@@ -0,0 +1,492 @@
+package com.example.todolist.repository;
+
+import com.example.todolist.model.Todo;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+
+/**
+ * Append-only log of the writes to a {@link TodoRepositoryInMemory}, which stays the authoritative copy. Writers only
+ * queue a record; one writer thread drains the queue in batches into the current segment file and forces it to
+ * disk according to the {@link FsyncPolicy}, so concurrent writes share one {@code write} and one {@code fsync}.
+ *
+ * <p>Records hold the full state of a todo, so replay just keeps the last record per id. Compaction rolls to a new
+ * segment, writes the current state to {@code snapshot-N.bin} (a {@link TodoSnapshot} covering every segment below
+ * {@code N}) and deletes what it covers. It runs every {@code snapshotInterval} when something changed and whenever
+ * a segment outgrows {@code segmentBytes}. On startup the newest snapshot is mapped and loaded, the later segments
+ * are replayed and a torn record at the end of the last segment, left by a crash mid-write, is cut off.
+ */
+@Slf4j
+public class TodoJournal implements TodoRepositoryInMemory.ChangeLog, AutoCloseable {
+    private static final int QUEUE_CAPACITY = 65_536;
+    private static final int MAX_BATCH = 4096;
+    private static final int BUFFER_BYTES = 1 << 20;
+    private static final long IDLE_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final Pattern SEGMENT = Pattern.compile("segment-(\\d+)\\.log");
+    private static final Pattern SNAPSHOT = Pattern.compile("snapshot-(\\d+)\\.bin");
+    private static final String SNAPSHOT_TMP = "snapshot.tmp";
+
+    private final Path directory;
+    private final FsyncPolicy fsync;
+    private final long fsyncIntervalNanos;
+    private final long segmentBytes;
+    private final Duration snapshotInterval;
+    private final BlockingQueue<Pending> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final ThreadLocal<CompletableFuture<Long>> lastAppend = new ThreadLocal<>();
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    private volatile boolean changedSinceSnapshot;
+    private volatile boolean running;
+    private volatile IOException failure;
+    private TodoRepositoryInMemory memory;
+    private Thread writer;
+    private ScheduledExecutorService compactor;
+
+    // Owned by the writer thread once it runs.
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private FileChannel channel;
+    private long segment;
+    private long segmentSize;
+    private boolean dirty;
+    private long lastFsync = System.nanoTime();
+
+
+    /**
+     * A queued record, or a request to roll to a new segment when {@code record} is {@code null}. {@code done} is
+     * completed with the current segment number once the record is written (and forced, for
+     * {@link FsyncPolicy#ALWAYS}); it is {@code null} when nobody waits for it.
+     */
+    private record Pending(ByteBuffer record, CompletableFuture<Long> done) {
+    }
+
+    public TodoJournal(Path directory, FsyncPolicy fsync, Duration fsyncInterval, long segmentBytes,
+                       Duration snapshotInterval) {
+        this.directory = directory;
+        this.fsync = fsync;
+        this.fsyncIntervalNanos = fsyncInterval.toNanos();
+        this.segmentBytes = segmentBytes;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * Restores {@code memory} from the newest snapshot and the segments after it, then starts appending to a new
+     * segment. Must be called before the store takes writes.
+     */
+    public void open(TodoRepositoryInMemory memory) throws IOException {
+        Files.createDirectories(directory);
+        Files.deleteIfExists(directory.resolve(SNAPSHOT_TMP));
+        Files.deleteIfExists(TodoSnapshot.stringsFile(directory.resolve(SNAPSHOT_TMP)));
+
+        long snapshot = numbers(SNAPSHOT).stream().mapToLong(Long::longValue).max().orElse(0L);
+        long nextId = 1;
+        if (snapshot > 0) {
+            nextId = TodoSnapshot.load(snapshotPath(snapshot), memory);
+        }
+        Map<Long, Todo> changes = new HashMap<>();
+        long last = snapshot;
+        for (long number : numbers(SEGMENT)) {
+            if (number >= snapshot) {
+                nextId = Math.max(nextId, replay(segmentPath(number), changes));
+                last = Math.max(last, number + 1);
+            }
+        }
+        changes.forEach((id, todo) -> {
+            if (todo == null) {
+                memory.forget(id);
+            } else {
+                memory.restore(todo);
+            }
+        });
+        memory.reserveIds(nextId);
+        deleteCoveredBy(snapshot);
+
+        this.memory = memory;
+        openSegment(last);
+        running = true;
+        writer = new Thread(this::write, "todo-journal-writer");
+        writer.start();
+        compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "todo-journal-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        compactor.scheduleWithFixedDelay(this::compactIfChanged, snapshotInterval.toNanos(),
+            snapshotInterval.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void stored(Todo todo) {
+        append(JournalRecords.put(todo));
+    }
+
+    @Override
+    public void removed(long id) {
+        append(JournalRecords.delete(id));
+    }
+
+    /**
+     * Waits until the records the calling thread appended are on disk. Only {@link FsyncPolicy#ALWAYS} waits; the
+     * other policies return at once.
+     */
+    public void awaitDurable() {
+        CompletableFuture<Long> done = lastAppend.get();
+        if (done == null) {
+            return;
+        }
+
+        lastAppend.remove();
+        try {
+            done.join();
+        } catch (CompletionException e) {
+            throw new UncheckedIOException("Journal write failed", failure);
+        }
+    }
+
+    /**
+     * Writes a snapshot of the current state and deletes the segments and snapshots it makes obsolete.
+     */
+    public void compact() throws IOException {
+        CompletableFuture<Long> rolled = new CompletableFuture<>();
+        enqueue(new Pending(null, rolled));
+        long covered = join(rolled);
+
+        Path tmp = directory.resolve(SNAPSHOT_TMP);
+        TodoSnapshot.write(tmp, memory.nextId(), memory::streamAll);
+        Files.move(tmp, snapshotPath(covered), ATOMIC_MOVE, REPLACE_EXISTING);
+        forceDirectory();
+        deleteCoveredBy(covered);
+    }
+
+    /**
+     * Drains the queue, forces the last segment to disk and stops the writer.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+
+        compactor.shutdown();
+        compactor.awaitTermination(1, TimeUnit.MINUTES);
+        running = false;
+        writer.join();
+    }
+
+    private void append(ByteBuffer record) {
+        CompletableFuture<Long> done = fsync == FsyncPolicy.ALWAYS ? new CompletableFuture<>() : null;
+        enqueue(new Pending(record, done));
+        changedSinceSnapshot = true;
+        if (done != null) {
+            lastAppend.set(done);
+        }
+    }
+
+    private void enqueue(Pending pending) {
+        if (failure != null) {
+            throw new UncheckedIOException("Journal write failed", failure);
+        }
+        if (!running) {
+            throw new IllegalStateException("Journal is not open");
+        }
+
+        try {
+            queue.put(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while appending to the journal", e);
+        }
+    }
+
+    private void write() {
+        List<Pending> batch = new ArrayList<>();
+        long pollNanos = fsync == FsyncPolicy.INTERVAL ? Math.min(fsyncIntervalNanos, IDLE_POLL_NANOS) : IDLE_POLL_NANOS;
+        try {
+            while (running || !queue.isEmpty()) {
+                Pending first = queue.poll(pollNanos, TimeUnit.NANOSECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                    writeBatch(batch);
+                    batch.clear();
+                }
+                if (dirty && fsync == FsyncPolicy.INTERVAL && System.nanoTime() - lastFsync >= fsyncIntervalNanos) {
+                    force();
+                }
+            }
+            force();
+        } catch (IOException | RuntimeException e) {
+            log.error("Journal write to {} failed; further writes are rejected", segmentPath(segment), e);
+            IOException cause = e instanceof IOException io ? io : new IOException("Journal writer failed", e);
+            failure = cause;
+            batch.forEach(pending -> fail(pending, cause));
+            rejectRemaining(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeChannel();
+        }
+    }
+
+    /**
+     * Keeps failing whatever writers queued before they saw the failure, so none of them waits forever.
+     */
+    private void rejectRemaining(IOException e) {
+        try {
+            while (running || !queue.isEmpty()) {
+                Pending pending = queue.poll(IDLE_POLL_NANOS, TimeUnit.NANOSECONDS);
+                if (pending != null) {
+                    fail(pending, e);
+                }
+            }
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeBatch(List<Pending> batch) throws IOException {
+        List<CompletableFuture<Long>> written = new ArrayList<>();
+        for (Pending pending : batch) {
+            if (pending.record() == null) {
+                flush();
+                force();
+                complete(written);
+                roll();
+                pending.done().complete(segment);
+                continue;
+            }
+
+            ByteBuffer record = pending.record();
+            if (record.remaining() > buffer.remaining()) {
+                flush();
+            }
+            if (record.remaining() > buffer.capacity()) {
+                segmentSize += writeFully(channel, record);
+                dirty = true;
+            } else {
+                buffer.put(record);
+            }
+            if (pending.done() != null) {
+                written.add(pending.done());
+            }
+        }
+
+        flush();
+        if (fsync == FsyncPolicy.ALWAYS) {
+            force();
+        }
+        complete(written);
+        if (segmentSize >= segmentBytes) {
+            requestCompaction();
+        }
+    }
+
+    private void flush() throws IOException {
+        if (buffer.position() == 0) {
+            return;
+        }
+
+        segmentSize += writeFully(channel, buffer.flip());
+        buffer.clear();
+        dirty = true;
+    }
+
+    private void force() throws IOException {
+        if (dirty) {
+            channel.force(false);
+            dirty = false;
+        }
+        lastFsync = System.nanoTime();
+    }
+
+    private void roll() throws IOException {
+        channel.close();
+        openSegment(segment + 1);
+    }
+
+    private void openSegment(long number) throws IOException {
+        segment = number;
+        channel = FileChannel.open(segmentPath(number), CREATE, WRITE);
+        segmentSize = channel.size();
+        channel.position(segmentSize);
+        forceDirectory();
+    }
+
+    private void complete(List<CompletableFuture<Long>> written) {
+        written.forEach(done -> done.complete(segment));
+        written.clear();
+    }
+
+    /**
+     * Hands a compaction to the compactor, unless the journal is closing and the compactor is shut down.
+     */
+    private void requestCompaction() {
+        if (!running || compactor.isShutdown() || !compacting.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            compactor.execute(() -> {
+                try {
+                    compact();
+                } catch (IOException | RuntimeException e) {
+                    log.error("Journal compaction in {} failed", directory, e);
+                } finally {
+                    compacting.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            compacting.set(false);
+        }
+    }
+
+    private void compactIfChanged() {
+        if (!changedSinceSnapshot || !compacting.compareAndSet(false, true)) {
+            return;
+        }
+
+        changedSinceSnapshot = false;
+        try {
+            compact();
+        } catch (IOException | RuntimeException e) {
+            changedSinceSnapshot = true;
+            log.error("Journal compaction in {} failed", directory, e);
+        } finally {
+            compacting.set(false);
+        }
+    }
+
+    /**
+     * Applies every intact record of {@code file} to {@code changes}, where a deleted todo maps to {@code null}, and
+     * cuts off a damaged tail.
+     *
+     * @return the lowest id that is safe to hand out after this file
+     */
+    private long replay(Path file, Map<Long, Todo> changes) throws IOException {
+        long intact = 0;
+        long nextId = 1;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            JournalRecords.Entry entry;
+            while ((entry = JournalRecords.read(in)) != null) {
+                changes.put(entry.id(), entry.todo());
+                nextId = Math.max(nextId, entry.id() + 1);
+                intact += entry.bytes();
+            }
+        }
+
+        long size = Files.size(file);
+        if (intact < size) {
+            log.warn("Cutting off {} damaged bytes at the end of {}", size - intact, file);
+            try (FileChannel damaged = FileChannel.open(file, WRITE)) {
+                damaged.truncate(intact);
+                damaged.force(true);
+            }
+        }
+        return nextId;
+    }
+
+    private void deleteCoveredBy(long snapshot) throws IOException {
+        for (long number : numbers(SEGMENT)) {
+            if (number < snapshot) {
+                Files.deleteIfExists(segmentPath(number));
+            }
+        }
+        for (long number : numbers(SNAPSHOT)) {
+            if (number < snapshot) {
+                Files.deleteIfExists(snapshotPath(number));
+            }
+        }
+    }
+
+    private List<Long> numbers(Pattern pattern) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .map(file -> pattern.matcher(file.getFileName().toString()))
+                .filter(Matcher::matches)
+                .map(matcher -> Long.parseLong(matcher.group(1)))
+                .sorted()
+                .toList();
+        }
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve(String.format("segment-%016d.log", number));
+    }
+
+    private Path snapshotPath(long number) {
+        return directory.resolve(String.format("snapshot-%016d.bin", number));
+    }
+
+    /**
+     * Makes created and renamed files durable. Not every platform can open a directory, so this is best effort.
+     */
+    private void forceDirectory() {
+        try (FileChannel dir = FileChannel.open(directory, READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // Windows cannot open directories; renames there are durable once the file itself was forced.
+        }
+    }
+
+    private void closeChannel() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Closing {} failed", segmentPath(segment), e);
+        }
+    }
+
+    private static long writeFully(FileChannel out, ByteBuffer source) throws IOException {
+        long written = 0;
+        while (source.hasRemaining()) {
+            written += out.write(source);
+        }
+        return written;
+    }
+
+    private static void fail(Pending pending, IOException e) {
+        if (pending.done() != null) {
+            pending.done().completeExceptionally(e);
+        }
+    }
+
+    private static long join(CompletableFuture<Long> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.todolist.repository;
+
+import com.example.todolist.model.TodoQuery;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * A {@link TodoQuery} as one native statement for {@link JdbcTodoRepository}, with the predicates and order of
+ * {@link TodoSpecifications}: status as a literal for the partial indexes, {@code lower(title) like} for the title
+ * filters, the plain {@code created_at} range, and titles sorted lower-cased with missing values last. Only
+ * {@code limit} rows leave the database. On PostgreSQL titles are sorted in the {@code "C"} collation, the code point
+ * order in which {@link ShardedTodoRepository} merges the shards; a locale collation that skips spaces and
+ * punctuation would return them out of that order.
+ */
+record TodoQuerySql(String sql, Map<String, Object> parameters) {
+    private static final String COLUMNS = "id, title, description, completed, created_at, updated_at, version";
+
+    static TodoQuerySql of(boolean postgres, TodoQuery query) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        List<String> predicates = new ArrayList<>();
+        if (query.completed() != null) {
+            predicates.add(query.completed() ? "completed = true" : "completed = false");
+        }
+        if (query.titleContains() != null) {
+            parameters.put("titleContains", "%" + TodoSearchSql.escapeLike(query.titleContains()) + "%");
+            predicates.add("lower(title) like :titleContains escape '!'");
+        }
+        if (query.titlePrefix() != null) {
+            parameters.put("titlePrefix", TodoSearchSql.escapeLike(query.titlePrefix()) + "%");
+            predicates.add("lower(title) like :titlePrefix escape '!'");
+        }
+        if (query.createdFrom() != null) {
+            parameters.put("createdFrom", query.createdFrom());
+            predicates.add("created_at >= :createdFrom");
+        }
+        if (query.createdTo() != null) {
+            parameters.put("createdTo", query.createdTo());
+            predicates.add("created_at < :createdTo");
+        }
+
+        List<String> orders = new ArrayList<>();
+        for (TodoQuery.Sort key : query.sort()) {
+            orders.add(column(postgres, key.field()) + (key.descending() ? " desc" : " asc") + " nulls last");
+        }
+        orders.add(query.sort().get(0).descending() ? "id desc" : "id asc");
+        parameters.put("limit", query.limit());
+
+        return new TodoQuerySql("select " + COLUMNS + " from todos"
+            + (predicates.isEmpty() ? "" : " where " + String.join(" and ", predicates))
+            + " order by " + String.join(", ", orders)
+            + " limit :limit", parameters);
+    }
+
+    private static String column(boolean postgres, TodoQuery.Field field) {
+        return switch (field) {
+            case ID -> "id";
+            case TITLE -> postgres ? "lower(title) collate \"C\"" : "lower(title)";
+            case CREATED_AT -> "created_at";
+            case UPDATED_AT -> "updated_at";
+        };
+    }
+}
@@ -1,40 +1,176 @@
 package com.example.todolist.repository;
 
+import com.example.todolist.model.SearchMode;
 import com.example.todolist.model.Todo;
-import org.springframework.data.domain.Sort;
+import com.example.todolist.model.TodoCounts;
+import com.example.todolist.model.TodoQuery;
+import com.example.todolist.model.TodoVersion;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
 
 
+/**
+ * Every read runs in a read-only transaction, which {@code ReplicaRoutingDataSource} sends to a replica when
+ * replicas are configured. The listings, status and title lookups return detached todos built by
+ * {@link TodoJPARepository#VIEW} instead of managed entities.
+ */
 @Repository
+@ConditionalOnProperty(name = "todolist.repository.type", havingValue = "jpa", matchIfMissing = true)
+@Timed(value = "todolist.repository", histogram = true)
 public class TodoRepository implements BaseRepository {
+    static final String PATCH = "update todos set "
+        + "title = coalesce(:title, title), "
+        + "description = coalesce(:description, description), "
+        + "completed = :completed, "
+        + "version = version + 1, "
+        + "updated_at = :updatedAt "
+        + "where id = :id and (:version is null or version = :version)";
+    static final String DELETE_ALL = "delete from todos where id in (:ids)";
+
     private final TodoJPARepository repository;
+    private final EntityManager entityManager;
+    private final String patchSql;
+    private final String deleteAllSql;
+    private final boolean postgres;
 
 
-    public TodoRepository(TodoJPARepository repository) {
+    public TodoRepository(TodoJPARepository repository, EntityManager entityManager) {
         this.repository = repository;
+        this.entityManager = entityManager;
+
+        Dialect dialect = entityManager.getEntityManagerFactory()
+            .unwrap(SessionFactoryImplementor.class)
+            .getJdbcServices()
+            .getDialect();
+        boolean h2 = dialect instanceof H2Dialect;
+        this.patchSql = returning(h2, PATCH, "final", "*");
+        this.deleteAllSql = returning(h2, DELETE_ALL, "old", "id");
+        this.postgres = dialect instanceof PostgreSQLDialect;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Todo> findByCompleted(boolean completed) {
-        return repository.findByCompleted(completed);
+        return completed ? repository.findCompleted() : repository.findOpen();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Todo> findAll() {
-        return repository.findAll(Sort.by(Sort.Direction.ASC, "id"));
+        return repository.findAllViews();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Todo> findAllAfter(Long afterId, int limit) {
+        return repository.findViewsAfter(afterId == null ? 0L : afterId, Limit.of(limit));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TodoVersion> findVersionsAfter(Long afterId, int limit) {
+        return repository.findVersionsByIdGreaterThan(afterId == null ? 0L : afterId, Limit.of(limit));
+    }
+
+    /**
+     * Runs inside a read-only transaction so PostgreSQL serves the rows from a server-side cursor
+     * in fetch-size chunks; each entity is detached once consumed to keep the persistence context empty.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<Todo> consumer) {
+        try (Stream<Todo> todos = repository.streamAllByOrderByIdAsc()) {
+            todos.forEach(todo -> {
+                consumer.accept(todo);
+                entityManager.detach(todo);
+            });
+        }
+    }
+
+    /**
+     * A count plus one aggregate over the range of {@code todos_created_at_idx} since {@code createdSince}.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public TodoCounts countAll(LocalDateTime createdSince) {
+        Map<LocalDateTime, Long> createdPerHour = new LinkedHashMap<>();
+        for (Object[] row : repository.countCreatedPerHourSince(createdSince)) {
+            createdPerHour.put(localDateTime(row[0]), ((Number) row[1]).longValue());
+        }
+        return new TodoCounts(repository.count(), createdPerHour);
+    }
+
+    /**
+     * Streams from {@code todos_completed_idx} without loading any todo.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void streamCompletedIds(LongConsumer consumer) {
+        try (Stream<Long> ids = repository.streamCompletedIds()) {
+            ids.forEach(consumer::accept);
+        }
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<Todo> findById(Long id) {
         return repository.findById(id);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<Todo> findAllById(Collection<Long> ids) {
+        return ids.isEmpty() ? List.of() : repository.findViewsById(ids);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<Todo> findByTitle(String title) {
-        return repository.findByTitleIgnoreCase(title);
+        return repository.findByTitleLowerCase(title);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Todo> query(TodoQuery query) {
+        return repository.findBy(TodoSpecifications.matching(query).and(TodoSpecifications.ordered(query, postgres)),
+            fluent -> fluent.limit(query.limit()).all());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @SuppressWarnings("unchecked")
+    public List<Todo> search(String text, SearchMode mode, int offset, int limit) {
+        TodoSearchSql search = TodoSearchSql.of(postgres, text, mode, offset, limit);
+        if (search == null) {
+            return List.of();
+        }
+
+        Query query = entityManager.createNativeQuery(search.sql(), Todo.class);
+        search.parameters().forEach(query::setParameter);
+        return query.getResultList();
     }
 
     @Override
@@ -42,13 +178,93 @@ public class TodoRepository implements BaseRepository {
         return repository.save(todo);
     }
 
+    @Override
+    public List<Todo> saveAll(List<Todo> todos) {
+        return repository.saveAll(todos);
+    }
+
     @Override
     public Todo update(Todo todo) {
         return repository.save(todo);
     }
 
+    /**
+     * One round trip: the row is updated, its version bumped and read back by the same statement.
+     */
     @Override
-    public void deleteById(Long id) {
-        repository.deleteById(id);
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public Optional<Todo> patch(Long id, Todo changes, Long expectedVersion) {
+        List<Todo> patched = entityManager.createNativeQuery(patchSql, Todo.class)
+            .unwrap(NativeQuery.class)
+            .setParameter("title", changes.getTitle(), String.class)
+            .setParameter("description", changes.getDescription(), String.class)
+            .setParameter("completed", changes.isCompleted(), Boolean.class)
+            .setParameter("updatedAt", LocalDateTime.now(), LocalDateTime.class)
+            .setParameter("id", id, Long.class)
+            .setParameter("version", expectedVersion, Long.class)
+            .getResultList();
+
+        return patched.stream().findFirst();
+    }
+
+    @Override
+    public boolean deleteById(Long id) {
+        return repository.deleteByIdReturningCount(id) > 0;
+    }
+
+    /**
+     * Loads the affected rows with one select and lets Hibernate flush the dirty entities as a JDBC batch
+     * when the transaction commits.
+     */
+    @Override
+    @Transactional
+    public Map<Long, Todo> patchAll(Map<Long, Todo> changesById) {
+        Map<Long, Todo> patched = new LinkedHashMap<>();
+        for (Todo todo : repository.findAllById(changesById.keySet())) {
+            Todo changes = changesById.get(todo.getId());
+            if (changes.getTitle() != null) {
+                todo.setTitle(changes.getTitle());
+            }
+            if (changes.getDescription() != null) {
+                todo.setDescription(changes.getDescription());
+            }
+            todo.setCompleted(changes.isCompleted());
+            patched.put(todo.getId(), todo);
+        }
+        return patched;
+    }
+
+    @Override
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public Set<Long> deleteAllById(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+
+        List<Number> deleted = entityManager.createNativeQuery(deleteAllSql)
+            .setParameter("ids", ids)
+            .getResultList();
+
+        Set<Long> deletedIds = new HashSet<>();
+        deleted.forEach(id -> deletedIds.add(id.longValue()));
+        return deletedIds;
+    }
+
+    private static LocalDateTime localDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+
+    /**
+     * PostgreSQL reads the affected rows back with {@code RETURNING}; H2, used for benchmarks and tests,
+     * expresses the same thing as a data change delta table.
+     */
+    static String returning(boolean h2, String statement, String deltaTable, String columns) {
+        if (h2) {
+            return "select " + columns + " from " + deltaTable + " table (" + statement + ")";
+        }
+
+        return statement + " returning " + columns;
     }
 }
@@ -1,89 +1,610 @@
 package com.example.todolist.repository;
 
+import com.example.todolist.model.SearchMode;
 import com.example.todolist.model.Todo;
-import lombok.Getter;
+import com.example.todolist.model.TodoQuery;
+import com.example.todolist.model.TodoVersion;
+import io.micrometer.core.annotation.Timed;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.Predicate;
+import java.util.stream.StreamSupport;
 
 
+/**
+ * Thread-safe in-memory store. Todos live in an id-ordered concurrent map with secondary indexes on
+ * {@code completed}, on the case-folded title (sorted, so prefixes are a range scan), on {@code createdAt} and a
+ * full-text {@link TodoSearchIndex}; writes to the same id are serialized by a striped lock
+ * so the primary map and the indexes never disagree for longer than a single write.
+ * Stored instances are never handed out: every read returns a copy.
+ * Every write is also reported to a {@link ChangeLog} while the lock is held, so the log sees the writes to one
+ * id in the order they were applied.
+ */
+@Timed(value = "todolist.repository", histogram = true)
 public class TodoRepositoryInMemory implements BaseRepository {
-    @Getter
-    private static final List<Todo> todoList = new ArrayList<>();
-    private Long pkId = 1L;
+    private static final int LOCK_STRIPES = 64;
 
+    private final ConcurrentNavigableMap<Long, Todo> todos = new ConcurrentSkipListMap<>();
+    private final NavigableSet<Long> completedIds = new ConcurrentSkipListSet<>();
+    private final NavigableSet<Long> openIds = new ConcurrentSkipListSet<>();
+    private final ConcurrentNavigableMap<String, NavigableSet<Long>> titleIndex = new ConcurrentSkipListMap<>();
+    private final NavigableSet<CreatedKey> createdIndex = new ConcurrentSkipListSet<>();
+    private final LongAdder storedCount = new LongAdder();
+    private final LongAdder completedCount = new LongAdder();
+    private final TodoSearchIndex searchIndex = new TodoSearchIndex();
+    private volatile CompletableFuture<Void> searchIndexBuilt = CompletableFuture.completedFuture(null);
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final AtomicLong pkId = new AtomicLong(1L);
+    private final ChangeLog changeLog;
+
+
+    /**
+     * Receives the stored state after every write, or the id of a removed todo.
+     */
+    public interface ChangeLog {
+        ChangeLog NONE = new ChangeLog() {
+            @Override
+            public void stored(Todo todo) {
+            }
+
+            @Override
+            public void removed(long id) {
+            }
+        };
+
+        void stored(Todo todo);
+
+        void removed(long id);
+    }
+
+    public TodoRepositoryInMemory() {
+        this(ChangeLog.NONE);
+    }
+
+    public TodoRepositoryInMemory(ChangeLog changeLog) {
+        this.changeLog = changeLog;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
 
     public void generateTodos() {
         for (int i = 1; i <= 3; i++) {
-            todoList.add(new Todo(
-                pkId++,
+            save(new Todo(
+                null,
                 "An title_" + i,
                 "An description " + i,
                 i == 2,
-                LocalDateTime.now()));
+                null));
         }
     }
 
+    public void clear() {
+        todos.keySet().forEach(this::deleteById);
+    }
+
     @Override
     public List<Todo> findAll() {
-        return new ArrayList<>(todoList);
+        return todos.values().stream()
+            .map(Todo::copy)
+            .toList();
+    }
+
+    @Override
+    public List<Todo> findAllAfter(Long afterId, int limit) {
+        long cursor = afterId == null ? 0L : afterId;
+        return todos.tailMap(cursor, false).values().stream()
+            .limit(limit)
+            .map(Todo::copy)
+            .toList();
+    }
+
+    @Override
+    public List<TodoVersion> findVersionsAfter(Long afterId, int limit) {
+        long cursor = afterId == null ? 0L : afterId;
+        return todos.tailMap(cursor, false).values().stream()
+            .limit(limit)
+            .map(todo -> new TodoVersion(todo.getId(), todo.getVersion()))
+            .toList();
+    }
+
+    @Override
+    public void streamAll(Consumer<Todo> consumer) {
+        todos.values().forEach(todo -> consumer.accept(todo.copy()));
+    }
+
+    /**
+     * Reads the status index instead of every todo.
+     */
+    @Override
+    public void streamCompletedIds(LongConsumer consumer) {
+        completedIds.forEach(consumer::accept);
     }
 
     @Override
     public Optional<Todo> findById(Long id) {
-        return todoList.stream()
-            .filter(todo -> Objects.equals(todo.getId(), id))
-            .findFirst();
+        if (id == null) {
+            return Optional.empty();
+        }
+
+        return Optional.ofNullable(todos.get(id))
+            .map(Todo::copy);
     }
 
     @Override
     public List<Todo> findByTitle(String title) {
-        return todoList.stream()
-            .filter(todo -> todo.getTitle().equals(title))
-            .toList();
+        if (title == null) {
+            return List.of();
+        }
+
+        NavigableSet<Long> ids = titleIndex.get(titleKey(title));
+        return ids == null ? List.of() : resolve(ids, todo -> todo.getTitle().equalsIgnoreCase(title));
     }
 
     @Override
     public List<Todo> findByCompleted(boolean completed) {
-        return todoList.stream()
-            .filter(todo -> todo.isCompleted() == completed)
+        return resolve(statusIndex(completed), todo -> todo.isCompleted() == completed);
+    }
+
+    @Override
+    public List<Todo> search(String text, SearchMode mode, int offset, int limit) {
+        TodoSearchIndex.Query query = TodoSearchIndex.Query.of(text, mode);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+
+        Collection<Long> candidates = searchIndexBuilt.isDone() ? searchIndex.candidates(query) : null;
+        record Hit(Todo todo, double score) {
+        }
+        return (candidates == null ? todos.values().stream() : candidates.stream().map(todos::get))
+            .filter(Objects::nonNull)
+            .map(todo -> new Hit(todo, TodoSearchIndex.score(todo, query)))
+            .filter(hit -> hit.score() > 0)
+            .sorted(Comparator.comparingDouble(Hit::score).reversed()
+                .thenComparing(hit -> hit.todo().getId()))
+            .skip(offset)
+            .limit(limit)
+            .map(hit -> hit.todo().copy())
             .toList();
     }
 
+    /**
+     * Reads the candidates of the cheapest {@link #plan} and re-checks each against its stored value, as index
+     * entries are only hints. A plan that yields todos in the query's order stops at {@code limit} matches; any
+     * other keeps the best {@code limit} candidates seen so far.
+     */
+    @Override
+    public List<Todo> query(TodoQuery query) {
+        Plan plan = plan(query);
+        if (plan.ordered()) {
+            List<Todo> result = new ArrayList<>();
+            for (Iterator<Todo> candidates = plan.candidates().iterator();
+                 candidates.hasNext() && result.size() < query.limit(); ) {
+                Todo todo = candidates.next();
+                if (todo != null && query.matches(todo)) {
+                    result.add(todo.copy());
+                }
+            }
+            return result;
+        }
+
+        Comparator<Todo> order = query.comparator();
+        PriorityQueue<Todo> best = new PriorityQueue<>(query.limit() + 1, order.reversed());
+        for (Todo todo : plan.candidates()) {
+            if (todo != null && query.matches(todo)) {
+                best.add(todo);
+                if (best.size() > query.limit()) {
+                    best.poll();
+                }
+            }
+        }
+        return best.stream().sorted(order).map(Todo::copy).toList();
+    }
+
+    /**
+     * Name of the access path {@link #query} takes for {@code query}.
+     */
+    String explain(TodoQuery query) {
+        return plan(query).name();
+    }
+
+    /**
+     * One way to read the candidates of a query. {@code estimate} is how many candidates it yields, an upper bound
+     * of the matches; {@code ordered} is whether they come in the query's order.
+     */
+    private record Plan(String name, long estimate, Iterable<Todo> candidates, boolean ordered) {
+
+        /**
+         * Candidates expected to be read: all of them, or for an ordered plan only until {@code limit} matches
+         * turned up, assuming the {@code matches} of the most selective plan are spread evenly.
+         */
+        double cost(long matches, int limit) {
+            if (!ordered) {
+                return estimate;
+            }
+            return matches == 0 ? 0 : Math.min(estimate, (double) limit * estimate / matches);
+        }
+    }
+
+    /**
+     * Collects the access paths that can serve {@code query}: a scan of every todo in id order, the status set,
+     * the trigrams of {@link TodoSearchIndex} for a title substring, the sorted title index for a prefix and the
+     * creation index for a {@code createdAt} range or order. Status and trigram sizes are exact; index ranges are
+     * counted only up to the smallest estimate so far, since a larger one cannot win on size alone.
+     */
+    private Plan plan(TodoQuery query) {
+        TodoQuery.Sort first = query.sort().get(0);
+        boolean descending = first.descending();
+        boolean byId = first.field() == TodoQuery.Field.ID;
+        boolean byCreatedAt = first.field() == TodoQuery.Field.CREATED_AT && query.sort().size() == 1;
+        long stored = storedCount.sum();
+
+        List<Plan> plans = new ArrayList<>();
+        plans.add(new Plan("scan", stored, descending ? todos.descendingMap().values() : todos.values(), byId));
+        if (query.completed() != null) {
+            NavigableSet<Long> ids = statusIndex(query.completed());
+            long completed = completedCount.sum();
+            plans.add(new Plan("status", query.completed() ? completed : stored - completed,
+                resolve(descending ? ids.descendingSet() : ids), byId));
+        }
+        if (query.titleContains() != null && searchIndexBuilt.isDone()) {
+            Collection<Long> ids = searchIndex.candidates(
+                TodoSearchIndex.Query.of(query.titleContains(), SearchMode.SUBSTRING));
+            if (ids != null) {
+                plans.add(new Plan("titleContains", ids.size(), resolve(ids), false));
+            }
+        }
+        if (query.titlePrefix() != null) {
+            Collection<NavigableSet<Long>> buckets = titleIndex
+                .subMap(query.titlePrefix(), true, query.titlePrefix() + Character.MAX_VALUE, false)
+                .values();
+            Iterable<Long> ids = () -> buckets.stream().flatMap(Collection::stream).iterator();
+            plans.add(new Plan("titlePrefix", countUpTo(ids, smallestEstimate(plans)), resolve(ids), false));
+        }
+        if (query.createdFrom() != null || query.createdTo() != null || byCreatedAt) {
+            NavigableSet<CreatedKey> range = createdRange(query.createdFrom(), query.createdTo());
+            NavigableSet<CreatedKey> keys = descending ? range.descendingSet() : range;
+            Iterable<Long> ids = () -> keys.stream().map(CreatedKey::id).iterator();
+            plans.add(new Plan("createdAt", countUpTo(ids, smallestEstimate(plans)), resolve(ids), byCreatedAt));
+        }
+
+        long matches = smallestEstimate(plans);
+        return plans.stream()
+            .min(Comparator.comparingDouble((Plan plan) -> plan.cost(matches, query.limit()))
+                .thenComparing(plan -> !plan.ordered()))
+            .orElseThrow();
+    }
+
+    private NavigableSet<CreatedKey> createdRange(LocalDateTime from, LocalDateTime to) {
+        if (from == null && to == null) {
+            return createdIndex;
+        }
+        if (from == null) {
+            return createdIndex.headSet(new CreatedKey(to, Long.MIN_VALUE), false);
+        }
+        CreatedKey lower = new CreatedKey(from, Long.MIN_VALUE);
+        return to == null
+            ? createdIndex.tailSet(lower, true)
+            : createdIndex.subSet(lower, true, new CreatedKey(to, Long.MIN_VALUE), false);
+    }
+
+    private Iterable<Todo> resolve(Iterable<Long> ids) {
+        return () -> StreamSupport.stream(ids.spliterator(), false).map(todos::get).iterator();
+    }
+
+    private static long smallestEstimate(List<Plan> plans) {
+        return plans.stream().mapToLong(Plan::estimate).min().orElseThrow();
+    }
+
+    /**
+     * @return the number of ids, or {@code cap + 1} once there are more than {@code cap}
+     */
+    private static long countUpTo(Iterable<Long> ids, long cap) {
+        long count = 0;
+        for (Iterator<Long> iterator = ids.iterator(); iterator.hasNext() && count <= cap; iterator.next()) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Entry of the creation index; the id keeps todos created at the same instant apart and orders them.
+     */
+    private record CreatedKey(LocalDateTime createdAt, long id) implements Comparable<CreatedKey> {
+        private static final Comparator<CreatedKey> ORDER =
+            Comparator.comparing(CreatedKey::createdAt).thenComparingLong(CreatedKey::id);
+
+        @Override
+        public int compareTo(CreatedKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
     @Override
     public Todo save(Todo todo) {
-        todo.setId(pkId);
+        long id = pkId.getAndIncrement();
+        todo.setId(id);
         todo.setCreatedAt(LocalDateTime.now());
-        todoList.add(todo);
-        incrementPK();
+        todo.setUpdatedAt(todo.getCreatedAt());
+        todo.setVersion(0L);
+        Todo stored = todo.copy();
+
+        synchronized (lockFor(id)) {
+            todos.put(id, stored);
+            index(stored);
+            changeLog.stored(stored);
+        }
 
-        return todo;
+        return stored.copy();
+    }
+
+    @Override
+    public List<Todo> saveAll(List<Todo> todos) {
+        return todos.stream()
+            .map(this::save)
+            .toList();
     }
 
     @Override
     public Todo update(Todo todo) {
-        return todoList.stream()
-            .filter(t -> Objects.equals(t.getId(), todo.getId()))
-            .findFirst()
-            .map(foundTodo -> {
-                foundTodo.setTitle(todo.getTitle());
-                foundTodo.setDescription(todo.getDescription());
-                foundTodo.setCompleted(todo.isCompleted());
-                return foundTodo;
+        Long id = todo.getId();
+        if (id == null) {
+            return null;
+        }
+
+        synchronized (lockFor(id)) {
+            Todo current = todos.get(id);
+            if (current == null) {
+                return null;
+            }
+
+            Todo updated = new Todo(id, todo.getTitle(), todo.getDescription(), todo.isCompleted(),
+                current.getCreatedAt(), LocalDateTime.now(), current.getVersion() + 1);
+            todos.put(id, updated);
+            unindex(current);
+            index(updated);
+            changeLog.stored(updated);
+            return updated.copy();
+        }
+    }
+
+    @Override
+    public Optional<Todo> patch(Long id, Todo changes, Long expectedVersion) {
+        if (id == null) {
+            return Optional.empty();
+        }
+
+        synchronized (lockFor(id)) {
+            Todo current = todos.get(id);
+            if (current == null || (expectedVersion != null && current.getVersion() != expectedVersion)) {
+                return Optional.empty();
+            }
+
+            return Optional.of(update(new Todo(
+                id,
+                changes.getTitle() != null ? changes.getTitle() : current.getTitle(),
+                changes.getDescription() != null ? changes.getDescription() : current.getDescription(),
+                changes.isCompleted(),
+                current.getCreatedAt())));
+        }
+    }
+
+    @Override
+    public boolean deleteById(Long id) {
+        if (id == null) {
+            return false;
+        }
+
+        synchronized (lockFor(id)) {
+            Todo removed = todos.remove(id);
+            if (removed != null) {
+                unindex(removed);
+                changeLog.removed(id);
+            }
+            return removed != null;
+        }
+    }
+
+    /**
+     * Puts back a todo exactly as it was stored, without reporting it to the change log, and moves the id
+     * sequence past it. Used when rebuilding the store from a log; the store keeps {@code todo} itself.
+     */
+    void restore(Todo todo) {
+        long id = todo.getId();
+        synchronized (lockFor(id)) {
+            Todo current = todos.put(id, todo);
+            if (current != null) {
+                unindex(current);
+            }
+            index(todo);
+        }
+        reserveIds(id + 1);
+    }
+
+    /**
+     * {@link #restore(Todo)} for a whole snapshot, into a store that is still empty and not yet taking writes.
+     * The primary map and the status, title and creation indexes are filled by their own task, so no two threads
+     * contend for one structure. The full-text index, by far the most expensive, is built in the background
+     * afterwards; until it is done {@link #search} scans every todo instead.
+     */
+    void restoreAll(Todo[] loaded) {
+        CompletableFuture.allOf(
+            CompletableFuture.runAsync(() -> {
+                for (Todo todo : loaded) {
+                    todos.put(todo.getId(), todo);
+                }
+            }),
+            CompletableFuture.runAsync(() -> {
+                for (Todo todo : loaded) {
+                    statusIndex(todo.isCompleted()).add(todo.getId());
+                    count(todo, 1);
+                }
+            }),
+            CompletableFuture.runAsync(() -> {
+                for (Todo todo : loaded) {
+                    if (todo.getCreatedAt() != null) {
+                        createdIndex.add(new CreatedKey(todo.getCreatedAt(), todo.getId()));
+                    }
+                }
+            }),
+            CompletableFuture.runAsync(() -> {
+                for (Todo todo : loaded) {
+                    if (todo.getTitle() != null) {
+                        titleIndex.computeIfAbsent(titleKey(todo.getTitle()), key -> new ConcurrentSkipListSet<>())
+                            .add(todo.getId());
+                    }
+                }
             })
-            .orElse(null);
+        ).join();
+
+        Arrays.stream(loaded).mapToLong(Todo::getId).max().ifPresent(id -> reserveIds(id + 1));
+        searchIndexBuilt = CompletableFuture.allOf(
+            CompletableFuture.runAsync(() -> indexLoaded(loaded, searchIndex::addWords)),
+            CompletableFuture.runAsync(() -> indexLoaded(loaded, searchIndex::addTrigrams)));
+    }
+
+    CompletableFuture<Void> searchIndexBuilt() {
+        return searchIndexBuilt;
+    }
+
+    /**
+     * Indexes the loaded todos that are still stored as loaded. Writers index their own changes, so a todo that
+     * has been replaced or removed in the meantime is skipped; the stripe lock keeps the check and the add together.
+     */
+    private void indexLoaded(Todo[] loaded, Consumer<Todo> index) {
+        for (Todo todo : loaded) {
+            synchronized (lockFor(todo.getId())) {
+                if (todos.get(todo.getId()) == todo) {
+                    index.accept(todo);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes a todo without reporting it to the change log.
+     */
+    void forget(long id) {
+        synchronized (lockFor(id)) {
+            Todo removed = todos.remove(id);
+            if (removed != null) {
+                unindex(removed);
+            }
+        }
+    }
+
+    /**
+     * Makes sure no id below {@code nextId} is handed out, including ids of todos that have been deleted.
+     */
+    void reserveIds(long nextId) {
+        pkId.accumulateAndGet(nextId, Math::max);
+    }
+
+    long nextId() {
+        return pkId.get();
     }
 
     @Override
-    public void deleteById(Long id) {
-        todoList.removeIf(t -> Objects.equals(t.getId(), id));
+    public Map<Long, Todo> patchAll(Map<Long, Todo> changesById) {
+        Map<Long, Todo> patched = new LinkedHashMap<>();
+        changesById.forEach((id, changes) -> patch(id, changes).ifPresent(todo -> patched.put(id, todo)));
+        return patched;
+    }
+
+    @Override
+    public Set<Long> deleteAllById(Collection<Long> ids) {
+        Set<Long> deleted = new HashSet<>();
+        for (Long id : ids) {
+            if (deleteById(id)) {
+                deleted.add(id);
+            }
+        }
+        return deleted;
     }
 
-    private void incrementPK() {
-        pkId++;
+    /**
+     * Index entries are only hints: a concurrent writer may have changed the todo between the index
+     * lookup and the map read, so each hit is re-checked against the stored value.
+     */
+    private List<Todo> resolve(Collection<Long> ids, Predicate<Todo> stillMatches) {
+        return ids.stream()
+            .map(todos::get)
+            .filter(Objects::nonNull)
+            .filter(stillMatches)
+            .map(Todo::copy)
+            .toList();
+    }
+
+    private void index(Todo todo) {
+        statusIndex(todo.isCompleted()).add(todo.getId());
+        count(todo, 1);
+        if (todo.getCreatedAt() != null) {
+            createdIndex.add(new CreatedKey(todo.getCreatedAt(), todo.getId()));
+        }
+        searchIndex.add(todo);
+        if (todo.getTitle() != null) {
+            titleIndex.compute(titleKey(todo.getTitle()), (key, ids) -> {
+                NavigableSet<Long> bucket = ids == null ? new ConcurrentSkipListSet<>() : ids;
+                bucket.add(todo.getId());
+                return bucket;
+            });
+        }
+    }
+
+    private void unindex(Todo todo) {
+        statusIndex(todo.isCompleted()).remove(todo.getId());
+        count(todo, -1);
+        if (todo.getCreatedAt() != null) {
+            createdIndex.remove(new CreatedKey(todo.getCreatedAt(), todo.getId()));
+        }
+        searchIndex.remove(todo);
+        if (todo.getTitle() != null) {
+            titleIndex.computeIfPresent(titleKey(todo.getTitle()), (key, ids) -> {
+                ids.remove(todo.getId());
+                return ids.isEmpty() ? null : ids;
+            });
+        }
     }
 
+    private void count(Todo todo, int delta) {
+        storedCount.add(delta);
+        if (todo.isCompleted()) {
+            completedCount.add(delta);
+        }
+    }
+
+    private NavigableSet<Long> statusIndex(boolean completed) {
+        return completed ? completedIds : openIds;
+    }
+
+    private Object lockFor(long id) {
+        return locks[(int) (id & (LOCK_STRIPES - 1))];
+    }
+
+    private static String titleKey(String title) {
+        return title.toLowerCase(Locale.ROOT);
+    }
 }
@@ -0,0 +1,189 @@
+package com.example.todolist.repository;
+
+import com.example.todolist.model.SearchMode;
+import com.example.todolist.model.Todo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+
+/**
+ * Inverted index over the title and description of the in-memory todos, maintained on every write. Words map to
+ * the ids containing them (sorted, so prefixes are a range scan), and lower-cased trigrams map to the ids
+ * containing them for substring queries. Like the other in-memory indexes it only produces candidates; the caller
+ * scores each candidate against its stored value, which also re-checks the match.
+ */
+final class TodoSearchIndex {
+    static final int TRIGRAM = 3;
+    static final double TITLE_WEIGHT = 1.0;
+    static final double DESCRIPTION_WEIGHT = 0.4;
+
+    private final ConcurrentNavigableMap<String, NavigableSet<Long>> words = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<String, NavigableSet<Long>> trigrams = new ConcurrentHashMap<>();
+
+
+    record Query(SearchMode mode, List<String> terms, String needle) {
+        static Query of(String text, SearchMode mode) {
+            return new Query(mode, SearchTerms.distinct(text), text == null ? "" : text.toLowerCase(Locale.ROOT));
+        }
+
+        boolean isEmpty() {
+            return mode == SearchMode.SUBSTRING ? needle.isEmpty() : terms.isEmpty();
+        }
+    }
+
+    void add(Todo todo) {
+        addWords(todo);
+        addTrigrams(todo);
+    }
+
+    /**
+     * Half of {@link #add(Todo)}; bulk loads fill the two indexes from separate threads.
+     */
+    void addWords(Todo todo) {
+        wordsOf(todo).forEach(word -> add(words, word, todo.getId()));
+    }
+
+    void addTrigrams(Todo todo) {
+        trigramsOf(todo).forEach(trigram -> add(trigrams, trigram, todo.getId()));
+    }
+
+    void remove(Todo todo) {
+        wordsOf(todo).forEach(word -> remove(words, word, todo.getId()));
+        trigramsOf(todo).forEach(trigram -> remove(trigrams, trigram, todo.getId()));
+    }
+
+    /**
+     * Ids that may match, or {@code null} when the index cannot narrow the query down (substrings shorter than a
+     * trigram) and every todo has to be checked.
+     */
+    Collection<Long> candidates(Query query) {
+        if (query.mode() == SearchMode.SUBSTRING) {
+            if (query.needle().length() < TRIGRAM) {
+                return null;
+            }
+            return intersect(trigramsOf(query.needle()).stream()
+                .map(trigram -> postings(trigrams, trigram))
+                .toList());
+        }
+
+        List<Set<Long>> postings = new ArrayList<>();
+        for (String term : query.terms()) {
+            if (query.mode() == SearchMode.WORDS) {
+                postings.add(postings(words, term));
+            } else {
+                Set<Long> ids = new HashSet<>();
+                words.subMap(term, true, term + Character.MAX_VALUE, false).values().forEach(ids::addAll);
+                postings.add(ids);
+            }
+        }
+        return intersect(postings);
+    }
+
+    /**
+     * Relevance of {@code todo} for {@code query}, {@code 0} when it does not match. Word and prefix scores count
+     * the matching words per field, weighted like PostgreSQL's {@code ts_rank} weights A (title) and B
+     * (description); substring matches score higher in the title than in the description only.
+     */
+    static double score(Todo todo, Query query) {
+        if (query.mode() == SearchMode.SUBSTRING) {
+            if (contains(todo.getTitle(), query.needle())) {
+                return TITLE_WEIGHT;
+            }
+            return contains(todo.getDescription(), query.needle()) ? DESCRIPTION_WEIGHT : 0;
+        }
+
+        List<String> title = SearchTerms.of(todo.getTitle());
+        List<String> description = SearchTerms.of(todo.getDescription());
+        double score = 0;
+        for (String term : query.terms()) {
+            double termScore = TITLE_WEIGHT * count(title, term, query.mode())
+                + DESCRIPTION_WEIGHT * count(description, term, query.mode());
+            if (termScore == 0) {
+                return 0;
+            }
+            score += termScore;
+        }
+        return score;
+    }
+
+    private static void add(ConcurrentMap<String, NavigableSet<Long>> index, String key, Long id) {
+        index.compute(key, (k, ids) -> {
+            NavigableSet<Long> bucket = ids == null ? new ConcurrentSkipListSet<>() : ids;
+            bucket.add(id);
+            return bucket;
+        });
+    }
+
+    private static void remove(ConcurrentMap<String, NavigableSet<Long>> index, String key, Long id) {
+        index.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private static Set<Long> postings(ConcurrentMap<String, NavigableSet<Long>> index, String key) {
+        Set<Long> ids = index.get(key);
+        return ids == null ? Set.of() : ids;
+    }
+
+    private static Set<String> wordsOf(Todo todo) {
+        Set<String> result = new HashSet<>(SearchTerms.of(todo.getTitle()));
+        result.addAll(SearchTerms.of(todo.getDescription()));
+        return result;
+    }
+
+    private static Set<String> trigramsOf(Todo todo) {
+        Set<String> result = trigramsOf(lower(todo.getTitle()));
+        result.addAll(trigramsOf(lower(todo.getDescription())));
+        return result;
+    }
+
+    private static Set<String> trigramsOf(String text) {
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + TRIGRAM <= text.length(); i++) {
+            result.add(text.substring(i, i + TRIGRAM));
+        }
+        return result;
+    }
+
+    private static Collection<Long> intersect(List<Set<Long>> postings) {
+        if (postings.isEmpty()) {
+            return List.of();
+        }
+
+        List<Set<Long>> bySize = postings.stream()
+            .sorted(Comparator.comparingInt(Set::size))
+            .toList();
+        Set<Long> result = new HashSet<>(bySize.get(0));
+        for (int i = 1; i < bySize.size() && !result.isEmpty(); i++) {
+            result.retainAll(bySize.get(i));
+        }
+        return result;
+    }
+
+    private static long count(List<String> words, String term, SearchMode mode) {
+        return words.stream()
+            .filter(word -> mode == SearchMode.WORDS ? word.equals(term) : word.startsWith(term))
+            .count();
+    }
+
+    private static boolean contains(String text, String needle) {
+        return text != null && lower(text).contains(needle);
+    }
+
+    private static String lower(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+}
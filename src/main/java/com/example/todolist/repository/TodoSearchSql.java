@@ -0,0 +1,90 @@
+package com.example.todolist.repository;
+
+import com.example.todolist.model.SearchMode;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+
+/**
+ * Native search statements for {@link TodoRepository} and {@link JdbcTodoRepository}. On PostgreSQL words and
+ * prefixes go through the {@code search_vector} GIN index (weights A for the title, B for the description, ranked
+ * with {@code ts_rank}) and substrings through the {@code pg_trgm} indexes on the lower-cased columns. H2 has
+ * neither, so its statements scan with regular expressions; they exist for tests and benchmarks and rank title
+ * matches first.
+ */
+record TodoSearchSql(String sql, Map<String, Object> parameters) {
+    private static final String COLUMNS = "id, title, description, completed, created_at, updated_at, version";
+    private static final String WORD_START = "(?<![\\p{L}\\p{N}])";
+    private static final String WORD_END = "(?![\\p{L}\\p{N}])";
+
+    /**
+     * @return {@code null} when the text holds nothing to search for
+     */
+    static TodoSearchSql of(boolean postgres, String text, SearchMode mode, int offset, int limit) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        String sql;
+        if (mode == SearchMode.SUBSTRING) {
+            if (text == null || text.isEmpty()) {
+                return null;
+            }
+            parameters.put("pattern", "%" + escapeLike(text.toLowerCase(Locale.ROOT)) + "%");
+            sql = substring();
+        } else {
+            List<String> terms = SearchTerms.distinct(text);
+            if (terms.isEmpty()) {
+                return null;
+            }
+            sql = postgres ? textSearch(mode, terms, parameters) : regex(mode, terms, parameters);
+        }
+
+        parameters.put("limit", limit);
+        parameters.put("offset", offset);
+        return new TodoSearchSql(sql + " limit :limit offset :offset", parameters);
+    }
+
+    private static String textSearch(SearchMode mode, List<String> terms, Map<String, Object> parameters) {
+        String query;
+        if (mode == SearchMode.WORDS) {
+            parameters.put("text", String.join(" ", terms));
+            query = "plainto_tsquery('simple', :text)";
+        } else {
+            parameters.put("text", terms.stream().map(term -> term + ":*").collect(Collectors.joining(" & ")));
+            query = "to_tsquery('simple', :text)";
+        }
+
+        return "select " + COLUMNS + " from todos, " + query + " query"
+            + " where search_vector @@ query"
+            + " order by ts_rank(search_vector, query) desc, id";
+    }
+
+    private static String regex(SearchMode mode, List<String> terms, Map<String, Object> parameters) {
+        String suffix = mode == SearchMode.WORDS ? WORD_END : "";
+        IntStream.range(0, terms.size())
+            .forEach(i -> parameters.put("term" + i, WORD_START + Pattern.quote(terms.get(i)) + suffix));
+
+        String where = parameters.keySet().stream()
+            .map(name -> "(regexp_like(lower(title), :" + name + ") or regexp_like(lower(description), :" + name + "))")
+            .collect(Collectors.joining(" and "));
+        String titleMatches = parameters.keySet().stream()
+            .map(name -> "case when regexp_like(lower(title), :" + name + ") then 1 else 0 end")
+            .collect(Collectors.joining(" + "));
+
+        return "select " + COLUMNS + " from todos where " + where + " order by " + titleMatches + " desc, id";
+    }
+
+    private static String substring() {
+        return "select " + COLUMNS + " from todos"
+            + " where lower(title) like :pattern escape '!' or lower(description) like :pattern escape '!'"
+            + " order by case when lower(title) like :pattern escape '!' then 0 else 1 end, id";
+    }
+
+    static String escapeLike(String text) {
+        return text.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+}
@@ -0,0 +1,303 @@
+package com.example.todolist.repository;
+
+import com.example.todolist.model.Todo;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+
+/**
+ * Snapshot file of the in-memory store, written and read through memory-mapped files:
+ *
+ * <pre>
+ * header   64 bytes   magic, format, row size, row count, next id, offsets and length of the sections
+ * rows     72 bytes   id, version, created and updated seconds, title and description offsets,
+ *                     created and updated nanos, title and description lengths (-1 for null), completed
+ * strings             UTF-8 titles and descriptions, addressed by the offsets in the rows
+ * </pre>
+ *
+ * Every row has the same width, so loading decodes rows in parallel straight from the mapping and hands them to
+ * {@link TodoRepositoryInMemory#restoreAll(Todo[])}, which builds each index on its own thread. All numbers are
+ * little-endian.
+ */
+final class TodoSnapshot {
+    static final long MAGIC = 0x50414E534F444F54L;
+    static final int FORMAT = 1;
+    static final int HEADER_BYTES = 64;
+    static final int ROW_BYTES = 72;
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final int WRITE_WINDOW = 64 << 20;
+    private static final int ROWS_PER_WINDOW = (1 << 30) / ROW_BYTES;
+    private static final int STRING_WINDOW = 1 << 30;
+
+
+    private TodoSnapshot() {
+    }
+
+    /**
+     * Side file in which {@link #write} collects the strings of {@code file}; a crash can leave it behind.
+     */
+    static Path stringsFile(Path file) {
+        return file.resolveSibling(file.getFileName() + ".strings");
+    }
+
+    /**
+     * Writes every todo {@code source} hands out to {@code file}. Rows go straight to {@code file} while the
+     * strings collect in a side file that is appended once the number of rows is known.
+     *
+     * @return the number of todos written
+     */
+    static long write(Path file, long nextId, Consumer<Consumer<Todo>> source) throws IOException {
+        Path stringsFile = stringsFile(file);
+        try (FileChannel out = FileChannel.open(file, CREATE, READ, WRITE, TRUNCATE_EXISTING);
+             FileChannel stringsOut = FileChannel.open(stringsFile, CREATE, READ, WRITE, TRUNCATE_EXISTING)) {
+            MappedWriter rows = new MappedWriter(out, HEADER_BYTES);
+            MappedWriter strings = new MappedWriter(stringsOut, 0);
+            long[] count = {0};
+            try {
+                source.accept(todo -> {
+                    try {
+                        writeRow(rows, strings, todo);
+                        count[0]++;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            long stringsOffset = rows.finish();
+            long stringsLength = strings.finish();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                .putLong(MAGIC)
+                .putInt(FORMAT)
+                .putInt(ROW_BYTES)
+                .putLong(count[0])
+                .putLong(nextId)
+                .putLong(HEADER_BYTES)
+                .putLong(stringsOffset)
+                .putLong(stringsLength)
+                .putLong(0L)
+                .flip();
+            while (header.hasRemaining()) {
+                out.write(header, header.position());
+            }
+            long transferred = 0;
+            while (transferred < stringsLength) {
+                transferred += stringsOut.transferTo(transferred, stringsLength - transferred, out.position(
+                    stringsOffset + transferred));
+            }
+            out.force(true);
+            return count[0];
+        } finally {
+            Files.deleteIfExists(stringsFile);
+        }
+    }
+
+    /**
+     * Loads {@code file} into the empty {@code memory} store.
+     *
+     * @return the next id recorded in the snapshot
+     */
+    static long load(Path file, TodoRepositoryInMemory memory) throws IOException {
+        try (FileChannel in = FileChannel.open(file, READ)) {
+            long size = in.size();
+            if (size < HEADER_BYTES) {
+                throw damaged(file, "it is shorter than its header");
+            }
+            ByteBuffer header = in.map(READ_ONLY, 0, HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getLong(0) != MAGIC || header.getInt(8) != FORMAT || header.getInt(12) != ROW_BYTES) {
+                throw damaged(file, "it does not start with a format " + FORMAT + " header");
+            }
+            long count = header.getLong(16);
+            long nextId = header.getLong(24);
+            long rowsOffset = header.getLong(32);
+            long stringsOffset = header.getLong(40);
+            long stringsLength = header.getLong(48);
+            if (count < 0 || count > Integer.MAX_VALUE - 8 || rowsOffset + count * ROW_BYTES != stringsOffset
+                || stringsOffset + stringsLength != size) {
+                throw damaged(file, "its sections do not add up to its size");
+            }
+
+            ByteBuffer[] rowWindows = map(in, rowsOffset, count * ROW_BYTES, (long) ROWS_PER_WINDOW * ROW_BYTES);
+            ByteBuffer[] stringWindows = map(in, stringsOffset, stringsLength, STRING_WINDOW);
+            Todo[] todos = new Todo[(int) count];
+            try {
+                IntStream.range(0, todos.length).parallel().forEach(row -> todos[row] = readRow(
+                    rowWindows[row / ROWS_PER_WINDOW], (row % ROWS_PER_WINDOW) * ROW_BYTES, stringWindows,
+                    stringsLength));
+            } catch (IndexOutOfBoundsException e) {
+                throw damaged(file, "a row points outside the string table");
+            }
+            memory.restoreAll(todos);
+            return nextId;
+        }
+    }
+
+    private static void writeRow(MappedWriter rows, MappedWriter strings, Todo todo) throws IOException {
+        byte[] title = bytes(todo.getTitle());
+        byte[] description = bytes(todo.getDescription());
+        long titleOffset = strings.put(title);
+        long descriptionOffset = strings.put(description);
+
+        ByteBuffer row = rows.reserve(ROW_BYTES);
+        int at = row.position();
+        row.putLong(at, todo.getId())
+            .putLong(at + 8, todo.getVersion())
+            .putLong(at + 16, seconds(todo.getCreatedAt()))
+            .putLong(at + 24, seconds(todo.getUpdatedAt()))
+            .putLong(at + 32, titleOffset)
+            .putLong(at + 40, descriptionOffset)
+            .putInt(at + 48, nanos(todo.getCreatedAt()))
+            .putInt(at + 52, nanos(todo.getUpdatedAt()))
+            .putInt(at + 56, title == null ? -1 : title.length)
+            .putInt(at + 60, description == null ? -1 : description.length)
+            .put(at + 64, (byte) (todo.isCompleted() ? 1 : 0));
+        row.position(at + ROW_BYTES);
+    }
+
+    private static Todo readRow(ByteBuffer rows, int at, ByteBuffer[] strings, long stringsLength) {
+        return new Todo(
+            rows.getLong(at),
+            string(strings, stringsLength, rows.getLong(at + 32), rows.getInt(at + 56)),
+            string(strings, stringsLength, rows.getLong(at + 40), rows.getInt(at + 60)),
+            rows.get(at + 64) != 0,
+            time(rows.getLong(at + 16), rows.getInt(at + 48)),
+            time(rows.getLong(at + 24), rows.getInt(at + 52)),
+            rows.getLong(at + 8));
+    }
+
+    private static String string(ByteBuffer[] windows, long stringsLength, long offset, int length) {
+        if (length < 0) {
+            return null;
+        }
+        if (offset < 0 || offset + length > stringsLength) {
+            throw new IndexOutOfBoundsException(offset);
+        }
+
+        byte[] bytes = new byte[length];
+        int copied = 0;
+        while (copied < length) {
+            long position = offset + copied;
+            ByteBuffer window = windows[(int) (position / STRING_WINDOW)];
+            int inWindow = (int) (position % STRING_WINDOW);
+            int chunk = Math.min(length - copied, window.capacity() - inWindow);
+            window.get(inWindow, bytes, copied, chunk);
+            copied += chunk;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Maps {@code length} bytes from {@code offset} as consecutive read-only windows of at most {@code window} bytes,
+     * since one mapping cannot exceed 2GB.
+     */
+    private static ByteBuffer[] map(FileChannel channel, long offset, long length, long window) throws IOException {
+        ByteBuffer[] windows = new ByteBuffer[(int) Math.max(1, (length + window - 1) / window)];
+        for (int i = 0; i < windows.length; i++) {
+            long start = i * window;
+            windows[i] = channel.map(READ_ONLY, offset + start, Math.min(window, length - start))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return windows;
+    }
+
+    private static IOException damaged(Path file, String reason) {
+        return new IOException("Snapshot " + file + " is damaged: " + reason);
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long seconds(LocalDateTime time) {
+        return time == null ? NO_TIME : time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static int nanos(LocalDateTime time) {
+        return time == null ? 0 : time.getNano();
+    }
+
+    private static LocalDateTime time(long seconds, int nanos) {
+        return seconds == NO_TIME ? null : LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+
+
+    /**
+     * Sequential writer over a file mapped in windows of {@value #WRITE_WINDOW} bytes; mapping past the end grows
+     * the file, and {@link #finish()} cuts it back to what was written.
+     */
+    private static final class MappedWriter {
+        private final FileChannel channel;
+        private MappedByteBuffer window;
+        private long windowStart;
+
+
+        MappedWriter(FileChannel channel, long start) {
+            this.channel = channel;
+            this.windowStart = start;
+        }
+
+        /**
+         * @return the window, positioned where the {@code bytes} reserved bytes start
+         */
+        ByteBuffer reserve(int bytes) throws IOException {
+            if (window == null || window.remaining() < bytes) {
+                long position = position();
+                if (window != null) {
+                    window.force();
+                }
+                window = channel.map(READ_WRITE, position, Math.max(WRITE_WINDOW, bytes));
+                window.order(ByteOrder.LITTLE_ENDIAN);
+                windowStart = position;
+            }
+            return window;
+        }
+
+        /**
+         * @return the offset of {@code bytes} in the file, or {@code 0} for {@code null}
+         */
+        long put(byte[] bytes) throws IOException {
+            long offset = position();
+            if (bytes != null) {
+                reserve(bytes.length).put(bytes);
+            }
+            return offset;
+        }
+
+        long position() {
+            return window == null ? windowStart : windowStart + window.position();
+        }
+
+        /**
+         * @return the end of the written data, to which the file is truncated
+         */
+        long finish() throws IOException {
+            long end = position();
+            if (window != null) {
+                window.force();
+            }
+            channel.truncate(end);
+            return end;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.todolist.repository;
+
+import com.example.todolist.model.Todo;
+import com.example.todolist.model.TodoQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import org.hibernate.query.NullPrecedence;
+import org.hibernate.query.SortDirection;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.hibernate.query.criteria.JpaExpression;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Translation of a {@link TodoQuery} for {@link TodoRepository}. The predicates use the expressions of the
+ * PostgreSQL indexes: status as a literal for the partial {@code todos_open_idx} and {@code todos_completed_idx},
+ * {@code lower(title) like} for {@code todos_title_prefix_idx} and the {@code pg_trgm} index, and the plain
+ * {@code created_at} range for {@code todos_created_at_idx}.
+ */
+final class TodoSpecifications {
+    private static final char LIKE_ESCAPE = '!';
+    private static final String C_COLLATION = "\"C\"";
+
+    private TodoSpecifications() {
+    }
+
+    static Specification<Todo> matching(TodoQuery query) {
+        return (root, criteriaQuery, builder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (query.completed() != null) {
+                predicates.add(query.completed()
+                    ? builder.isTrue(root.get("completed"))
+                    : builder.isFalse(root.get("completed")));
+            }
+            Expression<String> title = builder.lower(root.get("title"));
+            if (query.titleContains() != null) {
+                predicates.add(builder.like(title,
+                    "%" + TodoSearchSql.escapeLike(query.titleContains()) + "%", LIKE_ESCAPE));
+            }
+            if (query.titlePrefix() != null) {
+                predicates.add(builder.like(title, TodoSearchSql.escapeLike(query.titlePrefix()) + "%", LIKE_ESCAPE));
+            }
+            if (query.createdFrom() != null) {
+                predicates.add(builder.greaterThanOrEqualTo(root.get("createdAt"), query.createdFrom()));
+            }
+            if (query.createdTo() != null) {
+                predicates.add(builder.lessThan(root.get("createdAt"), query.createdTo()));
+            }
+            return builder.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * The order of {@link TodoQuery#comparator()}: titles compared lower-cased and missing values last. Spring Data
+     * drops {@link org.springframework.data.domain.Sort.NullHandling} when it sorts a Criteria query, so the order is
+     * set here with Hibernate's null precedence, and the query must be run unsorted. Count queries stay unordered. On
+     * PostgreSQL titles are compared in the {@code "C"} collation, as in {@link TodoQuerySql}, so both follow the
+     * code point order of the comparator rather than a locale that skips spaces and punctuation.
+     */
+    static Specification<Todo> ordered(TodoQuery query, boolean postgres) {
+        return (root, criteriaQuery, builder) -> {
+            if (criteriaQuery.getResultType() == Long.class) {
+                return null;
+            }
+            HibernateCriteriaBuilder hibernate = (HibernateCriteriaBuilder) builder;
+            List<Order> orders = new ArrayList<>();
+            for (TodoQuery.Sort key : query.sort()) {
+                JpaExpression<?> value = key.field() == TodoQuery.Field.TITLE
+                    ? title(hibernate, root.get("title"), postgres)
+                    : (JpaExpression<?>) root.get(key.field().property());
+                orders.add(hibernate.sort(value, direction(key.descending()), NullPrecedence.LAST));
+            }
+            orders.add(hibernate.sort((JpaExpression<?>) root.get("id"), direction(query.sort().get(0).descending())));
+            criteriaQuery.orderBy(orders);
+            return null;
+        };
+    }
+
+    private static JpaExpression<String> title(HibernateCriteriaBuilder builder, Expression<String> title,
+                                               boolean postgres) {
+        JpaExpression<String> lower = builder.lower(title);
+        return postgres ? builder.collate(lower, C_COLLATION) : lower;
+    }
+
+    private static SortDirection direction(boolean descending) {
+        return descending ? SortDirection.DESCENDING : SortDirection.ASCENDING;
+    }
+}
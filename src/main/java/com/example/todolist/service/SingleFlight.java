@@ -0,0 +1,108 @@
+package com.example.todolist.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+
+/**
+ * Lets concurrent calls with the same key share one execution: the first caller runs it, and callers that arrive
+ * while it runs wait for its result, or its exception, instead of running their own. Once the call returns, the
+ * next caller starts a new one, so nothing is cached.
+ * <p>
+ * Followers get the result through {@code share}, so that each caller holds its own mutable todos. A writer must
+ * {@link #forget} the keys its change affects: callers that arrive after the write then start a new call instead
+ * of joining one that may have read the data before it.
+ */
+final class SingleFlight<K, V> {
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final UnaryOperator<V> share;
+    private final Counter executed;
+    private final Counter shared;
+
+
+    /**
+     * @param lookup names the calls in the {@code todolist.coalescing.calls} and {@code todolist.coalescing.ratio}
+     *               metrics
+     */
+    SingleFlight(String lookup, boolean enabled, UnaryOperator<V> share, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.share = share;
+        this.executed = calls(lookup, "executed", meterRegistry);
+        this.shared = calls(lookup, "shared", meterRegistry);
+        Gauge.builder("todolist.coalescing.ratio", this, SingleFlight::sharedRatio)
+            .description("Share of lookups served by another lookup's repository call since startup")
+            .tag("lookup", lookup)
+            .register(meterRegistry);
+    }
+
+    V get(K key, Supplier<V> call) {
+        if (!enabled) {
+            return call.get();
+        }
+
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, flight);
+        if (running != null) {
+            shared.increment();
+            return share.apply(await(running));
+        }
+
+        executed.increment();
+        try {
+            V result = call.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    void forget(K key) {
+        inFlight.remove(key);
+    }
+
+    void forgetAll() {
+        inFlight.clear();
+    }
+
+    private static Counter calls(String lookup, String outcome, MeterRegistry meterRegistry) {
+        return Counter.builder("todolist.coalescing.calls")
+            .description("Lookups of TodoService, by whether they ran or shared another's repository call")
+            .tags("lookup", lookup, "outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    private double sharedRatio() {
+        double total = executed.count() + shared.count();
+        return total == 0 ? 0 : shared.count() / total;
+    }
+
+    /**
+     * Rethrows the leader's exception as it was thrown.
+     */
+    static <V> V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.todolist.service;
+
+import com.example.todolist.model.Todo;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * RFC 4180 rows of todos. A field is only quoted when it has to be, except the empty string, which is written as
+ * {@code ""} so it reads back differently from {@code null}, an empty field.
+ */
+final class TodoCsv {
+    static final List<String> COLUMNS =
+        List.of("id", "title", "description", "completed", "createdAt", "updatedAt", "version");
+
+    private TodoCsv() {
+    }
+
+    static void writeHeader(Writer out) throws IOException {
+        out.write(String.join(",", COLUMNS));
+        out.write("\r\n");
+    }
+
+    static void writeRow(Writer out, Todo todo) throws IOException {
+        writeValue(out, todo.getId());
+        out.write(',');
+        writeField(out, todo.getTitle());
+        out.write(',');
+        writeField(out, todo.getDescription());
+        out.write(',');
+        out.write(todo.isCompleted() ? "true" : "false");
+        out.write(',');
+        writeValue(out, todo.getCreatedAt());
+        out.write(',');
+        writeValue(out, todo.getUpdatedAt());
+        out.write(',');
+        out.write(Long.toString(todo.getVersion()));
+        out.write("\r\n");
+    }
+
+    /**
+     * The todo described by a row read under the header {@code header}. Columns other than title, description,
+     * completed and createdAt are ignored, and missing ones are left unset.
+     *
+     * @throws IllegalArgumentException when a field cannot be read
+     */
+    static Todo readRow(List<String> header, List<String> row) {
+        if (row.size() != header.size()) {
+            throw new IllegalArgumentException("Expected " + header.size() + " fields, found " + row.size());
+        }
+
+        Todo todo = new Todo();
+        for (int i = 0; i < header.size(); i++) {
+            String value = row.get(i);
+            switch (header.get(i)) {
+                case "title" -> todo.setTitle(value);
+                case "description" -> todo.setDescription(value);
+                case "completed" -> todo.setCompleted(parseBoolean(value));
+                case "createdAt" -> todo.setCreatedAt(parseDateTime(value));
+                default -> {
+                }
+            }
+        }
+        return todo;
+    }
+
+    private static void writeValue(Writer out, Object value) throws IOException {
+        if (value != null) {
+            out.write(value.toString());
+        }
+    }
+
+    private static void writeField(Writer out, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (!value.isEmpty() && !needsQuotes(value)) {
+            out.write(value);
+            return;
+        }
+
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\r' || c == '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean parseBoolean(String value) {
+        if (value == null || "false".equalsIgnoreCase(value)) {
+            return false;
+        }
+        if ("true".equalsIgnoreCase(value)) {
+            return true;
+        }
+        throw new IllegalArgumentException("Field completed must be true or false");
+    }
+
+    private static LocalDateTime parseDateTime(String value) {
+        try {
+            return value == null ? null : LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Field createdAt must be an ISO-8601 date-time");
+        }
+    }
+
+
+    /**
+     * Reads one row at a time through its own buffer, so quoted fields may span lines.
+     */
+    static final class RowReader {
+        private static final int END = -1;
+
+        private final Reader in;
+        private final char[] buffer = new char[64 * 1024];
+        private final StringBuilder field = new StringBuilder();
+        private int position;
+        private int limit;
+
+
+        RowReader(Reader in) {
+            this.in = in;
+        }
+
+        /**
+         * @return the fields of the next row, or {@code null} at the end of the input
+         * @throws IllegalArgumentException when the row is malformed; the reader then continues after it
+         */
+        List<String> next() throws IOException {
+            int c = read();
+            if (c == END) {
+                return null;
+            }
+
+            List<String> row = new ArrayList<>(COLUMNS.size());
+            while (true) {
+                field.setLength(0);
+                boolean quoted = c == '"';
+                if (quoted) {
+                    while (true) {
+                        c = read();
+                        if (c == END) {
+                            throw new IllegalArgumentException("Unterminated quoted field");
+                        }
+                        if (c == '"' && (c = read()) != '"') {
+                            break;
+                        }
+                        field.append((char) c);
+                    }
+                } else {
+                    while (c != ',' && c != '\r' && c != '\n' && c != END) {
+                        field.append((char) c);
+                        c = read();
+                    }
+                }
+                row.add(quoted || !field.isEmpty() ? field.toString() : null);
+
+                if (c == ',') {
+                    c = read();
+                } else if (c == '\r' || c == '\n' || c == END) {
+                    skipLineBreak(c);
+                    return row;
+                } else {
+                    skipLine(c);
+                    throw new IllegalArgumentException("Unexpected character after a quoted field");
+                }
+            }
+        }
+
+        private void skipLine(int c) throws IOException {
+            while (c != '\r' && c != '\n' && c != END) {
+                c = read();
+            }
+            skipLineBreak(c);
+        }
+
+        private void skipLineBreak(int c) throws IOException {
+            if (c == '\r' && peek() == '\n') {
+                position++;
+            }
+        }
+
+        private int read() throws IOException {
+            int c = peek();
+            if (c != END) {
+                position++;
+            }
+            return c;
+        }
+
+        private int peek() throws IOException {
+            if (position == limit) {
+                limit = in.read(buffer);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return END;
+                }
+            }
+            return buffer[position];
+        }
+    }
+}
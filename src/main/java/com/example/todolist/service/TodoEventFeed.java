@@ -0,0 +1,196 @@
+package com.example.todolist.service;
+
+import com.example.todolist.config.FeedProperties;
+import com.example.todolist.model.TodoEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Fans the {@link TodoEvent}s published by {@link TodoService} out to subscribers. Events are numbered in the order
+ * they are published, which inside a transaction is after it commits. The last {@code replaySize} events are kept
+ * so a subscriber can resume after the last event it saw.
+ *
+ * <p>Each subscriber has a bounded queue drained by a sender task, so a slow consumer never holds up writers. When
+ * its queue is full the subscriber is dropped and told through {@link Listener#onOverflow()}; it reconnects with the
+ * id of the last event it got and is served from the replay buffer, or sent a {@code RESET} when that has moved on.
+ * Sender tasks run on a fixed pool of {@code senderThreads}, and a subscriber has at most one task queued, so at most
+ * {@code maxSubscribers} are ever waiting; subscribers beyond that are refused.
+ *
+ * <p>Sequences restart with the process, so event ids carry an epoch as well: {@code <epoch>-<sequence>}.
+ */
+@Component
+public class TodoEventFeed {
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final TodoEvent[] replay;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders;
+    private long sequence;
+
+
+    public TodoEventFeed(FeedProperties properties) {
+        this.replay = new TodoEvent[properties.replaySize()];
+        this.bufferSize = properties.bufferSize();
+        this.maxSubscribers = properties.maxSubscribers();
+        AtomicInteger threads = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(properties.senderThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "todo-feed-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Receives the events of {@link TodoService}; inside a transaction only once it has committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void publish(TodoEvent event) {
+        TodoEvent sequenced = event.withSequence(++sequence);
+        replay[(int) (sequence % replay.length)] = sequenced;
+        subscriptions.forEach(subscription -> subscription.offer(sequenced));
+    }
+
+    /**
+     * Subscribes to the events after {@code lastEventId}, or to new events only when it is {@code null}. Replayed
+     * events are queued before any new one, so the subscriber sees every sequence in order.
+     *
+     * @return the subscription, or empty when {@code maxSubscribers} are already subscribed
+     */
+    public synchronized Optional<Subscription> subscribe(String lastEventId, Listener listener) {
+        if (subscriptions.size() >= maxSubscribers) {
+            return Optional.empty();
+        }
+        Subscription subscription = new Subscription(listener);
+        long resumeAfter = resumePoint(lastEventId);
+        if (resumeAfter < 0) {
+            subscription.offer(TodoEvent.reset(sequence));
+        } else {
+            for (long next = resumeAfter + 1; next <= sequence; next++) {
+                subscription.offer(replay[(int) (next % replay.length)]);
+            }
+        }
+        subscriptions.add(subscription);
+        return Optional.of(subscription);
+    }
+
+    public String eventId(TodoEvent event) {
+        return epoch + "-" + event.sequence();
+    }
+
+    public int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    @PreDestroy
+    void close() {
+        senders.shutdownNow();
+    }
+
+    /**
+     * Sequence to resume after, or {@code -1} when the id is from another process or older than what can be
+     * replayed into one subscriber queue.
+     */
+    private long resumePoint(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return sequence;
+        }
+
+        int separator = lastEventId.lastIndexOf('-');
+        if (separator < 0 || !lastEventId.substring(0, separator).equals(epoch)) {
+            return -1;
+        }
+        long last;
+        try {
+            last = Long.parseLong(lastEventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+
+        long oldest = sequence - Math.min(replay.length, bufferSize);
+        return last >= oldest && last <= sequence ? last : -1;
+    }
+
+
+    public interface Listener {
+        void onEvent(TodoEvent event) throws IOException;
+
+        /**
+         * The subscriber fell {@code bufferSize} events behind and has been dropped.
+         */
+        void onOverflow();
+    }
+
+    public final class Subscription {
+        private final Listener listener;
+        private final BlockingQueue<TodoEvent> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean cancelled;
+        private volatile boolean overflowed;
+
+
+        private Subscription(Listener listener) {
+            this.listener = listener;
+        }
+
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+            queue.clear();
+        }
+
+        private void offer(TodoEvent event) {
+            if (cancelled || overflowed) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                overflowed = true;
+                subscriptions.remove(this);
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        /**
+         * Runs on one sender thread at a time; re-schedules itself if events arrived after the queue looked empty.
+         */
+        private void drain() {
+            try {
+                TodoEvent event;
+                while (!cancelled && !overflowed && (event = queue.poll()) != null) {
+                    listener.onEvent(event);
+                }
+                if (overflowed && !cancelled) {
+                    cancel();
+                    listener.onOverflow();
+                }
+            } catch (IOException | RuntimeException e) {
+                cancel();
+            } finally {
+                draining.set(false);
+            }
+
+            if (!cancelled && !queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+    }
+}
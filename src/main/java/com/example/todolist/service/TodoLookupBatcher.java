@@ -0,0 +1,125 @@
+package com.example.todolist.service;
+
+import com.example.todolist.model.Todo;
+import com.example.todolist.repository.BaseRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Gathers the lookups by id of concurrent callers into one {@link BaseRepository#findAllById} call. A lookup that
+ * finds no other in flight is read at once with {@link BaseRepository#findById}, so a lone request never waits. One
+ * that arrives while another is being read opens a batch and waits up to {@code window} for others to join, or until
+ * {@code maxBatchSize} ids have; then it closes the batch and queries it on its own thread, and every caller takes
+ * its todo from the result.
+ * Nothing runs on a background thread, so the query sees the leader's transaction and routing context; callers whose
+ * reads must reach the primary therefore never join a batch.
+ */
+final class TodoLookupBatcher {
+    private final BaseRepository repository;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final DistributionSummary batchSizes;
+    private Batch open;
+    private int reading;
+
+
+    TodoLookupBatcher(BaseRepository repository, Duration window, int maxBatchSize, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.batchSizes = DistributionSummary.builder("todolist.coalescing.batch.size")
+            .description("Ids read by one query of batched lookups by id")
+            .register(meterRegistry);
+    }
+
+    Optional<Todo> findById(Long id) {
+        Batch batch;
+        boolean leader;
+        boolean alone;
+        synchronized (this) {
+            leader = open == null;
+            alone = leader && reading == 0;
+            if (leader) {
+                batch = new Batch();
+                reading++;
+                if (!alone) {
+                    open = batch;
+                }
+            } else {
+                batch = open;
+            }
+            batch.ids.add(id);
+            if (open == batch && batch.ids.size() >= maxBatchSize) {
+                open = null;
+                batch.full.countDown();
+            }
+        }
+
+        if (!leader) {
+            return Optional.ofNullable(SingleFlight.await(batch.result).get(id)).map(Todo::copy);
+        }
+
+        try {
+            if (!alone) {
+                awaitOthers(batch);
+                synchronized (this) {
+                    if (open == batch) {
+                        open = null;
+                    }
+                }
+            }
+            return Optional.ofNullable(query(batch).get(id));
+        } finally {
+            synchronized (this) {
+                reading--;
+            }
+        }
+    }
+
+    private void awaitOthers(Batch batch) {
+        try {
+            batch.full.await(windowNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Map<Long, Todo> query(Batch batch) {
+        try {
+            Map<Long, Todo> found = new HashMap<>();
+            if (batch.ids.size() == 1) {
+                Long id = batch.ids.iterator().next();
+                repository.findById(id).ifPresent(todo -> found.put(id, todo));
+            } else {
+                repository.findAllById(batch.ids).forEach(todo -> found.put(todo.getId(), todo));
+            }
+            batchSizes.record(batch.ids.size());
+            batch.result.complete(found);
+            return found;
+        } catch (RuntimeException | Error e) {
+            batch.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Ids are only added while the batch is open, under the batcher's lock, and only read after it closed. A batch
+     * read alone is never open.
+     */
+    private static final class Batch {
+        final Set<Long> ids = new LinkedHashSet<>();
+        final CountDownLatch full = new CountDownLatch(1);
+        final CompletableFuture<Map<Long, Todo>> result = new CompletableFuture<>();
+    }
+}
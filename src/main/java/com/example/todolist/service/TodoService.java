@@ -1,68 +1,255 @@
 package com.example.todolist.service;
 
+import com.example.todolist.config.CoalescingProperties;
+import com.example.todolist.config.ReplicaRoutingDataSource;
+import com.example.todolist.model.SearchMode;
 import com.example.todolist.model.Todo;
+import com.example.todolist.model.TodoCounts;
+import com.example.todolist.model.TodoEvent;
+import com.example.todolist.model.TodoPage;
+import com.example.todolist.model.TodoQuery;
+import com.example.todolist.model.TodoVersion;
 import com.example.todolist.repository.BaseRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-
-
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+
+/**
+ * Every successful create, update and delete is published as a {@link TodoEvent}, which {@link TodoEventFeed}
+ * streams to subscribers.
+ * <p>
+ * Concurrent lookups by id, title or status with the same argument share one repository call through a
+ * {@link SingleFlight}, and lookups by id that arrive within {@code todolist.coalescing.batch-window} of each other
+ * are read with one query by a {@link TodoLookupBatcher}. Writes make later lookups of what they changed start a new
+ * call, so a client always reads its own writes. With read replicas, a client that wrote recently neither leads nor
+ * joins shared calls: those may read from a replica that has not caught up with its write.
+ */
 @Service
+@Timed(value = "todolist.service", histogram = true)
 public class TodoService {
     BaseRepository baseRepository;
+    ApplicationEventPublisher events;
+    private final SingleFlight<Long, Optional<Todo>> lookupsById;
+    private final SingleFlight<String, List<Todo>> lookupsByTitle;
+    private final SingleFlight<Boolean, List<Todo>> lookupsByStatus;
+    private final TodoLookupBatcher batcher;
+    private final ReplicaRoutingDataSource routing;
+
+
+    /**
+     * Shares concurrent lookups, but reads every id on its own and reports to no registry.
+     */
+    public TodoService(BaseRepository baseRepository, ApplicationEventPublisher events) {
+        this(baseRepository, events, new CoalescingProperties(true, Duration.ZERO, 1), new SimpleMeterRegistry());
+    }
 
+    public TodoService(BaseRepository baseRepository, ApplicationEventPublisher events,
+                       CoalescingProperties coalescing, MeterRegistry meterRegistry) {
+        this(baseRepository, events, coalescing, meterRegistry, null);
+    }
 
-    public TodoService(BaseRepository baseRepository) {
+    @Autowired
+    public TodoService(BaseRepository baseRepository, ApplicationEventPublisher events,
+                       CoalescingProperties coalescing, MeterRegistry meterRegistry,
+                       ObjectProvider<ReplicaRoutingDataSource> routing) {
         this.baseRepository = baseRepository;
+        this.routing = routing == null ? null : routing.getIfAvailable();
+        this.events = events;
+        this.lookupsById = new SingleFlight<>("id", coalescing.enabled(), todo -> todo.map(Todo::copy),
+            meterRegistry);
+        this.lookupsByTitle = new SingleFlight<>("title", coalescing.enabled(), TodoService::copies, meterRegistry);
+        this.lookupsByStatus = new SingleFlight<>("status", coalescing.enabled(), TodoService::copies, meterRegistry);
+        this.batcher = coalescing.enabled() && !coalescing.batchWindow().isZero() && coalescing.maxBatchSize() > 1
+            ? new TodoLookupBatcher(baseRepository, coalescing.batchWindow(), coalescing.maxBatchSize(), meterRegistry)
+            : null;
     }
 
     public List<Todo> getAll() {
         return this.baseRepository.findAll();
     }
 
+    public TodoPage getPage(Long after, int limit) {
+        List<Todo> todos = this.baseRepository.findAllAfter(after, limit + 1);
+        if (todos.size() <= limit) {
+            return new TodoPage(todos, null);
+        }
+
+        List<Todo> items = todos.subList(0, limit);
+        return new TodoPage(items, items.get(limit - 1).getId());
+    }
+
+    /**
+     * Versions behind {@link #getPage(Long, int)}, including the row that decides whether there is a next page.
+     */
+    public List<TodoVersion> getPageVersions(Long after, int limit) {
+        return this.baseRepository.findVersionsAfter(after, limit + 1);
+    }
+
+    public void streamAll(Consumer<Todo> consumer) {
+        this.baseRepository.streamAll(consumer);
+    }
+
+    public TodoCounts countAll(LocalDateTime createdSince) {
+        return this.baseRepository.countAll(createdSince);
+    }
+
+    public void streamCompletedIds(LongConsumer consumer) {
+        this.baseRepository.streamCompletedIds(consumer);
+    }
+
     public Optional<Todo> getById(Long id) {
-        return this.baseRepository.findById(id);
+        if (readsOwnWrites()) {
+            return this.baseRepository.findById(id);
+        }
+
+        return this.lookupsById.get(id, () -> this.batcher == null
+            ? this.baseRepository.findById(id)
+            : this.batcher.findById(id));
     }
 
     public List<Todo> getByTitle(String title) {
-        return this.baseRepository.findByTitle(title);
+        if (readsOwnWrites()) {
+            return this.baseRepository.findByTitle(title);
+        }
+
+        return this.lookupsByTitle.get(title, () -> this.baseRepository.findByTitle(title));
     }
 
     public List<Todo> getByStatusCompleted(boolean completed) {
-        return this.baseRepository.findByCompleted(completed);
+        if (readsOwnWrites()) {
+            return this.baseRepository.findByCompleted(completed);
+        }
+
+        return this.lookupsByStatus.get(completed, () -> this.baseRepository.findByCompleted(completed));
+    }
+
+    public List<Todo> query(TodoQuery query) {
+        return this.baseRepository.query(query);
+    }
+
+    /**
+     * Page of ranked search results; the cursor of the returned page is the offset of the next one.
+     */
+    public TodoPage search(String text, SearchMode mode, int offset, int limit) {
+        List<Todo> todos = this.baseRepository.search(text, mode, offset, limit + 1);
+        if (todos.size() <= limit) {
+            return new TodoPage(todos, null);
+        }
+
+        return new TodoPage(todos.subList(0, limit), (long) offset + limit);
     }
 
     public Todo save(Todo todo) {
-        return this.baseRepository.save(todo);
+        Todo saved = this.baseRepository.save(todo);
+        forgetLookups(List.of());
+        if (saved != null) {
+            this.events.publishEvent(TodoEvent.created(saved));
+        }
+        return saved;
+    }
+
+    @Transactional
+    public List<Todo> saveAll(List<Todo> todos) {
+        List<Todo> saved = this.baseRepository.saveAll(todos);
+        forgetLookups(List.of());
+        saved.forEach(todo -> this.events.publishEvent(TodoEvent.created(todo)));
+        return saved;
     }
 
     public Todo update(Todo todo, Long id) {
-        return baseRepository.findById(id)
-            .map(foundTodo -> {
-                if (todo.getTitle() != null) {
-                    foundTodo.setTitle(todo.getTitle());
-                }
+        Optional<Todo> updated = this.baseRepository.patch(id, todo);
+        forgetLookups(List.of(id));
+        return published(updated).orElse(null);
+    }
 
-                if (todo.getDescription() != null) {
-                    foundTodo.setDescription(todo.getDescription());
-                }
+    /**
+     * Update that only applies while the todo is still at {@code expectedVersion}; empty when it is missing or
+     * has been changed since.
+     */
+    public Optional<Todo> update(Todo todo, Long id, long expectedVersion) {
+        Optional<Todo> updated = this.baseRepository.patch(id, todo, expectedVersion);
+        forgetLookups(List.of(id));
+        return published(updated);
+    }
+
+    public boolean delete(Long id) {
+        boolean deleted = this.baseRepository.deleteById(id);
+        forgetLookups(List.of(id));
+        if (deleted) {
+            this.events.publishEvent(TodoEvent.deleted(id));
+        }
+        return deleted;
+    }
+
+    @Transactional
+    public Map<Long, Todo> updateAll(Map<Long, Todo> changesById) {
+        Map<Long, Todo> patched = this.baseRepository.patchAll(changesById);
+        forgetLookups(patched.keySet());
+        patched.values().forEach(todo -> this.events.publishEvent(TodoEvent.updated(todo)));
+        return patched;
+    }
+
+    @Transactional
+    public Set<Long> deleteAll(Collection<Long> ids) {
+        Set<Long> deleted = this.baseRepository.deleteAllById(ids);
+        forgetLookups(deleted);
+        deleted.forEach(id -> this.events.publishEvent(TodoEvent.deleted(id)));
+        return deleted;
+    }
 
-                if (todo.isCompleted() != foundTodo.isCompleted()) {
-                    foundTodo.setCompleted(todo.isCompleted());
+    /**
+     * Makes the next lookups of the changed ids, and of every title and status, start a new repository call. Inside
+     * a transaction this happens again after the commit, since a call that starts before it still reads the old data.
+     */
+    private void forgetLookups(Collection<Long> changedIds) {
+        Runnable forget = () -> {
+            changedIds.forEach(this.lookupsById::forget);
+            this.lookupsByTitle.forgetAll();
+            this.lookupsByStatus.forgetAll();
+        };
+        forget.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    forget.run();
                 }
+            });
+        }
+    }
 
-                return baseRepository.update(foundTodo);
-            })
-            .orElse(null);
+    /**
+     * Whether the current client's reads go to the primary, where a call shared with other clients would not take
+     * them.
+     */
+    private boolean readsOwnWrites() {
+        return this.routing != null && this.routing.isRecentWriter();
     }
 
-    public boolean delete(Long id) {
-        return this.baseRepository.findById(id)
-            .map(foundTodo -> {
-                this.baseRepository.deleteById(id);
-                return true;
-            })
-            .orElse(false);
+    private static List<Todo> copies(List<Todo> todos) {
+        return todos.stream().map(Todo::copy).toList();
+    }
+
+    private Optional<Todo> published(Optional<Todo> updated) {
+        updated.ifPresent(todo -> this.events.publishEvent(TodoEvent.updated(todo)));
+        return updated;
     }
 }
@@ -0,0 +1,153 @@
+package com.example.todolist.service;
+
+import com.example.todolist.config.StatsProperties;
+import com.example.todolist.model.Todo;
+import com.example.todolist.model.TodoCounts;
+import com.example.todolist.model.TodoEvent;
+import com.example.todolist.model.TodoStats;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Counters behind {@code GET /todos/stats}, kept up to date from the {@link TodoEvent}s of {@link TodoService} so a
+ * request never reads the todos. Counts are {@link LongAdder}s and creations are counted per hour, from which the
+ * daily buckets are summed.
+ *
+ * <p>Updates and deletes do not say whether the todo was completed before, so the ids of completed todos are kept
+ * in a concurrent set: whether adding or removing an id changes the set tells whether the completed count changes.
+ * A set rather than a bitmap, because Snowflake ids of the sharded store are far too sparse for one. Every
+ * {@code reconcileInterval}, and once at startup, the counters are rebuilt from the repository and swapped in, which
+ * also corrects any drift, such as the changes of other instances sharing the database. Changes that land while
+ * the rebuild runs are only counted from the next one.
+ */
+@Component
+public class TodoStatistics implements SchedulingConfigurer {
+    private final TodoService todoService;
+    private final int hours;
+    private final int days;
+    private final Duration reconcileInterval;
+    private volatile Counters counters = new Counters();
+
+
+    public TodoStatistics(TodoService todoService, StatsProperties properties) {
+        this.todoService = todoService;
+        this.hours = properties.hours();
+        this.days = properties.days();
+        this.reconcileInterval = properties.reconcileInterval();
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.addFixedDelayTask(new FixedDelayTask(this::reconcile, reconcileInterval, reconcileInterval));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void record(TodoEvent event) {
+        Counters current = counters;
+        switch (event.type()) {
+            case CREATED -> {
+                Todo todo = event.todo();
+                current.total.increment();
+                current.setCompleted(todo.getId(), todo.isCompleted());
+                if (todo.getCreatedAt() != null) {
+                    current.created(todo.getCreatedAt().truncatedTo(ChronoUnit.HOURS)).increment();
+                }
+            }
+            case UPDATED -> current.setCompleted(event.id(), event.todo().isCompleted());
+            case DELETED -> {
+                current.total.decrement();
+                current.setCompleted(event.id(), false);
+            }
+            case RESET -> {
+            }
+        }
+    }
+
+    /**
+     * Runs before the application reports ready, and then every {@code reconcileInterval}.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcile() {
+        Counters rebuilt = new Counters();
+        todoService.streamCompletedIds(id -> rebuilt.setCompleted(id, true));
+        TodoCounts counts = todoService.countAll(firstHour(LocalDateTime.now()));
+        rebuilt.total.add(counts.total());
+        counts.createdPerHour().forEach((hour, created) -> rebuilt.created(hour).add(created));
+        counters = rebuilt;
+    }
+
+    public TodoStats snapshot() {
+        Counters current = counters;
+        LocalDateTime now = LocalDateTime.now();
+        current.createdPerHour.keySet().removeIf(hour -> hour.isBefore(firstHour(now)));
+
+        LocalDateTime thisHour = now.truncatedTo(ChronoUnit.HOURS);
+        List<TodoStats.Bucket> perHour = new ArrayList<>(hours);
+        for (LocalDateTime hour = thisHour.minusHours(hours - 1L); !hour.isAfter(thisHour); hour = hour.plusHours(1)) {
+            perHour.add(new TodoStats.Bucket(hour, current.createdIn(hour)));
+        }
+
+        LocalDate today = now.toLocalDate();
+        List<TodoStats.Bucket> perDay = new ArrayList<>(days);
+        for (LocalDate day = today.minusDays(days - 1L); !day.isAfter(today); day = day.plusDays(1)) {
+            long created = 0;
+            for (LocalDateTime hour = day.atStartOfDay(); hour.toLocalDate().equals(day); hour = hour.plusHours(1)) {
+                created += current.createdIn(hour);
+            }
+            perDay.add(new TodoStats.Bucket(day.atStartOfDay(), created));
+        }
+
+        long total = current.total.sum();
+        long completed = current.completed.sum();
+        return new TodoStats(total, completed, total - completed, perHour, perDay);
+    }
+
+    /**
+     * Start of the oldest hour any bucket needs.
+     */
+    private LocalDateTime firstHour(LocalDateTime now) {
+        LocalDateTime firstDay = now.toLocalDate().minusDays(days - 1L).atStartOfDay();
+        LocalDateTime firstHour = now.truncatedTo(ChronoUnit.HOURS).minusHours(hours - 1L);
+        return firstDay.isBefore(firstHour) ? firstDay : firstHour;
+    }
+
+
+    private static final class Counters {
+        final LongAdder total = new LongAdder();
+        final LongAdder completed = new LongAdder();
+        final Set<Long> completedIds = ConcurrentHashMap.newKeySet();
+        final ConcurrentMap<LocalDateTime, LongAdder> createdPerHour = new ConcurrentHashMap<>();
+
+        void setCompleted(long id, boolean isCompleted) {
+            if (isCompleted ? completedIds.add(id) : completedIds.remove(id)) {
+                completed.add(isCompleted ? 1 : -1);
+            }
+        }
+
+        LongAdder created(LocalDateTime hour) {
+            return createdPerHour.computeIfAbsent(hour, key -> new LongAdder());
+        }
+
+        long createdIn(LocalDateTime hour) {
+            LongAdder created = createdPerHour.get(hour);
+            return created == null ? 0 : created.sum();
+        }
+    }
+}
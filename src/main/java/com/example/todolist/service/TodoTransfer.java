@@ -0,0 +1,220 @@
+package com.example.todolist.service;
+
+import com.example.todolist.config.TransferProperties;
+import com.example.todolist.model.BatchItemResult;
+import com.example.todolist.model.ImportResult;
+import com.example.todolist.model.Todo;
+import com.example.todolist.model.TransferFormat;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+
+/**
+ * Bulk export and import in {@link TransferFormat}s. Both hold one row, or one batch of rows, at a time: exports
+ * write todos as {@link TodoService#streamAll} reads them, imports parse the body as it arrives and save every
+ * {@code batchSize} valid rows in their own transaction. An import is therefore not atomic; a failure leaves the
+ * batches before it saved.
+ *
+ * <p>Imports log their progress every {@code progressInterval} rows and count rows in
+ * {@code todolist.import.rows}, tagged with the {@code outcome}.
+ */
+@Slf4j
+@Service
+public class TodoTransfer {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final TodoService todoService;
+    private final Validator validator;
+    private final TransferProperties properties;
+    private final ObjectWriter jsonWriter;
+    private final ObjectReader jsonReader;
+    private final Counter importedRows;
+    private final Counter rejectedRows;
+
+
+    public TodoTransfer(TodoService todoService, Validator validator, TransferProperties properties,
+                        ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.todoService = todoService;
+        this.validator = validator;
+        this.properties = properties;
+        this.jsonWriter = objectMapper.writerFor(Todo.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.jsonReader = objectMapper.readerFor(Todo.class);
+        this.importedRows = Counter.builder("todolist.import.rows").tag("outcome", "imported").register(meterRegistry);
+        this.rejectedRows = Counter.builder("todolist.import.rows").tag("outcome", "rejected").register(meterRegistry);
+    }
+
+    public void export(TransferFormat format, OutputStream out) throws IOException {
+        if (format == TransferFormat.NDJSON) {
+            try (JsonGenerator generator = jsonWriter.createGenerator(out)) {
+                this.todoService.streamAll(todo -> writeJsonLine(generator, todo));
+            }
+            return;
+        }
+
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, UTF_8), BUFFER_SIZE)) {
+            TodoCsv.writeHeader(writer);
+            this.todoService.streamAll(todo -> writeCsvRow(writer, todo));
+        }
+    }
+
+    public ImportResult importFrom(TransferFormat format, InputStream in) throws IOException {
+        Import run = new Import();
+        if (format == TransferFormat.NDJSON) {
+            importJson(new BufferedReader(new InputStreamReader(in, UTF_8), BUFFER_SIZE), run);
+        } else {
+            importCsv(new TodoCsv.RowReader(new InputStreamReader(in, UTF_8)), run);
+        }
+        run.flush();
+        log.info("Import finished: {} todos imported, {} rows rejected", run.imported, run.rejected);
+        return new ImportResult(run.imported, run.rejected, run.rejections);
+    }
+
+    private void importJson(BufferedReader reader, Import run) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+
+            try {
+                run.add(jsonReader.readValue(line));
+            } catch (JsonProcessingException e) {
+                run.reject(List.of("Malformed JSON"));
+            }
+        }
+    }
+
+    private void importCsv(TodoCsv.RowReader reader, Import run) throws IOException {
+        List<String> header = reader.next();
+        if (header == null) {
+            return;
+        }
+        if (header.get(0) != null && header.get(0).startsWith("\uFEFF")) {
+            header.set(0, header.get(0).substring(1));
+        }
+
+        while (true) {
+            List<String> row;
+            try {
+                row = reader.next();
+            } catch (IllegalArgumentException e) {
+                run.reject(List.of(e.getMessage()));
+                continue;
+            }
+            if (row == null) {
+                return;
+            }
+            if (row.size() == 1 && row.get(0) == null) {
+                continue;
+            }
+
+            try {
+                run.add(TodoCsv.readRow(header, row));
+            } catch (IllegalArgumentException e) {
+                run.reject(List.of(e.getMessage()));
+            }
+        }
+    }
+
+    private void writeJsonLine(JsonGenerator generator, Todo todo) {
+        try {
+            jsonWriter.writeValue(generator, todo);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeCsvRow(Writer writer, Todo todo) {
+        try {
+            TodoCsv.writeRow(writer, todo);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+
+    /**
+     * State of one import: the batch being filled and the running totals.
+     */
+    private final class Import {
+        final List<Todo> batch = new ArrayList<>(properties.batchSize());
+        final List<BatchItemResult> rejections = new ArrayList<>();
+        final long startedAt = System.nanoTime();
+        long rows;
+        long imported;
+        long rejected;
+
+
+        void add(Todo todo) {
+            List<String> errors = todo == null
+                ? List.of("Todo is required")
+                : validator.validate(todo).stream().map(ConstraintViolation::getMessage).sorted().toList();
+            if (!errors.isEmpty()) {
+                reject(errors);
+                return;
+            }
+
+            todo.setId(null);
+            batch.add(todo);
+            rows++;
+            if (batch.size() == properties.batchSize()) {
+                flush();
+            }
+            reportProgress();
+        }
+
+        void reject(List<String> errors) {
+            if (rejections.size() < properties.maxRejections()) {
+                rejections.add(BatchItemResult.invalid(Math.toIntExact(rows), null, errors));
+            }
+            rows++;
+            rejected++;
+            rejectedRows.increment();
+            reportProgress();
+        }
+
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            todoService.saveAll(batch);
+            imported += batch.size();
+            importedRows.increment(batch.size());
+            batch.clear();
+        }
+
+        private void reportProgress() {
+            if (rows % properties.progressInterval() == 0) {
+                long elapsedMillis = Math.max(1, (System.nanoTime() - startedAt) / 1_000_000);
+                log.info("Import progress: {} rows read, {} imported, {} rejected, {} rows/s",
+                    rows, imported, rejected, rows * 1000 / elapsedMillis);
+            }
+        }
+    }
+}
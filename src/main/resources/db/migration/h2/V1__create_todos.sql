@@ -0,0 +1,9 @@
+-- Embedded H2 (tests and benchmarks).
+create table todos (
+    id          bigint generated by default as identity,
+    title       varchar(255),
+    description varchar(255),
+    completed   boolean      not null,
+    created_at  timestamp(6),
+    constraint todos_pkey primary key (id)
+);
@@ -0,0 +1,3 @@
+-- H2 has no expression, partial or covering indexes: the title lookup stays a scan here and the status
+-- lookups share one composite index. See the postgresql folder for the production indexes.
+create index todos_completed_idx on todos (completed, id);
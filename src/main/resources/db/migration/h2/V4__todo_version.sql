@@ -0,0 +1,2 @@
+alter table todos add column version bigint not null default 0;
+alter table todos add column updated_at timestamp(6);
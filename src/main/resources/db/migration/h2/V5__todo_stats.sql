@@ -0,0 +1,3 @@
+-- GET /todos/stats reconciliation: hourly creation counts over the last days are a range scan. Completed ids
+-- already come from todos_completed_idx.
+create index todos_created_at_idx on todos (created_at);
@@ -0,0 +1,2 @@
+-- Embedded databases start empty, so the sequence needs no moving past existing ids.
+create sequence if not exists todos_seq start with 1 increment by 50;
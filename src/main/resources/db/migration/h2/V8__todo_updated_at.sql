@@ -0,0 +1,2 @@
+-- Todos written before V4 have no updated_at; they count as last updated when they were created.
+update todos set updated_at = created_at where updated_at is null;
@@ -0,0 +1,11 @@
+-- Schema as Hibernate used to generate it, with an identity id column. Existing databases are baselined at this
+-- version (spring.flyway.baseline-on-migrate), so this script only runs on empty ones. Ids now come from todos_seq,
+-- which V7 creates for both.
+create table todos (
+    id          bigint generated by default as identity,
+    title       varchar(255),
+    description varchar(255),
+    completed   boolean      not null,
+    created_at  timestamp(6),
+    constraint todos_pkey primary key (id)
+);
@@ -0,0 +1,11 @@
+-- GET /todos/search: title lookups compare lower(title) = lower(?).
+create index todos_title_lower_idx on todos (lower(title));
+
+-- GET /todos/status?completed=false: open todos are the working set, so only they are indexed.
+-- The query uses the literal so the planner can match the predicate.
+create index todos_open_idx on todos (id) where completed = false;
+
+-- GET /todos keyset pages: the primary key carries every column, so a page is an index-only scan.
+alter table todos
+    drop constraint todos_pkey,
+    add constraint todos_pkey primary key (id) include (title, description, completed, created_at);
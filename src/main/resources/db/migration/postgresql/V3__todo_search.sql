@@ -0,0 +1,14 @@
+-- GET /todos/search?q=...&mode=words|prefix: weighted full-text vector, title (A) above description (B).
+-- Adding a stored generated column rewrites the table.
+alter table todos add column search_vector tsvector generated always as (
+    setweight(to_tsvector('simple', coalesce(title, '')), 'A') ||
+    setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+) stored;
+
+create index todos_search_idx on todos using gin (search_vector);
+
+-- GET /todos/search?q=...&mode=substring: lower(column) like '%text%'.
+create extension if not exists pg_trgm;
+
+create index todos_title_trgm_idx on todos using gin (lower(title) gin_trgm_ops);
+create index todos_description_trgm_idx on todos using gin (lower(description) gin_trgm_ops);
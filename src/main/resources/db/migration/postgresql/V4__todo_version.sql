@@ -0,0 +1,10 @@
+-- Optimistic locking and ETags: every write bumps version.
+alter table todos
+    add column version    bigint not null default 0,
+    add column updated_at timestamp(6);
+
+-- Rebuild the primary key on id alone. While it included the mutable columns, no update could be HOT: every write
+-- changed an indexed column and had to insert a new index entry.
+alter table todos
+    drop constraint todos_pkey,
+    add constraint todos_pkey primary key (id);
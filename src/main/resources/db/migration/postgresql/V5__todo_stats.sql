@@ -0,0 +1,5 @@
+-- GET /todos/stats reconciliation: hourly creation counts over the last days are a range scan.
+create index todos_created_at_idx on todos (created_at);
+
+-- The ids of completed todos, read on reconciliation, come from an index-only scan.
+create index todos_completed_idx on todos (id) where completed = true;
@@ -0,0 +1,3 @@
+-- GET /todos?titlePrefix=: lower(title) like 'prefix%' can only use a btree whose operator class compares
+-- characters instead of the collation.
+create index todos_title_prefix_idx on todos (lower(title) text_pattern_ops);
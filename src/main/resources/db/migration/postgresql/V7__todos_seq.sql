@@ -0,0 +1,5 @@
+-- Todo ids come from a pooled sequence (allocation size 50) so Hibernate can batch inserts. Databases created
+-- with the earlier IDENTITY mapping have no sequence, so it is created here and moved past the existing ids.
+create sequence if not exists todos_seq increment by 50;
+
+select setval('todos_seq', coalesce(max(id), 0) + 1) from todos;
@@ -0,0 +1,28 @@
+package com.example.todolist.reactive;
+
+import com.example.todolist.config.PaginationProperties;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+
+
+/**
+ * Entry point of the WebFlux + R2DBC variant, built with {@code mvn -Preactive}. It only scans this package and
+ * always runs with the {@code reactive} profile, which switches the web stack and the data source
+ * (see {@code application-reactive.yml}). Every bean in this package is guarded by that profile so the servlet
+ * application never picks them up.
+ */
+@Profile(ReactiveTodolistApplication.PROFILE)
+@SpringBootApplication
+@EnableConfigurationProperties(PaginationProperties.class)
+public class ReactiveTodolistApplication {
+    public static final String PROFILE = "reactive";
+
+    public static void main(String[] args) {
+        SpringApplication application = new SpringApplication(ReactiveTodolistApplication.class);
+        application.setAdditionalProfiles(PROFILE);
+        application.run(args);
+    }
+
+}
@@ -0,0 +1,109 @@
+package com.example.todolist.reactive.controller;
+
+import com.example.todolist.config.PaginationProperties;
+import com.example.todolist.model.Todo;
+import com.example.todolist.reactive.ReactiveTodolistApplication;
+import com.example.todolist.reactive.service.ReactiveTodoService;
+import jakarta.validation.Valid;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.springframework.http.HttpStatus.CREATED;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
+import static org.springframework.http.ResponseEntity.noContent;
+import static org.springframework.http.ResponseEntity.notFound;
+import static org.springframework.http.ResponseEntity.ok;
+import static org.springframework.http.ResponseEntity.status;
+
+
+/**
+ * The core of {@code TodoController}: cursor pages of {@code GET /todos}, lookup by id, {@code /search?title=},
+ * {@code /status}, create, update and delete, in JSON only. It has no ETags or conditional requests, no
+ * {@code ?q=} search modes, no filters or sorting on {@code GET /todos}, and none of the batch, event, stats or
+ * transfer endpoints. The collection endpoints additionally stream row by row when the client asks for
+ * {@code application/x-ndjson}, with backpressure down to the database cursor.
+ */
+@RestController
+@RequestMapping("/todos")
+@Profile(ReactiveTodolistApplication.PROFILE)
+public class ReactiveTodoController {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    ReactiveTodoService todoService;
+    PaginationProperties pagination;
+
+
+    public ReactiveTodoController(ReactiveTodoService todoService, PaginationProperties pagination) {
+        this.todoService = todoService;
+        this.pagination = pagination;
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<List<Todo>>> getAllTodos(@RequestParam(required = false) Long after,
+                                                        @RequestParam(required = false) Integer limit) {
+        return this.todoService.getPage(after, pagination.resolveLimit(limit))
+            .map(page -> {
+                if (page.nextCursor() == null) {
+                    return ok(page.items());
+                }
+
+                return ok()
+                    .header(NEXT_CURSOR_HEADER, page.nextCursor().toString())
+                    .body(page.items());
+            });
+    }
+
+    @GetMapping(produces = APPLICATION_NDJSON_VALUE)
+    public Flux<Todo> streamAllTodos() {
+        return this.todoService.getAll();
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Todo>> getTodoById(@PathVariable Long id) {
+        return this.todoService.getById(id)
+            .map(ResponseEntity::ok)
+            .defaultIfEmpty(notFound().build());
+    }
+
+    @GetMapping("/search")
+    public Flux<Todo> getTodoByTitle(@RequestParam String title) {
+        return this.todoService.getByTitle(title);
+    }
+
+    @GetMapping("/status")
+    public Flux<Todo> getTodoByStatus(@RequestParam boolean completed) {
+        return this.todoService.getByStatusCompleted(completed);
+    }
+
+    @PostMapping("/create")
+    public Mono<ResponseEntity<Todo>> createTodo(@Valid @RequestBody Todo todo) {
+        return this.todoService.save(todo)
+            .map(newTodo -> status(CREATED).body(newTodo));
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<Todo>> updateTodo(@RequestBody Todo todo, @PathVariable Long id) {
+        return this.todoService.update(todo, id)
+            .map(ResponseEntity::ok)
+            .defaultIfEmpty(notFound().build());
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteTodo(@PathVariable Long id) {
+        return this.todoService.delete(id)
+            .map(deleted -> deleted ? noContent().<Void>build() : notFound().<Void>build());
+    }
+}
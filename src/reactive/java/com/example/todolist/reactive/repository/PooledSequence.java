@@ -0,0 +1,54 @@
+package com.example.todolist.reactive.repository;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+
+/**
+ * Hands out ids from {@code todos_seq} the way Hibernate's pooled optimizer does for {@code Todo}
+ * ({@code allocationSize = 50}): a sequence value {@code hi} reserves the block {@code (hi - 50, hi]}, so the
+ * servlet and the reactive application can write to the same table without colliding. The very first value of a
+ * fresh sequence is skipped because Hibernate treats it as the start of its own first block.
+ */
+class PooledSequence {
+    static final int ALLOCATION_SIZE = 50;
+
+    private final DatabaseClient databaseClient;
+    private long next = 1;
+    private long hi = 0;
+
+
+    PooledSequence(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    Mono<Long> nextId() {
+        Long id = tryAllocate();
+        if (id != null) {
+            return Mono.just(id);
+        }
+
+        return fetchHi().map(this::allocateFrom);
+    }
+
+    private Mono<Long> fetchHi() {
+        return databaseClient.sql("select nextval('todos_seq')")
+            .map(row -> row.get(0, Long.class))
+            .one()
+            .flatMap(value -> value < ALLOCATION_SIZE ? fetchHi() : Mono.just(value));
+    }
+
+    private synchronized Long tryAllocate() {
+        return next <= hi ? next++ : null;
+    }
+
+    /**
+     * A concurrent caller may have installed a block while this one was waiting for the database; the fresh block
+     * then replaces whatever is left of it, which only wastes ids.
+     */
+    private synchronized long allocateFrom(long newHi) {
+        hi = newHi;
+        next = newHi - ALLOCATION_SIZE + 1;
+        return next++;
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.todolist.reactive.repository;
+
+import com.example.todolist.model.Todo;
+import com.example.todolist.reactive.ReactiveTodolistApplication;
+import io.r2dbc.spi.Readable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+
+/**
+ * R2DBC implementation over the same {@code todos} table the JPA repository maps. Statements are written for
+ * PostgreSQL and mirror what {@code TodoRepository} issues, including the single-statement patch and delete.
+ */
+@Repository
+@Profile(ReactiveTodolistApplication.PROFILE)
+public class R2dbcTodoRepository implements ReactiveBaseRepository {
+    private static final String COLUMNS = "id, title, description, completed, created_at, updated_at, version";
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private final DatabaseClient databaseClient;
+    private final PooledSequence sequence;
+
+
+    public R2dbcTodoRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+        this.sequence = new PooledSequence(databaseClient);
+    }
+
+    @Override
+    public Flux<Todo> findAll() {
+        return databaseClient.sql("select " + COLUMNS + " from todos order by id")
+            .filter(statement -> statement.fetchSize(STREAM_FETCH_SIZE))
+            .map(R2dbcTodoRepository::toTodo)
+            .all();
+    }
+
+    @Override
+    public Flux<Todo> findAllAfter(Long afterId, int limit) {
+        return databaseClient.sql("select " + COLUMNS + " from todos where id > :after order by id limit :limit")
+            .bind("after", afterId == null ? 0L : afterId)
+            .bind("limit", limit)
+            .map(R2dbcTodoRepository::toTodo)
+            .all();
+    }
+
+    @Override
+    public Mono<Todo> findById(Long id) {
+        if (id == null) {
+            return Mono.empty();
+        }
+
+        return databaseClient.sql("select " + COLUMNS + " from todos where id = :id")
+            .bind("id", id)
+            .map(R2dbcTodoRepository::toTodo)
+            .one();
+    }
+
+    @Override
+    public Flux<Todo> findByTitle(String title) {
+        if (title == null) {
+            return Flux.empty();
+        }
+
+        return databaseClient.sql("select " + COLUMNS + " from todos where lower(title) = lower(:title) order by id")
+            .bind("title", title)
+            .filter(statement -> statement.fetchSize(STREAM_FETCH_SIZE))
+            .map(R2dbcTodoRepository::toTodo)
+            .all();
+    }
+
+    @Override
+    public Flux<Todo> findByCompleted(boolean completed) {
+        return databaseClient.sql("select " + COLUMNS + " from todos where completed = " + completed + " order by id")
+            .filter(statement -> statement.fetchSize(STREAM_FETCH_SIZE))
+            .map(R2dbcTodoRepository::toTodo)
+            .all();
+    }
+
+    @Override
+    public Mono<Todo> save(Todo todo) {
+        LocalDateTime now = LocalDateTime.now();
+        return sequence.nextId().flatMap(id -> databaseClient.sql(
+                "insert into todos (" + COLUMNS + ") values (:id, :title, :description, :completed, :now, :now, 0)"
+                    + " returning " + COLUMNS)
+            .bind("id", id)
+            .bind("title", todo.getTitle())
+            .bind("description", todo.getDescription())
+            .bind("completed", todo.isCompleted())
+            .bind("now", now)
+            .map(R2dbcTodoRepository::toTodo)
+            .one());
+    }
+
+    @Override
+    public Mono<Todo> patch(Long id, Todo changes) {
+        if (id == null) {
+            return Mono.empty();
+        }
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(
+                "update todos set title = coalesce(:title, title), description = coalesce(:description, description),"
+                    + " completed = :completed, version = version + 1, updated_at = :now"
+                    + " where id = :id returning " + COLUMNS)
+            .bind("completed", changes.isCompleted())
+            .bind("now", LocalDateTime.now())
+            .bind("id", id);
+        spec = changes.getTitle() != null ? spec.bind("title", changes.getTitle()) : spec.bindNull("title", String.class);
+        spec = changes.getDescription() != null
+            ? spec.bind("description", changes.getDescription())
+            : spec.bindNull("description", String.class);
+
+        return spec.map(R2dbcTodoRepository::toTodo).one();
+    }
+
+    @Override
+    public Mono<Boolean> deleteById(Long id) {
+        if (id == null) {
+            return Mono.just(false);
+        }
+
+        return databaseClient.sql("delete from todos where id = :id")
+            .bind("id", id)
+            .fetch()
+            .rowsUpdated()
+            .map(count -> count > 0);
+    }
+
+    private static Todo toTodo(Readable row) {
+        return new Todo(
+            row.get("id", Long.class),
+            row.get("title", String.class),
+            row.get("description", String.class),
+            Boolean.TRUE.equals(row.get("completed", Boolean.class)),
+            row.get("created_at", LocalDateTime.class),
+            row.get("updated_at", LocalDateTime.class),
+            row.get("version", Long.class));
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.todolist.reactive.repository;
+
+import com.example.todolist.model.Todo;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+
+/**
+ * Non-blocking counterpart of {@code BaseRepository}, with the same semantics per method.
+ */
+public interface ReactiveBaseRepository {
+
+    Flux<Todo> findAll();
+
+    Flux<Todo> findAllAfter(Long afterId, int limit);
+
+    Mono<Todo> findById(Long id);
+
+    Flux<Todo> findByTitle(String title);
+
+    Flux<Todo> findByCompleted(boolean completed);
+
+    Mono<Todo> save(Todo todo);
+
+    Mono<Todo> patch(Long id, Todo changes);
+
+    Mono<Boolean> deleteById(Long id);
+}
@@ -0,0 +1,62 @@
+package com.example.todolist.reactive.service;
+
+import com.example.todolist.model.Todo;
+import com.example.todolist.model.TodoPage;
+import com.example.todolist.reactive.ReactiveTodolistApplication;
+import com.example.todolist.reactive.repository.ReactiveBaseRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+
+@Service
+@Profile(ReactiveTodolistApplication.PROFILE)
+public class ReactiveTodoService {
+    ReactiveBaseRepository reactiveBaseRepository;
+
+
+    public ReactiveTodoService(ReactiveBaseRepository reactiveBaseRepository) {
+        this.reactiveBaseRepository = reactiveBaseRepository;
+    }
+
+    public Flux<Todo> getAll() {
+        return this.reactiveBaseRepository.findAll();
+    }
+
+    public Mono<TodoPage> getPage(Long after, int limit) {
+        return this.reactiveBaseRepository.findAllAfter(after, limit + 1)
+            .collectList()
+            .map(todos -> {
+                if (todos.size() <= limit) {
+                    return new TodoPage(todos, null);
+                }
+
+                return new TodoPage(todos.subList(0, limit), todos.get(limit - 1).getId());
+            });
+    }
+
+    public Mono<Todo> getById(Long id) {
+        return this.reactiveBaseRepository.findById(id);
+    }
+
+    public Flux<Todo> getByTitle(String title) {
+        return this.reactiveBaseRepository.findByTitle(title);
+    }
+
+    public Flux<Todo> getByStatusCompleted(boolean completed) {
+        return this.reactiveBaseRepository.findByCompleted(completed);
+    }
+
+    public Mono<Todo> save(Todo todo) {
+        return this.reactiveBaseRepository.save(todo);
+    }
+
+    public Mono<Todo> update(Todo todo, Long id) {
+        return this.reactiveBaseRepository.patch(id, todo);
+    }
+
+    public Mono<Boolean> delete(Long id) {
+        return this.reactiveBaseRepository.deleteById(id);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.todolist.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+class ReplicaClientFilterTest {
+
+    @Test
+    void shouldPreferThePrincipalOverTheClientId() {
+        MockHttpServletRequest request = request("10.0.0.1", "mobile-7");
+        request.setUserPrincipal(() -> "alice");
+
+        assertEquals("principal:alice", ReplicaClientFilter.clientOf(request));
+    }
+
+    @Test
+    void shouldTellClientsApartByTheirId() {
+        assertEquals("id:mobile-7", ReplicaClientFilter.clientOf(request("10.0.0.1", "mobile-7")));
+    }
+
+    @Test
+    void shouldIgnoreMalformedClientIds() {
+        assertEquals("address:10.0.0.1", ReplicaClientFilter.clientOf(request("10.0.0.1", "a b")));
+        assertEquals("address:10.0.0.1", ReplicaClientFilter.clientOf(request("10.0.0.1", "x".repeat(65))));
+        assertEquals("address:10.0.0.1", ReplicaClientFilter.clientOf(request("10.0.0.1", null)));
+    }
+
+    @Test
+    void shouldKeepIdsFromPosingAsAddresses() {
+        assertEquals("id:10.0.0.1", ReplicaClientFilter.clientOf(request("10.0.0.2", "10.0.0.1")));
+    }
+
+    static MockHttpServletRequest request(String address, String clientId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/todos");
+        request.setRemoteAddr(address);
+        if (clientId != null) {
+            request.addHeader(ReplicaClientFilter.CLIENT_ID_HEADER, clientId);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.todolist.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+class ReplicaRoutingDataSourceTest {
+    ReplicaRoutingDataSource routing;
+    DataSource dataSource;
+
+
+    @AfterEach
+    void tearDown() throws Exception {
+        routing.close();
+    }
+
+    @Test
+    void shouldSendOnlyReadOnlyTransactionsToTheReplicas() {
+        route(List.of(database("replica-a", 0), database("replica-b", 0)), "select lag from marker");
+
+        Set<String> readers = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            readers.add(read(null));
+        }
+
+        assertEquals(Set.of("replica-a", "replica-b"), readers);
+        assertEquals("primary", write(null));
+        assertEquals("primary", new JdbcTemplate(dataSource).queryForObject("select name from marker", String.class));
+    }
+
+    @Test
+    void shouldSendTheReadsOfARecentWriterToThePrimary() {
+        route(List.of(database("replica", 0)), null);
+
+        write("writer");
+
+        assertEquals("primary", read("writer"));
+        assertEquals("replica", read("reader"));
+    }
+
+    @Test
+    void shouldSkipReplicasThatLagTooFarBehind() {
+        route(List.of(database("replica-a", 0), database("replica-b", 30)), "select lag from marker");
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals("replica-a", read(null));
+        }
+        assertEquals(1, routing.healthyReplicas());
+    }
+
+    @Test
+    void shouldFallBackToThePrimaryWithoutHealthyReplicas() {
+        DataSource missing = DataSourceBuilder.create()
+            .url("jdbc:h2:mem:missing-" + System.nanoTime() + ";IFEXISTS=TRUE")
+            .username("sa")
+            .password("")
+            .build();
+        route(List.of(missing), null);
+
+        assertEquals("primary", read(null));
+        assertEquals(0, routing.healthyReplicas());
+    }
+
+    void route(List<DataSource> replicas, String lagQuery) {
+        routing = new ReplicaRoutingDataSource(database("primary", 0), replicas, Duration.ofSeconds(5),
+            Duration.ofMinutes(1), 1000, lagQuery);
+        routing.afterPropertiesSet();
+        routing.checkReplicas();
+        dataSource = new LazyConnectionDataSourceProxy(routing);
+    }
+
+    String read(String client) {
+        return inTransaction(true, client);
+    }
+
+    String write(String client) {
+        return inTransaction(false, client);
+    }
+
+    String inTransaction(boolean readOnly, String client) {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transaction.setReadOnly(readOnly);
+        ReplicaRoutingDataSource.bindClient(client);
+        try {
+            return transaction.execute(status ->
+                new JdbcTemplate(dataSource).queryForObject("select name from marker", String.class));
+        } finally {
+            ReplicaRoutingDataSource.unbindClient();
+        }
+    }
+
+    /**
+     * An embedded database whose {@code marker} table holds its name and the lag it reports.
+     */
+    static DataSource database(String name, int lagSeconds) {
+        DataSource database = DataSourceBuilder.create()
+            .url("jdbc:h2:mem:" + name + "-" + System.nanoTime())
+            .username("sa")
+            .password("")
+            .build();
+        JdbcTemplate jdbc = new JdbcTemplate(database);
+        jdbc.execute("create table marker (name varchar(32), lag int)");
+        jdbc.update("insert into marker values (?, ?)", name, lagSeconds);
+        return database;
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.todolist.controller;
+
+import com.example.todolist.model.Todo;
+import com.example.todolist.repository.TodoRepositoryInMemory;
+import com.example.todolist.service.TodoService;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class TodoBatchControllerTest {
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    TodoRepositoryInMemory todoRepositoryInMemory;
+
+
+    @TestConfiguration
+    static class TodoBatchControllerTestConfig {
+        @Bean
+        public TodoRepositoryInMemory todoRepositoryInMemory() {
+            return new TodoRepositoryInMemory();
+        }
+
+        @Bean
+        public TodoService todoService(TodoRepositoryInMemory todoRepositoryInMemory,
+                                       ApplicationEventPublisher events) {
+            return new TodoService(todoRepositoryInMemory, events);
+        }
+    }
+
+    @Nested
+    class createTodos {
+        @Test
+        void shouldCreateValidTodosAndReportInvalidOnes() throws Exception {
+            mockMvc.perform(post("/todos/batch")
+                    .contentType(APPLICATION_JSON)
+                    .content("""
+                        [
+                            {"title": "First", "description": "First todo"},
+                            {"title": "Missing description"},
+                            {"title": "Third", "description": "Third todo"}
+                        ]
+                        """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(201))
+                .andExpect(jsonPath("$[0].todo.title").value("First"))
+                .andExpect(jsonPath("$[1].status").value(400))
+                .andExpect(jsonPath("$[1].errors[0]").value("Field description is required"))
+                .andExpect(jsonPath("$[2].status").value(201))
+                .andExpect(jsonPath("$[2].id").exists());
+        }
+    }
+
+    @Nested
+    class updateTodos {
+        @Test
+        void shouldUpdateExistingTodosAndReportMissingOnes() throws Exception {
+            Todo todo = todoRepositoryInMemory.save(new Todo(null, "Title", "Description", false, null));
+
+            mockMvc.perform(patch("/todos/batch")
+                    .contentType(APPLICATION_JSON)
+                    .content("""
+                        [
+                            {"id": %d, "title": "New Title", "completed": true},
+                            {"id": 999999, "title": "Missing"},
+                            {"title": "Without id"}
+                        ]
+                        """.formatted(todo.getId())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(200))
+                .andExpect(jsonPath("$[0].todo.title").value("New Title"))
+                .andExpect(jsonPath("$[0].todo.description").value("Description"))
+                .andExpect(jsonPath("$[0].todo.completed").value(true))
+                .andExpect(jsonPath("$[1].status").value(404))
+                .andExpect(jsonPath("$[2].status").value(400));
+        }
+    }
+
+    @Nested
+    class deleteTodos {
+        @Test
+        void shouldDeleteExistingTodosAndReportMissingOnes() throws Exception {
+            Todo todo = todoRepositoryInMemory.save(new Todo(null, "Title", "Description", false, null));
+
+            mockMvc.perform(delete("/todos/batch")
+                    .contentType(APPLICATION_JSON)
+                    .content("[%d, 999999]".formatted(todo.getId())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(204))
+                .andExpect(jsonPath("$[1].status").value(404));
+
+            assertTrue(todoRepositoryInMemory.findById(todo.getId()).isEmpty());
+        }
+
+        @Test
+        void shouldRejectOversizedBatches() throws Exception {
+            String ids = "[" + "1,".repeat(1000) + "1]";
+
+            mockMvc.perform(delete("/todos/batch")
+                    .contentType(APPLICATION_JSON)
+                    .content(ids))
+                .andExpect(status().isPayloadTooLarge());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.todolist.controller;
+
+import com.example.todolist.model.Todo;
+import com.example.todolist.repository.TodoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+
+/**
+ * The cache in front of the JPA repository, which sets versions when the service transaction flushes.
+ */
+@SpringBootTest(properties = "todolist.cache.enabled=true")
+@AutoConfigureMockMvc
+class TodoCacheTest {
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    TodoRepository todoRepository;
+
+    Todo todo;
+
+
+    @BeforeEach
+    void setUp() {
+        todo = todoRepository.save(new Todo(null, "Cached", "Description", false, null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        todoRepository.deleteById(todo.getId());
+    }
+
+    @Test
+    void shouldServeTheCommittedVersionAfterABatchPatch() throws Exception {
+        mockMvc.perform(get("/todos/" + todo.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.version").value(0));
+
+        mockMvc.perform(patch("/todos/batch")
+                .contentType(APPLICATION_JSON)
+                .content("[{\"id\": %d, \"title\": \"Patched\", \"completed\": true}]".formatted(todo.getId())))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].status").value(200));
+
+        mockMvc.perform(get("/todos/" + todo.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.title").value("Patched"))
+            .andExpect(jsonPath("$.version").value(1))
+            .andExpect(header().string("ETag",
+                TodoETags.of(todoRepository.findById(todo.getId()).orElseThrow(), "")));
+    }
+}
@@ -1,5 +1,8 @@
 package com.example.todolist.controller;
 
+import com.example.todolist.config.PaginationProperties;
+import com.example.todolist.model.Todo;
+import com.example.todolist.model.TodoVersion;
 import com.example.todolist.repository.TodoRepositoryInMemory;
 import com.example.todolist.service.TodoService;
 import org.junit.jupiter.api.Nested;
@@ -10,17 +13,39 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
 
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static com.example.todolist.controller.TodoProtobufHttpMessageConverter.APPLICATION_PROTOBUF;
+import static org.springframework.http.MediaType.APPLICATION_CBOR;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 
@@ -29,6 +54,10 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 class TodoControllerTest {
     @Autowired
     MockMvc mockMvc;
+    @Autowired
+    TodoRepositoryInMemory todoRepositoryInMemory;
+    @Autowired
+    ObjectMapper objectMapper;
 
 
     @TestConfiguration
@@ -41,8 +70,9 @@ class TodoControllerTest {
         }
 
         @Bean
-        public TodoService todoService(TodoRepositoryInMemory todoRepositoryInMemory) {
-            return new TodoService(todoRepositoryInMemory);
+        public TodoService todoService(TodoRepositoryInMemory todoRepositoryInMemory,
+                                       ApplicationEventPublisher events) {
+            return new TodoService(todoRepositoryInMemory, events);
         }
     }
 
@@ -58,11 +88,75 @@ class TodoControllerTest {
 
         @Test
         void shouldReturnEmptyListWhenNoTodos() throws Exception {
-            TodoRepositoryInMemory.getTodoList().clear();
+            todoRepositoryInMemory.clear();
             mockMvc.perform(get("/todos"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", empty()));
         }
+
+        @Test
+        void shouldReturnAPageWithNextCursor() throws Exception {
+            Todo first = todoRepositoryInMemory.save(new Todo(null, "Page 1", "First page", false, null));
+            Todo second = todoRepositoryInMemory.save(new Todo(null, "Page 2", "Second page", false, null));
+            long after = first.getId() - 1;
+
+            mockMvc.perform(get("/todos")
+                    .param("after", String.valueOf(after))
+                    .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(first.getId()))
+                .andExpect(header().string(TodoController.NEXT_CURSOR_HEADER, first.getId().toString()));
+
+            mockMvc.perform(get("/todos")
+                    .param("after", first.getId().toString())
+                    .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(second.getId()))
+                .andExpect(header().doesNotExist(TodoController.NEXT_CURSOR_HEADER));
+        }
+
+        @Test
+        void shouldStreamTodosAsNdjson() throws Exception {
+            todoRepositoryInMemory.save(new Todo(null, "Streamed", "Streamed todo", false, null));
+            int expectedLines = todoRepositoryInMemory.findAll().size();
+
+            MvcResult result = mockMvc.perform(get("/todos").accept(APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+            String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+            assertEquals(expectedLines, body.lines().count());
+        }
+
+        @Test
+        void shouldFilterAndSort() throws Exception {
+            todoRepositoryInMemory.save(new Todo(null, "Query first", "Matches", true, null));
+            Todo second = todoRepositoryInMemory.save(new Todo(null, "QUERY second", "Matches", true, null));
+            todoRepositoryInMemory.save(new Todo(null, "Query open", "Not completed", false, null));
+
+            mockMvc.perform(get("/todos")
+                    .param("completed", "true")
+                    .param("titlePrefix", "query")
+                    .param("sort", "createdAt,desc")
+                    .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(second.getId()));
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {"sort=priority", "sort=title,up", "completed=true&after=1"})
+        void shouldRejectInvalidQueries(String query) throws Exception {
+            mockMvc.perform(get("/todos?" + query))
+                .andExpect(status().isBadRequest());
+        }
     }
 
     @Nested
@@ -101,6 +195,29 @@ class TodoControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").isArray());
         }
+
+        @Test
+        void shouldSearchWordPrefixesAndPage() throws Exception {
+            todoRepositoryInMemory.save(new Todo(null, "Paint fence", "Weekend", false, null));
+            todoRepositoryInMemory.save(new Todo(null, "Buy paint", "Painting the fence", false, null));
+
+            mockMvc.perform(get("/todos/search")
+                    .param("q", "pain")
+                    .param("mode", "prefix")
+                    .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(TodoController.NEXT_CURSOR_HEADER, "1"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].title").value("Buy paint"));
+        }
+
+        @Test
+        void shouldRejectSubstringsShorterThanATrigram() throws Exception {
+            mockMvc.perform(get("/todos/search")
+                    .param("q", "ab")
+                    .param("mode", "substring"))
+                .andExpect(status().isBadRequest());
+        }
     }
 
     @Nested
@@ -122,6 +239,86 @@ class TodoControllerTest {
         }
     }
 
+    @Nested
+    class conditionalRequests {
+        @Test
+        void shouldAnswerNotModifiedWhileTheTodoIsUnchanged() throws Exception {
+            Todo todo = todoRepositoryInMemory.save(new Todo(null, "Cached", "Description", false, null));
+            String eTag = mockMvc.perform(get("/todos/{id}", todo.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+            mockMvc.perform(get("/todos/{id}", todo.getId()).header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+            todoRepositoryInMemory.patch(todo.getId(), new Todo(null, null, null, true, null));
+            mockMvc.perform(get("/todos/{id}", todo.getId()).header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.completed").value(true));
+        }
+
+        @Test
+        void shouldAnswerNotModifiedWhileThePageIsUnchanged() throws Exception {
+            String eTag = mockMvc.perform(get("/todos"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+            mockMvc.perform(get("/todos").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+
+            todoRepositoryInMemory.save(new Todo(null, "New", "Changes the page", false, null));
+            mockMvc.perform(get("/todos").header("If-None-Match", eTag))
+                .andExpect(status().isOk());
+        }
+
+        @Test
+        void shouldTagThePageThatWasSentWhenAWriteSlipsInBetween() throws Exception {
+            TodoRepositoryInMemory racing = new TodoRepositoryInMemory() {
+                @Override
+                public List<TodoVersion> findVersionsAfter(Long afterId, int limit) {
+                    List<TodoVersion> versions = super.findVersionsAfter(afterId, limit);
+                    patch(1L, new Todo(null, null, null, true, null));
+                    return versions;
+                }
+            };
+            racing.generateTodos();
+            MockMvc standalone = MockMvcBuilders.standaloneSetup(new TodoController(
+                new TodoService(racing, event -> { }), new PaginationProperties(2, 10), objectMapper)).build();
+
+            String sent = standalone.perform(get("/todos"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].version").value(1))
+                .andReturn().getResponse().getHeader("ETag");
+
+            assertEquals(TodoETags.of(racing.findVersionsAfter(null, 3), 2, ""), sent);
+        }
+
+        @Test
+        void shouldRejectUpdatesAgainstAStaleVersion() throws Exception {
+            Todo todo = todoRepositoryInMemory.save(new Todo(null, "Contended", "Description", false, null));
+            String eTag = mockMvc.perform(get("/todos/{id}", todo.getId()))
+                .andReturn().getResponse().getHeader("ETag");
+            String update = """
+                { "title": "Mine", "description": "Description", "completed": true }""";
+
+            String newETag = mockMvc.perform(put("/todos/{id}", todo.getId())
+                    .header("If-Match", eTag)
+                    .contentType(APPLICATION_JSON)
+                    .content(update))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Mine"))
+                .andReturn().getResponse().getHeader("ETag");
+
+            mockMvc.perform(put("/todos/{id}", todo.getId())
+                    .header("If-Match", eTag)
+                    .contentType(APPLICATION_JSON)
+                    .content(update))
+                .andExpect(status().isPreconditionFailed());
+            assertEquals("\"" + todo.getId() + "-1\"", newETag);
+        }
+    }
+
     @Nested
     class createTodo {
         @Test
@@ -254,4 +451,110 @@ class TodoControllerTest {
                 .andExpect(status().isNotFound());
         }
     }
+
+    @Nested
+    class wireFormats {
+        final MediaType smile = new MediaType("application", "x-jackson-smile");
+
+        @Test
+        void shouldAnswerJsonByDefault() throws Exception {
+            mockMvc.perform(get("/todos/1").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(APPLICATION_JSON));
+        }
+
+        @Test
+        void shouldTagEachFormatOnItsOwn() throws Exception {
+            String json = mockMvc.perform(get("/todos/2").accept(APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Vary", "Accept"))
+                .andReturn().getResponse().getHeader("ETag");
+            String protobuf = mockMvc.perform(get("/todos/2").accept(APPLICATION_PROTOBUF))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+            assertEquals(json.replace("\"", "").concat("+x-protobuf"), protobuf.replace("\"", ""));
+
+            mockMvc.perform(get("/todos/2").accept(APPLICATION_PROTOBUF).header("If-None-Match", json))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(APPLICATION_PROTOBUF));
+            mockMvc.perform(get("/todos/2").accept(APPLICATION_PROTOBUF).header("If-None-Match", protobuf))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("Vary", "Accept"));
+            mockMvc.perform(get("/todos").accept(smile).header("If-None-Match",
+                    mockMvc.perform(get("/todos")).andReturn().getResponse().getHeader("ETag")))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", endsWith("+x-jackson-smile\"")));
+        }
+
+        @Test
+        void shouldListTodosAsProtobuf() throws Exception {
+            byte[] body = mockMvc.perform(get("/todos").accept(APPLICATION_PROTOBUF))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(APPLICATION_PROTOBUF))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+
+            List<Todo> todos = TodoProtobuf.readList(CodedInputStream.newInstance(body));
+            assertEquals(todoRepositoryInMemory.findAll().stream().map(Todo::getTitle).toList(),
+                todos.stream().map(Todo::getTitle).toList());
+        }
+
+        @Test
+        void shouldUpdateTodoFromProtobuf() throws Exception {
+            Todo original = todoRepositoryInMemory.findById(3L).orElseThrow();
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            CodedOutputStream out = CodedOutputStream.newInstance(body);
+            TodoProtobuf.write(out, new Todo(null, "Binary", null, original.isCompleted(), null));
+            out.flush();
+
+            byte[] updated = mockMvc.perform(put("/todos/3")
+                    .contentType(APPLICATION_PROTOBUF)
+                    .accept(APPLICATION_PROTOBUF)
+                    .content(body.toByteArray()))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+
+            Todo todo = TodoProtobuf.read(CodedInputStream.newInstance(updated));
+            assertEquals("Binary", todo.getTitle());
+            assertEquals(original.getDescription(), todo.getDescription());
+            todoRepositoryInMemory.update(original);
+        }
+
+        @Test
+        void shouldRejectProtobufWithoutRequiredFields() throws Exception {
+            mockMvc.perform(post("/todos/create")
+                    .contentType(APPLICATION_PROTOBUF)
+                    .content(new byte[0]))
+                .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        void shouldGetTodoAsCbor() throws Exception {
+            byte[] body = mockMvc.perform(get("/todos/1").accept(APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(APPLICATION_CBOR))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+
+            Todo todo = new ObjectMapper(new CBORFactory()).findAndRegisterModules().readValue(body, Todo.class);
+            assertEquals(todoRepositoryInMemory.findById(1L).orElseThrow().getTitle(), todo.getTitle());
+        }
+
+        @Test
+        void shouldFilterTodosByStatusAsSmile() throws Exception {
+            byte[] body = mockMvc.perform(get("/todos/status").param("completed", "true").accept(smile))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(smile))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+
+            Todo[] todos = new ObjectMapper(new SmileFactory()).findAndRegisterModules().readValue(body, Todo[].class);
+            assertEquals(todoRepositoryInMemory.findByCompleted(true).size(), todos.length);
+        }
+    }
 }
@@ -0,0 +1,77 @@
+package com.example.todolist.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class TodoEventControllerTest {
+    @Autowired
+    MockMvc mockMvc;
+
+
+    @Test
+    void shouldStreamChangesAndResumeAfterTheLastEventId() throws Exception {
+        MockHttpServletResponse live = mockMvc.perform(get("/todos/events").accept(TEXT_EVENT_STREAM))
+            .andExpect(request().asyncStarted())
+            .andReturn()
+            .getResponse();
+
+        String created = mockMvc.perform(post("/todos/create")
+                .contentType(APPLICATION_JSON)
+                .content("{\"title\": \"Streamed\", \"description\": \"Pushed to subscribers\"}"))
+            .andExpect(status().isCreated())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        String id = created.replaceAll(".*\"id\":(\\d+).*", "$1");
+        mockMvc.perform(delete("/todos/" + id))
+            .andExpect(status().isNoContent());
+
+        String body = awaitContent(live, "event:deleted");
+        assertTrue(body.contains("event:created"), body);
+        assertTrue(body.contains("\"title\":\"Streamed\""), body);
+
+        String createdEventId = body.lines()
+            .filter(line -> line.startsWith("id:"))
+            .findFirst()
+            .orElseThrow()
+            .substring("id:".length());
+        MockHttpServletResponse resumed = mockMvc.perform(get("/todos/events")
+                .accept(TEXT_EVENT_STREAM)
+                .header(TodoEventController.LAST_EVENT_ID, createdEventId))
+            .andExpect(request().asyncStarted())
+            .andReturn()
+            .getResponse();
+
+        String replayed = awaitContent(resumed, "event:deleted");
+        assertTrue(!replayed.contains("event:created"), replayed);
+    }
+
+    static String awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        String content = response.getContentAsString();
+        while (!content.contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            content = response.getContentAsString();
+        }
+        assertTrue(content.contains(expected), content);
+        return content;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.todolist.controller;
+
+import com.example.todolist.model.Todo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+
+@SpringBootTest
+class TodoJsonSerializerTest {
+    /**
+     * Serializes {@link Todo} through its getters, as Jackson did before {@link TodoJsonSerializer}.
+     */
+    static final ObjectMapper BEAN_MAPPER = JsonMapper.builder()
+        .addModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .build();
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+
+    @Test
+    void shouldWriteWhatTheBeanSerializerWrites() throws Exception {
+        List<Todo> todos = List.of(
+            new Todo(1L, "Title \"quoted\"", "Description\n", true, LocalDateTime.of(2024, 1, 2, 3, 4),
+                LocalDateTime.of(2024, 1, 2, 3, 4, 5, 600_000_000), 7L),
+            new Todo(null, null, null, false, null));
+
+        String json = objectMapper.writeValueAsString(todos);
+        assertEquals(BEAN_MAPPER.writeValueAsString(todos), json);
+        assertEquals(todos.get(0).getTitle(), objectMapper.readValue(json, Todo[].class)[0].getTitle());
+    }
+
+    @Test
+    void shouldWriteDatesAsTimestampsWhenConfiguredTo() throws Exception {
+        Todo todo = new Todo(1L, "Title", "Description", false, LocalDateTime.of(2024, 1, 2, 3, 4));
+        ObjectMapper timestamps = objectMapper.copy().enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        String json = timestamps.writeValueAsString(todo);
+        assertEquals(BEAN_MAPPER.copy().enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).writeValueAsString(todo),
+            json);
+        assertNotEquals(objectMapper.writeValueAsString(todo), json);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.todolist.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class TodoMetricsTest {
+    @Autowired
+    MockMvc mockMvc;
+
+
+    @Test
+    void shouldPublishTimersForEveryLayer() throws Exception {
+        mockMvc.perform(get("/todos/{id}", 1))
+            .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+            .andExpect(status().isOk())
+            .andExpect(content().string(allOf(
+                matchesPattern("(?s).*http_server_requests_seconds_bucket\\{[^}]*uri=\"/todos/\\{id}\".*"),
+                matchesPattern("(?s).*todolist_service_seconds_bucket\\{[^}]*method=\"getById\".*"),
+                matchesPattern("(?s).*todolist_repository_seconds_bucket\\{[^}]*class=\"[\\w.]+TodoRepository\"[^}]*method=\"findById\".*"),
+                containsString("hikaricp_connections_active"))));
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.todolist.controller;
+
+import com.example.todolist.model.Todo;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+
+class TodoProtobufTest {
+
+    @Test
+    void shouldReadBackWhatItWrites() throws IOException {
+        List<Todo> todos = List.of(
+            new Todo(1L, "Title", "Descrição", true, LocalDateTime.of(2024, 1, 2, 3, 4, 5, 123_456_789),
+                LocalDateTime.of(1969, 12, 31, 23, 59, 59), 7L),
+            new Todo(0L, "", null, false, LocalDateTime.of(1970, 1, 1, 0, 0), null, 0L));
+
+        List<Todo> read = TodoProtobuf.readList(CodedInputStream.newInstance(encode(todos)));
+
+        assertEquals(2, read.size());
+        for (int i = 0; i < todos.size(); i++) {
+            Todo expected = todos.get(i);
+            Todo actual = read.get(i);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getTitle(), actual.getTitle());
+            assertEquals(expected.getDescription(), actual.getDescription());
+            assertEquals(expected.isCompleted(), actual.isCompleted());
+            assertEquals(expected.getCreatedAt(), actual.getCreatedAt());
+            assertEquals(expected.getUpdatedAt(), actual.getUpdatedAt());
+            assertEquals(expected.getVersion(), actual.getVersion());
+        }
+    }
+
+    @Test
+    void shouldSkipUnknownFields() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CodedOutputStream out = CodedOutputStream.newInstance(bytes);
+        out.writeString(99, "added later");
+        out.writeInt64(1, 42L);
+        out.writeFixed64(100, 1L);
+        out.flush();
+
+        Todo todo = TodoProtobuf.read(CodedInputStream.newInstance(bytes.toByteArray()));
+
+        assertEquals(42L, todo.getId());
+        assertNull(todo.getTitle());
+    }
+
+    private static byte[] encode(List<Todo> todos) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CodedOutputStream out = CodedOutputStream.newInstance(bytes);
+        TodoProtobuf.writeList(out, todos);
+        out.flush();
+        return bytes.toByteArray();
+    }
+}
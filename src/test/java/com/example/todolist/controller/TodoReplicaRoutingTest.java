@@ -0,0 +1,167 @@
+package com.example.todolist.controller;
+
+import com.example.todolist.config.ReplicaRoutingDataSource;
+import com.jayway.jsonpath.JsonPath;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+
+/**
+ * Two embedded databases stand in for the primary and its replica. Nothing replicates between them, so what a
+ * request reads shows where it was routed. The replica's {@code todos} is a view over {@code todos_data} that holds
+ * reads at {@link ReplicaGate} while a test keeps it closed.
+ */
+@SpringBootTest(properties = {
+    "todolist.replicas.enabled=true",
+    "todolist.replicas.lag-query=",
+    "todolist.replicas.check-interval=1h"
+})
+@AutoConfigureMockMvc
+class TodoReplicaRoutingTest {
+    static final String REPLICA_URL = "jdbc:h2:mem:todolist-replica;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    ReplicaRoutingDataSource routing;
+
+
+    @DynamicPropertySource
+    static void replica(DynamicPropertyRegistry registry) {
+        Flyway.configure()
+            .dataSource(REPLICA_URL, "sa", "")
+            .locations("classpath:db/migration/h2")
+            .load()
+            .migrate();
+        JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+        replica.execute("alter table todos rename to todos_data");
+        replica.execute("create alias replica_gate for \"" + ReplicaGate.class.getName() + ".enter\"");
+        replica.execute("create view todos as select * from todos_data where replica_gate()");
+        registry.add("todolist.replicas.databases[0].url", () -> REPLICA_URL);
+        registry.add("todolist.replicas.databases[0].username", () -> "sa");
+        registry.add("todolist.replicas.databases[0].password", () -> "");
+    }
+
+    @BeforeEach
+    void checkReplicas() {
+        routing.checkReplicas();
+    }
+
+    @AfterEach
+    void openGate() {
+        ReplicaGate.gate.countDown();
+    }
+
+    @Test
+    void shouldServeReadsFromTheReplica() throws Exception {
+        new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", "")).update(
+            "insert into todos_data (id, title, description, completed, version) values (?, ?, ?, false, 0)",
+            900_000_001L, "Replica only", "Never written to the primary");
+
+        mockMvc.perform(get("/todos/{id}", 900_000_001L).header("X-Client-Id", "reader"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.title").value("Replica only"));
+    }
+
+    @Test
+    void shouldServeTheReadsOfAWriterFromThePrimary() throws Exception {
+        String created = mockMvc.perform(post("/todos/create")
+                .header("X-Client-Id", "writer")
+                .contentType(APPLICATION_JSON)
+                .content("""
+                    { "title": "Written", "description": "Only on the primary", "completed": false }
+                    """))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString();
+        Number id = JsonPath.read(created, "$.id");
+
+        mockMvc.perform(get("/todos/{id}", id).header("X-Client-Id", "writer"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.title").value("Written"));
+        mockMvc.perform(get("/todos/{id}", id).header("X-Client-Id", "reader"))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldNotShareAReplicaReadWithAWriter() throws Exception {
+        String created = mockMvc.perform(post("/todos/create")
+                .header("X-Client-Id", "setup")
+                .contentType(APPLICATION_JSON)
+                .content("""
+                    { "title": "Original", "description": "On both databases", "completed": false }
+                    """))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString();
+        long id = JsonPath.<Number>read(created, "$.id").longValue();
+        new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", "")).update(
+            "insert into todos_data (id, title, description, completed, version) values (?, ?, ?, false, 0)",
+            id, "Original", "On both databases");
+        mockMvc.perform(put("/todos/{id}", id)
+                .header("X-Client-Id", "writer")
+                .contentType(APPLICATION_JSON)
+                .content("""
+                    { "title": "Updated", "completed": false }
+                    """))
+            .andExpect(status().isOk());
+
+        ReplicaGate.entered = new CountDownLatch(1);
+        ReplicaGate.gate = new CountDownLatch(1);
+        CompletableFuture<String> reader = CompletableFuture.supplyAsync(() -> titleOf(id, "reader"));
+        assertTrue(ReplicaGate.entered.await(10, TimeUnit.SECONDS));
+
+        assertEquals("Updated", titleOf(id, "writer"));
+        ReplicaGate.gate.countDown();
+        assertEquals("Original", reader.get(10, TimeUnit.SECONDS));
+    }
+
+    private String titleOf(long id, String client) {
+        try {
+            String todo = mockMvc.perform(get("/todos/{id}", id).header("X-Client-Id", client))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+            return JsonPath.read(todo, "$.title");
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Public, so that H2 may call {@link #enter()} from the replica's view.
+     */
+    public static final class ReplicaGate {
+        static volatile CountDownLatch entered = new CountDownLatch(0);
+        static volatile CountDownLatch gate = new CountDownLatch(0);
+
+        public static boolean enter() throws InterruptedException {
+            CountDownLatch closed = gate;
+            if (closed.getCount() > 0) {
+                entered.countDown();
+                closed.await(10, TimeUnit.SECONDS);
+            }
+            return true;
+        }
+    }
+}
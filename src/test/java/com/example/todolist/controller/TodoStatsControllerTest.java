@@ -0,0 +1,66 @@
+package com.example.todolist.controller;
+
+import com.example.todolist.model.TodoStats;
+import com.example.todolist.service.TodoService;
+import com.example.todolist.service.TodoStatistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class TodoStatsControllerTest {
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    TodoStatistics statistics;
+    @Autowired
+    TodoService todoService;
+
+
+    @Test
+    void shouldCountCreatedTodos() throws Exception {
+        TodoStats before = statistics.snapshot();
+
+        mockMvc.perform(post("/todos/create")
+                .contentType(APPLICATION_JSON)
+                .content("""
+                    {
+                        "title": "Counted",
+                        "description": "Shows up in the stats",
+                        "completed": true
+                    }
+                    """))
+            .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/todos/stats"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.total").value(before.total() + 1))
+            .andExpect(jsonPath("$.completed").value(before.completed() + 1))
+            .andExpect(jsonPath("$.open").value(before.open()))
+            .andExpect(jsonPath("$.createdPerHour.length()").value(48))
+            .andExpect(jsonPath("$.createdPerHour[47].created")
+                .value(before.createdPerHour().get(47).created() + 1))
+            .andExpect(jsonPath("$.createdPerDay.length()").value(30));
+    }
+
+    @Test
+    void shouldReconcileWithTheDatabase() {
+        statistics.reconcile();
+
+        TodoStats stats = statistics.snapshot();
+        assertEquals(todoService.getAll().size(), stats.total());
+        assertEquals(todoService.getByStatusCompleted(true).size(), stats.completed());
+        assertEquals(stats.total(), stats.createdPerDay().stream().mapToLong(TodoStats.Bucket::created).sum());
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.todolist.controller;
+
+import com.example.todolist.model.Todo;
+import com.example.todolist.repository.TodoRepositoryInMemory;
+import com.example.todolist.service.TodoService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.HttpHeaders.CONTENT_DISPOSITION;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class TodoTransferControllerTest {
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    TodoRepositoryInMemory todoRepositoryInMemory;
+
+
+    @TestConfiguration
+    static class TodoTransferControllerTestConfig {
+        @Bean
+        public TodoRepositoryInMemory todoRepositoryInMemory() {
+            return new TodoRepositoryInMemory();
+        }
+
+        @Bean
+        public TodoService todoService(TodoRepositoryInMemory todoRepositoryInMemory,
+                                       ApplicationEventPublisher events) {
+            return new TodoService(todoRepositoryInMemory, events);
+        }
+    }
+
+    @Test
+    void shouldExportCsvAsAnAttachment() throws Exception {
+        todoRepositoryInMemory.save(new Todo(null, "Exported", "Exported todo", false, null));
+        int expectedRows = todoRepositoryInMemory.findAll().size();
+
+        MvcResult result = mockMvc.perform(get("/todos/export").param("format", "csv"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("text/csv"))
+            .andExpect(header().string(CONTENT_DISPOSITION, "attachment; filename=\"todos.csv\""))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        assertEquals(expectedRows + 1, body.lines().count());
+        assertTrue(body.contains(",Exported,Exported todo,false,"));
+    }
+
+    @Test
+    void shouldImportNdjson() throws Exception {
+        int before = todoRepositoryInMemory.findAll().size();
+
+        mockMvc.perform(post("/todos/import")
+                .contentType("application/x-ndjson")
+                .content("""
+                    {"title": "Imported", "description": "First line"}
+                    {"title": "Missing description"}
+                    """))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.imported").value(1))
+            .andExpect(jsonPath("$.rejected").value(1))
+            .andExpect(jsonPath("$.rejections[0].index").value(1))
+            .andExpect(jsonPath("$.rejections[0].errors[0]").value("Field description is required"));
+
+        assertEquals(before + 1, todoRepositoryInMemory.findAll().size());
+    }
+
+    @Test
+    void shouldRejectOtherContentTypes() throws Exception {
+        mockMvc.perform(post("/todos/import")
+                .contentType(APPLICATION_JSON)
+                .content("[]"))
+            .andExpect(status().isUnsupportedMediaType());
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.todolist.repository;
+
+import com.example.todolist.model.Todo;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+
+class CachingTodoRepositoryTest {
+    TodoRepositoryInMemory delegate;
+    Cache<Long, Todo> cache;
+    CachingTodoRepository cachingTodoRepository;
+    Long id;
+
+
+    @BeforeEach
+    void setUp() {
+        delegate = spy(new TodoRepositoryInMemory());
+        cache = Caffeine.newBuilder().maximumSize(100).recordStats().build();
+        cachingTodoRepository = new CachingTodoRepository(delegate, cache);
+        id = delegate.save(new Todo(null, "Title", "Description", false, null)).getId();
+    }
+
+    @Nested
+    class findById {
+        @Test
+        void shouldReadThroughOnlyOnce() {
+            cachingTodoRepository.findById(id);
+            cachingTodoRepository.findById(id);
+
+            verify(delegate, times(1)).findById(id);
+            assertEquals(1, cache.stats().hitCount());
+            assertEquals(1, cache.stats().missCount());
+        }
+
+        @Test
+        void shouldNotLetCallersMutateCachedEntries() {
+            cachingTodoRepository.findById(id).orElseThrow().setTitle("Mutated");
+
+            assertEquals("Title", cachingTodoRepository.findById(id).orElseThrow().getTitle());
+        }
+
+        @Test
+        void shouldNotCacheMissingTodos() {
+            assertTrue(cachingTodoRepository.findById(999L).isEmpty());
+            assertEquals(0, cache.estimatedSize());
+        }
+    }
+
+    @Nested
+    class writes {
+        @Test
+        void shouldRefreshEntryOnUpdate() {
+            cachingTodoRepository.findById(id);
+
+            cachingTodoRepository.update(new Todo(id, "New Title", "Description", true, null));
+
+            assertEquals("New Title", cachingTodoRepository.findById(id).orElseThrow().getTitle());
+            verify(delegate, times(1)).findById(id);
+        }
+
+        @Test
+        void shouldInvalidateEntryOnDelete() {
+            cachingTodoRepository.findById(id);
+
+            cachingTodoRepository.deleteById(id);
+
+            assertTrue(cachingTodoRepository.findById(id).isEmpty());
+        }
+
+        @Test
+        void shouldPopulateEntryOnSave() {
+            Todo saved = cachingTodoRepository.save(new Todo(null, "Saved", "Description", false, null));
+
+            assertTrue(cachingTodoRepository.findById(saved.getId()).isPresent());
+            verify(delegate, times(0)).findById(saved.getId());
+        }
+    }
+
+    @Nested
+    class transactions {
+        @BeforeEach
+        void begin() {
+            TransactionSynchronizationManager.initSynchronization();
+        }
+
+        @AfterEach
+        void end() {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        @Test
+        void shouldRefreshEntryOnlyAfterTheCommit() {
+            cachingTodoRepository.findById(id);
+            cachingTodoRepository.patch(id, new Todo(null, "Committed", null, true, null));
+            Todo saved = cachingTodoRepository.save(new Todo(null, "Saved", "Description", false, null));
+
+            assertEquals("Title", cache.getIfPresent(id).getTitle());
+            assertNull(cache.getIfPresent(saved.getId()));
+
+            TransactionSynchronizationUtils.triggerAfterCommit();
+            assertEquals("Committed", cache.getIfPresent(id).getTitle());
+            assertEquals("Saved", cache.getIfPresent(saved.getId()).getTitle());
+        }
+
+        @Test
+        void shouldLeaveTheCacheAloneOnRollback() {
+            cachingTodoRepository.findById(id);
+            cachingTodoRepository.update(new Todo(id, "Rolled back", "Description", true, null));
+            cachingTodoRepository.deleteById(id);
+
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_ROLLED_BACK);
+            assertEquals("Title", cache.getIfPresent(id).getTitle());
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.todolist.repository;
+
+import com.example.todolist.model.SearchMode;
+import com.example.todolist.model.Todo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class ColumnarTodoRepositoryTest {
+    ColumnarTodoRepository repository;
+
+
+    @BeforeEach
+    void setUp() {
+        repository = new ColumnarTodoRepository();
+    }
+
+    @Nested
+    class columns {
+        @Test
+        void shouldMaterializeEveryField() {
+            Todo saved = repository.save(new Todo(null, "Café ☕", null, true, null));
+
+            Todo found = repository.findById(saved.getId()).orElseThrow();
+            assertEquals("Café ☕", found.getTitle());
+            assertNull(found.getDescription());
+            assertTrue(found.isCompleted());
+            assertEquals(saved.getCreatedAt(), found.getCreatedAt());
+            assertEquals(saved.getCreatedAt(), found.getUpdatedAt());
+            assertEquals(0L, found.getVersion());
+        }
+
+        @Test
+        void shouldStoreRepeatedStringsOnce() {
+            IntStream.range(0, 100).forEach(i -> repository.save(new Todo(null, "Same", "Shared", false, null)));
+
+            assertEquals(3, repository.distinctStrings());
+        }
+
+        @Test
+        void shouldFreeStringsNoLongerUsed() {
+            Todo todo = repository.save(new Todo(null, "Old title", "Description", false, null));
+
+            repository.patch(todo.getId(), new Todo(null, "New title", null, false, null));
+            assertEquals(3, repository.distinctStrings());
+
+            repository.deleteById(todo.getId());
+            assertEquals(0, repository.distinctStrings());
+        }
+
+        @Test
+        void shouldKeepIdOrderAfterSqueezingOutDeletedRows() {
+            List<Todo> saved = repository.saveAll(IntStream.range(0, 3000)
+                .mapToObj(i -> new Todo(null, "Title " + i, "Description", i % 2 == 0, null))
+                .toList());
+            List<Long> kept = new ArrayList<>();
+            for (Todo todo : saved) {
+                if (todo.getId() % 10 == 0) {
+                    kept.add(todo.getId());
+                } else {
+                    repository.deleteById(todo.getId());
+                }
+            }
+
+            assertEquals(kept, repository.findAll().stream().map(Todo::getId).toList());
+            assertEquals(kept.subList(5, 15), repository.findAllAfter(kept.get(4), 10).stream().map(Todo::getId).toList());
+            assertEquals("Title 9", repository.findById(10L).orElseThrow().getTitle());
+            assertEquals(kept.size(), repository.findByCompleted(false).size());
+            assertTrue(repository.save(new Todo(null, "Next", "Description", false, null)).getId() > 3000);
+        }
+    }
+
+    @Nested
+    class queries {
+        @Test
+        void shouldFindByTitleIgnoringCase() {
+            repository.save(new Todo(null, "Buy Milk", "Groceries", false, null));
+            repository.save(new Todo(null, "buy milk", "Groceries", false, null));
+            repository.save(new Todo(null, "Buy bread", "Groceries", false, null));
+
+            assertEquals(2, repository.findByTitle("BUY MILK").size());
+            assertTrue(repository.findByTitle("Sell milk").isEmpty());
+        }
+
+        @Test
+        void shouldMoveTodoBetweenStatusesOnUpdate() {
+            Todo todo = repository.save(new Todo(null, "Old", "Description", false, null));
+
+            Todo updated = repository.update(new Todo(todo.getId(), "New", "Description", true, null));
+
+            assertEquals(1L, updated.getVersion());
+            assertTrue(repository.findByTitle("Old").isEmpty());
+            assertEquals(1, repository.findByTitle("New").size());
+            assertTrue(repository.findByCompleted(false).isEmpty());
+            assertEquals(List.of(todo.getId()), repository.findByCompleted(true).stream().map(Todo::getId).toList());
+        }
+
+        @Test
+        void shouldOnlyPatchTheExpectedVersion() {
+            Todo todo = repository.save(new Todo(null, "Title", "Description", false, null));
+
+            assertTrue(repository.patch(todo.getId(), new Todo(null, "Stale", null, false, null), 5L).isEmpty());
+            assertEquals("Fresh", repository.patch(todo.getId(), new Todo(null, "Fresh", null, true, null), 0L)
+                .orElseThrow().getTitle());
+        }
+
+        @Test
+        void shouldRankSearchResults() {
+            Todo inDescription = repository.save(new Todo(null, "Groceries", "Buy milk and bread", false, null));
+            Todo inTitle = repository.save(new Todo(null, "Milk", "From the farm", false, null));
+
+            List<Todo> found = repository.search("milk", SearchMode.WORDS, 0, 10);
+
+            assertEquals(List.of(inTitle.getId(), inDescription.getId()), found.stream().map(Todo::getId).toList());
+            assertEquals(1, repository.search("FAR", SearchMode.SUBSTRING, 0, 10).size());
+        }
+
+        @Test
+        void shouldStreamEveryTodoInIdOrder() {
+            repository.saveAll(IntStream.range(0, 2500)
+                .mapToObj(i -> new Todo(null, "Title", "Description", false, null))
+                .toList());
+
+            List<Long> streamed = new ArrayList<>();
+            repository.streamAll(todo -> streamed.add(todo.getId()));
+
+            assertEquals(LongStream.rangeClosed(1, 2500).boxed().toList(), streamed);
+        }
+    }
+
+    @Test
+    void shouldStayConsistentUnderParallelWriters() throws Exception {
+        for (int i = 0; i < 2000; i++) {
+            repository.save(new Todo(null, "Title " + i % 10, "Description", false, null));
+        }
+
+        TodoRepositoryInMemoryTest.runInParallel(thread -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 2000; i++) {
+                long id = random.nextLong(1, 2001);
+                switch (random.nextInt(4)) {
+                    case 0 -> repository.save(new Todo(null, "Title " + random.nextInt(10), "New", false, null));
+                    case 1 -> repository.deleteById(id);
+                    default -> repository.update(
+                        new Todo(id, "Title " + random.nextInt(10), "Updated", random.nextBoolean(), null));
+                }
+            }
+            return null;
+        });
+
+        List<Todo> all = repository.findAll();
+        assertEquals(all.size(), repository.findByCompleted(true).size() + repository.findByCompleted(false).size());
+        assertEquals(all.size(), IntStream.range(0, 10).map(i -> repository.findByTitle("Title " + i).size()).sum());
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.todolist.repository;
+
+import com.example.todolist.model.Todo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class JournaledTodoRepositoryTest {
+    @TempDir
+    Path directory;
+
+    JournaledTodoRepository repository;
+
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (repository != null) {
+            repository.close();
+        }
+    }
+
+    JournaledTodoRepository open(FsyncPolicy fsync) throws IOException {
+        return open(fsync, 1 << 20);
+    }
+
+    JournaledTodoRepository open(FsyncPolicy fsync, long segmentBytes) throws IOException {
+        TodoJournal journal = new TodoJournal(directory, fsync, Duration.ofMillis(10), segmentBytes,
+            Duration.ofHours(1));
+        TodoRepositoryInMemory memory = new TodoRepositoryInMemory(journal);
+        journal.open(memory);
+        repository = new JournaledTodoRepository(memory, journal);
+        return repository;
+    }
+
+    JournaledTodoRepository reopen(FsyncPolicy fsync) throws IOException, InterruptedException {
+        repository.close();
+        return open(fsync);
+    }
+
+    List<String> files(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                .filter(name -> name.startsWith(prefix))
+                .sorted()
+                .toList();
+        }
+    }
+
+    @Nested
+    class replay {
+        @Test
+        void shouldRestoreWritesAfterRestart() throws Exception {
+            JournaledTodoRepository todos = open(FsyncPolicy.INTERVAL);
+            Todo kept = todos.save(new Todo(null, "Kept", "Survives a restart", false, null));
+            Todo deleted = todos.save(new Todo(null, "Deleted", "Removed before the restart", false, null));
+            todos.patch(kept.getId(), new Todo(null, "Kept and patched", null, true, null));
+            todos.deleteById(deleted.getId());
+
+            todos = reopen(FsyncPolicy.INTERVAL);
+
+            Todo restored = todos.findById(kept.getId()).orElseThrow();
+            assertEquals("Kept and patched", restored.getTitle());
+            assertEquals("Survives a restart", restored.getDescription());
+            assertTrue(restored.isCompleted());
+            assertEquals(1, restored.getVersion());
+            assertEquals(kept.getCreatedAt(), restored.getCreatedAt());
+            assertTrue(todos.findById(deleted.getId()).isEmpty());
+            assertEquals(1, todos.findByTitle("kept and patched").size());
+            assertTrue(todos.save(new Todo(null, "Next", "After the restart", false, null)).getId() > deleted.getId());
+        }
+
+        @Test
+        void shouldCutOffATornRecordAtTheEnd() throws Exception {
+            JournaledTodoRepository todos = open(FsyncPolicy.ALWAYS);
+            Todo intact = todos.save(new Todo(null, "Intact", "Fully written", false, null));
+            todos.save(new Todo(null, "Torn", "Half written when the process died", false, null));
+            repository.close();
+
+            Path segment = directory.resolve(files("segment-").get(0));
+            try (FileChannel channel = FileChannel.open(segment, WRITE)) {
+                channel.truncate(channel.size() - 5);
+            }
+            todos = open(FsyncPolicy.ALWAYS);
+
+            assertEquals(List.of(intact.getId()), todos.findAll().stream().map(Todo::getId).toList());
+        }
+    }
+
+    @Nested
+    class compaction {
+        @Test
+        void shouldReplaceCoveredSegmentsWithASnapshot() throws Exception {
+            JournaledTodoRepository todos = open(FsyncPolicy.INTERVAL);
+            IntStream.range(0, 100).forEach(i -> todos.save(new Todo(null, "Todo " + i, "Before the snapshot", false, null)));
+            todos.deleteById(1L);
+
+            repository.journal().compact();
+            todos.save(new Todo(null, "Later", "After the snapshot", false, null));
+
+            assertEquals(1, files("snapshot-").size());
+            assertEquals(1, files("segment-").size());
+            JournaledTodoRepository restored = reopen(FsyncPolicy.INTERVAL);
+            assertEquals(100, restored.findAll().size());
+            assertTrue(restored.findById(1L).isEmpty());
+            assertEquals(1, restored.findByTitle("Later").size());
+        }
+
+        @Test
+        void shouldDeleteTheLeftoversOfAnInterruptedSnapshot() throws Exception {
+            Files.writeString(directory.resolve("snapshot.tmp"), "partial");
+            Files.writeString(directory.resolve("snapshot.tmp.strings"), "partial");
+
+            open(FsyncPolicy.INTERVAL);
+
+            assertEquals(List.of(), files("snapshot.tmp"));
+        }
+
+        /**
+         * Every batch fills a segment, so the writer keeps requesting compactions while the compactor shuts down.
+         */
+        @Test
+        void shouldReleaseEveryWriterWhenClosedWhileCompacting() throws Exception {
+            JournaledTodoRepository todos = open(FsyncPolicy.ALWAYS, 1);
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            List<Future<RuntimeException>> writers = IntStream.range(0, 4)
+                .mapToObj(i -> executor.submit(() -> {
+                    try {
+                        while (true) {
+                            todos.save(new Todo(null, "Todo " + i, "Written while closing", false, null));
+                        }
+                    } catch (RuntimeException e) {
+                        return e;
+                    }
+                }))
+                .toList();
+            Thread.sleep(50);
+
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+                todos.close();
+                for (Future<RuntimeException> writer : writers) {
+                    writer.get();
+                }
+            });
+            executor.shutdown();
+        }
+    }
+
+    @Nested
+    class fsyncAlways {
+        @Test
+        void shouldKeepEveryConcurrentWrite() throws Exception {
+            JournaledTodoRepository todos = open(FsyncPolicy.ALWAYS);
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            List<Future<Todo>> saves = IntStream.range(0, 400)
+                .mapToObj(i -> executor.submit(() -> todos.save(new Todo(null, "Todo " + i, "Concurrent", false, null))))
+                .toList();
+            for (Future<Todo> save : saves) {
+                save.get();
+            }
+            executor.shutdown();
+
+            assertEquals(400, reopen(FsyncPolicy.ALWAYS).findAll().size());
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.todolist.repository;
+
+import com.example.todolist.model.SearchMode;
+import com.example.todolist.model.Todo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class OffHeapTodoRepositoryTest {
+    static final int SLAB_BYTES = 64 * 1024;
+
+    OffHeapTodoRepository repository;
+
+
+    @BeforeEach
+    void setUp() {
+        repository = new OffHeapTodoRepository(SLAB_BYTES, 4L * SLAB_BYTES);
+    }
+
+    @Nested
+    class records {
+        @Test
+        void shouldRoundTripEveryField() {
+            Todo saved = repository.save(new Todo(null, "Café ☕", null, true, null));
+
+            Todo found = repository.findById(saved.getId()).orElseThrow();
+            assertEquals("Café ☕", found.getTitle());
+            assertNull(found.getDescription());
+            assertTrue(found.isCompleted());
+            assertEquals(saved.getCreatedAt(), found.getCreatedAt());
+            assertEquals(saved.getCreatedAt(), found.getUpdatedAt());
+            assertEquals(0L, found.getVersion());
+        }
+
+        @Test
+        void shouldMoveARecordThatOutgrowsItsBlock() {
+            Todo todo = repository.save(new Todo(null, "Short", "Short", false, null));
+            String longDescription = "x".repeat(5000);
+
+            repository.patch(todo.getId(), new Todo(null, null, longDescription, true, null));
+
+            Todo found = repository.findById(todo.getId()).orElseThrow();
+            assertEquals("Short", found.getTitle());
+            assertEquals(longDescription, found.getDescription());
+            assertEquals(1L, found.getVersion());
+        }
+
+        @Test
+        void shouldReuseTheBlocksOfDeletedRecords() {
+            List<Todo> saved = repository.saveAll(IntStream.range(0, 1000)
+                .mapToObj(i -> new Todo(null, "Title " + i, "Description", false, null))
+                .toList());
+            long reserved = repository.reservedBytes();
+            long used = repository.usedBytes();
+
+            saved.forEach(todo -> repository.deleteById(todo.getId()));
+            assertEquals(0, repository.usedBytes());
+            repository.saveAll(IntStream.range(0, 1000)
+                .mapToObj(i -> new Todo(null, "Title " + i, "Description", false, null))
+                .toList());
+
+            assertEquals(reserved, repository.reservedBytes());
+            assertEquals(used, repository.usedBytes());
+        }
+
+        @Test
+        void shouldRejectWritesPastTheCap() {
+            String description = "x".repeat(1000);
+            assertThrows(IllegalStateException.class, () -> {
+                for (int i = 0; i < 10_000; i++) {
+                    repository.save(new Todo(null, "Title", description, false, null));
+                }
+            });
+
+            assertEquals(4L * SLAB_BYTES, repository.reservedBytes());
+            Todo first = repository.findById(1L).orElseThrow();
+            assertTrue(repository.deleteById(first.getId()));
+            assertEquals("Fresh", repository.save(new Todo(null, "Fresh", description, false, null)).getTitle());
+        }
+    }
+
+    @Nested
+    class queries {
+        @Test
+        void shouldFindByTitleIgnoringCase() {
+            repository.save(new Todo(null, "Buy Milk", "Groceries", false, null));
+            repository.save(new Todo(null, "Buy bread", "Groceries", true, null));
+
+            assertEquals(1, repository.findByTitle("BUY MILK").size());
+            assertEquals(1, repository.findByCompleted(true).size());
+            assertEquals(1, repository.findByCompleted(false).size());
+        }
+
+        @Test
+        void shouldOnlyPatchTheExpectedVersion() {
+            Todo todo = repository.save(new Todo(null, "Title", "Description", false, null));
+
+            assertTrue(repository.patch(todo.getId(), new Todo(null, "Stale", null, false, null), 3L).isEmpty());
+            assertEquals(1L, repository.patch(todo.getId(), new Todo(null, "Fresh", null, false, null), 0L)
+                .orElseThrow().getVersion());
+        }
+
+        @Test
+        void shouldPageAroundDeletedIds() {
+            repository.saveAll(IntStream.range(0, 10)
+                .mapToObj(i -> new Todo(null, "Title " + i, "Description", false, null))
+                .toList());
+            repository.deleteAllById(List.of(3L, 4L, 5L));
+
+            assertEquals(List.of(6L, 7L), repository.findAllAfter(2L, 2).stream().map(Todo::getId).toList());
+            assertTrue(repository.findAllAfter(Long.MAX_VALUE, 10).isEmpty());
+            assertTrue(repository.findById(-1L).isEmpty());
+        }
+
+        @Test
+        void shouldRankSearchResults() {
+            Todo inDescription = repository.save(new Todo(null, "Groceries", "Buy milk and bread", false, null));
+            Todo inTitle = repository.save(new Todo(null, "Milk", "From the farm", false, null));
+
+            List<Todo> found = repository.search("milk", SearchMode.WORDS, 0, 10);
+
+            assertEquals(List.of(inTitle.getId(), inDescription.getId()), found.stream().map(Todo::getId).toList());
+        }
+    }
+
+    @Test
+    void shouldStayConsistentUnderParallelWriters() throws Exception {
+        repository = new OffHeapTodoRepository(1 << 20, 64L << 20);
+        for (int i = 0; i < 2000; i++) {
+            repository.save(new Todo(null, "Title " + i % 10, "Description", false, null));
+        }
+
+        TodoRepositoryInMemoryTest.runInParallel(thread -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 2000; i++) {
+                long id = random.nextLong(1, 2001);
+                switch (random.nextInt(4)) {
+                    case 0 -> repository.save(new Todo(null, "Title " + random.nextInt(10), "New", false, null));
+                    case 1 -> repository.deleteById(id);
+                    default -> repository.update(new Todo(id, "Title " + random.nextInt(10),
+                        "Updated ".repeat(random.nextInt(1, 20)), random.nextBoolean(), null));
+                }
+            }
+            return null;
+        });
+
+        List<Todo> all = repository.findAll();
+        assertEquals(all.size(), repository.findByCompleted(true).size() + repository.findByCompleted(false).size());
+        assertEquals(all.size(), IntStream.range(0, 10).map(i -> repository.findByTitle("Title " + i).size()).sum());
+    }
+}
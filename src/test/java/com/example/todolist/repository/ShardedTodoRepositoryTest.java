@@ -0,0 +1,298 @@
+package com.example.todolist.repository;
+
+import com.example.todolist.model.SearchMode;
+import com.example.todolist.model.Todo;
+import com.example.todolist.model.TodoQuery;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class ShardedTodoRepositoryTest {
+    static final int SHARDS = 3;
+
+    List<JdbcTodoRepository> shards;
+    ShardedTodoRepository repository;
+
+
+    @BeforeEach
+    void setUp() {
+        shards = IntStream.range(0, SHARDS).mapToObj(ShardedTodoRepositoryTest::embeddedShard).toList();
+        repository = new ShardedTodoRepository(shards, new SnowflakeIdGenerator(7), 128);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        repository.close();
+    }
+
+    @Nested
+    class ids {
+        @Test
+        void shouldStayUniqueAndIncreasingWhenTheClockStands() {
+            SnowflakeIdGenerator ids = new SnowflakeIdGenerator(5, () -> SnowflakeIdGenerator.EPOCH + 1_000);
+
+            long previous = 0;
+            for (int i = 0; i < 10_000; i++) {
+                long id = ids.nextId();
+                assertTrue(id > previous);
+                assertEquals(5, SnowflakeIdGenerator.workerOf(id));
+                previous = id;
+            }
+        }
+
+        @Test
+        void shouldRejectWorkerIdsOutsideTenBits() {
+            assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(1024));
+            assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1));
+        }
+    }
+
+    @Nested
+    class ring {
+        static final int IDS = 30_000;
+
+        @Test
+        void shouldSpreadIdsEvenly() {
+            ConsistentHashRing ring = new ConsistentHashRing(SHARDS, 128);
+            int[] counts = new int[SHARDS];
+            SnowflakeIdGenerator ids = new SnowflakeIdGenerator(0);
+            for (int i = 0; i < IDS; i++) {
+                counts[ring.shardOf(ids.nextId())]++;
+            }
+
+            for (int count : counts) {
+                assertTrue(Math.abs(count - IDS / SHARDS) < IDS / SHARDS / 5, "Uneven shard: " + count);
+            }
+        }
+
+        @Test
+        void shouldOnlyMoveIdsToAnAppendedShard() {
+            ConsistentHashRing before = new ConsistentHashRing(SHARDS, 128);
+            ConsistentHashRing after = new ConsistentHashRing(SHARDS + 1, 128);
+
+            long moved = 0;
+            for (long id = 1; id <= IDS; id++) {
+                if (before.shardOf(id) != after.shardOf(id)) {
+                    assertEquals(SHARDS, after.shardOf(id));
+                    moved++;
+                }
+            }
+            assertTrue(Math.abs(moved - IDS / (SHARDS + 1)) < IDS / (SHARDS + 1) / 5, "Moved: " + moved);
+        }
+    }
+
+    @Nested
+    class routing {
+        @Test
+        void shouldStoreEveryTodoOnTheShardOfItsId() {
+            for (int i = 0; i < 30; i++) {
+                Todo todo = repository.save(new Todo(null, "Task " + i, "Routed", false, null));
+
+                for (int shard = 0; shard < SHARDS; shard++) {
+                    assertEquals(shard == repository.shardOf(todo.getId()),
+                        shards.get(shard).findById(todo.getId()).isPresent());
+                }
+            }
+        }
+
+        @Test
+        void shouldReadUpdateAndDeleteThroughTheOwningShard() {
+            Todo todo = repository.save(new Todo(null, "Routed", "Description", false, null));
+
+            Todo patched = repository.patch(todo.getId(), new Todo(null, "Renamed", null, true, null)).orElseThrow();
+            assertEquals("Renamed", patched.getTitle());
+            assertEquals(1, patched.getVersion());
+            assertTrue(repository.patch(todo.getId(), new Todo(null, "Stale", null, true, null), 0L).isEmpty());
+
+            Todo updated = repository.update(new Todo(todo.getId(), "Replaced", "New", false, null));
+            assertEquals("Replaced", repository.findById(todo.getId()).orElseThrow().getTitle());
+            assertEquals(2, updated.getVersion());
+
+            assertTrue(repository.deleteById(todo.getId()));
+            assertTrue(repository.findById(todo.getId()).isEmpty());
+            assertFalse(repository.deleteById(todo.getId()));
+        }
+    }
+
+    @Nested
+    class scatterGather {
+        List<Todo> saved;
+
+        @BeforeEach
+        void fill() {
+            List<Todo> todos = new ArrayList<>();
+            for (int i = 0; i < 60; i++) {
+                todos.add(new Todo(null, i % 10 == 0 ? "Groceries" : "Task " + i, "Description " + i, i % 3 == 0,
+                    null));
+            }
+            saved = repository.saveAll(todos);
+        }
+
+        @Test
+        void shouldUseEveryShard() {
+            Set<Integer> used = new HashSet<>();
+            saved.forEach(todo -> used.add(repository.shardOf(todo.getId())));
+
+            assertEquals(SHARDS, used.size());
+            assertEquals(60, shards.stream().mapToInt(shard -> shard.findAll().size()).sum());
+        }
+
+        @Test
+        void shouldMergeListingsInIdOrder() {
+            List<Long> ids = saved.stream().map(Todo::getId).sorted().toList();
+
+            assertEquals(ids, ids(repository.findAll()));
+            assertEquals(ids.subList(10, 25), ids(repository.findAllAfter(ids.get(9), 15)));
+            assertEquals(ids.subList(0, 5),
+                repository.findVersionsAfter(null, 5).stream().map(version -> version.id()).toList());
+
+            List<Long> streamed = new ArrayList<>();
+            repository.streamAll(todo -> streamed.add(todo.getId()));
+            assertEquals(ids, streamed);
+        }
+
+        @Test
+        void shouldMergeLookupsInIdOrder() {
+            List<Long> groceries = saved.stream()
+                .filter(todo -> todo.getTitle().equals("Groceries"))
+                .map(Todo::getId)
+                .sorted()
+                .toList();
+            List<Long> completed = saved.stream().filter(Todo::isCompleted).map(Todo::getId).sorted().toList();
+
+            assertEquals(groceries, ids(repository.findByTitle("groceries")));
+            assertEquals(completed, ids(repository.findByCompleted(true)));
+            assertEquals(completed.size(), countCompletedIds());
+            assertEquals(60, repository.countAll(LocalDateTime.now().minusHours(1)).total());
+        }
+
+        @Test
+        void shouldReadIdsFromTheShardsThatOwnThem() {
+            List<Long> ids = saved.stream().map(Todo::getId).limit(20).toList();
+
+            List<Long> found = ids(repository.findAllById(LongStream.concat(
+                ids.stream().mapToLong(Long::longValue), LongStream.of(-1L)).boxed().toList()));
+            assertEquals(Set.copyOf(ids), Set.copyOf(found));
+            assertEquals(ids.size(), found.size());
+        }
+
+        @Test
+        void shouldMergeQueriesInTheirOwnOrder() {
+            TodoQuery query = new TodoQuery(false, null, "task", null, null,
+                List.of(TodoQuery.Sort.parse("title,desc")), 7);
+
+            List<Long> expected = saved.stream()
+                .filter(query::matches)
+                .sorted(query.comparator())
+                .limit(7)
+                .map(Todo::getId)
+                .toList();
+            assertEquals(expected, ids(repository.query(query)));
+            assertEquals(5, repository.search("groceries", SearchMode.WORDS, 1, 10).size());
+        }
+
+        @Test
+        void shouldRunQueriesOnEachShardAsSql() {
+            repository.save(new Todo(null, "100% done_now", "Wildcards", false, null));
+            repository.save(new Todo(null, "100 percent done yet", "Wildcards", false, null));
+            repository.patch(saved.get(3).getId(), new Todo(null, null, null, true, null));
+            saved = repository.findAll();
+            LocalDateTime from = saved.get(20).getCreatedAt();
+            LocalDateTime to = saved.get(40).getCreatedAt();
+
+            for (TodoQuery query : List.of(
+                new TodoQuery(null, "% done_", null, null, null, List.of(), 10),
+                new TodoQuery(true, null, "task 1", null, null, TodoQuery.Sort.parseAll(List.of("title")), 5),
+                new TodoQuery(false, null, null, from, to, TodoQuery.Sort.parseAll(List.of("createdAt,desc")), 8),
+                new TodoQuery(null, null, null, null, null, TodoQuery.Sort.parseAll(List.of("updatedAt,desc")), 4))) {
+                List<Long> expected = saved.stream()
+                    .filter(query::matches)
+                    .sorted(query.comparator())
+                    .limit(query.limit())
+                    .map(Todo::getId)
+                    .toList();
+                assertEquals(expected, ids(repository.query(query)), query.toString());
+                shards.forEach(shard -> assertTrue(shard.query(query).size() <= query.limit()));
+            }
+        }
+
+        /**
+         * A locale collation that skips spaces and punctuation sorts these differently from the merge.
+         */
+        @Test
+        void shouldMergeTitlesThatDifferOnlyInPunctuation() {
+            List<Todo> titled = repository.saveAll(Stream.of("a z", "ab", "a-c", "a.b", "A b", "a_a", "a,z", "aa")
+                .map(title -> new Todo(null, title, "Punctuation", false, null))
+                .toList());
+
+            for (String direction : List.of("asc", "desc")) {
+                TodoQuery query = new TodoQuery(null, null, "a", null, null,
+                    TodoQuery.Sort.parseAll(List.of("title," + direction)), 5);
+                List<Long> expected = titled.stream()
+                    .filter(query::matches)
+                    .sorted(query.comparator())
+                    .limit(query.limit())
+                    .map(Todo::getId)
+                    .toList();
+                assertEquals(expected, ids(repository.query(query)), direction);
+            }
+        }
+
+        @Test
+        void shouldApplyBatchesOnEveryShard() {
+            Map<Long, Todo> changes = new LinkedHashMap<>();
+            saved.subList(0, 10).forEach(todo -> changes.put(todo.getId(), new Todo(null, "Batch", null, true, null)));
+            changes.put(-1L, new Todo(null, "Missing", null, true, null));
+
+            assertEquals(saved.subList(0, 10).stream().map(Todo::getId).toList(),
+                List.copyOf(repository.patchAll(changes).keySet()));
+            assertEquals(10, repository.findByTitle("batch").size());
+
+            Set<Long> deleted = repository.deleteAllById(LongStream.concat(
+                saved.subList(0, 20).stream().mapToLong(Todo::getId), LongStream.of(-1L)).boxed().toList());
+            assertEquals(20, deleted.size());
+            assertEquals(40, repository.findAll().size());
+        }
+
+        long countCompletedIds() {
+            long[] count = {0};
+            repository.streamCompletedIds(id -> count[0]++);
+            return count[0];
+        }
+    }
+
+    static List<Long> ids(List<Todo> todos) {
+        return todos.stream().map(Todo::getId).toList();
+    }
+
+    static JdbcTodoRepository embeddedShard(int shard) {
+        DataSource dataSource = DataSourceBuilder.create()
+            .url("jdbc:h2:mem:shard-" + shard + "-" + System.nanoTime() + ";MODE=PostgreSQL")
+            .username("sa")
+            .password("")
+            .build();
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration/h2").load().migrate();
+        return new JdbcTodoRepository(dataSource, false);
+    }
+}
@@ -0,0 +1,320 @@
+package com.example.todolist.repository;
+
+import com.example.todolist.model.SearchMode;
+import com.example.todolist.model.Todo;
+import com.example.todolist.model.TodoQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class TodoRepositoryInMemoryTest {
+    static final int THREADS = 8;
+    static final int TODOS_PER_THREAD = 2_000;
+    static final int TITLES = 10;
+
+    TodoRepositoryInMemory todoRepositoryInMemory;
+
+
+    @BeforeEach
+    void setUp() {
+        todoRepositoryInMemory = new TodoRepositoryInMemory();
+    }
+
+    @Nested
+    class indexes {
+        @Test
+        void shouldFindByTitleIgnoringCase() {
+            todoRepositoryInMemory.save(new Todo(null, "Buy Milk", "Groceries", false, null));
+
+            assertEquals(1, todoRepositoryInMemory.findByTitle("buy milk").size());
+            assertEquals(1, todoRepositoryInMemory.findByTitle("BUY MILK").size());
+        }
+
+        @Test
+        void shouldMoveTodoBetweenIndexesOnUpdate() {
+            Todo todo = todoRepositoryInMemory.save(new Todo(null, "Old", "Description", false, null));
+
+            todoRepositoryInMemory.update(new Todo(todo.getId(), "New", "Description", true, null));
+
+            assertTrue(todoRepositoryInMemory.findByTitle("Old").isEmpty());
+            assertEquals(1, todoRepositoryInMemory.findByTitle("New").size());
+            assertTrue(todoRepositoryInMemory.findByCompleted(false).isEmpty());
+            assertEquals(1, todoRepositoryInMemory.findByCompleted(true).size());
+        }
+
+        @Test
+        void shouldNotExposeStoredInstances() {
+            Todo todo = todoRepositoryInMemory.save(new Todo(null, "Title", "Description", false, null));
+            Todo found = todoRepositoryInMemory.findById(todo.getId()).orElseThrow();
+            found.setTitle("Mutated");
+
+            assertNotSame(todo, found);
+            assertEquals("Title", todoRepositoryInMemory.findById(todo.getId()).orElseThrow().getTitle());
+        }
+    }
+
+    @Nested
+    class search {
+        @Test
+        void shouldRankTitleMatchesAboveDescriptionMatches() {
+            Todo inDescription = todoRepositoryInMemory.save(new Todo(null, "Groceries", "Buy milk and bread", false, null));
+            Todo inTitle = todoRepositoryInMemory.save(new Todo(null, "Milk", "From the farm", false, null));
+            todoRepositoryInMemory.save(new Todo(null, "Milkshake", "Not a whole word", false, null));
+
+            List<Todo> found = todoRepositoryInMemory.search("MILK", SearchMode.WORDS, 0, 10);
+
+            assertEquals(List.of(inTitle.getId(), inDescription.getId()), found.stream().map(Todo::getId).toList());
+        }
+
+        @Test
+        void shouldRequireEveryWord() {
+            todoRepositoryInMemory.save(new Todo(null, "Buy milk", "Groceries", false, null));
+            todoRepositoryInMemory.save(new Todo(null, "Buy bread", "Groceries", false, null));
+
+            assertEquals(1, todoRepositoryInMemory.search("milk, buy!", SearchMode.WORDS, 0, 10).size());
+        }
+
+        @Test
+        void shouldMatchWordPrefixes() {
+            todoRepositoryInMemory.save(new Todo(null, "Milkshake", "Dessert", false, null));
+            todoRepositoryInMemory.save(new Todo(null, "Buy bread", "Groceries", false, null));
+
+            assertEquals("Milkshake", todoRepositoryInMemory.search("mil", SearchMode.PREFIX, 0, 10).get(0).getTitle());
+            assertTrue(todoRepositoryInMemory.search("shake", SearchMode.PREFIX, 0, 10).isEmpty());
+        }
+
+        @Test
+        void shouldMatchSubstringsIgnoringCase() {
+            todoRepositoryInMemory.save(new Todo(null, "Milkshake", "Dessert", false, null));
+
+            assertEquals(1, todoRepositoryInMemory.search("SHAK", SearchMode.SUBSTRING, 0, 10).size());
+            assertEquals(1, todoRepositoryInMemory.search("ss", SearchMode.SUBSTRING, 0, 10).size());
+            assertTrue(todoRepositoryInMemory.search("shaken", SearchMode.SUBSTRING, 0, 10).isEmpty());
+        }
+
+        @Test
+        void shouldFollowUpdatesAndDeletes() {
+            Todo todo = todoRepositoryInMemory.save(new Todo(null, "Walk dog", "Park", false, null));
+
+            todoRepositoryInMemory.patch(todo.getId(), new Todo(null, "Feed cat", null, false, null));
+            assertTrue(todoRepositoryInMemory.search("dog", SearchMode.WORDS, 0, 10).isEmpty());
+            assertEquals(1, todoRepositoryInMemory.search("cat", SearchMode.WORDS, 0, 10).size());
+
+            todoRepositoryInMemory.deleteById(todo.getId());
+            assertTrue(todoRepositoryInMemory.search("cat", SearchMode.WORDS, 0, 10).isEmpty());
+            assertTrue(todoRepositoryInMemory.search("fee", SearchMode.SUBSTRING, 0, 10).isEmpty());
+        }
+
+        @Test
+        void shouldPageInRankOrder() {
+            for (int i = 0; i < 5; i++) {
+                todoRepositoryInMemory.save(new Todo(null, "Task " + i, "Same words", false, null));
+            }
+
+            List<Todo> page = todoRepositoryInMemory.search("same", SearchMode.WORDS, 2, 2);
+
+            assertEquals(List.of(3L, 4L), page.stream().map(Todo::getId).toList());
+        }
+    }
+
+    @Nested
+    class query {
+        static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+        @BeforeEach
+        void fill() {
+            for (long id = 1; id <= 1_000; id++) {
+                todoRepositoryInMemory.restore(new Todo(id, "Task " + id, "Same words", id % 100 == 0,
+                    START.plusMinutes(id), null, 0));
+            }
+        }
+
+        @Test
+        void shouldReturnWhatAFullScanReturns() {
+            List<TodoQuery> queries = List.of(
+                query(true, null, null, null, null, 20, "title,desc"),
+                query(null, "k 1", null, null, null, 15, "createdAt"),
+                query(false, null, "task 9", START.plusMinutes(950), null, 30, "updatedAt", "id,desc"),
+                query(null, null, null, START.plusMinutes(10), START.plusMinutes(20), 100, "createdAt,desc"),
+                query(null, null, null, null, null, 7, "id,desc"));
+
+            for (TodoQuery query : queries) {
+                List<Long> expected = todoRepositoryInMemory.findAll().stream()
+                    .filter(query::matches)
+                    .sorted(query.comparator())
+                    .limit(query.limit())
+                    .map(Todo::getId)
+                    .toList();
+                assertEquals(expected, ids(todoRepositoryInMemory.query(query)), query.toString());
+            }
+        }
+
+        @Test
+        void shouldPickTheMostSelectiveIndex() {
+            assertEquals("status", explain(query(true, null, null, null, null, 100, "id")));
+            assertEquals("titlePrefix", explain(query(false, null, "task 99", null, null, 5, "title")));
+            assertEquals("titleContains", explain(query(null, "123", null, null, null, 5, "title")));
+            assertEquals("createdAt", explain(
+                query(null, null, null, START.plusMinutes(500), START.plusMinutes(505), 50, "id")));
+        }
+
+        @Test
+        void shouldStopEarlyOnAnIndexInTheRequestedOrder() {
+            assertEquals("createdAt", explain(query(null, null, null, null, null, 10, "createdAt,desc")));
+            assertEquals("scan", explain(query(null, null, null, null, null, 10, "id,desc")));
+            assertEquals(List.of(1_000L, 999L, 998L),
+                ids(todoRepositoryInMemory.query(query(null, null, null, null, null, 3, "createdAt,desc"))));
+        }
+
+        @Test
+        void shouldLeaveTodosWithoutCreationTimeOutOfRangesAndSortThemLast() {
+            todoRepositoryInMemory.restore(new Todo(1_001L, "Task 1001", "Same words", false, null, null, 0));
+
+            assertTrue(ids(todoRepositoryInMemory.query(query(null, "1001", null, START, null, 10, "id")))
+                .isEmpty());
+            assertEquals(List.of(100L, 1_000L, 1_001L),
+                ids(todoRepositoryInMemory.query(query(null, "100", null, null, null, 10, "createdAt"))));
+            assertEquals(List.of(1_000L, 100L, 1_001L),
+                ids(todoRepositoryInMemory.query(query(null, "100", null, null, null, 10, "createdAt,desc"))));
+        }
+
+        @Test
+        void shouldFollowUpdatesAndDeletes() {
+            todoRepositoryInMemory.patch(5L, new Todo(null, "Renamed", null, false, null));
+            todoRepositoryInMemory.deleteById(6L);
+
+            assertEquals(List.of(5L),
+                ids(todoRepositoryInMemory.query(query(null, null, "ren", null, null, 10, "id"))));
+            assertEquals(List.of(4L, 5L, 7L), ids(todoRepositoryInMemory.query(
+                query(null, null, null, START.plusMinutes(4), START.plusMinutes(8), 10, "createdAt"))));
+        }
+
+        String explain(TodoQuery query) {
+            return todoRepositoryInMemory.explain(query);
+        }
+
+        static TodoQuery query(Boolean completed, String titleContains, String titlePrefix, LocalDateTime from,
+                               LocalDateTime to, int limit, String... sort) {
+            return new TodoQuery(completed, titleContains, titlePrefix, from, to,
+                Arrays.stream(sort).map(TodoQuery.Sort::parse).toList(), limit);
+        }
+
+        static List<Long> ids(List<Todo> todos) {
+            return todos.stream().map(Todo::getId).toList();
+        }
+    }
+
+    @Nested
+    class concurrency {
+        @Test
+        void shouldHandOutUniqueIdsUnderParallelSaves() throws Exception {
+            List<List<Long>> idsPerThread = runInParallel(thread -> {
+                List<Long> ids = new ArrayList<>();
+                for (int i = 0; i < TODOS_PER_THREAD; i++) {
+                    ids.add(todoRepositoryInMemory.save(newTodo(i)).getId());
+                }
+                return ids;
+            });
+
+            Set<Long> ids = new HashSet<>();
+            idsPerThread.forEach(ids::addAll);
+
+            assertEquals(THREADS * TODOS_PER_THREAD, ids.size());
+            assertEquals(THREADS * TODOS_PER_THREAD, todoRepositoryInMemory.findAll().size());
+            assertIndexesConsistent();
+        }
+
+        @Test
+        void shouldKeepIndexesConsistentUnderParallelWriters() throws Exception {
+            for (int i = 0; i < THREADS * TODOS_PER_THREAD / 4; i++) {
+                todoRepositoryInMemory.save(newTodo(i));
+            }
+            long maxId = THREADS * TODOS_PER_THREAD / 4;
+
+            runInParallel(thread -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < TODOS_PER_THREAD; i++) {
+                    long id = random.nextLong(1, maxId + 1);
+                    switch (random.nextInt(4)) {
+                        case 0 -> todoRepositoryInMemory.save(newTodo(i));
+                        case 1 -> todoRepositoryInMemory.deleteById(id);
+                        default -> todoRepositoryInMemory.update(
+                            new Todo(id, "Title " + random.nextInt(TITLES), "Updated", random.nextBoolean(), null));
+                    }
+                }
+                return null;
+            });
+
+            assertIndexesConsistent();
+        }
+    }
+
+    void assertIndexesConsistent() {
+        List<Todo> all = todoRepositoryInMemory.findAll();
+        List<Todo> completed = todoRepositoryInMemory.findByCompleted(true);
+        List<Todo> open = todoRepositoryInMemory.findByCompleted(false);
+
+        assertEquals(all.size(), completed.size() + open.size());
+        assertTrue(completed.stream().allMatch(Todo::isCompleted));
+        assertTrue(open.stream().noneMatch(Todo::isCompleted));
+
+        int byTitle = 0;
+        for (int i = 0; i < TITLES; i++) {
+            String title = "Title " + i;
+            List<Todo> matches = todoRepositoryInMemory.findByTitle(title);
+            assertTrue(matches.stream().allMatch(todo -> todo.getTitle().equals(title)));
+            byTitle += matches.size();
+        }
+        assertEquals(all.size(), byTitle);
+    }
+
+    static Todo newTodo(int i) {
+        return new Todo(null, "Title " + i % TITLES, "Description " + i, i % 3 == 0, null);
+    }
+
+    static <T> List<T> runInParallel(Task<T> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.run(thread);
+                }));
+            }
+            start.countDown();
+
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    interface Task<T> {
+        T run(int thread) throws Exception;
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.todolist.repository;
+
+import com.example.todolist.model.TodoQuery;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+
+/**
+ * Runs {@code EXPLAIN} on the SQL the JPA repository actually sends and checks which index serves it. By default this
+ * runs against the embedded H2 database, which only has the plain composite index. Point it at PostgreSQL to check the
+ * production indexes:
+ * {@code mvn test -Dtest=TodoRepositoryQueryPlanTest -Dspring.datasource.url=jdbc:postgresql://localhost:5432/todolist_test
+ * -Dspring.datasource.driver-class-name=org.postgresql.Driver -Dspring.datasource.username=postgres
+ * -Dspring.datasource.password=... -Dspring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect}
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+    + "com.example.todolist.repository.TodoRepositoryQueryPlanTest$SqlRecorder")
+class TodoRepositoryQueryPlanTest {
+    @Autowired
+    TodoRepository todoRepository;
+    @Autowired
+    DataSource dataSource;
+
+    boolean postgres;
+
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            postgres = connection.getMetaData().getDatabaseProductName().equalsIgnoreCase("PostgreSQL");
+        }
+    }
+
+    @Test
+    void shouldFindTitlesThroughTheLowerTitleIndex() throws SQLException {
+        assumeTrue(postgres, "H2 cannot index expressions");
+
+        String plan = explain(() -> todoRepository.findByTitle("Title"), "Title");
+
+        assertUses("todos_title_lower_idx", plan);
+    }
+
+    @Test
+    void shouldFindOpenTodosThroughTheOpenIndex() throws SQLException {
+        String plan = explain(() -> todoRepository.findByCompleted(false));
+
+        assertUses(postgres ? "todos_open_idx" : "todos_completed_idx", plan);
+    }
+
+    @Test
+    void shouldFindCompletedTodosThroughTheStatusIndex() throws SQLException {
+        assumeTrue(!postgres, "only open todos are indexed on PostgreSQL");
+
+        String plan = explain(() -> todoRepository.findByCompleted(true));
+
+        assertUses("todos_completed_idx", plan);
+    }
+
+    @Test
+    void shouldPageThroughThePrimaryKeyInIdOrder() throws SQLException {
+        String plan = explain(() -> todoRepository.findAllAfter(10L, 50), 10L, 50);
+
+        assertUses(postgres ? "todos_pkey" : "primary_key", plan);
+        if (!postgres) {
+            assertTrue(plan.contains("index sorted"), plan);
+        }
+    }
+
+    @Test
+    void shouldQueryCreationRangesThroughTheCreatedAtIndex() throws SQLException {
+        LocalDateTime from = LocalDateTime.now().minusDays(1);
+        LocalDateTime to = LocalDateTime.now();
+        TodoQuery query = new TodoQuery(null, null, null, from, to,
+            List.of(new TodoQuery.Sort(TodoQuery.Field.CREATED_AT, false)), 10);
+
+        String plan = explain(() -> todoRepository.query(query), from, to, 10);
+
+        assertUses("todos_created_at_idx", plan);
+    }
+
+    @Test
+    void shouldQueryTitlePrefixesThroughThePrefixIndex() throws SQLException {
+        assumeTrue(postgres, "H2 cannot index expressions");
+        TodoQuery query = new TodoQuery(null, null, "tit", null, null, List.of(), 10);
+
+        String plan = explain(() -> todoRepository.query(query), "tit%", 10);
+
+        assertUses("todos_title_prefix_idx", plan);
+    }
+
+    void assertUses(String index, String plan) {
+        assertTrue(plan.contains(index), () -> "expected " + index + " in plan:\n" + plan);
+    }
+
+    /**
+     * Runs the query, then explains the last statement Hibernate sent with the given parameters. Sequential scans
+     * are disabled on PostgreSQL because on a near-empty table they always win.
+     */
+    String explain(Runnable query, Object... parameters) throws SQLException {
+        SqlRecorder.STATEMENTS.clear();
+        query.run();
+        String sql = SqlRecorder.STATEMENTS.get(SqlRecorder.STATEMENTS.size() - 1);
+
+        try (Connection connection = dataSource.getConnection()) {
+            if (postgres) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("set enable_seqscan = off");
+                }
+            }
+
+            StringBuilder plan = new StringBuilder();
+            try (PreparedStatement statement = connection.prepareStatement("explain " + sql)) {
+                for (int i = 0; i < parameters.length; i++) {
+                    statement.setObject(i + 1, parameters[i]);
+                }
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        plan.append(rows.getString(1)).append('\n');
+                    }
+                }
+            } finally {
+                if (postgres) {
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute("reset enable_seqscan");
+                    }
+                }
+            }
+            return plan.toString().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    public static class SqlRecorder implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.todolist.repository;
+
+import com.example.todolist.model.SearchMode;
+import com.example.todolist.model.Todo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Runs the native search statements of {@link TodoRepository} on the configured database (H2 by default, see
+ * {@link TodoRepositoryQueryPlanTest} for pointing it at PostgreSQL).
+ */
+@SpringBootTest
+class TodoRepositorySearchTest {
+    @Autowired
+    TodoRepository todoRepository;
+
+    Todo inTitle;
+    Todo inDescription;
+
+
+    @BeforeEach
+    void setUp() {
+        inDescription = todoRepository.save(new Todo(null, "Zebra care", "Brush the quagga_50% coat", false, null));
+        inTitle = todoRepository.save(new Todo(null, "Quagga", "Extinct zebra", false, null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        todoRepository.deleteAllById(List.of(inTitle.getId(), inDescription.getId()));
+    }
+
+    @Test
+    void shouldRankWordMatchesInTheTitleFirst() {
+        assertEquals(List.of(inTitle.getId(), inDescription.getId()), ids(todoRepository.search("QUAGGA", SearchMode.WORDS, 0, 10)));
+    }
+
+    @Test
+    void shouldMatchPrefixesOfEveryWord() {
+        assertEquals(List.of(inDescription.getId()), ids(todoRepository.search("zeb car", SearchMode.PREFIX, 0, 10)));
+        assertTrue(todoRepository.search("ebra", SearchMode.PREFIX, 0, 10).isEmpty());
+    }
+
+    @Test
+    void shouldMatchSubstringsLiterally() {
+        assertEquals(List.of(inDescription.getId()), ids(todoRepository.search("a_50%", SearchMode.SUBSTRING, 0, 10)));
+        assertTrue(todoRepository.search("a_5%0", SearchMode.SUBSTRING, 0, 10).isEmpty());
+    }
+
+    @Test
+    void shouldPage() {
+        assertEquals(List.of(inTitle.getId()), ids(todoRepository.search("zebra", SearchMode.SUBSTRING, 1, 10)));
+    }
+
+    static List<Long> ids(List<Todo> todos) {
+        return todos.stream().map(Todo::getId).toList();
+    }
+}
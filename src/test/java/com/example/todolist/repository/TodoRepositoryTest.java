@@ -0,0 +1,116 @@
+package com.example.todolist.repository;
+
+import com.example.todolist.model.Todo;
+import com.example.todolist.model.TodoQuery;
+import com.example.todolist.model.TodoVersion;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+@SpringBootTest
+class TodoRepositoryTest {
+    @Autowired
+    TodoRepository todoRepository;
+    @Autowired
+    EntityManager entityManager;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    Todo todo;
+
+
+    @BeforeEach
+    void setUp() {
+        todo = todoRepository.save(new Todo(null, "Versioned", "Description", false, null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        todoRepository.deleteById(todo.getId());
+    }
+
+    @Nested
+    class versions {
+        @Test
+        void shouldBumpTheVersionOnEveryPatch() {
+            Todo patched = todoRepository.patch(todo.getId(), new Todo(null, "Renamed", null, true, null)).orElseThrow();
+
+            assertEquals(todo.getVersion() + 1, patched.getVersion());
+            assertEquals("Description", patched.getDescription());
+            assertNotNull(patched.getUpdatedAt());
+        }
+
+        @Test
+        void shouldOnlyPatchTheExpectedVersion() {
+            Todo changes = new Todo(null, "Renamed", null, true, null);
+
+            assertTrue(todoRepository.patch(todo.getId(), changes, todo.getVersion() + 1).isEmpty());
+            assertEquals("Versioned", todoRepository.findById(todo.getId()).orElseThrow().getTitle());
+            assertTrue(todoRepository.patch(todo.getId(), changes, todo.getVersion()).isPresent());
+        }
+
+        @Test
+        void shouldListVersionsWithoutLoadingTodos() {
+            List<TodoVersion> versions = todoRepository.findVersionsAfter(todo.getId() - 1, 1);
+
+            assertEquals(List.of(new TodoVersion(todo.getId(), todo.getVersion())), versions);
+        }
+    }
+
+    @Nested
+    class projections {
+        @Test
+        @Transactional
+        void shouldListTodosOutsideThePersistenceContext() {
+            List<Todo> listed = List.of(
+                todoRepository.findAllAfter(todo.getId() - 1, 1).get(0),
+                todoRepository.findByCompleted(false).stream().filter(t -> t.getId().equals(todo.getId())).findFirst().orElseThrow(),
+                todoRepository.findAllById(List.of(todo.getId())).get(0));
+
+            for (Todo view : listed) {
+                assertEquals(todo.getTitle(), view.getTitle());
+                assertEquals(todo.getVersion(), view.getVersion());
+                assertFalse(entityManager.contains(view));
+            }
+        }
+    }
+
+    @Nested
+    class queries {
+        /**
+         * Rows written before V4 may still have no {@code updated_at}; H2 sorts them first ascending and PostgreSQL
+         * first descending unless the query says otherwise.
+         */
+        @Test
+        void shouldSortMissingUpdatesLastInEitherDirection() {
+            Todo updated = todoRepository.patch(todo.getId(), new Todo(null, "Sorted", null, false, null)).orElseThrow();
+            Todo old = todoRepository.save(new Todo(null, "Sorted", "Never updated", false, null));
+            jdbcTemplate.update("update todos set updated_at = null where id = ?", old.getId());
+            try {
+                for (String direction : List.of("asc", "desc")) {
+                    TodoQuery query = new TodoQuery(null, null, "sorted", null, null,
+                        TodoQuery.Sort.parseAll(List.of("updatedAt," + direction)), 10);
+
+                    assertEquals(List.of(updated.getId(), old.getId()),
+                        todoRepository.query(query).stream().map(Todo::getId).toList(), direction);
+                }
+            } finally {
+                todoRepository.deleteById(old.getId());
+            }
+        }
+    }
+}
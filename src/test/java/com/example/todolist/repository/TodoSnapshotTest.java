@@ -0,0 +1,83 @@
+package com.example.todolist.repository;
+
+import com.example.todolist.model.SearchMode;
+import com.example.todolist.model.Todo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class TodoSnapshotTest {
+    @TempDir
+    Path directory;
+
+
+    @Test
+    void shouldLoadEveryFieldAndRebuildTheIndexes() throws IOException {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_789);
+        List<Todo> todos = List.of(
+            new Todo(3L, "Café ☕", "Ünïcödé description", true, createdAt, createdAt.plusDays(1), 7L),
+            new Todo(5L, null, null, false, null, null, 0L));
+        Path file = directory.resolve("snapshot.bin");
+
+        assertEquals(2, TodoSnapshot.write(file, 42L, todos::forEach));
+        TodoRepositoryInMemory memory = new TodoRepositoryInMemory();
+        long nextId = TodoSnapshot.load(file, memory);
+
+        assertEquals(42L, nextId);
+        Todo first = memory.findById(3L).orElseThrow();
+        assertEquals("Café ☕", first.getTitle());
+        assertEquals("Ünïcödé description", first.getDescription());
+        assertTrue(first.isCompleted());
+        assertEquals(createdAt, first.getCreatedAt());
+        assertEquals(createdAt.plusDays(1), first.getUpdatedAt());
+        assertEquals(7L, first.getVersion());
+        Todo second = memory.findById(5L).orElseThrow();
+        assertNull(second.getTitle());
+        assertNull(second.getCreatedAt());
+        assertEquals(1, memory.findByTitle("CAFÉ ☕").size());
+        assertEquals(1, memory.findByCompleted(false).size());
+        assertEquals(1, memory.search("café", SearchMode.WORDS, 0, 10).size());
+        memory.searchIndexBuilt().join();
+        assertEquals(1, memory.search("descr", SearchMode.PREFIX, 0, 10).size());
+        assertEquals(6L, memory.save(new Todo(null, "Next", "After loading", false, null)).getId());
+    }
+
+    @Test
+    void shouldLoadAnEmptySnapshot() throws IOException {
+        Path file = directory.resolve("empty.bin");
+        TodoSnapshot.write(file, 1L, consumer -> {
+        });
+
+        TodoRepositoryInMemory memory = new TodoRepositoryInMemory();
+        TodoSnapshot.load(file, memory);
+
+        assertTrue(memory.findAll().isEmpty());
+    }
+
+    @Test
+    void shouldRejectATruncatedSnapshot() throws IOException {
+        Path file = directory.resolve("truncated.bin");
+        List<Todo> todos = IntStream.rangeClosed(1, 100)
+            .mapToObj(i -> new Todo((long) i, "Title " + i, "Description " + i, false, LocalDateTime.now()))
+            .toList();
+        TodoSnapshot.write(file, 101L, todos::forEach);
+        try (FileChannel channel = FileChannel.open(file, WRITE)) {
+            channel.truncate(channel.size() - 10);
+        }
+
+        assertThrows(IOException.class, () -> TodoSnapshot.load(file, new TodoRepositoryInMemory()));
+    }
+}
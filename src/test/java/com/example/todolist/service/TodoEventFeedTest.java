@@ -0,0 +1,167 @@
+package com.example.todolist.service;
+
+import com.example.todolist.config.FeedProperties;
+import com.example.todolist.model.Todo;
+import com.example.todolist.model.TodoEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class TodoEventFeedTest {
+    TodoEventFeed feed = new TodoEventFeed(new FeedProperties(8, 4, Duration.ofMinutes(1), 2, 1));
+
+
+    @AfterEach
+    void tearDown() {
+        feed.close();
+    }
+
+    static Todo todo(long id) {
+        return new Todo(id, "Title " + id, "Description " + id, false, null);
+    }
+
+    static class RecordingListener implements TodoEventFeed.Listener {
+        final BlockingQueue<TodoEvent> events = new LinkedBlockingQueue<>();
+        final CountDownLatch overflowed = new CountDownLatch(1);
+
+        @Override
+        public void onEvent(TodoEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void onOverflow() {
+            overflowed.countDown();
+        }
+
+        TodoEvent next() throws InterruptedException {
+            return events.poll(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Nested
+    class subscribe {
+        @Test
+        void shouldDeliverNewEventsInSequence() throws InterruptedException {
+            RecordingListener listener = new RecordingListener();
+            feed.subscribe(null, listener);
+
+            feed.publish(TodoEvent.created(todo(1)));
+            feed.publish(TodoEvent.updated(todo(1)));
+            feed.publish(TodoEvent.deleted(1L));
+
+            assertEquals(List.of(TodoEvent.Type.CREATED, TodoEvent.Type.UPDATED, TodoEvent.Type.DELETED),
+                List.of(listener.next().type(), listener.next().type(), listener.next().type()));
+        }
+
+        @Test
+        void shouldResumeAfterTheLastEventId() throws InterruptedException {
+            feed.publish(TodoEvent.created(todo(1)));
+            TodoEvent seen = new TodoEvent(1, TodoEvent.Type.CREATED, 1L, null);
+            feed.publish(TodoEvent.created(todo(2)));
+            feed.publish(TodoEvent.created(todo(3)));
+
+            RecordingListener listener = new RecordingListener();
+            feed.subscribe(feed.eventId(seen), listener);
+
+            assertEquals(2L, listener.next().id());
+            assertEquals(3L, listener.next().id());
+            assertNull(listener.events.poll(100, TimeUnit.MILLISECONDS));
+        }
+
+        @Test
+        void shouldResetWhenTheLastEventIdCannotBeReplayed() throws InterruptedException {
+            for (long id = 1; id <= 10; id++) {
+                feed.publish(TodoEvent.created(todo(id)));
+            }
+
+            RecordingListener outOfRange = new RecordingListener();
+            feed.subscribe(feed.eventId(new TodoEvent(1, TodoEvent.Type.CREATED, 1L, null)), outOfRange);
+            RecordingListener otherProcess = new RecordingListener();
+            feed.subscribe("0-5", otherProcess);
+
+            TodoEvent reset = outOfRange.next();
+            assertEquals(TodoEvent.Type.RESET, reset.type());
+            assertEquals(10, reset.sequence());
+            assertEquals(TodoEvent.Type.RESET, otherProcess.next().type());
+        }
+    }
+
+    @Nested
+    class backpressure {
+        @Test
+        void shouldDropASubscriberThatFallsBehind() throws InterruptedException {
+            CountDownLatch release = new CountDownLatch(1);
+            RecordingListener listener = new RecordingListener() {
+                @Override
+                public void onEvent(TodoEvent event) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    super.onEvent(event);
+                }
+            };
+            feed.subscribe(null, listener);
+
+            for (long id = 1; id <= 20; id++) {
+                feed.publish(TodoEvent.created(todo(id)));
+            }
+            release.countDown();
+
+            assertTrue(listener.overflowed.await(5, TimeUnit.SECONDS));
+            assertEquals(0, feed.subscriberCount());
+            assertTrue(listener.events.size() <= 5, () -> listener.events.size() + " events delivered");
+        }
+
+        @Test
+        void shouldRefuseSubscribersBeyondTheMaximum() {
+            TodoEventFeed.Subscription first = feed.subscribe(null, new RecordingListener()).orElseThrow();
+            assertTrue(feed.subscribe(null, new RecordingListener()).isPresent());
+
+            assertTrue(feed.subscribe(null, new RecordingListener()).isEmpty());
+            first.cancel();
+            assertTrue(feed.subscribe(null, new RecordingListener()).isPresent());
+        }
+
+        @Test
+        void shouldSendToEverySubscriberFromTheSenderPool() throws InterruptedException {
+            Set<String> threads = ConcurrentHashMap.newKeySet();
+            List<RecordingListener> listeners = List.of(new RecordingListener(), new RecordingListener());
+            for (RecordingListener listener : listeners) {
+                feed.subscribe(null, new RecordingListener() {
+                    @Override
+                    public void onEvent(TodoEvent event) {
+                        threads.add(Thread.currentThread().getName());
+                        listener.onEvent(event);
+                    }
+                });
+            }
+
+            for (long id = 1; id <= 3; id++) {
+                feed.publish(TodoEvent.created(todo(id)));
+            }
+
+            for (RecordingListener listener : listeners) {
+                assertEquals(List.of(1L, 2L, 3L),
+                    List.of(listener.next().id(), listener.next().id(), listener.next().id()));
+            }
+            assertEquals(Set.of("todo-feed-1"), threads);
+        }
+    }
+}
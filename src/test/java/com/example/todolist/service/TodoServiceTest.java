@@ -1,20 +1,36 @@
 package com.example.todolist.service;
 
+import com.example.todolist.config.CoalescingProperties;
 import com.example.todolist.model.Todo;
+import com.example.todolist.model.TodoEvent;
 import com.example.todolist.repository.TodoRepository;
 import com.example.todolist.repository.TodoRepositoryInMemory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -25,6 +41,8 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 
@@ -32,22 +50,19 @@ import static org.mockito.Mockito.when;
 class TodoServiceTest {
     @Mock
     TodoRepository todoRepository;
-    @InjectMocks
+    @Mock
+    ApplicationEventPublisher events;
     TodoService todoService;
     TodoRepositoryInMemory todoRepositoryInMemory;
 
 
     @BeforeEach
     void setUp() {
+        todoService = new TodoService(todoRepository, events);
         todoRepositoryInMemory = new TodoRepositoryInMemory();
         todoRepositoryInMemory.generateTodos();
     }
 
-    @AfterEach
-    void clean() {
-        TodoRepositoryInMemory.getTodoList().clear();
-    }
-
     @Nested
     class getAllTodos {
         @Test
@@ -69,7 +84,7 @@ class TodoServiceTest {
 
         @Test
         void shouldReturnAEmptyListWhenThereNoTodo() {
-            TodoRepositoryInMemory.getTodoList().clear();
+            todoRepositoryInMemory.clear();
             when(todoRepository.findAll())
                 .thenReturn(todoRepositoryInMemory.findAll());
 
@@ -132,7 +147,7 @@ class TodoServiceTest {
 
         @Test
         void shouldReturnAEmptyListWhenNotFoundTitle() {
-            TodoRepositoryInMemory.getTodoList().clear();
+            todoRepositoryInMemory.clear();
             List<Todo> todoList = todoService.getByTitle("Test");
 
             assertNotNull(todoList);
@@ -171,7 +186,8 @@ class TodoServiceTest {
         @Test
         void shouldReturnAEmptyListWhenNotFoundTodo() {
             boolean completed = true;
-            TodoRepositoryInMemory.getTodoList().removeIf(Todo::isCompleted);
+            todoRepositoryInMemory.findByCompleted(true)
+                .forEach(todo -> todoRepositoryInMemory.deleteById(todo.getId()));
             when(todoRepository.findByCompleted(any(Boolean.class)))
                 .thenReturn(todoRepositoryInMemory.findByCompleted(completed));
 
@@ -193,6 +209,7 @@ class TodoServiceTest {
 
             assertNotNull(newTodo.getId());
             assertNotNull(newTodo.getCreatedAt());
+            verify(events).publishEvent(TodoEvent.created(newTodo));
         }
     }
 
@@ -217,10 +234,11 @@ class TodoServiceTest {
             Todo data = new Todo(null, title, description, true, LocalDateTime.now());
 
             doAnswer(invocation -> {
-                Todo dataTodo = invocation.getArgument(0);
-                return todoRepositoryInMemory.update(dataTodo);
+                Long idParam = invocation.getArgument(0);
+                Todo dataTodo = invocation.getArgument(1);
+                return todoRepositoryInMemory.patch(idParam, dataTodo);
             }).
-                when(todoRepository).update(any(Todo.class));
+                when(todoRepository).patch(any(Long.class), any(Todo.class));
             Todo updatedTodo = todoService.update(data, id);
 
             assertNotNull(updatedTodo);
@@ -229,6 +247,7 @@ class TodoServiceTest {
             assertTrue(updatedTodo.isCompleted());
             assertEquals(foundTodoId, updatedTodo.getId());
             assertEquals(foundTodoCreatedAt, updatedTodo.getCreatedAt());
+            verify(events).publishEvent(TodoEvent.updated(updatedTodo));
         }
 
         @Test
@@ -249,10 +268,11 @@ class TodoServiceTest {
             LocalDateTime originalFoundTodoCreatedAt = foundTodo.getCreatedAt();
 
             doAnswer(invocation -> {
-                Todo todoUpdate = invocation.getArgument(0);
-                return todoRepositoryInMemory.update(todoUpdate);
+                Long idParam = invocation.getArgument(0);
+                Todo todoUpdate = invocation.getArgument(1);
+                return todoRepositoryInMemory.patch(idParam, todoUpdate);
             }).
-                when(todoRepository).update(any(Todo.class));
+                when(todoRepository).patch(any(Long.class), any(Todo.class));
             Todo updatedTodo = todoService.update(data, id);
 
             assertNotNull(updatedTodo);
@@ -270,6 +290,7 @@ class TodoServiceTest {
             Todo updatedTodo = todoService.update(requestTodo, 999L);
 
             assertNull(updatedTodo, "Should return null if todo is not found");
+            verifyNoInteractions(events);
         }
     }
 
@@ -285,14 +306,14 @@ class TodoServiceTest {
 
             doAnswer(invocation -> {
                 Long idParam = invocation.getArgument(0);
-                todoRepositoryInMemory.deleteById(idParam);
-                return null;
+                return todoRepositoryInMemory.deleteById(idParam);
             }).when(todoRepository).deleteById(id);
 
             boolean delete = todoService.delete(id);
 
             assertTrue(delete);
             assertTrue(todoService.getById(id).isEmpty());
+            verify(events).publishEvent(TodoEvent.deleted(id));
         }
 
         @Test
@@ -301,13 +322,161 @@ class TodoServiceTest {
             lenient().doAnswer(invocation -> {
                 Long idParam = invocation.getArgument(0);
                 lenient();
-                todoRepositoryInMemory.deleteById(idParam);
-                return null;
+                return todoRepositoryInMemory.deleteById(idParam);
             }).when(todoRepository).deleteById(any(Long.class));
 
             boolean delete = todoService.delete(id);
 
             assertFalse(delete);
+            verifyNoInteractions(events);
+        }
+    }
+
+    @Nested
+    class coalescing {
+        static final int CALLERS = 8;
+
+        GatedRepository repository;
+        SimpleMeterRegistry meterRegistry;
+        ExecutorService callers;
+
+
+        @BeforeEach
+        void setUp() {
+            repository = new GatedRepository();
+            repository.generateTodos();
+            meterRegistry = new SimpleMeterRegistry();
+            callers = Executors.newFixedThreadPool(CALLERS + 1);
+        }
+
+        @AfterEach
+        void tearDown() {
+            repository.gate.countDown();
+            callers.shutdownNow();
+        }
+
+        @Test
+        void shouldShareOneRepositoryCallBetweenConcurrentLookups() throws Exception {
+            TodoService service = service(Duration.ZERO);
+            List<Future<List<Todo>>> lookups = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                lookups.add(callers.submit(() -> service.getByStatusCompleted(false)));
+            }
+            awaitCalls("status", "shared", CALLERS - 1);
+            repository.gate.countDown();
+
+            Set<Todo> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Future<List<Todo>> lookup : lookups) {
+                List<Todo> todos = lookup.get(10, TimeUnit.SECONDS);
+                assertEquals(List.of(1L, 3L), todos.stream().map(Todo::getId).toList());
+                distinct.addAll(todos);
+            }
+            assertEquals(1, repository.statusCalls.get());
+            assertEquals(2 * CALLERS, distinct.size());
+            assertEquals((CALLERS - 1.0) / CALLERS,
+                meterRegistry.get("todolist.coalescing.ratio").tag("lookup", "status").gauge().value());
+        }
+
+        @Test
+        void shouldReadConcurrentLookupsByIdWithOneQuery() throws Exception {
+            TodoService service = service(Duration.ofMinutes(1));
+            Future<Optional<Todo>> inFlight = callers.submit(() -> service.getById(-1L));
+            assertTrue(repository.entered.await(10, TimeUnit.SECONDS));
+            List<Future<Optional<Todo>>> lookups = new ArrayList<>();
+            for (long id = 1; id <= CALLERS; id++) {
+                long lookedUp = id;
+                lookups.add(callers.submit(() -> service.getById(lookedUp)));
+            }
+
+            for (int i = 0; i < CALLERS; i++) {
+                Optional<Todo> todo = lookups.get(i).get(10, TimeUnit.SECONDS);
+                assertEquals(i < 3 ? Optional.of(i + 1L) : Optional.empty(), todo.map(Todo::getId));
+            }
+            assertEquals(List.of(CALLERS), repository.batchSizes);
+            repository.gate.countDown();
+            assertTrue(inFlight.get(10, TimeUnit.SECONDS).isEmpty());
+            assertEquals(CALLERS + 1, meterRegistry.get("todolist.coalescing.batch.size").summary().totalAmount());
+        }
+
+        @Test
+        void shouldNotHoldALoneLookupById() throws Exception {
+            TodoService service = service(Duration.ofMinutes(1));
+            repository.gate.countDown();
+
+            assertEquals(Optional.of(1L), callers.submit(() -> service.getById(1L)).get(10, TimeUnit.SECONDS)
+                .map(Todo::getId));
+            assertEquals(1, repository.idCalls.get());
+            assertTrue(repository.batchSizes.isEmpty());
+        }
+
+        @Test
+        void shouldNotShareACallThatStartedBeforeAWrite() throws Exception {
+            TodoService service = service(Duration.ZERO);
+            Future<Optional<Todo>> before = callers.submit(() -> service.getById(1L));
+            assertTrue(repository.entered.await(10, TimeUnit.SECONDS));
+
+            service.update(new Todo(null, "Renamed", null, true, null), 1L);
+
+            assertEquals("Renamed", service.getById(1L).orElseThrow().getTitle());
+            repository.gate.countDown();
+            assertTrue(before.get(10, TimeUnit.SECONDS).isPresent());
+            assertEquals(2, repository.idCalls.get());
+        }
+
+        TodoService service(Duration batchWindow) {
+            return new TodoService(repository, events, new CoalescingProperties(true, batchWindow, CALLERS),
+                meterRegistry);
+        }
+
+        void awaitCalls(String lookup, String outcome, int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (meterRegistry.get("todolist.coalescing.calls").tags("lookup", lookup, "outcome", outcome)
+                .counter().count() < count) {
+                assertTrue(System.nanoTime() < deadline, "Lookups did not join the running call");
+                Thread.sleep(5);
+            }
+        }
+    }
+
+    /**
+     * Holds the first lookup by id or status at {@code gate} until the test opens it.
+     */
+    static class GatedRepository extends TodoRepositoryInMemory {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch gate = new CountDownLatch(1);
+        final AtomicInteger idCalls = new AtomicInteger();
+        final AtomicInteger statusCalls = new AtomicInteger();
+        final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+        @Override
+        public Optional<Todo> findById(Long id) {
+            if (idCalls.incrementAndGet() == 1) {
+                awaitGate();
+            }
+            return super.findById(id);
+        }
+
+        @Override
+        public List<Todo> findByCompleted(boolean completed) {
+            if (statusCalls.incrementAndGet() == 1) {
+                awaitGate();
+            }
+            return super.findByCompleted(completed);
+        }
+
+        @Override
+        public List<Todo> findAllById(Collection<Long> ids) {
+            batchSizes.add(ids.size());
+            return ids.stream().map(super::findById).flatMap(Optional::stream).toList();
+        }
+
+        void awaitGate() {
+            entered.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
         }
     }
 }
@@ -0,0 +1,142 @@
+package com.example.todolist.service;
+
+import com.example.todolist.config.StatsProperties;
+import com.example.todolist.model.Todo;
+import com.example.todolist.model.TodoEvent;
+import com.example.todolist.model.TodoStats;
+import com.example.todolist.repository.JdbcTodoRepository;
+import com.example.todolist.repository.ShardedTodoRepository;
+import com.example.todolist.repository.SnowflakeIdGenerator;
+import com.example.todolist.repository.TodoRepositoryInMemory;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+class TodoStatisticsTest {
+    TodoRepositoryInMemory repository;
+    TodoService todoService;
+    TodoStatistics statistics;
+
+
+    @BeforeEach
+    void setUp() {
+        repository = new TodoRepositoryInMemory();
+        todoService = new TodoService(repository, event -> statistics.record((TodoEvent) event));
+        statistics = new TodoStatistics(todoService, new StatsProperties(48, 30, Duration.ofMinutes(5)));
+    }
+
+    @Nested
+    class counters {
+        @Test
+        void shouldFollowEveryWrite() {
+            Todo open = todoService.save(new Todo(null, "Open", "Description", false, null));
+            Todo done = todoService.save(new Todo(null, "Done", "Description", true, null));
+            todoService.saveAll(java.util.List.of(new Todo(null, "Batch", "Description", false, null)));
+            assertCounts(3, 1);
+
+            todoService.update(new Todo(null, null, null, true, null), open.getId());
+            assertCounts(3, 2);
+
+            todoService.update(new Todo(null, "Still done", null, true, null), open.getId());
+            assertCounts(3, 2);
+
+            todoService.delete(done.getId());
+            assertCounts(2, 1);
+
+            todoService.updateAll(Map.of(open.getId(), new Todo(null, null, null, false, null)));
+            assertCounts(2, 0);
+        }
+
+        @Test
+        void shouldCountCreationsInTheCurrentHourAndDay() {
+            todoService.save(new Todo(null, "First", "Description", false, null));
+            todoService.save(new Todo(null, "Second", "Description", false, null));
+
+            TodoStats stats = statistics.snapshot();
+
+            assertEquals(48, stats.createdPerHour().size());
+            assertEquals(30, stats.createdPerDay().size());
+            TodoStats.Bucket thisHour = stats.createdPerHour().get(47);
+            assertEquals(LocalDateTime.now().truncatedTo(ChronoUnit.HOURS), thisHour.start());
+            assertEquals(2, thisHour.created());
+            TodoStats.Bucket today = stats.createdPerDay().get(29);
+            assertEquals(LocalDate.now().atStartOfDay(), today.start());
+            assertEquals(2, today.created());
+        }
+    }
+
+    @Test
+    void shouldReconcileWithTheRepository() {
+        todoService.save(new Todo(null, "Counted", "Description", true, null));
+        Todo missed = repository.save(new Todo(null, "Not seen", "Written around the service", true, null));
+        repository.save(new Todo(null, "Not seen either", "Written around the service", false, null));
+        assertCounts(1, 1);
+
+        statistics.reconcile();
+        assertCounts(3, 2);
+        assertEquals(3, statistics.snapshot().createdPerDay().get(29).created());
+
+        todoService.update(new Todo(null, null, null, false, null), missed.getId());
+        assertCounts(3, 1);
+    }
+
+    /**
+     * Snowflake ids of todos created in different milliseconds lie millions apart.
+     */
+    @Test
+    void shouldCountSparseIdsOfTheShardedRepository() throws Exception {
+        List<JdbcTodoRepository> shards = IntStream.range(0, 2).mapToObj(TodoStatisticsTest::embeddedShard).toList();
+        try (ShardedTodoRepository sharded = new ShardedTodoRepository(shards, new SnowflakeIdGenerator(3), 16)) {
+            todoService = new TodoService(sharded, event -> statistics.record((TodoEvent) event));
+            statistics = new TodoStatistics(todoService, new StatsProperties(48, 30, Duration.ofMinutes(5)));
+
+            List<Todo> done = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                done.add(todoService.save(new Todo(null, "Done " + i, "Description", true, null)));
+                Thread.sleep(1);
+            }
+            todoService.save(new Todo(null, "Open", "Description", false, null));
+            assertEquals(20, done.stream().map(todo -> todo.getId() >>> 22).distinct().count());
+            assertCounts(21, 20);
+
+            todoService.update(new Todo(null, null, null, false, null), done.get(0).getId());
+            todoService.delete(done.get(1).getId());
+            assertCounts(20, 18);
+
+            statistics.reconcile();
+            assertCounts(20, 18);
+        }
+    }
+
+    void assertCounts(long total, long completed) {
+        TodoStats stats = statistics.snapshot();
+        assertEquals(total, stats.total());
+        assertEquals(completed, stats.completed());
+        assertEquals(total - completed, stats.open());
+    }
+
+    static JdbcTodoRepository embeddedShard(int shard) {
+        DataSource dataSource = DataSourceBuilder.create()
+            .url("jdbc:h2:mem:stats-shard-" + shard + "-" + System.nanoTime() + ";MODE=PostgreSQL")
+            .username("sa")
+            .password("")
+            .build();
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration/h2").load().migrate();
+        return new JdbcTodoRepository(dataSource, false);
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.todolist.service;
+
+import com.example.todolist.config.TransferProperties;
+import com.example.todolist.model.ImportResult;
+import com.example.todolist.model.Todo;
+import com.example.todolist.model.TransferFormat;
+import com.example.todolist.repository.TodoRepositoryInMemory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class TodoTransferTest {
+    TodoRepositoryInMemory repository;
+    TodoTransfer transfer;
+
+
+    @BeforeEach
+    void setUp() {
+        repository = new TodoRepositoryInMemory();
+        transfer = transferTo(repository);
+    }
+
+    @ParameterizedTest
+    @EnumSource(TransferFormat.class)
+    void shouldImportWhatItExports(TransferFormat format) throws IOException {
+        repository.save(new Todo(null, "Plain", "Nothing to escape", true, null));
+        repository.save(new Todo(null, "Quoted, \"twice\"", "Two\r\nlines", false, null));
+        repository.save(new Todo(null, "Café ☕", "Não é ASCII", false, null));
+
+        TodoRepositoryInMemory target = new TodoRepositoryInMemory();
+        ImportResult result = transferTo(target).importFrom(format, new ByteArrayInputStream(export(format)));
+
+        assertEquals(3, result.imported());
+        assertEquals(0, result.rejected());
+        List<Todo> imported = target.findAll();
+        assertEquals(List.of("Plain", "Quoted, \"twice\"", "Café ☕"), imported.stream().map(Todo::getTitle).toList());
+        assertEquals("Two\r\nlines", imported.get(1).getDescription());
+        assertEquals("Não é ASCII", imported.get(2).getDescription());
+        assertEquals(List.of(true, false, false), imported.stream().map(Todo::isCompleted).toList());
+    }
+
+    @Nested
+    class csv {
+        @Test
+        void shouldWriteAHeaderAndQuoteOnlyWhereNeeded() throws IOException {
+            repository.save(new Todo(null, "Plain", "a,b", false, null));
+            repository.save(new Todo(null, "", null, false, null));
+
+            List<String> lines = new String(export(TransferFormat.CSV), UTF_8).lines().toList();
+
+            assertEquals("id,title,description,completed,createdAt,updatedAt,version", lines.get(0));
+            assertTrue(lines.get(1).startsWith("1,Plain,\"a,b\",false,"));
+            assertTrue(lines.get(2).startsWith("2,\"\",,false,"));
+        }
+
+        @Test
+        void shouldMatchColumnsByName() throws IOException {
+            ImportResult result = importCsv("""
+                completed,description,title
+                true,Second column,First
+                ,Defaults to open,Second
+                """);
+
+            assertEquals(2, result.imported());
+            Todo first = repository.findAll().get(0);
+            assertEquals("First", first.getTitle());
+            assertEquals("Second column", first.getDescription());
+            assertTrue(first.isCompleted());
+        }
+
+        @Test
+        void shouldRejectBadRowsAndKeepGoing() throws IOException {
+            ImportResult result = importCsv("""
+                title,description,completed
+                Valid,Saved,false
+                Too few,fields
+                Bad flag,Rejected,maybe
+                "Unclosed" quote,Rejected,false
+                ,Missing title,false
+
+                Also valid,Saved,true
+                """);
+
+            assertEquals(2, result.imported());
+            assertEquals(4, result.rejected());
+            assertEquals(List.of(1, 2, 3, 4), result.rejections().stream().map(r -> r.index()).toList());
+            assertEquals(List.of("Expected 3 fields, found 2"), result.rejections().get(0).errors());
+            assertEquals(List.of("Field completed must be true or false"), result.rejections().get(1).errors());
+            assertEquals(List.of("Unexpected character after a quoted field"), result.rejections().get(2).errors());
+            assertEquals(List.of("Field title is required"), result.rejections().get(3).errors());
+            assertEquals(List.of("Valid", "Also valid"), repository.findAll().stream().map(Todo::getTitle).toList());
+        }
+
+        @Test
+        void shouldReadAnEmptyBody() throws IOException {
+            ImportResult result = importCsv("");
+
+            assertEquals(0, result.imported());
+            assertTrue(repository.findAll().isEmpty());
+        }
+    }
+
+    @Nested
+    class ndjson {
+        @Test
+        void shouldRejectMalformedLinesAndIgnoreIds() throws IOException {
+            Todo existing = repository.save(new Todo(null, "Existing", "Kept", false, null));
+
+            ImportResult result = transfer.importFrom(TransferFormat.NDJSON, new ByteArrayInputStream("""
+                {"id": %d, "title": "New", "description": "Not an overwrite"}
+                {"title": "Broken",
+                null
+
+                {"title": "No description"}
+                """.formatted(existing.getId()).getBytes(UTF_8)));
+
+            assertEquals(1, result.imported());
+            assertEquals(3, result.rejected());
+            assertEquals(List.of("Malformed JSON"), result.rejections().get(0).errors());
+            assertEquals(List.of("Todo is required"), result.rejections().get(1).errors());
+            assertEquals("Existing", repository.findById(existing.getId()).orElseThrow().getTitle());
+            assertEquals(2, repository.findAll().size());
+        }
+    }
+
+    @Test
+    void shouldSaveInBatchesAndCapTheReportedRejections() throws IOException {
+        transfer = transferTo(repository, new TransferProperties(10, 7, 3));
+        StringBuilder csv = new StringBuilder("title,description\n");
+        IntStream.range(0, 25).forEach(i -> csv.append("Title ").append(i).append(",Description\n"));
+        IntStream.range(0, 5).forEach(i -> csv.append("Title only,\n"));
+
+        ImportResult result = importCsv(csv.toString());
+
+        assertEquals(25, result.imported());
+        assertEquals(5, result.rejected());
+        assertEquals(3, result.rejections().size());
+        assertEquals(25, repository.findAll().size());
+        assertNull(result.rejections().get(0).id());
+    }
+
+    ImportResult importCsv(String body) throws IOException {
+        return transfer.importFrom(TransferFormat.CSV, new ByteArrayInputStream(body.getBytes(UTF_8)));
+    }
+
+    byte[] export(TransferFormat format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        transfer.export(format, out);
+        return out.toByteArray();
+    }
+
+    static TodoTransfer transferTo(TodoRepositoryInMemory repository) {
+        return transferTo(repository, new TransferProperties(1000, 100_000, 100));
+    }
+
+    static TodoTransfer transferTo(TodoRepositoryInMemory repository, TransferProperties properties) {
+        TodoService todoService = new TodoService(repository, event -> {
+        });
+        return new TodoTransfer(todoService, Validation.buildDefaultValidatorFactory().getValidator(), properties,
+            Jackson2ObjectMapperBuilder.json().build(), new SimpleMeterRegistry());
+    }
+}